@@ -0,0 +1,55 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Benchmark comparing the throughput of atomic JSON saves with and without fsync.
+ * Usage: AtomicSaveBenchmark [corpus sizes...]
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class AtomicSaveBenchmark {
+    private static final int WARMUP_SAVES = 2;
+    private static final int MEASURED_SAVES = 5;
+
+    /**
+     * Main method running the benchmark.
+     * @param args The corpus sizes to benchmark (default 10k, 100k and 1M pairs).
+     * @throws IOException if the temp directory can't be created.
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("atomic-save-bench");
+        System.out.printf("%-10s %-8s %12s %12s %10s%n", "pairs", "mode", "ms/save", "saves/s", "MB/s");
+        for (int size : BenchmarkCorpus.sizes(args, 10_000, 100_000, 1_000_000)) {
+            SpellingTrainer trainer = new SpellingTrainer(BenchmarkCorpus.generate(size), null);
+            run(directory, trainer, size, "in-place", false, false);
+            run(directory, trainer, size, "no-fsync", true, false);
+            run(directory, trainer, size, "fsync", true, true);
+        }
+    }
+
+    /**
+     * Saves the trainer repeatedly and prints the measured throughput.
+     */
+    private static void run(Path directory, SpellingTrainer trainer, int size, String mode,
+                            boolean atomic, boolean fsync) throws IOException {
+        Path file = directory.resolve(mode + "-" + size + ".json");
+        JSONPersistence persistence = new JSONPersistence(file.toString());
+        persistence.setAtomicSave(atomic);
+        persistence.setForceToDisk(fsync);
+        persistence.setBackupCount(0);
+
+        for (int i = 0; i < WARMUP_SAVES; i++) {
+            persistence.saveData(trainer);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_SAVES; i++) {
+            persistence.saveData(trainer);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double megabytes = Files.size(file) * (double) MEASURED_SAVES / (1024 * 1024);
+        System.out.printf("%-10d %-8s %12.2f %12.2f %10.1f%n", size, mode,
+                seconds * 1000 / MEASURED_SAVES, MEASURED_SAVES / seconds, megabytes / seconds);
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,49 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helper class that generates word-picture pairs for benchmarks.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public final class BenchmarkCorpus {
+    private static final String[] HOSTS = {
+            "https://example.com/images/animals/",
+            "https://cdn.example.org/pictures/vehicles/",
+            "http://images.example.net:8080/food/"
+    };
+
+    private BenchmarkCorpus() {
+    }
+
+    /**
+     * Generates a list of distinct word-picture pairs.
+     * @param size The number of pairs.
+     * @return The generated pairs.
+     */
+    public static List<WordPicturePair> generate(int size) {
+        List<WordPicturePair> pairs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String word = "Word" + i;
+            pairs.add(new WordPicturePair(word, HOSTS[i % HOSTS.length] + word.toLowerCase() + ".jpg"));
+        }
+        return pairs;
+    }
+
+    /**
+     * Parses the corpus sizes given on the command line.
+     * @param args The command-line arguments.
+     * @param defaults The sizes used if no arguments are given.
+     * @return The corpus sizes.
+     */
+    public static int[] sizes(String[] args, int... defaults) {
+        if (args.length == 0) {
+            return defaults;
+        }
+        int[] sizes = new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i].replace("_", ""));
+        }
+        return sizes;
+    }
+}
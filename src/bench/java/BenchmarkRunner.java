@@ -0,0 +1,353 @@
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmark suite covering the hot paths of the trainer: word selection, guessing, word-picture pair construction
+ * (URL validation), statistics updates and JSON save/load.
+ * Every benchmark is warmed up, then measured in several timed iterations; the results, including the bytes
+ * allocated per operation, are printed and written as JSON so runs can be compared over time.
+ * <p>
+ * JMH can't be used here: it requires benchmarks in a named package, and those can't see the classes of the
+ * application, which live in the unnamed package.
+ * <p>
+ * Usage: BenchmarkRunner [--sizes 1000,1000000] [--include regex] [--warmup N] [--iterations N]
+ * [--iteration-millis N] [--out file] [--baseline file]
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class BenchmarkRunner {
+    private static final int[] DEFAULT_SIZES = {1_000, 100_000, 1_000_000, 10_000_000};
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final int warmupIterations;
+    private final int measuredIterations;
+    private final long iterationNanos;
+    private final Pattern include;
+    private final List<Result> results;
+    private long blackhole;
+
+    /**
+     * A single benchmarked operation. The returned value is consumed so the JIT can't remove the work.
+     */
+    @FunctionalInterface
+    interface Operation {
+        long run() throws Exception;
+    }
+
+    /**
+     * Measured result of one benchmark, serialized to the results file.
+     */
+    static final class Result {
+        String benchmark;
+        Integer size;
+        String unit;
+        double mean;
+        double error;
+        double min;
+        double max;
+        long operationsPerIteration;
+        int iterations;
+        double allocatedBytesPerOperation;
+    }
+
+    /**
+     * Content of a results file.
+     */
+    static final class Report {
+        String timestamp;
+        String jvm;
+        String os;
+        int processors;
+        long maxHeapBytes;
+        List<Result> results;
+    }
+
+    /**
+     * Constructor for the BenchmarkRunner class.
+     * @param warmupIterations The number of unmeasured iterations.
+     * @param measuredIterations The number of measured iterations.
+     * @param iterationMillis The minimum duration of an iteration.
+     * @param include Only benchmarks whose name matches are run.
+     */
+    public BenchmarkRunner(int warmupIterations, int measuredIterations, long iterationMillis, Pattern include) {
+        if (measuredIterations <= 0) {
+            throw new IllegalArgumentException("At least one measured iteration is required.");
+        }
+        this.warmupIterations = warmupIterations;
+        this.measuredIterations = measuredIterations;
+        this.iterationNanos = iterationMillis * 1_000_000;
+        this.include = include;
+        this.results = new ArrayList<>();
+    }
+
+    // Methods
+
+    /**
+     * Main method running the benchmark suite.
+     * @param args The options, see the class comment.
+     * @throws Exception if a benchmark fails or the results can't be written.
+     */
+    public static void main(String[] args) throws Exception {
+        int[] sizes = DEFAULT_SIZES;
+        String includeRegex = ".*";
+        int warmup = 3;
+        int iterations = 5;
+        long iterationMillis = 1000;
+        Path out = Paths.get("build", "bench-results",
+                "BenchmarkRunner-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        Path baseline = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--sizes":
+                    sizes = BenchmarkCorpus.sizes(args[i + 1].split(","));
+                    break;
+                case "--include":
+                    includeRegex = args[i + 1];
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--iterations":
+                    iterations = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--iteration-millis":
+                    iterationMillis = Long.parseLong(args[i + 1]);
+                    break;
+                case "--out":
+                    out = Paths.get(args[i + 1]);
+                    break;
+                case "--baseline":
+                    baseline = Paths.get(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        BenchmarkRunner runner = new BenchmarkRunner(warmup, iterations, iterationMillis, Pattern.compile(includeRegex));
+        System.out.printf("%-40s %10s %14s %12s %8s %12s%n", "benchmark", "size", "mean", "error", "unit", "B/op");
+        runner.runSizeIndependent();
+        Path directory = Files.createTempDirectory("benchmark-runner");
+        for (int size : sizes) {
+            runner.runCorpus(size, directory);
+        }
+        runner.writeReport(out);
+        System.out.println("Results written to " + out + " (checksum " + runner.blackhole + ")");
+        if (baseline != null) {
+            runner.compare(baseline);
+        }
+    }
+
+    /**
+     * Runs the benchmarks that don't depend on the corpus size.
+     */
+    private void runSizeIndependent() throws Exception {
+        String[] words = new String[1024];
+        String[] urls = new String[words.length];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = "Word" + i;
+            urls[i] = "https://example.com/images/animals/word" + i + ".jpg";
+        }
+        int[] counter = new int[1];
+        this.measure("WordPicturePair.new", null, "ns/op", () -> {
+            int i = counter[0]++ & (words.length - 1);
+            return new WordPicturePair(words[i], urls[i]).hashCode();
+        });
+
+        Statistics statistics = new Statistics();
+        this.measure("Statistics.increment", null, "ns/op", () -> {
+            if ((counter[0]++ & 3) != 0) {
+                statistics.incrementCorrectGuesses();
+            } else {
+                statistics.incrementIncorrectGuesses();
+            }
+            return statistics.getTotalGuesses();
+        });
+    }
+
+    /**
+     * Runs the benchmarks that work on a corpus of the given size.
+     */
+    private void runCorpus(int size, Path directory) throws Exception {
+        if (!this.anyIncluded("SpellingTrainer.selectRandomWordPair", "SpellingTrainer.guessWord",
+                "JSONPersistence.saveData", "JSONPersistence.loadData")) {
+            return;
+        }
+        List<WordPicturePair> corpus = BenchmarkCorpus.generate(size);
+        SpellingTrainer trainer = new SpellingTrainer(corpus, null);
+
+        this.measure("SpellingTrainer.selectRandomWordPair", size, "ns/op", () -> {
+            trainer.selectRandomWordPair();
+            return trainer.getCurrentWordPair().hashCode();
+        });
+
+        AnswerMatcher[] matchers = {
+                AnswerMatcher.EXACT,
+                new AnswerMatcher(AnswerMatcher.Mode.IGNORE_CASE, 0),
+                new AnswerMatcher(AnswerMatcher.Mode.NORMALIZED, 0),
+                new AnswerMatcher(AnswerMatcher.Mode.NORMALIZED, 2)
+        };
+        int[] counter = new int[1];
+        for (AnswerMatcher matcher : matchers) {
+            trainer.setAnswerMatcher(matcher);
+            String name = matcher == AnswerMatcher.EXACT ? "SpellingTrainer.guessWord"
+                    : "SpellingTrainer.guessWord[" + matcher.getMode() + "," + matcher.getMaxDistance() + "]";
+            this.measure(name, size, "ns/op", () -> {
+                // Every other guess is wrong, with about the length of the words so the edit distance is computed
+                String guess = (counter[0]++ & 1) == 0 ? trainer.getCurrentWordPair().getWord() : "Wordx12345";
+                return trainer.guessWord(guess) ? 1 : 0;
+            });
+        }
+        trainer.setAnswerMatcher(AnswerMatcher.EXACT);
+
+        Path file = directory.resolve("trainer-" + size + ".json");
+        JSONPersistence persistence = new JSONPersistence(file.toString());
+        persistence.setBackupCount(0);
+        this.measure("JSONPersistence.saveData", size, "ms/op", () -> {
+            persistence.saveData(trainer);
+            return 1;
+        });
+        persistence.saveData(trainer); // The file is needed for loading, even if saving wasn't measured
+        this.measure("JSONPersistence.loadData", size, "ms/op", () -> persistence.loadData().getWordPairs().size());
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Warms up and measures an operation. The number of operations per iteration is calibrated in the first
+     * warm-up iteration so that an iteration takes at least the configured time.
+     */
+    private void measure(String name, Integer size, String unit, Operation operation) throws Exception {
+        if (!this.include.matcher(name).find()) {
+            return;
+        }
+        long operations = this.calibrate(operation);
+        for (int i = 1; i < this.warmupIterations; i++) {
+            this.iteration(operation, operations);
+        }
+        double scale = "ms/op".equals(unit) ? 1e6 : 1.0;
+        double[] samples = new double[this.measuredIterations];
+        long allocatedBefore = ALLOCATIONS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = this.iteration(operation, operations) / (double) operations / scale;
+        }
+        long allocated = ALLOCATIONS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        Result result = new Result();
+        result.benchmark = name;
+        result.size = size;
+        result.unit = unit;
+        result.operationsPerIteration = operations;
+        result.iterations = samples.length;
+        result.allocatedBytesPerOperation = (double) allocated / (operations * samples.length);
+        result.min = Double.MAX_VALUE;
+        result.max = 0;
+        double sum = 0;
+        for (double sample : samples) {
+            sum += sample;
+            result.min = Math.min(result.min, sample);
+            result.max = Math.max(result.max, sample);
+        }
+        result.mean = sum / samples.length;
+        double squares = 0;
+        for (double sample : samples) {
+            squares += (sample - result.mean) * (sample - result.mean);
+        }
+        // Half width of the 99% confidence interval, like JMH's error column (normal approximation)
+        result.error = samples.length > 1 ? 2.576 * Math.sqrt(squares / (samples.length - 1) / samples.length) : 0;
+        this.results.add(result);
+        System.out.printf("%-40s %10s %14.3f %12.3f %8s %12.1f%n", name, size == null ? "-" : size.toString(),
+                result.mean, result.error, unit, result.allocatedBytesPerOperation);
+    }
+
+    /**
+     * Runs operations until the iteration time has passed and returns how many fit into it.
+     */
+    private long calibrate(Operation operation) throws Exception {
+        long operations = 0;
+        long start = System.nanoTime();
+        do {
+            this.blackhole += operation.run();
+            operations++;
+        } while (System.nanoTime() - start < this.iterationNanos);
+        return operations;
+    }
+
+    private long iteration(Operation operation, long operations) throws Exception {
+        long start = System.nanoTime();
+        for (long i = 0; i < operations; i++) {
+            this.blackhole += operation.run();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private boolean anyIncluded(String... names) {
+        for (String name : names) {
+            if (this.include.matcher(name).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Gson gson() {
+        return new GsonBuilder().setPrettyPrinting().create();
+    }
+
+    /**
+     * Writes all results together with a description of the environment.
+     */
+    private void writeReport(Path out) throws IOException {
+        Report report = new Report();
+        report.timestamp = Instant.now().toString();
+        report.jvm = System.getProperty("java.vm.name") + " " + System.getProperty("java.runtime.version");
+        report.os = System.getProperty("os.name") + " " + System.getProperty("os.arch");
+        report.processors = Runtime.getRuntime().availableProcessors();
+        report.maxHeapBytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax();
+        report.results = this.results;
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            gson().toJson(report, writer);
+        }
+    }
+
+    /**
+     * Prints the change of every result against a previous results file.
+     */
+    private void compare(Path baselineFile) throws IOException {
+        Report baseline;
+        try (Reader reader = Files.newBufferedReader(baselineFile, StandardCharsets.UTF_8)) {
+            baseline = gson().fromJson(reader, Report.class);
+        }
+        Map<String, Result> previous = new HashMap<>();
+        for (Result result : baseline.results) {
+            previous.put(result.benchmark + "@" + result.size, result);
+        }
+        System.out.println("Compared with " + baselineFile + " (" + baseline.timestamp + "):");
+        for (Result result : this.results) {
+            Result before = previous.get(result.benchmark + "@" + result.size);
+            if (before != null && before.unit.equals(result.unit)) {
+                System.out.printf("%-40s %10s %+9.1f%%%n", result.benchmark,
+                        result.size == null ? "-" : result.size.toString(), (result.mean / before.mean - 1) * 100);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Benchmark comparing the time until the first word pair is available for JSON and binary trainer files.
+ * Usage: BinaryLoadBenchmark [corpus sizes...]
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class BinaryLoadBenchmark {
+    private static final int ROUNDS = 5;
+
+    /**
+     * Main method running the benchmark.
+     * @param args The corpus sizes to benchmark (default 10k, 100k and 1M pairs).
+     * @throws IOException if the temp directory can't be created.
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("binary-load-bench");
+        System.out.printf("%-10s %-8s %12s %12s%n", "pairs", "format", "load ms", "file MB");
+        for (int size : BenchmarkCorpus.sizes(args, 10_000, 100_000, 1_000_000)) {
+            SpellingTrainer trainer = new SpellingTrainer(BenchmarkCorpus.generate(size), null);
+            JSONPersistence json = new JSONPersistence(directory.resolve(size + ".json").toString());
+            json.setBackupCount(0);
+            BinaryPersistence binary = new BinaryPersistence(directory.resolve(size + ".wtb").toString());
+            binary.setBackupCount(0);
+            json.saveData(trainer);
+            binary.saveData(trainer);
+
+            for (int round = 0; round < ROUNDS; round++) {
+                run(directory.resolve(size + ".json"), size, "json", json);
+                run(directory.resolve(size + ".wtb"), size, "binary", binary);
+            }
+        }
+    }
+
+    /**
+     * Loads the trainer, selects a word pair and prints the elapsed time.
+     */
+    private static void run(Path file, int size, String format, PersistenceStrategy<SpellingTrainer> persistence) throws IOException {
+        long start = System.nanoTime();
+        SpellingTrainer trainer = persistence.loadData();
+        trainer.selectRandomWordPair();
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-10d %-8s %12.2f %12.1f%n", size, format, elapsed / 1e6, Files.size(file) / (1024.0 * 1024.0));
+    }
+}
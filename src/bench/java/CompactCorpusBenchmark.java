@@ -0,0 +1,73 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark comparing the heap used per pair after loading a JSON file into an ArrayList and into a CompactCorpus.
+ * The corpus repeats its words across categories and shares URL prefixes, like real word lists.
+ * Usage: CompactCorpusBenchmark [corpus sizes...]
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class CompactCorpusBenchmark {
+    private static final String[] CATEGORIES = {"animals", "vehicles", "food", "toys", "plants", "tools", "clothes", "house"};
+    private static final String[] HOSTS = {"https://example.com/images/", "https://cdn.example.org/pictures/"};
+    private static final int DISTINCT_WORDS = 200_000;
+
+    /**
+     * Main method running the benchmark.
+     * @param args The corpus sizes to benchmark (default 5M pairs).
+     * @throws IOException if the temp file can't be written.
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("compact-corpus-bench");
+        System.out.printf("%-10s %-12s %12s %12s %12s%n", "pairs", "storage", "heap MB", "bytes/pair", "load ms");
+        for (int size : BenchmarkCorpus.sizes(args, 5_000_000)) {
+            Path file = directory.resolve("corpus-" + size + ".json");
+            JSONPersistence persistence = new JSONPersistence(file.toString());
+            persistence.setBackupCount(0);
+            persistence.saveData(new SpellingTrainer(generate(size), null));
+
+            run(persistence, size, "ArrayList", false);
+            run(persistence, size, "Compact", true);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Generates pairs whose words repeat across categories.
+     */
+    private static List<WordPicturePair> generate(int size) {
+        List<WordPicturePair> pairs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String word = "Word" + (i % DISTINCT_WORDS);
+            String category = CATEGORIES[(i / DISTINCT_WORDS) % CATEGORIES.length];
+            pairs.add(new WordPicturePair(word, HOSTS[i % HOSTS.length] + category + "/" + word.toLowerCase() + "-" + i + ".jpg"));
+        }
+        return pairs;
+    }
+
+    /**
+     * Loads the file and prints the heap retained by the loaded trainer.
+     */
+    private static void run(JSONPersistence persistence, int size, String name, boolean compact) {
+        persistence.setCompactCorpus(compact);
+        long before = usedHeap();
+        long start = System.nanoTime();
+        SpellingTrainer trainer = persistence.loadData();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        long used = usedHeap() - before;
+        System.out.printf("%-10d %-12s %12.1f %12.1f %12d%n", trainer.getWordPairs().size(), name,
+                used / (1024.0 * 1024.0), (double) used / size, millis);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
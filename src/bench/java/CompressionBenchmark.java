@@ -0,0 +1,68 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Benchmark comparing file size, save time and load time of the CompressedPersistence codecs.
+ * Usage: CompressionBenchmark [corpus sizes...]
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class CompressionBenchmark {
+    private static final int WARMUP_RUNS = 2;
+    private static final int MEASURED_RUNS = 5;
+
+    /**
+     * Main method running the benchmark.
+     * @param args The corpus sizes to benchmark (default 10k, 100k and 1M pairs).
+     * @throws IOException if the temp directory can't be created.
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("compression-bench");
+        System.out.printf("%-10s %-16s %12s %8s %12s %12s%n", "pairs", "codec", "bytes", "ratio", "ms/save", "ms/load");
+        for (int size : BenchmarkCorpus.sizes(args, 10_000, 100_000, 1_000_000)) {
+            SpellingTrainer trainer = new SpellingTrainer(BenchmarkCorpus.generate(size), null);
+            long uncompressed = run(directory, trainer, size, CompressedPersistence.Codec.NONE, -1, 0);
+            run(directory, trainer, size, CompressedPersistence.Codec.GZIP, 1, uncompressed);
+            run(directory, trainer, size, CompressedPersistence.Codec.GZIP, -1, uncompressed);
+            run(directory, trainer, size, CompressedPersistence.Codec.DEFLATE, 1, uncompressed);
+            run(directory, trainer, size, CompressedPersistence.Codec.DEFLATE, -1, uncompressed);
+        }
+    }
+
+    /**
+     * Saves and loads the trainer repeatedly with one codec and prints the file size and the average times.
+     * @return The size of the file.
+     */
+    private static long run(Path directory, SpellingTrainer trainer, int size, CompressedPersistence.Codec codec,
+                            int level, long uncompressed) throws IOException {
+        Path file = directory.resolve(codec + "-" + size);
+        CompressedPersistence persistence = new CompressedPersistence(file.toString(), new JSONPersistence(file.toString()), codec);
+        persistence.setLevel(level);
+        persistence.setForceToDisk(false);
+        persistence.setBackupCount(0);
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            persistence.saveData(trainer);
+            persistence.loadData();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            persistence.saveData(trainer);
+        }
+        double saveMillis = (System.nanoTime() - start) / 1e6 / MEASURED_RUNS;
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            if (persistence.loadData() == null) {
+                throw new IllegalStateException("Could not load " + file);
+            }
+        }
+        double loadMillis = (System.nanoTime() - start) / 1e6 / MEASURED_RUNS;
+        long bytes = Files.size(file);
+        String name = codec + (level == -1 ? "" : " (level " + level + ")");
+        System.out.printf("%-10d %-16s %12d %8.2f %12.2f %12.2f%n", size, name, bytes,
+                uncompressed == 0 ? 1.0 : (double) uncompressed / bytes, saveMillis, loadMillis);
+        Files.deleteIfExists(file);
+        return bytes;
+    }
+}
@@ -0,0 +1,63 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Benchmark comparing the save after a guess of JSONPersistence, which rewrites the corpus, with
+ * DeltaSnapshotPersistence, which only rewrites the session record.
+ * Usage: DeltaSnapshotBenchmark [corpus sizes...]
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class DeltaSnapshotBenchmark {
+    private static final int WARMUP_SAVES = 3;
+    private static final int MEASURED_SAVES = 10;
+
+    /**
+     * Main method running the benchmark.
+     * @param args The corpus sizes to benchmark (default 10k, 100k and 1M pairs).
+     * @throws IOException if the temp directory can't be created.
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("delta-snapshot-bench");
+        System.out.printf("%-10s %-8s %14s %12s %12s%n", "pairs", "strategy", "bytes/save", "ms/save", "ms/load");
+        for (int size : BenchmarkCorpus.sizes(args, 10_000, 100_000, 1_000_000)) {
+            SpellingTrainer trainer = new SpellingTrainer(BenchmarkCorpus.generate(size), null);
+            String json = directory.resolve("json-" + size + ".json").toString();
+            JSONPersistence jsonPersistence = new JSONPersistence(json);
+            jsonPersistence.setForceToDisk(false);
+            jsonPersistence.setBackupCount(0);
+            run(trainer, size, "json", jsonPersistence, Path.of(json));
+
+            String delta = directory.resolve("delta-" + size + ".json").toString();
+            DeltaSnapshotPersistence deltaPersistence = new DeltaSnapshotPersistence(delta);
+            deltaPersistence.setForceToDisk(false);
+            deltaPersistence.setBackupCount(0);
+            run(trainer, size, "delta", deltaPersistence, Path.of(delta));
+        }
+    }
+
+    /**
+     * Guesses and saves repeatedly, then loads the file, and prints the average times.
+     */
+    private static void run(SpellingTrainer trainer, int size, String name, PersistenceStrategy<SpellingTrainer> persistence,
+                            Path file) throws IOException {
+        for (int i = 0; i < WARMUP_SAVES; i++) {
+            trainer.guessWord("Wrong");
+            persistence.saveData(trainer);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_SAVES; i++) {
+            trainer.guessWord("Wrong");
+            persistence.saveData(trainer);
+        }
+        double saveMillis = (System.nanoTime() - start) / 1e6 / MEASURED_SAVES;
+        // A fresh strategy reads the corpus from disk unless it is still in memory
+        start = System.nanoTime();
+        if (persistence.loadData() == null) {
+            throw new IllegalStateException("Could not load " + file);
+        }
+        double loadMillis = (System.nanoTime() - start) / 1e6;
+        System.out.printf("%-10d %-8s %14d %12.3f %12.2f%n", size, name, Files.size(file), saveMillis, loadMillis);
+    }
+}
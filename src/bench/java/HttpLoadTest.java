@@ -0,0 +1,174 @@
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Load test for the TrainerHttpServer reporting requests per second and the p50/p99 latency.
+ * The sessions alternate between fetching their word and guessing it (half of the guesses correct); a fixed number of
+ * requests is kept in flight. Without --url, a server over a generated corpus is started in this JVM.
+ * Usage: HttpLoadTest [--sessions 10000] [--concurrency 256] [--seconds 10] [--warmup 3] [--words 10000] [--url http://host:port]
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class HttpLoadTest {
+    private final URI base;
+    private final HttpClient client;
+    private final Map<String, String> wordsByImageUrl;
+    private final AtomicReferenceArray<String> imageUrls; // Last image URL seen by every session
+    private final String[] sessionIds;
+    private final int concurrency;
+    private final Semaphore inFlight;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong correct = new AtomicLong();
+
+    private HttpLoadTest(URI base, List<WordPicturePair> corpus, int sessions, int concurrency) {
+        this.base = base;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors())))
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.wordsByImageUrl = new HashMap<>();
+        for (WordPicturePair pair : corpus) {
+            this.wordsByImageUrl.put(pair.getImageUrl(), pair.getWord());
+        }
+        this.imageUrls = new AtomicReferenceArray<>(sessions);
+        this.sessionIds = new String[sessions];
+        this.concurrency = concurrency;
+        this.inFlight = new Semaphore(concurrency);
+    }
+
+    /**
+     * Main method running the load test.
+     * @param args The options described in the class comment.
+     * @throws IOException if the server can't be started.
+     * @throws InterruptedException if interrupted while sending requests.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        int sessions = Integer.parseInt(options.getOrDefault("sessions", "10000"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "256"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "10"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "3"));
+        List<WordPicturePair> corpus = BenchmarkCorpus.generate(Integer.parseInt(options.getOrDefault("words", "10000")));
+
+        TrainerHttpServer server = null;
+        URI base;
+        if (options.containsKey("url")) {
+            base = URI.create(options.get("url"));
+        } else {
+            server = new TrainerHttpServer(new SpellingTrainer(corpus, null), null, new InetSocketAddress("127.0.0.1", 0));
+            server.start();
+            base = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+        }
+
+        HttpLoadTest test = new HttpLoadTest(base, corpus, sessions, concurrency);
+        test.createSessions();
+        System.out.printf("%d sessions, %d requests in flight, %s%n", sessions, concurrency, base);
+        test.run(warmup);
+        test.latency.reset();
+        test.errors.set(0);
+        test.correct.set(0);
+        double elapsed = test.run(seconds);
+        test.report(elapsed);
+        if (server != null) {
+            server.stop();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Creates the sessions on the server before the test starts.
+     */
+    private void createSessions() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(this.base.resolve("/api/session"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build();
+        for (int i = 0; i < this.sessionIds.length; i++) {
+            HttpResponse<String> response = this.client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("Session could not be created: " + response.body());
+            }
+            this.sessionIds[i] = JsonParser.parseString(response.body()).getAsJsonObject().get("session").getAsString();
+        }
+    }
+
+    /**
+     * Sends requests for the given time and waits for the last ones.
+     * @return The elapsed seconds.
+     */
+    private double run(int seconds) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        while (System.nanoTime() < deadline) {
+            this.inFlight.acquire();
+            this.send(ThreadLocalRandom.current().nextInt(this.sessionIds.length));
+        }
+        // Wait for the requests still in flight
+        this.inFlight.acquire(this.concurrency);
+        this.inFlight.release(this.concurrency);
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    /**
+     * Sends the next request of a session: its word if it has none, otherwise a guess.
+     */
+    private void send(int session) {
+        String imageUrl = this.imageUrls.get(session);
+        String query = "?session=" + this.sessionIds[session];
+        HttpRequest request;
+        if (imageUrl == null) {
+            request = HttpRequest.newBuilder(this.base.resolve("/api/word" + query)).GET().build();
+        } else {
+            String word = this.wordsByImageUrl.get(imageUrl);
+            String guess = word != null && ThreadLocalRandom.current().nextBoolean() ? word : "Wrong";
+            request = HttpRequest.newBuilder(this.base.resolve("/api/guess" + query))
+                    .POST(HttpRequest.BodyPublishers.ofString(guess)).build();
+        }
+        long start = System.nanoTime();
+        this.client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+            this.latency.record(System.nanoTime() - start);
+            if (error != null || response.statusCode() != 200) {
+                this.errors.incrementAndGet();
+            } else {
+                JsonObject json = JsonParser.parseString(response.body()).getAsJsonObject();
+                // After a guess the session fetches its word again every other time, like a user reloading the page
+                boolean reload = json.has("correct") && ThreadLocalRandom.current().nextBoolean();
+                if (json.has("correct") && json.get("correct").getAsBoolean()) {
+                    this.correct.incrementAndGet();
+                }
+                this.imageUrls.set(session, reload ? null : json.get("imageUrl").getAsString());
+            }
+            this.inFlight.release();
+        });
+    }
+
+    private void report(double elapsed) {
+        long requests = this.latency.getCount();
+        System.out.printf("%-14s %12d%n", "requests", requests);
+        System.out.printf("%-14s %12d%n", "errors", this.errors.get());
+        System.out.printf("%-14s %12d%n", "correct", this.correct.get());
+        System.out.printf("%-14s %12.0f%n", "requests/s", requests / elapsed);
+        System.out.printf("%-14s %12.2f ms%n", "p50", this.latency.getValueAtQuantile(0.50) / 1e6);
+        System.out.printf("%-14s %12.2f ms%n", "p99", this.latency.getValueAtQuantile(0.99) / 1e6);
+        System.out.printf("%-14s %12.2f ms%n", "p99.9", this.latency.getValueAtQuantile(0.999) / 1e6);
+        System.out.printf("%-14s %12.2f ms%n", "max", this.latency.getMax() / 1e6);
+    }
+}
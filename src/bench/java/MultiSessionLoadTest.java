@@ -0,0 +1,87 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test for the MultiSessionTrainer reporting guesses per second as the number of worker threads grows.
+ * A final run starts one (virtual, if the JDK supports it) thread per session.
+ * Usage: MultiSessionLoadTest [sessions] [seconds per run]
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class MultiSessionLoadTest {
+
+    /**
+     * Main method running the load test.
+     * @param args The number of sessions (default 10000) and the seconds per run (default 3).
+     * @throws InterruptedException if interrupted while waiting for the workers.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        MultiSessionTrainer trainer = new MultiSessionTrainer(BenchmarkCorpus.generate(10_000));
+        String[] sessionIds = new String[sessions];
+        for (int i = 0; i < sessions; i++) {
+            sessionIds[i] = "session-" + i;
+            trainer.createSession(sessionIds[i]);
+        }
+
+        System.out.printf("%-24s %16s%n", "workers", "guesses/s");
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            run(trainer, sessionIds, threads + " platform threads", Executors.newFixedThreadPool(threads), threads, seconds);
+        }
+        if (Integer.highestOneBit(cores) != cores) {
+            run(trainer, sessionIds, cores + " platform threads", Executors.newFixedThreadPool(cores), cores, seconds);
+        }
+        ExecutorService perTask = newVirtualThreadExecutor();
+        String name = sessions + (perTask == null ? " platform threads" : " virtual threads");
+        run(trainer, sessionIds, name, perTask == null ? Executors.newCachedThreadPool() : perTask, sessions, seconds);
+    }
+
+    /**
+     * Runs the given number of workers for a fixed time. Every worker guesses for random sessions.
+     */
+    private static void run(MultiSessionTrainer trainer, String[] sessionIds, String name, ExecutorService executor,
+                            int workers, int seconds) throws InterruptedException {
+        AtomicLong guesses = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Runnable> tasks = new ArrayList<>(workers);
+        for (int worker = 0; worker < workers; worker++) {
+            tasks.add(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                while ((count & 255) != 0 || System.nanoTime() < deadline) {
+                    String sessionId = sessionIds[random.nextInt(sessionIds.length)];
+                    WordPicturePair pair = trainer.getCurrentWordPair(sessionId);
+                    if (trainer.guessWord(sessionId, random.nextBoolean() ? pair.getWord() : "Wrong")) {
+                        trainer.selectRandomWordPair(sessionId);
+                    }
+                    count++;
+                }
+                guesses.addAndGet(count);
+            });
+        }
+        long start = System.nanoTime();
+        tasks.forEach(executor::execute);
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-24s %16.0f%n", name, guesses.get() / elapsed);
+    }
+
+    /**
+     * @return A virtual-thread-per-task executor, or null if the JDK doesn't have virtual threads (before Java 21).
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Benchmark measuring the time from starting a JVM until the SpellingTrainerUI shows its first prompt, with the default
+ * settings, with the AppCDS archive and with the archive and C1 only (the settings of gradle runFast).
+ * Started by gradle startupBench, which creates the archive and passes the classpath and archive path.
+ * Usage: StartupBenchmark [runs per mode]
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class StartupBenchmark {
+    private static final String FIRST_PROMPT = "First prompt shown.";
+
+    /**
+     * Main method running the benchmark.
+     * @param args The number of runs per mode (default 10).
+     * @throws IOException if a JVM can't be started.
+     * @throws InterruptedException if interrupted while waiting for a JVM.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        String classpath = System.getProperty("startup.classpath", System.getProperty("java.class.path"));
+        String archive = System.getProperty("startup.archive");
+        // Each run starts in an empty directory, so no saved trainer is loaded
+        Path directory = Files.createTempDirectory("startup-bench");
+
+        System.out.printf("%-16s %10s %10s %10s%n", "mode", "min ms", "median ms", "max ms");
+        run(directory, classpath, "default", runs);
+        if (archive != null && Files.exists(Path.of(archive))) {
+            run(directory, classpath, "appcds", runs, "-XX:SharedArchiveFile=" + archive, "-Xshare:auto");
+            run(directory, classpath, "appcds + C1", runs, "-XX:SharedArchiveFile=" + archive, "-Xshare:auto",
+                    "-XX:TieredStopAtLevel=1");
+        } else {
+            System.out.println("No AppCDS archive, run gradle cdsArchive first.");
+        }
+    }
+
+    /**
+     * Starts the UI the given number of times and prints the times to the first prompt.
+     */
+    private static void run(Path directory, String classpath, String mode, int runs, String... jvmArgs)
+            throws IOException, InterruptedException {
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            millis[i] = timeToFirstPrompt(directory, classpath, jvmArgs);
+        }
+        Arrays.sort(millis);
+        System.out.printf("%-16s %10d %10d %10d%n", mode, millis[0], millis[runs / 2], millis[runs - 1]);
+    }
+
+    private static long timeToFirstPrompt(Path directory, String classpath, String... jvmArgs)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(jvmArgs));
+        command.add("-Dspellingtrainer.exitAfterFirstPrompt=true");
+        command.add("-cp");
+        command.add(classpath);
+        command.add("SpellingTrainerUI");
+        ProcessBuilder builder = new ProcessBuilder(command).directory(directory.toFile()).redirectErrorStream(true);
+        long start = System.nanoTime();
+        Process process = builder.start();
+        long elapsed = -1;
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                if (elapsed < 0 && line.equals(FIRST_PROMPT)) {
+                    elapsed = (System.nanoTime() - start) / 1_000_000;
+                }
+            }
+        }
+        process.waitFor();
+        if (elapsed < 0) {
+            throw new IllegalStateException("The trainer exited without showing a prompt.");
+        }
+        return elapsed;
+    }
+}
@@ -0,0 +1,82 @@
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark showing how Statistics updates scale from 1 to N writer threads.
+ * Compares a Statistics object guarded by a lock with ConcurrentStatistics.
+ * Usage: StatisticsScalingBenchmark [max threads] [milliseconds per run]
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class StatisticsScalingBenchmark {
+
+    /**
+     * Main method running the benchmark.
+     * @param args The maximum number of threads (default: number of cores, at least 4) and the run time (default 1000 ms).
+     * @throws InterruptedException if interrupted while waiting for the writers.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(4, Runtime.getRuntime().availableProcessors());
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        System.out.printf("%-8s %22s %22s%n", "threads", "synchronized ops/s", "concurrent ops/s");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            Statistics locked = new Statistics();
+            double lockedRate = run(threads, millis, correct -> {
+                synchronized (locked) {
+                    if (correct) {
+                        locked.incrementCorrectGuesses();
+                    } else {
+                        locked.incrementIncorrectGuesses();
+                    }
+                }
+            });
+            ConcurrentStatistics concurrent = new ConcurrentStatistics();
+            double concurrentRate = run(threads, millis, correct -> {
+                if (correct) {
+                    concurrent.incrementCorrectGuesses();
+                } else {
+                    concurrent.incrementIncorrectGuesses();
+                }
+            });
+            System.out.printf("%-8d %22.0f %22.0f%n", threads, lockedRate, concurrentRate);
+        }
+    }
+
+    private interface Update {
+        void apply(boolean correct);
+    }
+
+    /**
+     * Runs the update on the given number of threads for a fixed time.
+     * @return The updates per second over all threads.
+     */
+    private static double run(int threads, long millis, Update update) throws InterruptedException {
+        AtomicLong operations = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long[] deadline = new long[1];
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long count = 0;
+                while ((count & 1023) != 0 || System.nanoTime() < deadline[0]) {
+                    update.apply((count & 1) == 0);
+                    count++;
+                }
+                operations.addAndGet(count);
+                done.countDown();
+            });
+            thread.start();
+        }
+        long begin = System.nanoTime();
+        deadline[0] = begin + TimeUnit.MILLISECONDS.toNanos(millis);
+        start.countDown();
+        done.await();
+        return operations.get() / ((System.nanoTime() - begin) / 1e9);
+    }
+}
@@ -0,0 +1,99 @@
+import com.google.gson.Gson;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Benchmark comparing the load time, peak heap and GC time of the streaming type adapters
+ * with Gson's reflective adapters.
+ * Usage: StreamingCodecBenchmark [corpus sizes...]
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class StreamingCodecBenchmark {
+    private static final int ROUNDS = 3;
+
+    /**
+     * Main method running the benchmark.
+     * @param args The corpus sizes to benchmark (default 1M pairs).
+     * @throws IOException if the temp file can't be written.
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("streaming-codec-bench", ".json");
+        System.out.printf("%-10s %-10s %12s %14s %12s%n", "pairs", "codec", "load ms", "peak heap MB", "gc ms");
+        for (int size : BenchmarkCorpus.sizes(args, 1_000_000)) {
+            JSONPersistence persistence = new JSONPersistence(file.toString());
+            persistence.setBackupCount(0);
+            persistence.setForceToDisk(false);
+            persistence.saveData(new SpellingTrainer(BenchmarkCorpus.generate(size), null));
+
+            for (int round = 0; round < ROUNDS; round++) {
+                run(file, size, "reflective", new Gson());
+                run(file, size, "streaming", JSONPersistence.createGson());
+            }
+        }
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Loads the file once with the given Gson instance and prints the measurements.
+     */
+    private static void run(Path file, int size, String codec, Gson gson) throws IOException {
+        System.gc();
+        resetPeakHeap();
+        long gcMillis = gcMillis();
+        long start = System.nanoTime();
+        SpellingTrainer trainer;
+        try (Reader reader = new BufferedReader(Files.newBufferedReader(file, StandardCharsets.UTF_8), 64 * 1024)) {
+            trainer = gson.fromJson(reader, SpellingTrainer.class);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-10d %-10s %12.1f %14.1f %12d%n", size, codec, elapsed / 1e6,
+                peakHeap() / (1024.0 * 1024.0), gcMillis() - gcMillis);
+        if (trainer.getCurrentWordPair() == null) {
+            throw new IllegalStateException("Trainer was not loaded.");
+        }
+    }
+
+    /**
+     * Resets the peak usage of all heap memory pools.
+     */
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * @return The sum of the peak usage of all heap memory pools, in bytes.
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * @return The total time spent in garbage collection so far, in milliseconds.
+     */
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+}
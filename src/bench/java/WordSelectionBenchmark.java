@@ -0,0 +1,69 @@
+import java.util.Random;
+
+/**
+ * Benchmark comparing the previous uniform selection (a new Random per call) with the word selectors.
+ * The weighted selectors are measured with a weight update after every pick, like a guess would cause.
+ * Usage: WordSelectionBenchmark [corpus sizes...]
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class WordSelectionBenchmark {
+    private static final int WARMUP_OPERATIONS = 2_000_000;
+    private static final int MEASURED_OPERATIONS = 5_000_000;
+
+    /**
+     * Main method running the benchmark.
+     * @param args The corpus sizes to benchmark (default 1k, 1M and 10M words).
+     */
+    public static void main(String[] args) {
+        System.out.printf("%-10s %-22s %12s%n", "words", "selector", "ns/op");
+        long blackhole = 0;
+        for (int size : BenchmarkCorpus.sizes(args, 1_000, 1_000_000, 10_000_000)) {
+            blackhole += runNewRandom(size);
+            blackhole += run(size, "uniform", new UniformWordSelector());
+            blackhole += run(size, "weighted (difficulty)", new WeightedWordSelector(WeightedWordSelector.Weighting.DIFFICULTY));
+            blackhole += run(size, "weighted (leitner)", new WeightedWordSelector(WeightedWordSelector.Weighting.LEITNER));
+        }
+        System.out.println("(checksum " + blackhole + ")");
+    }
+
+    /**
+     * Measures the selection SpellingTrainer used before the word selectors were introduced.
+     */
+    private static long runNewRandom(int size) {
+        long sum = 0;
+        for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+            sum += new Random().nextInt(size);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_OPERATIONS; i++) {
+            sum += new Random().nextInt(size);
+        }
+        print(size, "new Random() per call", System.nanoTime() - start);
+        return sum;
+    }
+
+    /**
+     * Measures picking an index and recording a guess for it.
+     */
+    private static long run(int size, String name, WordSelector selector) {
+        long sum = 0;
+        for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+            int index = selector.nextIndex(size);
+            selector.recordGuess(index, (i & 3) != 0);
+            sum += index;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_OPERATIONS; i++) {
+            int index = selector.nextIndex(size);
+            selector.recordGuess(index, (i & 3) != 0);
+            sum += index;
+        }
+        print(size, name, System.nanoTime() - start);
+        return sum;
+    }
+
+    private static void print(int size, String name, long nanos) {
+        System.out.printf("%-10d %-22s %12.1f%n", size, name, (double) nanos / MEASURED_OPERATIONS);
+    }
+}
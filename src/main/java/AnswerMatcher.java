@@ -0,0 +1,285 @@
+import java.text.Normalizer;
+
+/**
+ * Class deciding whether a guess matches the word of a word-picture pair.
+ * Besides exact matching it can ignore case, normalize German spellings (ä = ae, ß = ss) and accents, and report
+ * guesses within a small edit distance as almost correct.
+ * <p>
+ * Matching doesn't allocate: the guess is folded into a per-thread buffer, the edit distance uses a per-thread
+ * row, and the normalized form of a word is computed once and kept in the {@link WordPicturePair}.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class AnswerMatcher {
+    /**
+     * Matcher comparing the guess with the word exactly, the behaviour of the original trainer.
+     */
+    public static final AnswerMatcher EXACT = new AnswerMatcher(Mode.EXACT, 0);
+
+    /**
+     * How a guess is compared with the word.
+     */
+    public enum Mode {
+        /** The guess must equal the word. */
+        EXACT,
+        /** Case is ignored, as well as whitespace around the guess. */
+        IGNORE_CASE,
+        /** Like IGNORE_CASE; umlauts, ß and accents are also folded (Straße = strasse, Bär = baer, café = cafe). */
+        NORMALIZED
+    }
+
+    /**
+     * Result of matching a guess.
+     */
+    public enum Result {
+        CORRECT,
+        /** Not correct, but within the maximum edit distance. */
+        ALMOST,
+        INCORRECT
+    }
+
+    private static final int FOLD_TABLE_SIZE = 0x250; // Latin-1 Supplement and Latin Extended-A/B
+    private static final char[] FOLD_FIRST = new char[FOLD_TABLE_SIZE];
+    private static final char[] FOLD_SECOND = new char[FOLD_TABLE_SIZE]; // 0 if a character folds to one character
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final Mode mode;
+    private final int maxDistance;
+
+    static {
+        for (char c = 0; c < FOLD_TABLE_SIZE; c++) {
+            char lower = Character.toLowerCase(c);
+            FOLD_FIRST[c] = lower;
+            if (lower >= 0x80) {
+                // Strip accents: the first character of the canonical decomposition, if it is plain ASCII
+                String decomposed = Normalizer.normalize(String.valueOf(lower), Normalizer.Form.NFD);
+                if (decomposed.charAt(0) < 0x80) {
+                    FOLD_FIRST[c] = decomposed.charAt(0);
+                }
+            }
+        }
+        fold('ä', 'a', 'e');
+        fold('ö', 'o', 'e');
+        fold('ü', 'u', 'e');
+        fold('ß', 's', 's');
+        fold('æ', 'a', 'e');
+        fold('œ', 'o', 'e');
+    }
+
+    /**
+     * Reusable buffers of a thread, grown when a longer guess or word comes along.
+     */
+    private static final class Scratch {
+        private char[] guess = new char[64];
+        private int[] row = new int[65];
+    }
+
+    /**
+     * Constructor for the AnswerMatcher class.
+     * @param mode How the guess is compared with the word.
+     * @param maxDistance The maximum edit distance (Levenshtein) of an almost correct guess, 0 to disable.
+     * @throws IllegalArgumentException if the mode is null or the distance is negative.
+     */
+    public AnswerMatcher(Mode mode, int maxDistance) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Mode cannot be null.");
+        }
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Maximum distance cannot be negative.");
+        }
+        this.mode = mode;
+        this.maxDistance = maxDistance;
+    }
+
+    // Getters
+
+    public Mode getMode() {
+        return this.mode;
+    }
+
+    public int getMaxDistance() {
+        return this.maxDistance;
+    }
+
+    // Methods
+
+    /**
+     * Matches a guess against the word of a word-picture pair.
+     * @param guess The guess.
+     * @param wordPair The word-picture pair.
+     * @return CORRECT, ALMOST or INCORRECT.
+     */
+    public Result match(String guess, WordPicturePair wordPair) {
+        String word = this.mode == Mode.NORMALIZED ? wordPair.getNormalizedWord() : wordPair.getWord();
+        if (this.mode == Mode.EXACT && this.maxDistance == 0) {
+            return guess.equals(word) ? Result.CORRECT : Result.INCORRECT;
+        }
+
+        Scratch scratch = SCRATCH.get();
+        int length = this.fill(scratch, guess);
+        char[] folded = scratch.guess;
+        boolean ignoreCase = this.mode != Mode.EXACT;
+        if (length == word.length()) {
+            int i = 0;
+            while (i < length && folded[i] == charAt(word, i, ignoreCase)) {
+                i++;
+            }
+            if (i == length) {
+                return Result.CORRECT;
+            }
+        }
+        if (this.maxDistance > 0 && Math.abs(length - word.length()) <= this.maxDistance
+                && distance(scratch, length, word, ignoreCase, this.maxDistance) <= this.maxDistance) {
+            return Result.ALMOST;
+        }
+        return Result.INCORRECT;
+    }
+
+    /**
+     * Normalizes a word the way {@link Mode#NORMALIZED} compares it: lower case, umlauts and ß expanded,
+     * accents removed and surrounding whitespace trimmed.
+     * @param word The word.
+     * @return The normalized word.
+     */
+    public static String normalize(String word) {
+        StringBuilder normalized = new StringBuilder(word.length() + 4);
+        int start = firstNonBlank(word);
+        int end = lastNonBlank(word);
+        for (int i = start; i < end; i++) {
+            char c = foldable(word.charAt(i));
+            if (c < FOLD_TABLE_SIZE) {
+                normalized.append(FOLD_FIRST[c]);
+                if (FOLD_SECOND[c] != 0) {
+                    normalized.append(FOLD_SECOND[c]);
+                }
+            } else {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Checks if a guess is null or consists only of whitespace, without allocating like {@code trim()}.
+     * @param guess The guess.
+     * @return True if the guess is blank.
+     */
+    public static boolean isBlank(String guess) {
+        return guess == null || firstNonBlank(guess) == guess.length();
+    }
+
+    /**
+     * Copies the guess into the thread's buffer as the mode compares it and returns its length.
+     */
+    private int fill(Scratch scratch, String guess) {
+        int start = 0;
+        int end = guess.length();
+        if (this.mode != Mode.EXACT) {
+            start = firstNonBlank(guess);
+            end = lastNonBlank(guess);
+        }
+        int maxLength = (end - start) * 2;
+        if (scratch.guess.length < maxLength) {
+            scratch.guess = new char[maxLength];
+        }
+        char[] buffer = scratch.guess;
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = guess.charAt(i);
+            if (this.mode == Mode.EXACT) {
+                buffer[length++] = c;
+            } else if (this.mode == Mode.IGNORE_CASE || (c = foldable(c)) >= FOLD_TABLE_SIZE) {
+                buffer[length++] = toLowerCase(c);
+            } else {
+                buffer[length++] = FOLD_FIRST[c];
+                if (FOLD_SECOND[c] != 0) {
+                    buffer[length++] = FOLD_SECOND[c];
+                }
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Levenshtein distance between the folded guess and the word, using a single reused row.
+     * Stops early and returns a value above the limit once no alignment can stay within it.
+     */
+    private static int distance(Scratch scratch, int length, String word, boolean ignoreCase, int limit) {
+        int columns = word.length() + 1;
+        if (scratch.row.length < columns) {
+            scratch.row = new int[columns];
+        }
+        int[] row = scratch.row;
+        char[] guess = scratch.guess;
+        for (int j = 0; j < columns; j++) {
+            row[j] = j;
+        }
+        for (int i = 1; i <= length; i++) {
+            int diagonal = row[0];
+            row[0] = i;
+            int rowMinimum = i;
+            char g = guess[i - 1];
+            for (int j = 1; j < columns; j++) {
+                int above = row[j];
+                int cost = g == charAt(word, j - 1, ignoreCase) ? 0 : 1;
+                int value = Math.min(Math.min(above + 1, row[j - 1] + 1), diagonal + cost);
+                row[j] = value;
+                diagonal = above;
+                rowMinimum = Math.min(rowMinimum, value);
+            }
+            if (rowMinimum > limit) {
+                return limit + 1;
+            }
+        }
+        return row[columns - 1];
+    }
+
+    private static char charAt(String word, int index, boolean ignoreCase) {
+        char c = word.charAt(index);
+        return ignoreCase ? toLowerCase(c) : c;
+    }
+
+    /**
+     * Character.toLowerCase with a shortcut for ASCII, which most words are.
+     */
+    private static char toLowerCase(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    /**
+     * Maps characters outside the fold table to their lower case, so e.g. the capital ẞ is folded like ß.
+     */
+    private static char foldable(char c) {
+        return c < FOLD_TABLE_SIZE ? c : Character.toLowerCase(c);
+    }
+
+    private static int firstNonBlank(String value) {
+        int i = 0;
+        while (i < value.length() && value.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int lastNonBlank(String value) {
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static void fold(char c, char first, char second) {
+        FOLD_FIRST[c] = first;
+        FOLD_SECOND[c] = second;
+        char upper = Character.toUpperCase(c);
+        if (upper != c && upper < FOLD_TABLE_SIZE) {
+            FOLD_FIRST[upper] = first;
+            FOLD_SECOND[upper] = second;
+        }
+    }
+}
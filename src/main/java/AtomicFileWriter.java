@@ -0,0 +1,143 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helper class that replaces files atomically by writing a sibling temp file and renaming it.
+ * The previous versions of a file can be kept as rotated backups (file.bak1, file.bak2, ...). The newest backup is a
+ * hard link to (or a copy of) the current file, so the file itself is only ever replaced, never missing.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public final class AtomicFileWriter {
+
+    /**
+     * Writes the content of a file to an open channel.
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        /**
+         * Writes the content to the channel. The channel must not be closed.
+         * @param channel The channel of the temp file.
+         * @throws IOException if writing fails.
+         */
+        void writeTo(FileChannel channel) throws IOException;
+    }
+
+    private AtomicFileWriter() {
+    }
+
+    // Methods
+
+    /**
+     * Writes a file atomically. Readers either see the old or the new content, never a partial file.
+     * @param target The file to replace.
+     * @param forceToDisk Whether the temp file is forced to disk before it is renamed.
+     * @param backupCount The number of previous versions to keep.
+     * @param content The content of the new file.
+     * @throws IOException if writing or renaming fails. The target is left untouched in that case.
+     */
+    public static void write(Path target, boolean forceToDisk, int backupCount, ContentWriter content) throws IOException {
+        Path absoluteTarget = target.toAbsolutePath();
+        Path directory = absoluteTarget.getParent();
+        Path temp = Files.createTempFile(directory, absoluteTarget.getFileName() + ".", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                content.writeTo(channel);
+                if (forceToDisk) {
+                    channel.force(true);
+                }
+            }
+            rotateBackups(absoluteTarget, backupCount);
+            move(temp, absoluteTarget);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        if (forceToDisk) {
+            forceDirectory(directory);
+        }
+    }
+
+    /**
+     * Returns the path of a rotated backup.
+     * @param target The file the backup belongs to.
+     * @param generation The generation of the backup, starting at 1 for the newest.
+     * @return The path of the backup.
+     */
+    public static Path backupPath(Path target, int generation) {
+        return target.resolveSibling(target.getFileName() + ".bak" + generation);
+    }
+
+    /**
+     * Returns the file followed by its backups, newest first. This is the order in which loading should try them.
+     * @param target The file.
+     * @param backupCount The number of backups that are kept.
+     * @return The candidate paths.
+     */
+    public static List<Path> candidates(Path target, int backupCount) {
+        List<Path> candidates = new ArrayList<>(backupCount + 1);
+        candidates.add(target);
+        for (int generation = 1; generation <= backupCount; generation++) {
+            candidates.add(backupPath(target, generation));
+        }
+        return candidates;
+    }
+
+    /**
+     * Shifts every backup one generation back and links or copies the current file to the newest backup.
+     * The current file stays in place until the new content is renamed over it.
+     */
+    private static void rotateBackups(Path target, int backupCount) throws IOException {
+        if (backupCount <= 0 || !Files.exists(target)) {
+            return;
+        }
+        Files.deleteIfExists(backupPath(target, backupCount));
+        for (int generation = backupCount - 1; generation >= 1; generation--) {
+            Path backup = backupPath(target, generation);
+            if (Files.exists(backup)) {
+                move(backup, backupPath(target, generation + 1));
+            }
+        }
+        Path link = target.resolveSibling(target.getFileName() + ".bak1.tmp");
+        try {
+            Files.deleteIfExists(link);
+            try {
+                Files.createLink(link, target);
+            } catch (IOException | UnsupportedOperationException e) {
+                // The file system has no hard links
+                Files.copy(target, link, StandardCopyOption.REPLACE_EXISTING);
+            }
+            move(link, backupPath(target, 1));
+        } finally {
+            Files.deleteIfExists(link);
+        }
+    }
+
+    /**
+     * Renames a file atomically, falling back to a plain replace where the file system can't do that.
+     */
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Forces the directory entry of a rename to disk. Not every platform allows opening directories.
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories can't be opened on this platform, the rename is still atomic
+        }
+    }
+}
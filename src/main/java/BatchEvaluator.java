@@ -0,0 +1,309 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Headless evaluation of recorded guesses without the interactive UI.
+ * Reads (session, word, guess) records, runs each through {@link SpellingTrainer#guessWord(String)} and writes one
+ * result per record as NDJSON or CSV. The trainer is saved once per batch instead of once per guess.
+ * <p>
+ * Input lines are {@code session,word,guess} or tab-separated; empty lines and lines starting with # are skipped,
+ * as is a first line whose first field is "session". Comma-separated fields may be quoted like the CSV output.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class BatchEvaluator {
+
+    /**
+     * Output format of the results.
+     */
+    public enum OutputFormat {
+        NDJSON,
+        CSV
+    }
+
+    private final SpellingTrainer trainer;
+    private final int batchSize;
+    private final OutputFormat format;
+    private final Map<String, Statistics> sessionStatistics;
+    private long records;
+    private long unknownWords;
+    private long invalidRecords;
+    private long saves;
+
+    /**
+     * Constructor for the BatchEvaluator class.
+     * @param trainer The trainer whose word pairs and statistics are used.
+     * @param batchSize The number of records after which the trainer is saved.
+     * @param format The output format.
+     * @throws IllegalArgumentException if the batch size is not positive.
+     */
+    public BatchEvaluator(SpellingTrainer trainer, int batchSize, OutputFormat format) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+        this.trainer = trainer;
+        this.batchSize = batchSize;
+        this.format = format;
+        this.sessionStatistics = new TreeMap<>();
+    }
+
+    // Getters
+
+    public long getRecords() {
+        return this.records;
+    }
+
+    public long getUnknownWords() {
+        return this.unknownWords;
+    }
+
+    public long getInvalidRecords() {
+        return this.invalidRecords;
+    }
+
+    public long getSaves() {
+        return this.saves;
+    }
+
+    /**
+     * @return The statistics per session, sorted by session.
+     */
+    public Map<String, Statistics> getSessionStatistics() {
+        return this.sessionStatistics;
+    }
+
+    // Methods
+
+    /**
+     * Evaluates all records of the input and writes the results.
+     * @param in The records.
+     * @param out The results.
+     * @throws IOException if reading or writing fails.
+     */
+    public void evaluate(Reader in, Writer out) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, 64 * 1024);
+        if (this.format == OutputFormat.CSV) {
+            out.write("session,word,guess,result\n");
+        }
+        long sinceSave = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = fields(line, reader);
+            if (this.records == 0 && fields[0].equals("session")) {
+                continue; // Header
+            }
+            this.evaluateRecord(fields, out);
+            if (++sinceSave == this.batchSize) {
+                this.save();
+                sinceSave = 0;
+            }
+        }
+        if (sinceSave > 0) {
+            this.save();
+        }
+        out.flush();
+        this.trainer.flushData();
+    }
+
+    /**
+     * Evaluates one record. The result is "correct", "incorrect", "unknown-word" or "invalid".
+     */
+    private void evaluateRecord(String[] fields, Writer out) throws IOException {
+        this.records++;
+        if (fields.length < 3 || fields[2].trim().isEmpty()) {
+            this.invalidRecords++;
+            this.writeResult(out, fields.length > 0 ? fields[0] : "", fields.length > 1 ? fields[1] : "",
+                    fields.length > 2 ? fields[2] : "", "invalid");
+            return;
+        }
+        String session = fields[0];
+        String word = fields[1];
+        String guess = fields[2];
+        if (!this.trainer.selectWordPair(word)) {
+            this.unknownWords++;
+            this.writeResult(out, session, word, guess, "unknown-word");
+            return;
+        }
+        boolean correct = this.trainer.guessWord(guess.trim());
+        Statistics statistics = this.sessionStatistics.computeIfAbsent(session, id -> new Statistics());
+        if (correct) {
+            statistics.incrementCorrectGuesses();
+        } else {
+            statistics.incrementIncorrectGuesses();
+        }
+        this.writeResult(out, session, word, guess, correct ? "correct" : "incorrect");
+    }
+
+    private void writeResult(Writer out, String session, String word, String guess, String result) throws IOException {
+        if (this.format == OutputFormat.CSV) {
+            out.write(csv(session));
+            out.write(',');
+            out.write(csv(word));
+            out.write(',');
+            out.write(csv(guess));
+            out.write(',');
+            out.write(result);
+        } else {
+            out.write("{\"session\":");
+            out.write(json(session));
+            out.write(",\"word\":");
+            out.write(json(word));
+            out.write(",\"guess\":");
+            out.write(json(guess));
+            out.write(",\"result\":\"");
+            out.write(result);
+            out.write("\"}");
+        }
+        out.write('\n');
+    }
+
+    private void save() {
+        this.trainer.persistData();
+        this.saves++;
+    }
+
+    /**
+     * Splits a record into at most three fields. Tab-separated lines are split as they are. In comma-separated lines a
+     * field may be quoted, with "" for a quote and line breaks continuing on the next line; an unquoted last field is
+     * the rest of the line, so it may contain commas.
+     */
+    private static String[] fields(String line, BufferedReader reader) throws IOException {
+        if (line.indexOf('\t') >= 0) {
+            return line.split("\t", 3);
+        }
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        int position = 0;
+        while (true) {
+            boolean quoted = position < line.length() && line.charAt(position) == '"';
+            if (quoted) {
+                position++;
+                while (true) {
+                    if (position == line.length()) {
+                        String next = reader.readLine();
+                        if (next == null) {
+                            break; // Unterminated quote, keep what was read
+                        }
+                        field.append('\n');
+                        line = next;
+                        position = 0;
+                    } else if (line.charAt(position) != '"') {
+                        field.append(line.charAt(position++));
+                    } else if (position + 1 < line.length() && line.charAt(position + 1) == '"') {
+                        field.append('"');
+                        position += 2;
+                    } else {
+                        position++;
+                        break;
+                    }
+                }
+            }
+            int comma = fields.size() == 2 && !quoted ? -1 : line.indexOf(',', position);
+            field.append(line, Math.min(position, line.length()), comma < 0 ? line.length() : comma);
+            fields.add(field.toString());
+            field.setLength(0);
+            if (comma < 0 || fields.size() == 3) {
+                return fields.toArray(new String[0]);
+            }
+            position = comma + 1;
+        }
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String json(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.append('"').toString();
+    }
+
+    /**
+     * Main method evaluating a file of recorded guesses.
+     * Usage: BatchEvaluator --data &lt;trainer file&gt; [--in &lt;file|-&gt;] [--out &lt;file|-&gt;] [--format ndjson|csv] [--batch N]
+     * @param args The command-line arguments.
+     * @throws IOException if reading or writing fails.
+     */
+    public static void main(String[] args) throws IOException {
+        String dataPath = null;
+        String inPath = "-";
+        String outPath = "-";
+        OutputFormat format = OutputFormat.NDJSON;
+        int batchSize = 100_000;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--data":
+                    dataPath = args[i + 1];
+                    break;
+                case "--in":
+                    inPath = args[i + 1];
+                    break;
+                case "--out":
+                    outPath = args[i + 1];
+                    break;
+                case "--format":
+                    format = OutputFormat.valueOf(args[i + 1].toUpperCase(Locale.ROOT));
+                    break;
+                case "--batch":
+                    batchSize = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (dataPath == null) {
+            System.err.println("Usage: BatchEvaluator --data <trainer file> [--in <file|->] [--out <file|->] [--format ndjson|csv] [--batch N]");
+            System.exit(2);
+        }
+        SpellingTrainer trainer = PersistenceConverter.forFile(dataPath).loadData();
+        if (trainer == null) {
+            System.err.println("Could not load " + dataPath);
+            System.exit(1);
+        }
+
+        BatchEvaluator evaluator = new BatchEvaluator(trainer, batchSize, format);
+        long start = System.nanoTime();
+        try (Reader in = "-".equals(inPath)
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Paths.get(inPath), StandardCharsets.UTF_8);
+             Writer out = new BufferedWriter("-".equals(outPath)
+                     ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                     : Files.newBufferedWriter(Paths.get(outPath), StandardCharsets.UTF_8), 64 * 1024)) {
+            evaluator.evaluate(in, out);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("%d records (%d unknown words, %d invalid) in %.2f s, %.0f records/s, %d saves%n",
+                evaluator.getRecords(), evaluator.getUnknownWords(), evaluator.getInvalidRecords(), seconds,
+                evaluator.getRecords() / seconds, evaluator.getSaves());
+        System.err.println(trainer.getStatistics());
+    }
+}
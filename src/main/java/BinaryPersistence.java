@@ -0,0 +1,413 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Class responsible for saving and loading SpellingTrainer objects to/from a compact binary file.
+ * The file is memory-mapped on load and word pairs are decoded lazily, so startup doesn't depend on the corpus size.
+ * Where a mapped file can't be replaced or deleted (file systems without POSIX semantics, e.g. on Windows), a copy of
+ * the file is mapped instead, so later saves can still replace the file and its backups.
+ * <p>
+ * File format (version 1, big-endian):
+ * <pre>
+ * header   magic "WTRB", version (short), flags (short), correct, incorrect, total guesses (int),
+ *          pair count (int), index offset (int)
+ * current  word and image URL of the current pair (if the flag is set)
+ * blob     per pair: word length (int), UTF-8 word, URL length (int), UTF-8 URL
+ * index    per pair: absolute position of its blob entry (int)
+ * words    word statistics (if the flag is set): word count (int), per word: word, correct, incorrect (int);
+ *          per window (minutes, hours, days): bucket count (int), per bucket: period (long), correct, incorrect (int)
+ * </pre>
+ * Strings are stored as length-prefixed UTF-8.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class BinaryPersistence implements PersistenceStrategy<SpellingTrainer> {
+    static final int MAGIC = 0x57545242; // "WTRB"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+
+    private static final short FLAG_HAS_LAST_RESULT = 1;
+    private static final short FLAG_LAST_RESULT = 2;
+    private static final short FLAG_HAS_CURRENT_PAIR = 4;
+    private static final short FLAG_HAS_WORD_STATISTICS = 8;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String MAPPED_SUFFIX = ".mapped";
+
+    private String filePath;
+    private boolean forceToDisk;
+    private int backupCount;
+    private volatile IOException lastSaveError;
+    private int pairsPerPage;
+    private int maxPages;
+    private Boolean mapCopy; // null means only where mapped files can't be replaced
+
+    /**
+     * Constructor for the BinaryPersistence class.
+     * @param filePath The path of the binary file.
+     */
+    public BinaryPersistence(String filePath) {
+        this.filePath = filePath;
+        this.forceToDisk = true;
+        this.backupCount = 1;
+    }
+
+    // Getters and Setters
+
+    /**
+     * Sets a new file path dynamically.
+     * @param filePath The new file path for saving/loading.
+     */
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * Sets whether saves force the data to disk before the file is replaced.
+     * @param forceToDisk True to fsync every save.
+     */
+    public void setForceToDisk(boolean forceToDisk) {
+        this.forceToDisk = forceToDisk;
+    }
+
+    /**
+     * Sets the number of previous versions kept next to the file.
+     * @param backupCount The number of rotated backups.
+     * @throws IllegalArgumentException if the count is negative.
+     */
+    public void setBackupCount(int backupCount) {
+        if (backupCount < 0) {
+            throw new IllegalArgumentException("Backup count cannot be negative.");
+        }
+        this.backupCount = backupCount;
+    }
+
+    /**
+     * Loads the word pairs into a {@link PagedWordCorpus} instead of mapping the whole file,
+     * so only a bounded number of pages is kept in the heap.
+     * @param pairsPerPage The number of pairs per page, or 0 to map the file (the default).
+     * @param maxPages The maximum number of cached pages.
+     * @throws IllegalArgumentException if a value is negative, or no page may be cached.
+     */
+    public void setPageCache(int pairsPerPage, int maxPages) {
+        if (pairsPerPage < 0 || maxPages < 0 || (pairsPerPage > 0 && maxPages == 0)) {
+            throw new IllegalArgumentException("Page size cannot be negative and at least one page must be cached.");
+        }
+        this.pairsPerPage = pairsPerPage;
+        this.maxPages = maxPages;
+    }
+
+    /**
+     * Sets whether loading maps a copy of the file instead of the file itself.
+     * By default a copy is only mapped on file systems without POSIX semantics, which can't replace a mapped file.
+     * @param mapCopy True to always map a copy, false to never do so.
+     */
+    public void setMapCopy(boolean mapCopy) {
+        this.mapCopy = mapCopy;
+    }
+
+    /**
+     * @return The exception of the last save, or null if it succeeded.
+     */
+    @Override
+    public IOException getLastSaveError() {
+        return this.lastSaveError;
+    }
+
+    // Methods
+
+    /**
+     * Saves the SpellingTrainer object to a binary file. The file is replaced atomically.
+     * @param trainer The SpellingTrainer object to be saved.
+     */
+    @Override
+    public void saveData(SpellingTrainer trainer) {
+        TrainerMetrics metrics = TrainerMetrics.getInstance();
+        long start = metrics.startTimer();
+        try {
+            Path file = Paths.get(this.filePath);
+            AtomicFileWriter.write(file, this.forceToDisk, this.backupCount, channel -> write(trainer, channel));
+            this.lastSaveError = null;
+            metrics.recordSave(start, file);
+        } catch (IOException e) {
+            this.lastSaveError = e;
+            metrics.recordSaveFailure(start);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Loads the SpellingTrainer object from a binary file by memory-mapping it.
+     * Falls back to the newest readable backup if the file is missing or corrupt.
+     * @return The loaded SpellingTrainer object, or null if no file could be read.
+     */
+    @Override
+    public SpellingTrainer loadData() {
+        TrainerMetrics metrics = TrainerMetrics.getInstance();
+        for (Path candidate : AtomicFileWriter.candidates(Paths.get(this.filePath), this.backupCount)) {
+            if (!Files.exists(candidate)) {
+                continue;
+            }
+            long start = metrics.startTimer();
+            try {
+                boolean mapCopy = this.mapCopy != null ? this.mapCopy
+                        : !candidate.getFileSystem().supportedFileAttributeViews().contains("posix");
+                SpellingTrainer trainer = read(candidate, mapCopy, this.pairsPerPage, this.maxPages);
+                // Automatically inject the persistence strategy after loading
+                trainer.setPersistenceStrategy(this);
+                metrics.recordLoad(start, candidate);
+                return trainer;
+            } catch (IOException e) {
+                metrics.recordLoadFailure(start);
+                e.printStackTrace();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the trainer in the binary format. The blob is streamed, the header is written last.
+     */
+    private static void write(SpellingTrainer trainer, FileChannel channel) throws IOException {
+        List<WordPicturePair> wordPairs = trainer.getWordPairs();
+        WordPicturePair currentWordPair = trainer.getCurrentWordPair();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long position = HEADER_SIZE;
+        channel.position(position);
+
+        if (currentWordPair != null) {
+            position += putString(channel, buffer, currentWordPair.getWord());
+            position += putString(channel, buffer, currentWordPair.getImageUrl());
+        }
+        int[] offsets = new int[wordPairs.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            WordPicturePair pair = wordPairs.get(i);
+            offsets[i] = checkedOffset(position);
+            position += putString(channel, buffer, pair.getWord());
+            position += putString(channel, buffer, pair.getImageUrl());
+        }
+        int indexOffset = checkedOffset(position);
+        for (int offset : offsets) {
+            ensureRemaining(channel, buffer, Integer.BYTES);
+            buffer.putInt(offset);
+        }
+        checkedOffset(position + (long) offsets.length * Integer.BYTES);
+        WordStatistics wordStatistics = trainer.getWordStatistics();
+        boolean hasWordStatistics = wordStatistics != null && wordStatistics.getWordCount() > 0;
+        if (hasWordStatistics) {
+            writeWordStatistics(channel, buffer, wordStatistics);
+        }
+        drain(channel, buffer);
+
+        Statistics statistics = trainer.getStatistics();
+        Boolean lastResult = trainer.getLastResult();
+        short flags = 0;
+        if (lastResult != null) {
+            flags |= FLAG_HAS_LAST_RESULT;
+            if (lastResult) {
+                flags |= FLAG_LAST_RESULT;
+            }
+        }
+        if (currentWordPair != null) {
+            flags |= FLAG_HAS_CURRENT_PAIR;
+        }
+        if (hasWordStatistics) {
+            flags |= FLAG_HAS_WORD_STATISTICS;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).putShort(flags)
+                .putInt(statistics.getCorrectGuesses())
+                .putInt(statistics.getIncorrectGuesses())
+                .putInt(statistics.getTotalGuesses())
+                .putInt(offsets.length)
+                .putInt(indexOffset)
+                .flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    /**
+     * Maps a binary file and creates a trainer whose word pairs are decoded lazily, or read page by page.
+     */
+    private static SpellingTrainer read(Path path, boolean mapCopy, int pairsPerPage, int maxPages) throws IOException {
+        MappedByteBuffer buffer = mapCopy ? mapCopy(path) : map(path);
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a spelling trainer file: " + path);
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IOException("Unsupported file version " + buffer.getShort(4) + ": " + path);
+        }
+        short flags = buffer.getShort(6);
+        Statistics statistics = new Statistics(buffer.getInt(8), buffer.getInt(12), buffer.getInt(16));
+        int size = buffer.getInt(20);
+        int indexOffset = buffer.getInt(24);
+        if (size < 0 || indexOffset < HEADER_SIZE || indexOffset + (long) size * Integer.BYTES > buffer.capacity()) {
+            throw new IOException("Corrupt spelling trainer file: " + path);
+        }
+
+        WordPicturePair currentWordPair = null;
+        if ((flags & FLAG_HAS_CURRENT_PAIR) != 0) {
+            try {
+                int wordLength = buffer.getInt(HEADER_SIZE);
+                String word = MappedWordPairList.decode(buffer, HEADER_SIZE + Integer.BYTES, wordLength);
+                int urlPosition = HEADER_SIZE + Integer.BYTES + wordLength;
+                MappedWordPairList.checkRange(buffer, urlPosition, Integer.BYTES);
+                String imageUrl = MappedWordPairList.decode(buffer, urlPosition + Integer.BYTES, buffer.getInt(urlPosition));
+                currentWordPair = WordPicturePair.fromTrustedData(word, imageUrl);
+            } catch (IndexOutOfBoundsException | NegativeArraySizeException | IllegalArgumentException e) {
+                throw new IOException("Corrupt current word pair: " + path, e);
+            }
+        }
+        Boolean lastResult = (flags & FLAG_HAS_LAST_RESULT) == 0 ? null : (flags & FLAG_LAST_RESULT) != 0;
+        WordStatistics wordStatistics = new WordStatistics();
+        if ((flags & FLAG_HAS_WORD_STATISTICS) != 0) {
+            try {
+                readWordStatistics(buffer, indexOffset + size * Integer.BYTES, wordStatistics);
+            } catch (IndexOutOfBoundsException | NegativeArraySizeException | IllegalArgumentException e) {
+                throw new IOException("Corrupt word statistics: " + path, e);
+            }
+        }
+        List<WordPicturePair> wordPairs = pairsPerPage > 0
+                ? WordCorpus.asList(new PagedWordCorpus(path, pairsPerPage, maxPages))
+                : new MappedWordPairList(buffer, indexOffset, size);
+        return new SpellingTrainer(wordPairs, currentWordPair, statistics, lastResult, wordStatistics);
+    }
+
+    private static MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a spelling trainer file: " + path);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Copies a file next to it and maps the copy. The copy is deleted right away where a mapped file can be deleted;
+     * elsewhere it is deleted by a later load once it is no longer mapped.
+     */
+    private static MappedByteBuffer mapCopy(Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        String prefix = path.getFileName() + ".";
+        try (DirectoryStream<Path> copies = Files.newDirectoryStream(directory, file -> file.getFileName().toString()
+                .startsWith(prefix) && file.getFileName().toString().endsWith(MAPPED_SUFFIX))) {
+            for (Path stale : copies) {
+                deleteCopy(stale);
+            }
+        }
+        Path copy = Files.createTempFile(directory, prefix, MAPPED_SUFFIX);
+        try {
+            Files.copy(path, copy, StandardCopyOption.REPLACE_EXISTING);
+            return map(copy);
+        } finally {
+            deleteCopy(copy);
+        }
+    }
+
+    private static void deleteCopy(Path copy) {
+        try {
+            Files.deleteIfExists(copy);
+        } catch (IOException e) {
+            // Still mapped on this platform, a later load deletes it
+        }
+    }
+
+    /**
+     * Appends the word statistics section after the index.
+     */
+    private static void writeWordStatistics(FileChannel channel, ByteBuffer buffer, WordStatistics statistics) throws IOException {
+        String[] words = statistics.words();
+        ensureRemaining(channel, buffer, Integer.BYTES);
+        buffer.putInt(words.length);
+        for (int slot = 0; slot < words.length; slot++) {
+            putString(channel, buffer, words[slot]);
+            ensureRemaining(channel, buffer, 2 * Integer.BYTES);
+            buffer.putInt(statistics.correctAt(slot)).putInt(statistics.incorrectAt(slot));
+        }
+        for (WordStatistics.Window window : WordStatistics.Window.values()) {
+            List<long[]> buckets = statistics.buckets(window);
+            ensureRemaining(channel, buffer, Integer.BYTES);
+            buffer.putInt(buckets.size());
+            for (long[] bucket : buckets) {
+                ensureRemaining(channel, buffer, Long.BYTES + 2 * Integer.BYTES);
+                buffer.putLong(bucket[0]).putInt((int) bucket[1]).putInt((int) bucket[2]);
+            }
+        }
+    }
+
+    /**
+     * Reads the word statistics section starting at the given position.
+     */
+    private static void readWordStatistics(ByteBuffer buffer, int position, WordStatistics statistics) {
+        int words = buffer.getInt(position);
+        position += Integer.BYTES;
+        for (int i = 0; i < words; i++) {
+            int length = buffer.getInt(position);
+            String word = MappedWordPairList.decode(buffer, position + Integer.BYTES, length);
+            position += Integer.BYTES + length;
+            statistics.restoreWord(word, buffer.getInt(position), buffer.getInt(position + Integer.BYTES));
+            position += 2 * Integer.BYTES;
+        }
+        for (WordStatistics.Window window : WordStatistics.Window.values()) {
+            int buckets = buffer.getInt(position);
+            position += Integer.BYTES;
+            for (int i = 0; i < buckets; i++) {
+                statistics.restoreBucket(window, buffer.getLong(position),
+                        buffer.getInt(position + Long.BYTES), buffer.getInt(position + Long.BYTES + Integer.BYTES));
+                position += Long.BYTES + 2 * Integer.BYTES;
+            }
+        }
+    }
+
+    /**
+     * Appends a length-prefixed UTF-8 string to the buffer, draining it to the channel when full.
+     * @return The number of bytes written.
+     */
+    private static int putString(FileChannel channel, ByteBuffer buffer, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureRemaining(channel, buffer, Integer.BYTES);
+        buffer.putInt(bytes.length);
+        int written = 0;
+        while (written < bytes.length) {
+            ensureRemaining(channel, buffer, 1);
+            int chunk = Math.min(buffer.remaining(), bytes.length - written);
+            buffer.put(bytes, written, chunk);
+            written += chunk;
+        }
+        return Integer.BYTES + bytes.length;
+    }
+
+    private static void ensureRemaining(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain(channel, buffer);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Checks that a position can still be addressed by the int offsets of the format.
+     */
+    private static int checkedOffset(long position) throws IOException {
+        if (position > Integer.MAX_VALUE) {
+            throw new IOException("Corpus too large for the binary format (more than 2 GB).");
+        }
+        return (int) position;
+    }
+}
@@ -0,0 +1,212 @@
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Read-only list of word-picture pairs stored compactly.
+ * Words are kept once in a deduplicated string table. URLs are split after their last slash into a prefix,
+ * kept once in a prefix table, and a suffix stored as ASCII bytes in one shared array (valid URLs are ASCII).
+ * A pair costs three ints plus its suffix bytes; {@link #get(int)} returns a small WordPicturePair view that
+ * shares the word and builds the URL.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class CompactCorpus extends AbstractList<WordPicturePair> implements RandomAccess, WordCorpus {
+    private final String[] words;
+    private final String[] prefixes;
+    private final int[] wordIds;
+    private final int[] prefixIds;
+    private final int[] suffixOffsets; // size + 1 entries, the suffix of pair i ends where the one of i + 1 starts
+    private final byte[] suffixes;
+
+    /**
+     * Collects word-picture pairs for a CompactCorpus.
+     */
+    public static final class Builder {
+        private final Map<String, Integer> wordTable = new HashMap<>();
+        private final Map<String, Integer> prefixTable = new HashMap<>();
+        private String[] words = new String[16];
+        private String[] prefixes = new String[16];
+        private int[] wordIds = new int[16];
+        private int[] prefixIds = new int[16];
+        private int[] suffixOffsets = new int[17];
+        private byte[] suffixes = new byte[256];
+        private int size;
+        private String lastPrefix;
+        private int lastPrefixId;
+
+        /**
+         * Adds a pair after validating it like the WordPicturePair constructor does.
+         * @param word The word.
+         * @param imageUrl The URL of the image.
+         * @return This builder.
+         * @throws IllegalArgumentException if the word is null/empty or the URL is invalid.
+         */
+        public Builder add(String word, String imageUrl) {
+            String trimmed = word == null ? "" : word.trim();
+            if (trimmed.isEmpty()) {
+                throw new IllegalArgumentException("Word cannot be null or empty.");
+            }
+            int hostEnd = imageUrl == null ? -1 : UrlValidator.hostEnd(imageUrl);
+            if (hostEnd < 0) {
+                throw new IllegalArgumentException("The URL provided is invalid.");
+            }
+            int split = Math.max(hostEnd, imageUrl.lastIndexOf('/') + 1);
+
+            if (this.size == this.wordIds.length) {
+                int capacity = this.size * 2;
+                this.wordIds = Arrays.copyOf(this.wordIds, capacity);
+                this.prefixIds = Arrays.copyOf(this.prefixIds, capacity);
+                this.suffixOffsets = Arrays.copyOf(this.suffixOffsets, capacity + 1);
+            }
+            this.wordIds[this.size] = this.wordId(trimmed);
+            this.prefixIds[this.size] = this.prefixId(imageUrl, split);
+
+            int offset = this.suffixOffsets[this.size];
+            int length = imageUrl.length() - split;
+            if (offset + length > this.suffixes.length) {
+                this.suffixes = Arrays.copyOf(this.suffixes, Math.max(this.suffixes.length * 2, offset + length));
+            }
+            for (int i = 0; i < length; i++) {
+                this.suffixes[offset + i] = (byte) imageUrl.charAt(split + i);
+            }
+            this.suffixOffsets[++this.size] = offset + length;
+            return this;
+        }
+
+        /**
+         * Creates the corpus. The builder must not be used afterwards.
+         * @return The corpus.
+         */
+        public CompactCorpus build() {
+            return new CompactCorpus(Arrays.copyOf(this.words, this.wordTable.size()),
+                    Arrays.copyOf(this.prefixes, this.prefixTable.size()),
+                    Arrays.copyOf(this.wordIds, this.size), Arrays.copyOf(this.prefixIds, this.size),
+                    Arrays.copyOf(this.suffixOffsets, this.size + 1),
+                    Arrays.copyOf(this.suffixes, this.suffixOffsets[this.size]));
+        }
+
+        private int wordId(String word) {
+            Integer id = this.wordTable.get(word);
+            if (id == null) {
+                id = this.wordTable.size();
+                this.wordTable.put(word, id);
+                if (id == this.words.length) {
+                    this.words = Arrays.copyOf(this.words, id * 2);
+                }
+                this.words[id] = word;
+            }
+            return id;
+        }
+
+        /**
+         * Looks up the prefix of a URL. Consecutive URLs usually share their prefix, so the last one is checked first.
+         */
+        private int prefixId(String imageUrl, int split) {
+            if (this.lastPrefix != null && this.lastPrefix.length() == split && imageUrl.startsWith(this.lastPrefix)) {
+                return this.lastPrefixId;
+            }
+            String prefix = imageUrl.substring(0, split);
+            Integer id = this.prefixTable.get(prefix);
+            if (id == null) {
+                id = this.prefixTable.size();
+                this.prefixTable.put(prefix, id);
+                if (id == this.prefixes.length) {
+                    this.prefixes = Arrays.copyOf(this.prefixes, id * 2);
+                }
+                this.prefixes[id] = prefix;
+            }
+            this.lastPrefix = this.prefixes[id];
+            this.lastPrefixId = id;
+            return id;
+        }
+    }
+
+    private CompactCorpus(String[] words, String[] prefixes, int[] wordIds, int[] prefixIds,
+                          int[] suffixOffsets, byte[] suffixes) {
+        this.words = words;
+        this.prefixes = prefixes;
+        this.wordIds = wordIds;
+        this.prefixIds = prefixIds;
+        this.suffixOffsets = suffixOffsets;
+        this.suffixes = suffixes;
+    }
+
+    // Getters
+
+    /**
+     * @return The number of distinct words.
+     */
+    public int getDistinctWords() {
+        return this.words.length;
+    }
+
+    /**
+     * @return The number of distinct URL prefixes.
+     */
+    public int getDistinctPrefixes() {
+        return this.prefixes.length;
+    }
+
+    // Methods
+
+    /**
+     * Copies word-picture pairs into a new CompactCorpus.
+     * @param wordPairs The pairs.
+     * @return The corpus.
+     */
+    public static CompactCorpus copyOf(List<WordPicturePair> wordPairs) {
+        Builder builder = new Builder();
+        for (WordPicturePair pair : wordPairs) {
+            builder.add(pair.getWord(), pair.getImageUrl());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the word of the pair at the given index without creating the pair.
+     * @param index The index of the pair.
+     * @return The word, shared by all pairs with this word.
+     */
+    public String getWord(int index) {
+        return this.words[this.wordIds[index]];
+    }
+
+    /**
+     * Builds the image URL of the pair at the given index.
+     * @param index The index of the pair.
+     * @return The URL.
+     */
+    public String getImageUrl(int index) {
+        String prefix = this.prefixes[this.prefixIds[index]];
+        int start = this.suffixOffsets[index];
+        int length = this.suffixOffsets[index + 1] - start;
+        if (length == 0) {
+            return prefix;
+        }
+        return prefix.concat(new String(this.suffixes, start, length, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Returns a view of the pair at the given index.
+     * @param index The index of the pair.
+     * @return A new WordPicturePair for the entry.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    @Override
+    public WordPicturePair get(int index) {
+        if (index < 0 || index >= this.wordIds.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.wordIds.length);
+        }
+        return WordPicturePair.fromTrustedData(this.getWord(index), this.getImageUrl(index));
+    }
+
+    @Override
+    public int size() {
+        return this.wordIds.length;
+    }
+}
@@ -0,0 +1,390 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Persistence strategy compressing the file of a stream format such as {@link JSONPersistence}.
+ * The data is streamed through the codec, so neither saving nor loading holds the whole file in memory. Loading
+ * detects the codec from the first bytes, so files of every codec (and uncompressed ones) can be read.
+ * <p>
+ * The {@link Codec#DEFLATE} codec uses a preset dictionary of the JSON property names and the most common URL prefixes
+ * of the corpus: in JSON every image URL repeats its host and path, which the dictionary makes cheap to reference from
+ * the first pair on. The prefixes are stored compressed in a small header. Files are replaced atomically like the other file-based strategies.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class CompressedPersistence implements PersistenceStrategy<SpellingTrainer> {
+    static final int DEFLATE_MAGIC = 0x5754525a; // "WTRZ"
+    static final int GZIP_MAGIC = 0x1f8b;
+    static final int MAX_DICTIONARY_SIZE = 32 * 1024; // Deflate can't reference further back
+    private static final int DICTIONARY_SAMPLE_SIZE = 4096;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Strings every JSON trainer file contains; the header only stores the prefixes of the corpus
+    private static final byte[] STATIC_DICTIONARY = ("\"currentWordPair\":\"statistics\":{\"correctGuesses\":"
+            + ",\"incorrectGuesses\":,\"totalGuesses\":\"lastResult\":http://www.https://www.{\"wordPairs\":["
+            + ".png\"},.jpg\"},{\"word\":\"\",\"imageUrl\":\"").getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Codec of a compressed file.
+     */
+    public enum Codec {
+        /** Uncompressed, as written by the wrapped format. */
+        NONE,
+        /** Standard GZIP, readable with gunzip. */
+        GZIP,
+        /** zlib stream with a preset dictionary of URL prefixes stored in a small header. */
+        DEFLATE
+    }
+
+    private final StreamPersistenceStrategy<SpellingTrainer> format;
+    private String filePath;
+    private Codec codec;
+    private int level;
+    private boolean forceToDisk;
+    private int backupCount;
+    private volatile IOException lastSaveError;
+
+    /**
+     * Constructor for the CompressedPersistence class.
+     * @param filePath The path of the compressed file.
+     * @param format The format written into the codec, e.g. JSONPersistence.
+     * @param codec The codec used for saving.
+     * @throws IllegalArgumentException if the format or codec is null.
+     */
+    public CompressedPersistence(String filePath, StreamPersistenceStrategy<SpellingTrainer> format, Codec codec) {
+        if (format == null || codec == null) {
+            throw new IllegalArgumentException("Format and codec cannot be null.");
+        }
+        this.filePath = filePath;
+        this.format = format;
+        this.codec = codec;
+        this.level = Deflater.DEFAULT_COMPRESSION;
+        this.forceToDisk = true;
+        this.backupCount = 1;
+    }
+
+    // Getters and Setters
+
+    public Codec getCodec() {
+        return this.codec;
+    }
+
+    /**
+     * Sets the codec used for the next saves. Files of every codec can still be loaded.
+     * @param codec The codec.
+     * @throws IllegalArgumentException if the codec is null.
+     */
+    public void setCodec(Codec codec) {
+        if (codec == null) {
+            throw new IllegalArgumentException("Codec cannot be null.");
+        }
+        this.codec = codec;
+    }
+
+    /**
+     * Sets the compression level of the GZIP and DEFLATE codecs.
+     * @param level 0 (fastest) to 9 (smallest), or -1 for the default.
+     * @throws IllegalArgumentException if the level is out of range.
+     */
+    public void setLevel(int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Level must be between -1 and 9.");
+        }
+        this.level = level;
+    }
+
+    /**
+     * Sets a new file path dynamically.
+     * @param filePath The new file path for saving/loading.
+     */
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * Sets whether every save is forced to disk before the file is replaced.
+     * @param forceToDisk True to fsync every save.
+     */
+    public void setForceToDisk(boolean forceToDisk) {
+        this.forceToDisk = forceToDisk;
+    }
+
+    /**
+     * Sets the number of previous versions kept next to the file.
+     * @param backupCount The number of rotated backups.
+     * @throws IllegalArgumentException if the count is negative.
+     */
+    public void setBackupCount(int backupCount) {
+        if (backupCount < 0) {
+            throw new IllegalArgumentException("Backup count cannot be negative.");
+        }
+        this.backupCount = backupCount;
+    }
+
+    /**
+     * @return The exception of the last save, or null if it succeeded.
+     */
+    @Override
+    public IOException getLastSaveError() {
+        return this.lastSaveError;
+    }
+
+    // Methods
+
+    /**
+     * Saves the SpellingTrainer object compressed with the current codec.
+     * @param trainer The SpellingTrainer object to be saved.
+     */
+    @Override
+    public void saveData(SpellingTrainer trainer) {
+        TrainerMetrics metrics = TrainerMetrics.getInstance();
+        long start = metrics.startTimer();
+        try {
+            Path file = Paths.get(this.filePath);
+            AtomicFileWriter.write(file, this.forceToDisk, this.backupCount,
+                    channel -> this.write(trainer, Channels.newOutputStream(channel)));
+            this.lastSaveError = null;
+            metrics.recordSave(start, file);
+        } catch (IOException e) {
+            this.lastSaveError = e;
+            metrics.recordSaveFailure(start);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Loads the SpellingTrainer object, detecting the codec of the file.
+     * Falls back to the newest readable backup if the file is missing or corrupt.
+     * @return The loaded SpellingTrainer object, or null if no file could be read.
+     */
+    @Override
+    public SpellingTrainer loadData() {
+        TrainerMetrics metrics = TrainerMetrics.getInstance();
+        for (Path candidate : AtomicFileWriter.candidates(Paths.get(this.filePath), this.backupCount)) {
+            if (!Files.exists(candidate)) {
+                continue;
+            }
+            long start = metrics.startTimer();
+            try (InputStream in = Channels.newInputStream(FileChannel.open(candidate, StandardOpenOption.READ))) {
+                SpellingTrainer trainer = this.read(in);
+                if (trainer != null) {
+                    // Automatically inject the persistence strategy after loading
+                    trainer.setPersistenceStrategy(this);
+                    metrics.recordLoad(start, candidate);
+                    return trainer;
+                }
+                metrics.recordLoadFailure(start);
+            } catch (IOException e) {
+                metrics.recordLoadFailure(start);
+                e.printStackTrace();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the trainer through the current codec.
+     */
+    private void write(SpellingTrainer trainer, OutputStream out) throws IOException {
+        switch (this.codec) {
+            case GZIP:
+                int gzipLevel = this.level;
+                GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE) {
+                    {
+                        this.def.setLevel(gzipLevel); // GZIPOutputStream has no constructor taking the level
+                    }
+                };
+                this.format.write(trainer, gzip);
+                gzip.finish();
+                break;
+            case DEFLATE:
+                byte[] prefixes = buildPrefixes(trainer.getWordPairs());
+                byte[] storedPrefixes = deflateRaw(prefixes);
+                DataOutputStream header = new DataOutputStream(out);
+                header.writeInt(DEFLATE_MAGIC);
+                header.writeShort(prefixes.length);
+                header.writeShort(storedPrefixes.length);
+                header.write(storedPrefixes);
+                header.flush();
+                Deflater deflater = new Deflater(this.level);
+                try {
+                    deflater.setDictionary(dictionary(prefixes));
+                    DeflaterOutputStream deflate = new DeflaterOutputStream(out, deflater, BUFFER_SIZE);
+                    this.format.write(trainer, deflate);
+                    deflate.finish();
+                } finally {
+                    deflater.end();
+                }
+                break;
+            default:
+                this.format.write(trainer, out);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a trainer, choosing the codec by the first bytes of the stream.
+     */
+    private SpellingTrainer read(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(4);
+        DataInputStream data = new DataInputStream(buffered);
+        int magic;
+        try {
+            magic = data.readInt();
+        } catch (EOFException e) {
+            magic = 0; // Shorter than any header, left to the format
+        }
+        buffered.reset();
+        if (magic >>> 16 == GZIP_MAGIC) {
+            return this.format.read(new GZIPInputStream(buffered, BUFFER_SIZE));
+        }
+        if (magic != DEFLATE_MAGIC) {
+            return this.format.read(buffered);
+        }
+        data.readInt();
+        byte[] prefixes = new byte[data.readUnsignedShort()];
+        byte[] storedPrefixes = new byte[data.readUnsignedShort()];
+        data.readFully(storedPrefixes);
+        inflateRaw(storedPrefixes, prefixes);
+        byte[] dictionary = dictionary(prefixes);
+        Inflater inflater = new Inflater();
+        try {
+            return this.format.read(new DictionaryInflaterInputStream(buffered, inflater, dictionary));
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Builds the preset dictionary for a corpus: the JSON fragments every file has, followed by its URL prefixes.
+     * @param pairs The word pairs to be written.
+     * @return The dictionary, at most 32 KB.
+     */
+    static byte[] buildDictionary(List<WordPicturePair> pairs) {
+        return dictionary(buildPrefixes(pairs));
+    }
+
+    /**
+     * Collects the URL prefixes (up to the last '/') of a sample of the pairs, separated by newlines.
+     * The most common prefixes come last, where deflate references them with the shortest distances.
+     */
+    private static byte[] buildPrefixes(List<WordPicturePair> pairs) {
+        Map<String, Integer> prefixCounts = new HashMap<>();
+        int step = Math.max(1, pairs.size() / DICTIONARY_SAMPLE_SIZE);
+        for (int i = 0; i < pairs.size(); i += step) {
+            String url = pairs.get(i).getImageUrl();
+            prefixCounts.merge(url.substring(0, url.lastIndexOf('/') + 1), 1, Integer::sum);
+        }
+        List<Map.Entry<String, Integer>> prefixes = new ArrayList<>(prefixCounts.entrySet());
+        prefixes.sort(Map.Entry.comparingByValue());
+        StringBuilder joined = new StringBuilder();
+        for (Map.Entry<String, Integer> prefix : prefixes) {
+            joined.append('\n').append(prefix.getKey());
+        }
+        byte[] bytes = joined.toString().getBytes(StandardCharsets.UTF_8);
+        int maxLength = MAX_DICTIONARY_SIZE - STATIC_DICTIONARY.length;
+        if (bytes.length <= maxLength) {
+            return bytes;
+        }
+        // Keep the end with the most common prefixes
+        byte[] tail = new byte[maxLength];
+        System.arraycopy(bytes, bytes.length - maxLength, tail, 0, maxLength);
+        return tail;
+    }
+
+    private static byte[] dictionary(byte[] prefixes) {
+        byte[] dictionary = new byte[STATIC_DICTIONARY.length + prefixes.length];
+        System.arraycopy(STATIC_DICTIONARY, 0, dictionary, 0, STATIC_DICTIONARY.length);
+        System.arraycopy(prefixes, 0, dictionary, STATIC_DICTIONARY.length, prefixes.length);
+        return dictionary;
+    }
+
+    /**
+     * Compresses the prefixes stored in the header, using the static part of the dictionary.
+     */
+    private static byte[] deflateRaw(byte[] prefixes) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setDictionary(STATIC_DICTIONARY);
+            deflater.setInput(prefixes);
+            deflater.finish();
+            byte[] buffer = new byte[prefixes.length + 64];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            return Arrays.copyOf(buffer, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void inflateRaw(byte[] stored, byte[] prefixes) throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setDictionary(STATIC_DICTIONARY);
+            inflater.setInput(stored);
+            int length = 0;
+            while (length < prefixes.length) {
+                int read = inflater.inflate(prefixes, length, prefixes.length - length);
+                if (read == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IOException("Corrupt dictionary header.");
+                }
+                length += read;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt dictionary header.", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Inflater stream that supplies the preset dictionary when the zlib header asks for it.
+     */
+    private static final class DictionaryInflaterInputStream extends InflaterInputStream {
+        private final byte[] dictionary;
+
+        DictionaryInflaterInputStream(InputStream in, Inflater inflater, byte[] dictionary) {
+            super(in, inflater, BUFFER_SIZE);
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read == -1 && this.inf.needsDictionary()) {
+                this.inf.setDictionary(this.dictionary);
+                read = super.read(b, off, len);
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe statistics for counters that are updated by many threads at once, e.g. aggregates over all sessions.
+ * The counters are LongAdders, so writers don't contend on a single memory location and can't overflow an int.
+ * The total is not stored but derived from the correct and incorrect counts, so a {@link Snapshot} always
+ * satisfies correct + incorrect = total.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class ConcurrentStatistics extends Statistics {
+    private final LongAdder correct;
+    private final LongAdder incorrect;
+
+    /**
+     * Consistent, immutable view of the counters at one point in time.
+     */
+    public static final class Snapshot {
+        private final long correctGuesses;
+        private final long incorrectGuesses;
+
+        private Snapshot(long correctGuesses, long incorrectGuesses) {
+            this.correctGuesses = correctGuesses;
+            this.incorrectGuesses = incorrectGuesses;
+        }
+
+        public long getCorrectGuesses() {
+            return this.correctGuesses;
+        }
+
+        public long getIncorrectGuesses() {
+            return this.incorrectGuesses;
+        }
+
+        public long getTotalGuesses() {
+            return this.correctGuesses + this.incorrectGuesses;
+        }
+
+        /**
+         * Calculates the accuracy as a percentage of correct guesses.
+         * @return The accuracy as a percentage, or 0 if no guesses have been made.
+         */
+        public double getAccuracy() {
+            long total = this.getTotalGuesses();
+            return total == 0 ? 0 : (double) this.correctGuesses / total * 100;
+        }
+    }
+
+    // Constructors
+
+    /**
+     * Constructor for a ConcurrentStatistics object.
+     */
+    public ConcurrentStatistics() {
+        this.correct = new LongAdder();
+        this.incorrect = new LongAdder();
+    }
+
+    /**
+     * Constructor for a ConcurrentStatistics object with restored counters.
+     * @param correctGuesses The number of correct guesses.
+     * @param incorrectGuesses The number of incorrect guesses.
+     */
+    public ConcurrentStatistics(long correctGuesses, long incorrectGuesses) {
+        this();
+        this.correct.add(correctGuesses);
+        this.incorrect.add(incorrectGuesses);
+    }
+
+    // Getters
+
+    /**
+     * @return The number of correct guesses, capped at Integer.MAX_VALUE. Use {@link #snapshot()} for the full value.
+     */
+    @Override
+    public int getCorrectGuesses() {
+        return saturate(this.correct.sum());
+    }
+
+    /**
+     * @return The number of incorrect guesses, capped at Integer.MAX_VALUE. Use {@link #snapshot()} for the full value.
+     */
+    @Override
+    public int getIncorrectGuesses() {
+        return saturate(this.incorrect.sum());
+    }
+
+    /**
+     * @return The total number of guesses, capped at Integer.MAX_VALUE. Use {@link #snapshot()} for the full value.
+     */
+    @Override
+    public int getTotalGuesses() {
+        return saturate(this.snapshot().getTotalGuesses());
+    }
+
+    // Methods
+
+    /**
+     * Reads the counters into a consistent snapshot.
+     * Increments that race with the snapshot are either fully included or not at all.
+     * @return The snapshot.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this.correct.sum(), this.incorrect.sum());
+    }
+
+    @Override
+    public void incrementCorrectGuesses() {
+        this.correct.increment();
+    }
+
+    @Override
+    public void incrementIncorrectGuesses() {
+        this.incorrect.increment();
+    }
+
+    @Override
+    void decrementCorrectGuesses() {
+        this.correct.decrement();
+    }
+
+    @Override
+    void decrementIncorrectGuesses() {
+        this.incorrect.decrement();
+    }
+
+    /**
+     * Resets all counters. Increments running at the same time may survive the reset.
+     */
+    @Override
+    public void reset() {
+        this.correct.reset();
+        this.incorrect.reset();
+    }
+
+    @Override
+    public double getAccuracy() {
+        return this.snapshot().getAccuracy();
+    }
+
+    @Override
+    public String toString() {
+        Snapshot snapshot = this.snapshot();
+        return "Correct Guesses: " + snapshot.getCorrectGuesses() + "\n" +
+                "Incorrect Guesses: " + snapshot.getIncorrectGuesses() + "\n" +
+                "Total Guesses: " + snapshot.getTotalGuesses() + "\n" +
+                "Accuracy: " + String.format("%.2f", snapshot.getAccuracy()) + "%";
+    }
+
+    private static int saturate(long value) {
+        return (int) Math.min(value, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,66 @@
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/**
+ * Gson adapter for ConcurrentStatistics objects.
+ * Uses the same properties as a saved Statistics object, so existing files can be read as ConcurrentStatistics.
+ * The stored total is ignored on read because it is derived from the other two counters.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class ConcurrentStatisticsAdapter extends TypeAdapter<ConcurrentStatistics> {
+
+    /**
+     * Writes a consistent snapshot of the counters.
+     * @param out The JSON writer.
+     * @param statistics The statistics to write, may be null.
+     * @throws IOException if writing fails.
+     */
+    @Override
+    public void write(JsonWriter out, ConcurrentStatistics statistics) throws IOException {
+        if (statistics == null) {
+            out.nullValue();
+            return;
+        }
+        ConcurrentStatistics.Snapshot snapshot = statistics.snapshot();
+        out.beginObject();
+        out.name("correctGuesses").value(snapshot.getCorrectGuesses());
+        out.name("incorrectGuesses").value(snapshot.getIncorrectGuesses());
+        out.name("totalGuesses").value(snapshot.getTotalGuesses());
+        out.endObject();
+    }
+
+    /**
+     * Reads the counters. Unknown properties are skipped.
+     * @param in The JSON reader.
+     * @return The statistics, or null if the JSON value is null.
+     * @throws IOException if reading fails.
+     */
+    @Override
+    public ConcurrentStatistics read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        long correctGuesses = 0;
+        long incorrectGuesses = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "correctGuesses":
+                    correctGuesses = in.nextLong();
+                    break;
+                case "incorrectGuesses":
+                    incorrectGuesses = in.nextLong();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new ConcurrentStatistics(correctGuesses, incorrectGuesses);
+    }
+}
@@ -0,0 +1,305 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Class importing word lists with millions of rows from CSV or TSV files.
+ * Every row is {@code word,imageUrl} (further columns are ignored); fields may be quoted with double quotes.
+ * Empty lines and lines starting with # are skipped, as is a header row whose first field is "word".
+ * <p>
+ * Rows are read in chunks that are parsed and validated in parallel with the single-pass {@link UrlValidator}.
+ * The rows of a chunk are then merged in order: invalid rows are reported with their line number, duplicate words
+ * are dropped, and equal URLs share one String instance.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class CorpusImporter {
+    private static final int CHUNK_SIZE = 16 * 1024;
+    private static final int MAX_ERRORS = 100;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private boolean parallel;
+    private boolean skipDuplicates;
+
+    /**
+     * Result of an import.
+     */
+    public static final class ImportResult {
+        private final List<WordPicturePair> wordPairs = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private long rows;
+        private long invalidRows;
+        private long duplicateRows;
+        private long nanos;
+
+        public List<WordPicturePair> getWordPairs() {
+            return this.wordPairs;
+        }
+
+        /**
+         * @return The first error messages, each with its line number.
+         */
+        public List<String> getErrors() {
+            return Collections.unmodifiableList(this.errors);
+        }
+
+        public long getRows() {
+            return this.rows;
+        }
+
+        public long getInvalidRows() {
+            return this.invalidRows;
+        }
+
+        public long getDuplicateRows() {
+            return this.duplicateRows;
+        }
+
+        public long getNanos() {
+            return this.nanos;
+        }
+
+        /**
+         * @return The import throughput in rows per second.
+         */
+        public double getRowsPerSecond() {
+            return this.nanos == 0 ? 0 : this.rows * 1e9 / this.nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d rows (%d imported, %d invalid, %d duplicate) in %.2f s, %.0f rows/s",
+                    this.rows, this.wordPairs.size(), this.invalidRows, this.duplicateRows,
+                    this.nanos / 1e9, this.getRowsPerSecond());
+        }
+    }
+
+    /**
+     * Constructor for the CorpusImporter class. Rows are validated in parallel and duplicate words are skipped.
+     */
+    public CorpusImporter() {
+        this.parallel = true;
+        this.skipDuplicates = true;
+    }
+
+    // Getters and Setters
+
+    /**
+     * Enables or disables parallel parsing and validation of the rows.
+     * @param parallel False to use only the calling thread.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Sets whether rows with a word that was already imported are skipped.
+     * @param skipDuplicates False to keep all rows.
+     */
+    public void setSkipDuplicates(boolean skipDuplicates) {
+        this.skipDuplicates = skipDuplicates;
+    }
+
+    // Methods
+
+    /**
+     * Imports a UTF-8 CSV or TSV file.
+     * @param file The file.
+     * @return The result of the import.
+     * @throws IOException if reading fails.
+     */
+    public ImportResult importFile(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return this.importFrom(reader);
+        }
+    }
+
+    /**
+     * Imports CSV or TSV rows. The delimiter is detected from the first row: tab if it contains one, comma otherwise.
+     * @param in The rows.
+     * @return The result of the import.
+     * @throws IOException if reading fails.
+     */
+    public ImportResult importFrom(Reader in) throws IOException {
+        long start = System.nanoTime();
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, BUFFER_SIZE);
+        ImportResult result = new ImportResult();
+        Set<String> words = new HashSet<>();
+        Map<String, String> urls = new HashMap<>();
+        String[] lines = new String[CHUNK_SIZE];
+        long[] lineNumbers = new long[CHUNK_SIZE];
+        char delimiter = 0;
+        long lineNumber = 0;
+        int count = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (delimiter == 0) {
+                delimiter = line.indexOf('\t') >= 0 ? '\t' : ',';
+                if (isHeader(line, delimiter)) {
+                    continue;
+                }
+            }
+            lines[count] = line;
+            lineNumbers[count] = lineNumber;
+            if (++count == CHUNK_SIZE) {
+                this.processChunk(lines, lineNumbers, count, delimiter, result, words, urls);
+                count = 0;
+            }
+        }
+        this.processChunk(lines, lineNumbers, count, delimiter, result, words, urls);
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Parses and validates a chunk of rows, in parallel if enabled, and merges them into the result in order.
+     */
+    private void processChunk(String[] lines, long[] lineNumbers, int count, char delimiter, ImportResult result,
+                              Set<String> words, Map<String, String> urls) {
+        String[] parsedWords = new String[count];
+        String[] parsedUrls = new String[count];
+        String[] errors = new String[count];
+        IntStream indices = IntStream.range(0, count);
+        (this.parallel ? indices.parallel() : indices).forEach(i -> {
+            String[] fields = parseRow(lines[i], delimiter);
+            if (fields == null) {
+                errors[i] = "expected word and image URL";
+            } else if (fields[0].isEmpty()) {
+                errors[i] = "word is empty";
+            } else if (!UrlValidator.isValid(fields[1])) {
+                errors[i] = "invalid URL " + fields[1];
+            } else {
+                parsedWords[i] = fields[0];
+                parsedUrls[i] = fields[1];
+            }
+        });
+
+        for (int i = 0; i < count; i++) {
+            result.rows++;
+            lines[i] = null;
+            if (errors[i] != null) {
+                result.invalidRows++;
+                if (result.errors.size() < MAX_ERRORS) {
+                    result.errors.add("Line " + lineNumbers[i] + ": " + errors[i]);
+                }
+                continue;
+            }
+            if (this.skipDuplicates && !words.add(parsedWords[i])) {
+                result.duplicateRows++;
+                continue;
+            }
+            String url = parsedUrls[i];
+            String known = urls.putIfAbsent(url, url);
+            if (known != null) {
+                url = known;
+            }
+            result.wordPairs.add(WordPicturePair.fromTrustedData(parsedWords[i], url));
+        }
+    }
+
+    /**
+     * Splits a row into its trimmed word and URL fields.
+     * @return The two fields, or null if the row has fewer than two.
+     */
+    static String[] parseRow(String line, char delimiter) {
+        if (line.indexOf('"') < 0) {
+            // Fast path without quotes: no copying besides the two fields
+            int first = line.indexOf(delimiter);
+            if (first < 0) {
+                return null;
+            }
+            int second = line.indexOf(delimiter, first + 1);
+            return new String[] {line.substring(0, first).trim(),
+                    line.substring(first + 1, second < 0 ? line.length() : second).trim()};
+        }
+        StringBuilder field = new StringBuilder();
+        int next = readField(line, 0, delimiter, field);
+        if (next >= line.length()) {
+            return null;
+        }
+        String word = field.toString().trim();
+        field.setLength(0);
+        readField(line, next + 1, delimiter, field);
+        return new String[] {word, field.toString().trim()};
+    }
+
+    /**
+     * Reads one field starting at the given index into the builder, removing quotes.
+     * @return The index of the delimiter after the field, or the line's length.
+     */
+    private static int readField(String line, int start, char delimiter, StringBuilder field) {
+        int i = start;
+        while (i < line.length() && line.charAt(i) == ' ') {
+            i++;
+        }
+        if (i < line.length() && line.charAt(i) == '"') {
+            for (i++; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        i++;
+                        break;
+                    }
+                } else {
+                    field.append(c);
+                }
+            }
+        }
+        while (i < line.length() && line.charAt(i) != delimiter) {
+            field.append(line.charAt(i++));
+        }
+        return i;
+    }
+
+    private static boolean isHeader(String line, char delimiter) {
+        int end = line.indexOf(delimiter);
+        return end >= 0 && line.substring(0, end).trim().replace("\"", "").equalsIgnoreCase("word");
+    }
+
+    /**
+     * Main method importing a word list into a new trainer file.
+     * @param args The CSV/TSV file, the trainer file (.json for JSON, binary otherwise) and optionally --sequential.
+     * @throws IOException if reading the word list fails.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CorpusImporter <csv or tsv file> <trainer file> [--sequential]");
+            System.exit(2);
+        }
+        CorpusImporter importer = new CorpusImporter();
+        importer.setParallel(!(args.length > 2 && "--sequential".equals(args[2])));
+        ImportResult result = importer.importFile(Paths.get(args[0]));
+        for (String error : result.getErrors()) {
+            System.err.println(error);
+        }
+        System.out.println(result);
+        if (result.getWordPairs().isEmpty()) {
+            System.err.println("No valid rows in " + args[0]);
+            System.exit(1);
+        }
+        PersistenceStrategy<SpellingTrainer> persistence = PersistenceConverter.forFile(args[1]);
+        SpellingTrainer trainer = new SpellingTrainer(result.getWordPairs(), persistence);
+        trainer.persistData();
+        trainer.flushData();
+        System.out.println("Saved " + result.getWordPairs().size() + " word pairs to " + args[1]);
+    }
+}
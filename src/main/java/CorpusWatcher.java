@@ -0,0 +1,161 @@
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reloads the word pairs of a running trainer when its corpus file (CSV or TSV, see {@link CorpusImporter}) changes.
+ * A daemon thread watches the directory of the file with a {@link WatchService}. Once the file has not changed for a
+ * short time, so an editor has finished writing it, the thread imports it and publishes the new word pairs with
+ * {@link SpellingTrainer#setWordPairs(List)}. The trainer isn't locked while the file is read, and a file that has no
+ * valid rows keeps the old word pairs.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class CorpusWatcher {
+    private static final long QUIET_MILLIS = 200;
+
+    private final Path corpusFile;
+    private final SpellingTrainer trainer;
+    private final CorpusImporter importer;
+    private volatile Consumer<CorpusImporter.ImportResult> listener;
+    private volatile long reloads;
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * Constructor for the CorpusWatcher class. Watching starts with {@link #start()}.
+     * @param corpusFile The corpus file.
+     * @param trainer The trainer whose word pairs are replaced.
+     * @throws IllegalArgumentException if the file or trainer is null.
+     */
+    public CorpusWatcher(Path corpusFile, SpellingTrainer trainer) {
+        if (corpusFile == null || trainer == null) {
+            throw new IllegalArgumentException("Corpus file and trainer cannot be null.");
+        }
+        this.corpusFile = corpusFile.toAbsolutePath();
+        this.trainer = trainer;
+        this.importer = new CorpusImporter();
+    }
+
+    // Getters and Setters
+
+    /**
+     * @return The number of reloads that replaced the word pairs.
+     */
+    public long getReloads() {
+        return this.reloads;
+    }
+
+    /**
+     * Sets a listener that is called on the watcher thread after every reload, e.g. to report invalid rows.
+     * @param listener The listener, or null for none.
+     */
+    public void setListener(Consumer<CorpusImporter.ImportResult> listener) {
+        this.listener = listener;
+    }
+
+    // Methods
+
+    /**
+     * Starts watching the corpus file on a daemon thread.
+     * @throws IOException if the directory can't be watched.
+     */
+    public synchronized void start() throws IOException {
+        if (this.thread != null) {
+            return;
+        }
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.corpusFile.getParent().register(this.watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        WatchService watching = this.watchService;
+        this.thread = new Thread(() -> this.watch(watching), "corpus-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stops watching. A reload that is running is finished.
+     */
+    public synchronized void stop() {
+        if (this.thread == null) {
+            return;
+        }
+        try {
+            this.watchService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        this.thread = null;
+        this.watchService = null;
+    }
+
+    /**
+     * Imports the corpus file and publishes its word pairs to the trainer.
+     * @return True if the word pairs were replaced, false if the file has no valid rows.
+     * @throws IOException if the file can't be read.
+     */
+    public boolean reload() throws IOException {
+        CorpusImporter.ImportResult result = this.importer.importFile(this.corpusFile);
+        boolean replaced = !result.getWordPairs().isEmpty();
+        if (replaced) {
+            this.trainer.setWordPairs(Collections.unmodifiableList(result.getWordPairs()));
+            this.reloads++;
+        }
+        Consumer<CorpusImporter.ImportResult> listener = this.listener;
+        if (listener != null) {
+            listener.accept(result);
+        }
+        return replaced;
+    }
+
+    /**
+     * Waits for changes of the corpus file and reloads it once no further change arrives for a short time.
+     */
+    private void watch(WatchService watching) {
+        try {
+            while (true) {
+                boolean changed = this.drain(watching.take());
+                // Editors write in several steps, wait until the file is quiet
+                WatchKey key;
+                while ((key = watching.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= this.drain(key);
+                }
+                if (changed && Files.exists(this.corpusFile)) {
+                    try {
+                        this.reload();
+                    } catch (IOException | RuntimeException e) {
+                        e.printStackTrace(); // Keep the old word pairs
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    /**
+     * Takes the events of a key.
+     * @return True if one of them concerns the corpus file.
+     */
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || this.corpusFile.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+}
@@ -0,0 +1,319 @@
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.ref.WeakReference;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistence strategy that splits the trainer into a corpus blob and a small session record.
+ * The word pairs are written once as a JSON blob named by the SHA-256 hash of its content into the {@code corpora}
+ * directory next to the file; the file itself only holds the hash, the current pair, the statistics and the last
+ * result, so a save after a guess writes a few hundred bytes instead of the whole corpus.
+ * <p>
+ * Trainer files in the same directory that use the same corpus share one blob, and loaded corpora are shared in memory
+ * by all trainers of the JVM. Corpora are treated as immutable: a changed corpus must be a new list, which is then
+ * written as a new blob. Old blobs are not deleted.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class DeltaSnapshotPersistence implements PersistenceStrategy<SpellingTrainer> {
+    static final String CORPUS_DIRECTORY = "corpora";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Loaded and saved corpora by hash, shared by all instances
+    private static final Map<String, WeakReference<List<WordPicturePair>>> CORPUS_CACHE = new HashMap<>();
+
+    private final WordPicturePairAdapter pairAdapter;
+    private final SpellingTrainerAdapter trainerAdapter;
+    private String filePath;
+    private boolean forceToDisk;
+    private int backupCount;
+    private volatile IOException lastSaveError;
+    private List<WordPicturePair> savedCorpus; // Corpus of the last save, to skip hashing it again
+    private String savedCorpusHash;
+
+    /**
+     * Constructor for the DeltaSnapshotPersistence class.
+     * @param filePath The path of the session record; the blobs are kept in the corpora directory next to it.
+     */
+    public DeltaSnapshotPersistence(String filePath) {
+        this.pairAdapter = new WordPicturePairAdapter();
+        this.trainerAdapter = new SpellingTrainerAdapter();
+        this.filePath = filePath;
+        this.forceToDisk = true;
+        this.backupCount = 1;
+    }
+
+    // Getters and Setters
+
+    /**
+     * Sets a new file path dynamically.
+     * @param filePath The new file path for saving/loading.
+     */
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * Sets whether every save is forced to disk before the file is replaced.
+     * @param forceToDisk True to fsync every save.
+     */
+    public void setForceToDisk(boolean forceToDisk) {
+        this.forceToDisk = forceToDisk;
+    }
+
+    /**
+     * Sets the number of previous session records kept next to the file.
+     * @param backupCount The number of rotated backups.
+     * @throws IllegalArgumentException if the count is negative.
+     */
+    public void setBackupCount(int backupCount) {
+        if (backupCount < 0) {
+            throw new IllegalArgumentException("Backup count cannot be negative.");
+        }
+        this.backupCount = backupCount;
+    }
+
+    /**
+     * Returns the path of the blob of a corpus.
+     * @param hash The SHA-256 hash of the corpus blob.
+     * @return The path of the blob.
+     */
+    public Path getCorpusPath(String hash) {
+        return Paths.get(this.filePath).toAbsolutePath().resolveSibling(CORPUS_DIRECTORY).resolve(hash + ".json");
+    }
+
+    /**
+     * @return The exception of the last save, or null if it succeeded.
+     */
+    @Override
+    public IOException getLastSaveError() {
+        return this.lastSaveError;
+    }
+
+    // Methods
+
+    /**
+     * Saves the session record, writing the corpus blob first if it doesn't exist yet.
+     * @param trainer The SpellingTrainer object to be saved.
+     */
+    @Override
+    public void saveData(SpellingTrainer trainer) {
+        TrainerMetrics metrics = TrainerMetrics.getInstance();
+        long start = metrics.startTimer();
+        try {
+            String hash = this.saveCorpus(trainer.getWordPairs());
+            Path file = Paths.get(this.filePath);
+            // The blob is durable before the record that refers to it replaces the old one
+            AtomicFileWriter.write(file, this.forceToDisk, this.backupCount,
+                    channel -> this.writeSession(hash, trainer, Channels.newOutputStream(channel)));
+            this.lastSaveError = null;
+            metrics.recordSave(start, file);
+        } catch (IOException e) {
+            this.lastSaveError = e;
+            metrics.recordSaveFailure(start);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Loads the session record and attaches its corpus, from memory if another trainer already loaded it.
+     * Falls back to the newest readable backup if the record is missing or corrupt.
+     * @return The loaded SpellingTrainer object, or null if no file could be read.
+     */
+    @Override
+    public SpellingTrainer loadData() {
+        TrainerMetrics metrics = TrainerMetrics.getInstance();
+        for (Path candidate : AtomicFileWriter.candidates(Paths.get(this.filePath), this.backupCount)) {
+            if (!Files.exists(candidate)) {
+                continue;
+            }
+            long start = metrics.startTimer();
+            try (Reader reader = new BufferedReader(
+                    Channels.newReader(FileChannel.open(candidate, StandardOpenOption.READ), StandardCharsets.UTF_8))) {
+                SpellingTrainer trainer = this.readSession(new JsonReader(reader));
+                // Automatically inject the persistence strategy after loading
+                trainer.setPersistenceStrategy(this);
+                metrics.recordLoad(start, candidate);
+                return trainer;
+            } catch (IOException | JsonParseException | IllegalStateException e) {
+                metrics.recordLoadFailure(start);
+                e.printStackTrace();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the blob of a corpus unless it already exists.
+     * @return The hash of the corpus.
+     */
+    private String saveCorpus(List<WordPicturePair> wordPairs) throws IOException {
+        String hash = wordPairs == this.savedCorpus ? this.savedCorpusHash : cachedHash(wordPairs);
+        if (hash == null) {
+            // Hash the serialized corpus without writing it, most saves find the blob on disk
+            MessageDigest digest = sha256();
+            this.writeCorpus(wordPairs, new DigestOutputStream(OutputStream.nullOutputStream(), digest));
+            hash = HexFormat.of().formatHex(digest.digest());
+            cache(hash, wordPairs);
+        }
+        Path blob = this.getCorpusPath(hash);
+        if (!Files.exists(blob)) {
+            Files.createDirectories(blob.getParent());
+            AtomicFileWriter.write(blob, this.forceToDisk, 0, channel -> this.writeCorpus(wordPairs, Channels.newOutputStream(channel)));
+        }
+        this.savedCorpus = wordPairs;
+        this.savedCorpusHash = hash;
+        return hash;
+    }
+
+    /**
+     * Reads the blob of a corpus and checks its hash.
+     */
+    private List<WordPicturePair> loadCorpus(String hash) throws IOException {
+        List<WordPicturePair> cached = cachedCorpus(hash);
+        if (cached != null) {
+            return cached;
+        }
+        MessageDigest digest = sha256();
+        List<WordPicturePair> wordPairs = new ArrayList<>();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(this.getCorpusPath(hash)), digest)) {
+            JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE));
+            reader.beginArray();
+            while (reader.hasNext()) {
+                wordPairs.add(this.pairAdapter.read(reader));
+            }
+            reader.endArray();
+            in.transferTo(OutputStream.nullOutputStream()); // Hash what the reader didn't need
+        }
+        if (!HexFormat.of().formatHex(digest.digest()).equals(hash)) {
+            throw new IOException("Corpus blob " + hash + " is corrupt.");
+        }
+        List<WordPicturePair> corpus = Collections.unmodifiableList(wordPairs);
+        cache(hash, corpus);
+        return cachedCorpus(hash); // Another thread may have loaded it first
+    }
+
+    private void writeCorpus(List<WordPicturePair> wordPairs, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        JsonWriter json = new JsonWriter(writer);
+        json.beginArray();
+        for (WordPicturePair pair : wordPairs) {
+            this.pairAdapter.write(json, pair);
+        }
+        json.endArray();
+        json.flush();
+    }
+
+    /**
+     * Writes {"corpus": hash, "trainer": {...}}, where the trainer has no word pairs.
+     */
+    private void writeSession(String hash, SpellingTrainer trainer, OutputStream out) throws IOException {
+        JsonWriter json = new JsonWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        json.beginObject();
+        json.name("corpus").value(hash);
+        json.name("trainer");
+        this.trainerAdapter.write(json, new SpellingTrainer(null, trainer.getCurrentWordPair(), trainer.getStatistics(),
+                trainer.getLastResult(), trainer.getWordStatistics()));
+        json.endObject();
+        json.flush();
+    }
+
+    private SpellingTrainer readSession(JsonReader json) throws IOException {
+        String hash = null;
+        SpellingTrainer session = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "corpus":
+                    hash = json.nextString();
+                    break;
+                case "trainer":
+                    session = this.trainerAdapter.readUnvalidated(json);
+                    break;
+                default:
+                    json.skipValue();
+            }
+        }
+        json.endObject();
+        if (hash == null || session == null) {
+            throw new IOException("Session record without corpus or trainer.");
+        }
+        SpellingTrainer trainer = new SpellingTrainer(this.loadCorpus(hash), session.getCurrentWordPair(),
+                session.getStatistics(), session.getLastResult(), session.getWordStatistics());
+        String problem = SpellingTrainerAdapter.validate(trainer);
+        if (problem != null) {
+            throw new JsonParseException("Invalid trainer: " + problem + ".");
+        }
+        return trainer;
+    }
+
+    /**
+     * Returns the hash of a corpus that was saved or loaded before, compared by identity.
+     */
+    private static String cachedHash(List<WordPicturePair> wordPairs) {
+        synchronized (CORPUS_CACHE) {
+            for (Map.Entry<String, WeakReference<List<WordPicturePair>>> entry : CORPUS_CACHE.entrySet()) {
+                if (entry.getValue().get() == wordPairs) {
+                    return entry.getKey();
+                }
+            }
+            return null;
+        }
+    }
+
+    private static List<WordPicturePair> cachedCorpus(String hash) {
+        synchronized (CORPUS_CACHE) {
+            WeakReference<List<WordPicturePair>> reference = CORPUS_CACHE.get(hash);
+            return reference == null ? null : reference.get();
+        }
+    }
+
+    /**
+     * Remembers a corpus under its hash unless another live list already is, and drops collected corpora.
+     */
+    private static void cache(String hash, List<WordPicturePair> wordPairs) {
+        synchronized (CORPUS_CACHE) {
+            Iterator<WeakReference<List<WordPicturePair>>> references = CORPUS_CACHE.values().iterator();
+            while (references.hasNext()) {
+                if (references.next().get() == null) {
+                    references.remove();
+                }
+            }
+            CORPUS_CACHE.putIfAbsent(hash, new WeakReference<>(wordPairs));
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+}
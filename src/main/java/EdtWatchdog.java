@@ -0,0 +1,134 @@
+import java.awt.EventQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detector for a blocked event dispatch thread (EDT).
+ * A background thread posts a probe event at a fixed interval and records how long the EDT took to run it, which is
+ * the delay a click or repaint would have seen. If a probe waits longer than the stall threshold, the stack of the
+ * EDT is captured while it is still blocked, so the code that blocks it can be found.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class EdtWatchdog {
+    private final long intervalMillis;
+    private final long thresholdNanos;
+    private final LatencyHistogram latency;
+    private ScheduledExecutorService scheduler;
+    private volatile Thread eventDispatchThread;
+    private volatile long pendingSince; // Time the unanswered probe was posted, or 0
+    private volatile boolean stallReported;
+    private volatile long stalls;
+    private volatile StackTraceElement[] lastStallTrace;
+    private volatile boolean stallLogging;
+
+    /**
+     * Constructor for the EdtWatchdog class.
+     * @param intervalMillis The time between two probes.
+     * @param thresholdMillis The delay from which a probe counts as a stall.
+     * @throws IllegalArgumentException if the interval or threshold is not positive.
+     */
+    public EdtWatchdog(long intervalMillis, long thresholdMillis) {
+        if (intervalMillis <= 0 || thresholdMillis <= 0) {
+            throw new IllegalArgumentException("Interval and threshold must be positive.");
+        }
+        this.intervalMillis = intervalMillis;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.latency = new LatencyHistogram();
+    }
+
+    // Getters and Setters
+
+    /**
+     * @return The delays of the answered probes in nanoseconds.
+     */
+    public LatencyHistogram getLatency() {
+        return this.latency;
+    }
+
+    /**
+     * @return The longest delay of an answered probe in milliseconds.
+     */
+    public long getMaxLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.latency.getMax());
+    }
+
+    /**
+     * @return The number of probes that waited longer than the threshold.
+     */
+    public long getStalls() {
+        return this.stalls;
+    }
+
+    /**
+     * @return The stack of the EDT during the last stall, or null if there was none.
+     */
+    public StackTraceElement[] getLastStallTrace() {
+        return this.lastStallTrace;
+    }
+
+    /**
+     * @param stallLogging True to print the stack of the EDT to stderr on every stall.
+     */
+    public void setStallLogging(boolean stallLogging) {
+        this.stallLogging = stallLogging;
+    }
+
+    // Methods
+
+    /**
+     * Starts probing on a daemon thread.
+     */
+    public synchronized void start() {
+        if (this.scheduler != null) {
+            return;
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "edt-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleAtFixedRate(this::probe, 0, this.intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops probing. A probe that is still pending is not recorded.
+     */
+    public synchronized void stop() {
+        if (this.scheduler != null) {
+            this.scheduler.shutdownNow();
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * Posts a probe if the last one was answered, otherwise checks whether the pending one has become a stall.
+     */
+    private void probe() {
+        long pending = this.pendingSince;
+        long now = System.nanoTime();
+        if (pending == 0) {
+            this.stallReported = false;
+            this.pendingSince = now;
+            EventQueue.invokeLater(() -> {
+                this.eventDispatchThread = Thread.currentThread();
+                this.latency.record(System.nanoTime() - now);
+                this.pendingSince = 0;
+            });
+        } else if (!this.stallReported && now - pending >= this.thresholdNanos) {
+            this.stallReported = true;
+            this.stalls++;
+            Thread edt = this.eventDispatchThread;
+            if (edt != null) {
+                this.lastStallTrace = edt.getStackTrace();
+                if (this.stallLogging) {
+                    System.err.println("EDT blocked for more than " + TimeUnit.NANOSECONDS.toMillis(this.thresholdNanos) + " ms:");
+                    for (StackTraceElement element : this.lastStallTrace) {
+                        System.err.println("\tat " + element);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,500 @@
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Event-sourced persistence for SpellingTrainer objects.
+ * Instead of rewriting the whole trainer, every save appends the small events that happened since the last save
+ * (guesses with their word and time, undone guesses, word selections) to a log. The guesses are taken from the journal of the
+ * trainer's {@link GuessHistory}. Loading reads the latest snapshot and replays the log, including the statistics per
+ * word. Once the log grows past a threshold it is compacted into a new snapshot on a background thread. Changes the
+ * journal can't explain, such as a statistics reset or more changes between two saves than the journal keeps, are
+ * saved as a new snapshot.
+ * <p>
+ * Files: the snapshot at {@code filePath}, the active log at {@code filePath.log} and, during compaction,
+ * the previous log at {@code filePath.log.old}. Every event carries a sequence number and the snapshot records
+ * the last sequence it contains, so events are never applied twice, even after a crash during compaction.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class EventLogPersistence implements PersistenceStrategy<SpellingTrainer> {
+    private static final byte EVENT_WORD_SELECTED = 2;
+    private static final byte EVENT_WORD_GUESS = 4;
+    private static final byte EVENT_UNDO = 5;
+    private static final long DEFAULT_COMPACTION_THRESHOLD = 1024 * 1024;
+
+    private final Path snapshotPath;
+    private final Path logPath;
+    private final Path oldLogPath;
+    private final TypeAdapter<SpellingTrainer> trainerAdapter;
+    private final ExecutorService compactor;
+    private final Object snapshotLock;
+    private long compactionThreshold;
+    private boolean forceToDisk;
+    private volatile IOException lastSaveError;
+
+    private FileChannel log;
+    private long sequence;
+    private long writtenSnapshotSequence;
+    private long appendedEvents;
+    private long compactions;
+    private volatile boolean compacting;
+
+    // State of the trainer at the last save, used to derive the events of the next save
+    private List<WordPicturePair> lastWordPairs;
+    private WordPicturePair lastWordPair;
+    private Boolean lastResult;
+    private int lastCorrectGuesses;
+    private int lastIncorrectGuesses;
+    private GuessHistory lastGuessHistory;
+    private long lastGuessVersion;
+
+    /**
+     * Constructor for the EventLogPersistence class.
+     * @param filePath The path of the snapshot file. The log files are stored next to it.
+     */
+    public EventLogPersistence(String filePath) {
+        this.snapshotPath = Paths.get(filePath).toAbsolutePath();
+        this.logPath = this.snapshotPath.resolveSibling(this.snapshotPath.getFileName() + ".log");
+        this.oldLogPath = this.snapshotPath.resolveSibling(this.snapshotPath.getFileName() + ".log.old");
+        Gson gson = JSONPersistence.createGson();
+        this.trainerAdapter = gson.getAdapter(SpellingTrainer.class);
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spelling-trainer-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.snapshotLock = new Object();
+        this.compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+        this.forceToDisk = false;
+        this.writtenSnapshotSequence = -1;
+    }
+
+    // Getters and Setters
+
+    /**
+     * Sets the log size after which the log is compacted into a new snapshot.
+     * @param compactionThreshold The threshold in bytes.
+     * @throws IllegalArgumentException if the threshold is not positive.
+     */
+    public void setCompactionThreshold(long compactionThreshold) {
+        if (compactionThreshold <= 0) {
+            throw new IllegalArgumentException("Compaction threshold must be positive.");
+        }
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Sets whether every append is forced to disk. Snapshots are always forced.
+     * @param forceToDisk True to fsync every append.
+     */
+    public void setForceToDisk(boolean forceToDisk) {
+        this.forceToDisk = forceToDisk;
+    }
+
+    /**
+     * @return The number of events appended to the log.
+     */
+    public synchronized long getAppendedEvents() {
+        return this.appendedEvents;
+    }
+
+    /**
+     * @return The number of compactions that were started.
+     */
+    public synchronized long getCompactions() {
+        return this.compactions;
+    }
+
+    /**
+     * @return The exception of the last save, or null if it succeeded.
+     */
+    @Override
+    public IOException getLastSaveError() {
+        return this.lastSaveError;
+    }
+
+    // Methods
+
+    /**
+     * Appends the events since the last save to the log.
+     * The first save of a trainer, or of a trainer with a different word list, writes a full snapshot instead.
+     * Snapshots taken by {@link SpellingTrainer#snapshot()} share the word list and the guess history, so they count
+     * as the same trainer.
+     * @param trainer The SpellingTrainer object to be saved.
+     */
+    @Override
+    public synchronized void saveData(SpellingTrainer trainer) {
+        try {
+            if (trainer.getWordPairs() != this.lastWordPairs || !this.appendEvents(trainer)) {
+                this.writeSnapshot(trainer, ++this.sequence);
+                // Everything in the active log is older than the snapshot now
+                if (this.log != null) {
+                    this.log.truncate(0);
+                } else {
+                    Files.deleteIfExists(this.logPath);
+                }
+            } else if (!this.compacting && this.log != null && this.log.size() > this.compactionThreshold) {
+                this.startCompaction(trainer);
+            }
+            this.remember(trainer);
+            this.lastSaveError = null;
+        } catch (IOException e) {
+            this.lastSaveError = e;
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Loads the latest snapshot and replays the logged events on top of it.
+     * @return The loaded SpellingTrainer object, or null if there is no snapshot.
+     */
+    @Override
+    public synchronized SpellingTrainer loadData() {
+        this.flush();
+        if (!Files.exists(this.snapshotPath)) {
+            return null;
+        }
+        try {
+            SpellingTrainer trainer;
+            long snapshotSequence;
+            try (JsonReader reader = new JsonReader(new BufferedReader(Channels.newReader(
+                    FileChannel.open(this.snapshotPath, StandardOpenOption.READ), StandardCharsets.UTF_8), 64 * 1024))) {
+                trainer = null;
+                snapshotSequence = 0;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "sequence":
+                            snapshotSequence = reader.nextLong();
+                            break;
+                        case "trainer":
+                            trainer = this.trainerAdapter.read(reader);
+                            break;
+                        default:
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            }
+            if (trainer == null) {
+                return null;
+            }
+            if (this.log != null) {
+                this.log.close();
+                this.log = null;
+            }
+            long lastSequence = snapshotSequence;
+            lastSequence = Math.max(lastSequence, replay(this.oldLogPath, trainer, snapshotSequence));
+            lastSequence = Math.max(lastSequence, replay(this.logPath, trainer, snapshotSequence));
+
+            this.sequence = Math.max(this.sequence, lastSequence);
+            this.writtenSnapshotSequence = snapshotSequence;
+            trainer.setPersistenceStrategy(this);
+            this.remember(trainer);
+            return trainer;
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Waits for a running compaction and forces the log to disk.
+     */
+    @Override
+    public void flush() {
+        try {
+            this.compactor.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+        synchronized (this) {
+            try {
+                if (this.log != null) {
+                    this.log.force(false);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Appends the changes of the guess history since the last save, and the word selection if it changed, in one write.
+     * @return False if the changes don't explain the trainer's state, so a snapshot has to be written instead.
+     */
+    private boolean appendEvents(SpellingTrainer trainer) throws IOException {
+        GuessHistory history = trainer.getGuessHistory();
+        List<GuessHistory.Change> changes = history == this.lastGuessHistory
+                ? history.changesSince(this.lastGuessVersion, trainer.getGuessVersion()) : null;
+        if (changes == null) {
+            return false;
+        }
+        // Replay the changes on the remembered state, they have to lead to the trainer's statistics and result
+        int correct = this.lastCorrectGuesses;
+        int incorrect = this.lastIncorrectGuesses;
+        WordPicturePair wordPair = this.lastWordPair;
+        Boolean result = this.lastResult;
+        for (GuessHistory.Change change : changes) {
+            int delta = change.undo ? -1 : 1;
+            if (change.correct) {
+                correct += delta;
+            } else {
+                incorrect += delta;
+            }
+            if (change.undo) {
+                result = null; // The current pair stays selected
+            } else {
+                wordPair = change.wordPair;
+                result = change.correct;
+            }
+        }
+        Statistics statistics = trainer.getStatistics();
+        // Selecting the same pair again only shows as a last result that was cleared
+        boolean wordChanged = trainer.getCurrentWordPair() != wordPair || (trainer.getLastResult() == null && result != null);
+        if (correct != statistics.getCorrectGuesses() || incorrect != statistics.getIncorrectGuesses()
+                || !Objects.equals(wordChanged ? null : result, trainer.getLastResult())) {
+            return false;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        int events = 0;
+        wordPair = this.lastWordPair;
+        for (GuessHistory.Change change : changes) {
+            if (!change.undo && change.wordPair != wordPair) {
+                events += this.writeWordSelected(out, change.wordPair);
+                wordPair = change.wordPair;
+            }
+            out.writeByte(change.undo ? EVENT_UNDO : EVENT_WORD_GUESS);
+            out.writeLong(++this.sequence);
+            out.writeBoolean(change.correct);
+            out.writeLong(change.timeMillis);
+            writeString(out, change.wordPair.getWord());
+            events++;
+        }
+        if (wordChanged) {
+            events += this.writeWordSelected(out, trainer.getCurrentWordPair());
+        }
+
+        if (events == 0) {
+            return true;
+        }
+        if (this.log == null) {
+            this.log = openLog();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            this.log.write(buffer);
+        }
+        if (this.forceToDisk) {
+            this.log.force(false);
+        }
+        this.appendedEvents += events;
+        return true;
+    }
+
+    private int writeWordSelected(DataOutputStream out, WordPicturePair pair) throws IOException {
+        out.writeByte(EVENT_WORD_SELECTED);
+        out.writeLong(++this.sequence);
+        writeString(out, pair.getWord());
+        writeString(out, pair.getImageUrl());
+        return 1;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Reads a length-prefixed string.
+     * A length that is negative or runs past the end of the file is a torn or garbage record and ends the replay.
+     * @param remaining The number of bytes left in the file after the length.
+     */
+    private static String readString(DataInputStream in, long remaining) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > remaining) {
+            throw new EOFException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Moves the active log aside and writes a snapshot of the current state in the background.
+     * If an earlier compaction didn't finish, the old log is kept and the active log is left alone;
+     * the sequence numbers keep the replay correct either way.
+     */
+    private void startCompaction(SpellingTrainer trainer) throws IOException {
+        boolean rotate = !Files.exists(this.oldLogPath);
+        if (rotate) {
+            this.log.close();
+            this.log = null;
+            Files.move(this.logPath, this.oldLogPath);
+        }
+        SpellingTrainer snapshot = trainer.snapshot();
+        long snapshotSequence = this.sequence;
+        this.compacting = true;
+        this.compactions++;
+        this.compactor.execute(() -> {
+            try {
+                this.writeSnapshot(snapshot, snapshotSequence);
+                Files.deleteIfExists(this.oldLogPath);
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                this.compacting = false;
+            }
+        });
+    }
+
+    /**
+     * Writes a snapshot atomically, unless a newer one has already been written.
+     */
+    private void writeSnapshot(SpellingTrainer trainer, long snapshotSequence) throws IOException {
+        synchronized (this.snapshotLock) {
+            if (snapshotSequence <= this.writtenSnapshotSequence) {
+                return;
+            }
+            AtomicFileWriter.write(this.snapshotPath, true, 0, channel -> {
+                JsonWriter writer = new JsonWriter(new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), 64 * 1024));
+                writer.beginObject();
+                writer.name("sequence").value(snapshotSequence);
+                writer.name("trainer");
+                this.trainerAdapter.write(writer, trainer);
+                writer.endObject();
+                writer.flush();
+            });
+            this.writtenSnapshotSequence = snapshotSequence;
+        }
+    }
+
+    /**
+     * Applies the events of a log file with a sequence number above the snapshot's.
+     * A torn record at the end of the file (crash during an append), or anything that doesn't parse as a record, such as
+     * a zero-filled tail, is cut off together with everything after it, so later appends start clean.
+     * @return The highest sequence number in the file.
+     */
+    private static long replay(Path path, SpellingTrainer trainer, long snapshotSequence) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        long fileSize = Files.size(path);
+        long lastSequence = 0;
+        long validLength = 0;
+        try (InputStream stream = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 64 * 1024))) {
+            while (true) {
+                int type = in.read();
+                if (type < 0) {
+                    break;
+                }
+                long eventSequence = in.readLong();
+                boolean apply = eventSequence > snapshotSequence;
+                long recordLength = 1 + Long.BYTES;
+                long remaining = fileSize - validLength - recordLength;
+                switch (type) {
+                    case EVENT_WORD_GUESS:
+                        boolean wordCorrect = in.readBoolean();
+                        long timeMillis = in.readLong();
+                        String guessedWord = readString(in, remaining - 1 - Long.BYTES - Integer.BYTES);
+                        recordLength += 1 + Long.BYTES + Integer.BYTES + utf8Length(guessedWord);
+                        if (apply) {
+                            if (wordCorrect) {
+                                trainer.getStatistics().incrementCorrectGuesses();
+                            } else {
+                                trainer.getStatistics().incrementIncorrectGuesses();
+                            }
+                            trainer.getWordStatistics().record(guessedWord, wordCorrect, timeMillis);
+                            trainer.setLastResult(wordCorrect);
+                        }
+                        break;
+                    case EVENT_UNDO:
+                        boolean undoneCorrect = in.readBoolean();
+                        long undoneTimeMillis = in.readLong();
+                        String undoneWord = readString(in, remaining - 1 - Long.BYTES - Integer.BYTES);
+                        recordLength += 1 + Long.BYTES + Integer.BYTES + utf8Length(undoneWord);
+                        if (apply) {
+                            if (undoneCorrect) {
+                                trainer.getStatistics().decrementCorrectGuesses();
+                            } else {
+                                trainer.getStatistics().decrementIncorrectGuesses();
+                            }
+                            trainer.getWordStatistics().unrecord(undoneWord, undoneCorrect, undoneTimeMillis);
+                            trainer.setLastResult(null);
+                        }
+                        break;
+                    case EVENT_WORD_SELECTED:
+                        String word = readString(in, remaining - Integer.BYTES);
+                        String imageUrl = readString(in, remaining - 2 * Integer.BYTES - utf8Length(word));
+                        recordLength += 2 * Integer.BYTES + utf8Length(word) + utf8Length(imageUrl);
+                        if (apply) {
+                            trainer.setCurrentWordPair(WordPicturePair.fromTrustedData(word, imageUrl));
+                            trainer.setLastResult(null);
+                        }
+                        break;
+                    default:
+                        throw new EOFException("Unknown event type " + type);
+                }
+                lastSequence = eventSequence;
+                validLength += recordLength;
+            }
+        } catch (EOFException e) {
+            // Torn or garbage record, everything before it has been applied
+        }
+        if (validLength < fileSize) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+        return lastSequence;
+    }
+
+    private FileChannel openLog() throws IOException {
+        return FileChannel.open(this.logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void remember(SpellingTrainer trainer) {
+        this.lastWordPairs = trainer.getWordPairs();
+        this.lastWordPair = trainer.getCurrentWordPair();
+        this.lastResult = trainer.getLastResult();
+        this.lastCorrectGuesses = trainer.getStatistics().getCorrectGuesses();
+        this.lastIncorrectGuesses = trainer.getStatistics().getIncorrectGuesses();
+        this.lastGuessHistory = trainer.getGuessHistory();
+        this.lastGuessVersion = trainer.getGuessVersion();
+    }
+}
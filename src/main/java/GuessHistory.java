@@ -0,0 +1,331 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Fixed-capacity history of the last guesses of a trainer, with undo and redo of their statistics.
+ * The records are kept in preallocated parallel arrays used as a ring buffer, so recording a guess doesn't allocate and
+ * the memory used stays the same however long the trainer runs; when the buffer is full, the oldest record is
+ * overwritten. Records are numbered from 0 (the oldest) to {@link #size()} - 1 (the latest that wasn't undone).
+ * <p>
+ * Every guess, undo and redo is also written to a journal of the same capacity and counted in a version, so that a
+ * persistence strategy can append the changes since its last save (see {@link EventLogPersistence}). The journal may
+ * be read from another thread.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class GuessHistory {
+    /**
+     * Capacity used by a trainer if none is set.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final int[] wordIndexes;
+    private final WordPicturePair[] wordPairs;
+    private final String[] guesses;
+    private final long[] timestamps;
+    private final boolean[] results;
+    private int start; // Slot of the oldest record
+    private int size; // Recorded guesses that weren't undone
+    private int redoable; // Undone guesses after them that can be redone
+
+    // Journal of changes, a ring buffer like the records; change number version - 1 is the latest
+    private final boolean[] changeUndos;
+    private final WordPicturePair[] changePairs;
+    private final boolean[] changeResults;
+    private final long[] changeTimestamps;
+    private long version;
+    private long clearedVersion; // Changes before it were dropped by clear()
+
+    /**
+     * A guess that was recorded or redone, or one that was undone.
+     */
+    static final class Change {
+        final boolean undo;
+        final WordPicturePair wordPair;
+        final boolean correct;
+        final long timeMillis;
+
+        private Change(boolean undo, WordPicturePair wordPair, boolean correct, long timeMillis) {
+            this.undo = undo;
+            this.wordPair = wordPair;
+            this.correct = correct;
+            this.timeMillis = timeMillis;
+        }
+    }
+
+    /**
+     * Constructor for the GuessHistory class.
+     * @param capacity The number of guesses kept.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public GuessHistory(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+        this.wordIndexes = new int[capacity];
+        this.wordPairs = new WordPicturePair[capacity];
+        this.guesses = new String[capacity];
+        this.timestamps = new long[capacity];
+        this.results = new boolean[capacity];
+        this.changeUndos = new boolean[capacity];
+        this.changePairs = new WordPicturePair[capacity];
+        this.changeResults = new boolean[capacity];
+        this.changeTimestamps = new long[capacity];
+    }
+
+    // Getters
+
+    public int getCapacity() {
+        return this.results.length;
+    }
+
+    /**
+     * @return The number of recorded guesses that weren't undone.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return The number of undone guesses that can be redone.
+     */
+    public int getRedoCount() {
+        return this.redoable;
+    }
+
+    /**
+     * @return The number of changes (guesses, undos, redos and clears) made so far.
+     */
+    public synchronized long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * @param position The number of the record, 0 is the oldest.
+     * @return The index of the guessed word pair in the trainer's word pairs, or -1 if the trainer didn't know it,
+     *         e.g. for the first guess after loading.
+     */
+    public int getWordIndex(int position) {
+        return this.wordIndexes[this.slot(position)];
+    }
+
+    /**
+     * @param position The number of the record, 0 is the oldest.
+     * @return The guessed word pair.
+     */
+    public WordPicturePair getWordPair(int position) {
+        return this.wordPairs[this.slot(position)];
+    }
+
+    /**
+     * @param position The number of the record, 0 is the oldest.
+     * @return The guess as it was entered.
+     */
+    public String getGuess(int position) {
+        return this.guesses[this.slot(position)];
+    }
+
+    /**
+     * @param position The number of the record, 0 is the oldest.
+     * @return The time of the guess in milliseconds since the epoch.
+     */
+    public long getTimestamp(int position) {
+        return this.timestamps[this.slot(position)];
+    }
+
+    /**
+     * @param position The number of the record, 0 is the oldest.
+     * @return True if the guess was correct.
+     */
+    public boolean isCorrect(int position) {
+        return this.results[this.slot(position)];
+    }
+
+    // Methods
+
+    /**
+     * Records a guess. Undone guesses can't be redone afterwards.
+     * @param wordIndex The index of the guessed word pair, or -1 if it isn't known.
+     * @param wordPair The guessed word pair.
+     * @param guess The guess.
+     * @param timeMillis The time of the guess.
+     * @param correct True if the guess was correct.
+     */
+    public void record(int wordIndex, WordPicturePair wordPair, String guess, long timeMillis, boolean correct) {
+        int capacity = this.results.length;
+        int slot = this.wrap(this.start + this.size);
+        this.wordIndexes[slot] = wordIndex;
+        this.wordPairs[slot] = wordPair;
+        this.guesses[slot] = guess;
+        this.timestamps[slot] = timeMillis;
+        this.results[slot] = correct;
+        this.journal(false, wordPair, correct, timeMillis);
+        this.redoable = 0;
+        if (this.size < capacity) {
+            this.size++;
+        } else {
+            // Full, the oldest record was overwritten
+            this.start = this.wrap(this.start + 1);
+        }
+    }
+
+    /**
+     * Undoes the latest guess that wasn't undone yet and takes it back from the statistics and the word selector.
+     * @param statistics The statistics the guess was counted in.
+     * @param wordStatistics The word statistics the guess was counted in.
+     * @param wordSelector The word selector the guess was recorded in.
+     * @return True if a guess was undone, false if there was none.
+     */
+    public boolean undo(Statistics statistics, WordStatistics wordStatistics, WordSelector wordSelector) {
+        if (this.size == 0) {
+            return false;
+        }
+        this.size--;
+        this.redoable++;
+        int slot = this.wrap(this.start + this.size);
+        boolean correct = this.results[slot];
+        if (correct) {
+            statistics.decrementCorrectGuesses();
+        } else {
+            statistics.decrementIncorrectGuesses();
+        }
+        wordStatistics.unrecord(this.wordPairs[slot].getWord(), correct, this.timestamps[slot]);
+        this.journal(true, this.wordPairs[slot], correct, this.timestamps[slot]);
+        if (this.wordIndexes[slot] >= 0) {
+            wordSelector.undoGuess(this.wordIndexes[slot], correct);
+        }
+        return true;
+    }
+
+    /**
+     * Redoes the guess that was undone last and counts it again, at its original time.
+     * @param statistics The statistics to count the guess in again.
+     * @param wordStatistics The word statistics to count the guess in again.
+     * @param wordSelector The word selector to record the guess in again.
+     * @return True if a guess was redone, false if there was none.
+     */
+    public boolean redo(Statistics statistics, WordStatistics wordStatistics, WordSelector wordSelector) {
+        if (this.redoable == 0) {
+            return false;
+        }
+        int slot = this.wrap(this.start + this.size);
+        boolean correct = this.results[slot];
+        if (correct) {
+            statistics.incrementCorrectGuesses();
+        } else {
+            statistics.incrementIncorrectGuesses();
+        }
+        wordStatistics.record(this.wordPairs[slot].getWord(), correct, this.timestamps[slot]);
+        this.journal(false, this.wordPairs[slot], correct, this.timestamps[slot]);
+        if (this.wordIndexes[slot] >= 0) {
+            wordSelector.recordGuess(this.wordIndexes[slot], correct);
+        }
+        this.size++;
+        this.redoable--;
+        return true;
+    }
+
+    /**
+     * Replays the guesses that weren't undone, oldest first, into another trainer.
+     * The guessed word pairs are looked up by their word, so the trainer only needs to contain the guessed words.
+     * Every guess is checked again by the answer matcher of that trainer.
+     * @param trainer The trainer to replay into, usually a fresh one.
+     * @throws IllegalArgumentException if a guessed word doesn't exist in the trainer.
+     */
+    public void replay(SpellingTrainer trainer) {
+        for (int position = 0; position < this.size; position++) {
+            int slot = this.slot(position);
+            String word = this.wordPairs[slot].getWord();
+            if (!trainer.selectWordPair(word)) {
+                throw new IllegalArgumentException("Word " + word + " doesn't exist in the trainer.");
+            }
+            trainer.guessWord(this.guesses[slot], this.timestamps[slot]);
+        }
+    }
+
+    /**
+     * Points the records at the word pairs of a new corpus after the trainer's word pairs were replaced.
+     * Records of words that no longer exist keep their word pair, but no longer have an index.
+     * @param previousIndexes The index every new word pair had in the previous word pairs, or -1 if it is new.
+     */
+    public void corpusChanged(int[] previousIndexes) {
+        int previousSize = 0;
+        for (int previousIndex : previousIndexes) {
+            previousSize = Math.max(previousSize, previousIndex + 1);
+        }
+        int[] newIndexes = new int[previousSize];
+        Arrays.fill(newIndexes, -1);
+        for (int i = previousIndexes.length - 1; i >= 0; i--) {
+            if (previousIndexes[i] >= 0) {
+                newIndexes[previousIndexes[i]] = i;
+            }
+        }
+        for (int position = 0; position < this.size + this.redoable; position++) {
+            int slot = this.wrap(this.start + position);
+            int index = this.wordIndexes[slot];
+            this.wordIndexes[slot] = index >= 0 && index < previousSize ? newIndexes[index] : -1;
+        }
+    }
+
+    /**
+     * Removes all records and empties the journal. The clear counts as a change, but can't be read from the journal,
+     * so {@link #changesSince(long, long)} no longer reaches back to any version before it.
+     */
+    public void clear() {
+        Arrays.fill(this.wordIndexes, 0);
+        Arrays.fill(this.wordPairs, null);
+        Arrays.fill(this.guesses, null);
+        Arrays.fill(this.timestamps, 0);
+        Arrays.fill(this.results, false);
+        this.start = 0;
+        this.size = 0;
+        this.redoable = 0;
+        synchronized (this) {
+            Arrays.fill(this.changePairs, null);
+            this.version++;
+            this.clearedVersion = this.version;
+        }
+    }
+
+    /**
+     * Returns the changes between two versions, oldest first.
+     * @param from The version after the last change already seen.
+     * @param to The version after the last change wanted.
+     * @return The changes, or null if the journal doesn't reach back to the first of them.
+     */
+    synchronized List<Change> changesSince(long from, long to) {
+        if (from > to || to > this.version || from < this.clearedVersion || this.version - from > this.changeResults.length) {
+            return null;
+        }
+        List<Change> changes = new ArrayList<>((int) (to - from));
+        for (long change = from; change < to; change++) {
+            int slot = (int) (change % this.changeResults.length);
+            changes.add(new Change(this.changeUndos[slot], this.changePairs[slot], this.changeResults[slot],
+                    this.changeTimestamps[slot]));
+        }
+        return changes;
+    }
+
+    private synchronized void journal(boolean undo, WordPicturePair wordPair, boolean correct, long timeMillis) {
+        int slot = (int) (this.version % this.changeResults.length);
+        this.changeUndos[slot] = undo;
+        this.changePairs[slot] = wordPair;
+        this.changeResults[slot] = correct;
+        this.changeTimestamps[slot] = timeMillis;
+        this.version++;
+    }
+
+    /**
+     * Maps the number of a record to its slot in the arrays.
+     */
+    private int slot(int position) {
+        Objects.checkIndex(position, this.size);
+        return this.wrap(this.start + position);
+    }
+
+    private int wrap(int slot) {
+        return slot >= this.results.length ? slot - this.results.length : slot;
+    }
+}
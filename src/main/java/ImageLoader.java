@@ -0,0 +1,365 @@
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.ImageIO;
+
+/**
+ * Class loading the images of word-picture pairs in the background.
+ * Scaled images are kept in an in-memory LRU cache bounded in bytes, the downloaded originals in a cache directory,
+ * so a repeated word neither downloads nor rescales its image again. Concurrent requests for the same URL share one download.
+ * Downloads larger than {@link #getMaxDownloadBytes()} are rejected, so a huge or endless response can't fill the memory.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class ImageLoader {
+    /**
+     * Width of the scaled images, the height keeps the aspect ratio.
+     */
+    public static final int TARGET_WIDTH = 300;
+    /**
+     * Maximum size of a downloaded image used if none is set: 16 MB.
+     */
+    public static final int DEFAULT_MAX_DOWNLOAD_BYTES = 16 * 1024 * 1024;
+
+    private static final int THREADS = 4;
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final Path cacheDirectory;
+    private final long maxMemoryBytes;
+    private final LinkedHashMap<String, BufferedImage> memoryCache;
+    private final Map<String, CompletableFuture<BufferedImage>> inFlight;
+    private final ExecutorService executor;
+    private final Object httpClientLock;
+    private HttpClient httpClient; // Created by the first download, its TLS setup takes a while
+    private long memoryBytes;
+    private volatile int maxDownloadBytes;
+
+    private final AtomicLong memoryHits;
+    private final AtomicLong diskHits;
+    private final AtomicLong misses;
+    private final AtomicLong failures;
+
+    /**
+     * Constructor for the ImageLoader class.
+     * @param cacheDirectory The directory for downloaded originals, or null to disable the disk cache.
+     * @param maxMemoryBytes The maximum size of all scaled images kept in memory.
+     */
+    public ImageLoader(Path cacheDirectory, long maxMemoryBytes) {
+        if (maxMemoryBytes < 0) {
+            throw new IllegalArgumentException("Memory cache size cannot be negative.");
+        }
+        this.cacheDirectory = cacheDirectory;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.memoryCache = new LinkedHashMap<>(16, 0.75f, true); // Access order for LRU eviction
+        this.inFlight = new ConcurrentHashMap<>();
+        this.executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "spelling-trainer-images");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClientLock = new Object();
+        this.memoryHits = new AtomicLong();
+        this.diskHits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.failures = new AtomicLong();
+        this.maxDownloadBytes = DEFAULT_MAX_DOWNLOAD_BYTES;
+    }
+
+    // Getters and Setters
+
+    /**
+     * @return The number of loads served from the in-memory cache.
+     */
+    public long getMemoryHits() {
+        return this.memoryHits.get();
+    }
+
+    /**
+     * @return The number of loads served from the disk cache.
+     */
+    public long getDiskHits() {
+        return this.diskHits.get();
+    }
+
+    /**
+     * @return The number of loads that had to download the image.
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * @return The number of loads that failed.
+     */
+    public long getFailures() {
+        return this.failures.get();
+    }
+
+    /**
+     * @return The estimated size of all scaled images in memory, in bytes.
+     */
+    public synchronized long getMemoryBytes() {
+        return this.memoryBytes;
+    }
+
+    public int getMaxDownloadBytes() {
+        return this.maxDownloadBytes;
+    }
+
+    /**
+     * Sets the maximum size of a downloaded image. Larger downloads fail.
+     * @param maxDownloadBytes The maximum size in bytes.
+     * @throws IllegalArgumentException if the size is not positive.
+     */
+    public void setMaxDownloadBytes(int maxDownloadBytes) {
+        if (maxDownloadBytes <= 0) {
+            throw new IllegalArgumentException("Maximum download size must be positive.");
+        }
+        this.maxDownloadBytes = maxDownloadBytes;
+    }
+
+    // Methods
+
+    /**
+     * Returns the scaled image if it is in the memory cache, without loading it.
+     * @param imageUrl The URL of the image.
+     * @return The scaled image, or null if it isn't cached.
+     */
+    public synchronized BufferedImage getIfCached(String imageUrl) {
+        return this.memoryCache.get(imageUrl);
+    }
+
+    /**
+     * Loads the image scaled to {@link #TARGET_WIDTH} in the background.
+     * @param imageUrl The URL of the image.
+     * @return A future completing with the scaled image, or exceptionally if it can't be loaded.
+     */
+    public CompletableFuture<BufferedImage> load(String imageUrl) {
+        BufferedImage cached = this.getIfCached(imageUrl);
+        if (cached != null) {
+            this.memoryHits.incrementAndGet();
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<BufferedImage> future = new CompletableFuture<>();
+        CompletableFuture<BufferedImage> running = this.inFlight.putIfAbsent(imageUrl, future);
+        if (running != null) {
+            return running;
+        }
+        try {
+            this.executor.execute(() -> {
+                try {
+                    future.complete(this.fetchAndScale(imageUrl));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    this.inFlight.remove(imageUrl, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.inFlight.remove(imageUrl, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Starts loading an image that will probably be needed soon. Failures are only counted.
+     * @param imageUrl The URL of the image.
+     */
+    public void prefetch(String imageUrl) {
+        this.load(imageUrl);
+    }
+
+    /**
+     * Stops the background threads. Loads that are still running are cancelled.
+     */
+    public void close() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Reads the original from the disk cache or downloads it, then scales it and caches the result.
+     */
+    private BufferedImage fetchAndScale(String imageUrl) {
+        TrainerMetrics metrics = TrainerMetrics.getInstance();
+        long start = metrics.startTimer();
+        try {
+            byte[] original = this.readFromDisk(imageUrl);
+            if (original != null) {
+                this.diskHits.incrementAndGet();
+            } else {
+                this.misses.incrementAndGet();
+                original = this.download(imageUrl);
+                this.writeToDisk(imageUrl, original);
+            }
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(original));
+            if (image == null) {
+                throw new IOException("Unsupported image format: " + imageUrl);
+            }
+            BufferedImage scaled = scale(image);
+            this.putInMemory(imageUrl, scaled);
+            metrics.recordImageLoad(start, true);
+            return scaled;
+        } catch (IOException e) {
+            this.failures.incrementAndGet();
+            metrics.recordImageLoad(start, false);
+            throw new CompletionException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.failures.incrementAndGet();
+            metrics.recordImageLoad(start, false);
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Downloads an image. A declared Content-Length over the limit fails before the body is read, and the body is
+     * read only up to the limit, so responses without a length can't exceed it either.
+     */
+    private byte[] download(String imageUrl) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(imageUrl)).timeout(TIMEOUT).GET().build();
+        HttpResponse<InputStream> response = this.httpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IOException("HTTP " + response.statusCode() + " for " + imageUrl);
+            }
+            int maxBytes = this.maxDownloadBytes;
+            if (response.headers().firstValueAsLong("Content-Length").orElse(-1) > maxBytes) {
+                throw new IOException("Image is larger than " + maxBytes + " bytes: " + imageUrl);
+            }
+            byte[] bytes = body.readNBytes(maxBytes == Integer.MAX_VALUE ? maxBytes : maxBytes + 1);
+            if (bytes.length > maxBytes) {
+                throw new IOException("Image is larger than " + maxBytes + " bytes: " + imageUrl);
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Returns the HTTP client, creating it on first use so constructing the loader on the EDT stays cheap.
+     * It has its own lock, so the memory cache stays usable while it is created.
+     */
+    private HttpClient httpClient() {
+        synchronized (this.httpClientLock) {
+            if (this.httpClient == null) {
+                this.httpClient = HttpClient.newBuilder()
+                        .connectTimeout(TIMEOUT)
+                        .followRedirects(HttpClient.Redirect.NORMAL)
+                        .build();
+            }
+            return this.httpClient;
+        }
+    }
+
+    private byte[] readFromDisk(String imageUrl) throws IOException {
+        if (this.cacheDirectory == null) {
+            return null;
+        }
+        Path file = this.cacheFile(imageUrl);
+        return Files.exists(file) ? Files.readAllBytes(file) : null;
+    }
+
+    private void writeToDisk(String imageUrl, byte[] original) throws IOException {
+        if (this.cacheDirectory == null) {
+            return;
+        }
+        Files.createDirectories(this.cacheDirectory);
+        AtomicFileWriter.write(this.cacheFile(imageUrl), false, 0, channel -> {
+            ByteBuffer buffer = ByteBuffer.wrap(original);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        });
+    }
+
+    /**
+     * Names cache files by the SHA-256 of their URL, so any URL maps to a valid file name.
+     */
+    private Path cacheFile(String imageUrl) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(imageUrl.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(hash.length * 2 + 4);
+            for (byte b : hash) {
+                name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return this.cacheDirectory.resolve(name.append(".img").toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    private synchronized void putInMemory(String imageUrl, BufferedImage image) {
+        long size = sizeOf(image);
+        if (size > this.maxMemoryBytes) {
+            return;
+        }
+        BufferedImage previous = this.memoryCache.put(imageUrl, image);
+        if (previous != null) {
+            this.memoryBytes -= sizeOf(previous);
+        }
+        this.memoryBytes += size;
+        Iterator<BufferedImage> eldest = this.memoryCache.values().iterator();
+        while (this.memoryBytes > this.maxMemoryBytes && eldest.hasNext()) {
+            this.memoryBytes -= sizeOf(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Scales an image to the target width, keeping the aspect ratio.
+     * Images more than twice as wide are halved step by step first: a single bicubic step only samples a few source
+     * pixels per target pixel and aliases on large downscales, while every halving averages all of them.
+     * @param image The original image.
+     * @return The scaled image.
+     */
+    static BufferedImage scale(BufferedImage image) {
+        int targetHeight = Math.max(1, (int) (image.getHeight() * ((double) TARGET_WIDTH / image.getWidth())));
+        BufferedImage current = image;
+        while (current.getWidth() / 2 >= TARGET_WIDTH) {
+            current = draw(current, current.getWidth() / 2, Math.max(targetHeight, current.getHeight() / 2),
+                    RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        }
+        return draw(current, TARGET_WIDTH, targetHeight, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+    }
+
+    private static BufferedImage draw(BufferedImage image, int width, int height, Object interpolation) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private static long sizeOf(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * Integer.BYTES;
+    }
+}
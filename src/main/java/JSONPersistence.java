@@ -1,23 +1,51 @@
 import com.google.gson.Gson;
-import java.io.FileReader;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Class responsible for saving and loading SpellingTrainer objects to/from a JSON file.
+ * By default the file is replaced atomically, so a crash during a save never leaves a half-written file behind.
+ * The JSON is streamed through hand-written type adapters instead of Gson's reflection.
  * @author Leonhard Stransky
- * @version 2024-09-29
+ * @version 2026-10-17
  */
-public class JSONPersistence implements PersistenceStrategy<SpellingTrainer> {
+public class JSONPersistence implements StreamPersistenceStrategy<SpellingTrainer> {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private String filePath;
     private Gson gson;
+    private boolean atomicSave;
+    private boolean forceToDisk;
+    private int backupCount;
+    private volatile IOException lastSaveError;
 
     /**
      * Constructor for the JSONPersistence class.
      */
     public JSONPersistence(String filePath) {
-        this.gson = new Gson();
+        this.gson = createGson();
         this.filePath = filePath;
+        this.atomicSave = true;
+        this.forceToDisk = true;
+        this.backupCount = 1;
     }
 
     // Getters and Setters
@@ -30,36 +58,171 @@ public class JSONPersistence implements PersistenceStrategy<SpellingTrainer> {
         this.filePath = filePath;
     }
 
+    /**
+     * Enables or disables atomic saves (write to a temp file, then rename).
+     * @param atomicSave False to overwrite the file in place.
+     */
+    public void setAtomicSave(boolean atomicSave) {
+        this.atomicSave = atomicSave;
+    }
+
+    /**
+     * Sets whether atomic saves force the data to disk before renaming.
+     * Without it a power loss may still lose the latest save, but never corrupts the file.
+     * @param forceToDisk True to fsync every save.
+     */
+    public void setForceToDisk(boolean forceToDisk) {
+        this.forceToDisk = forceToDisk;
+    }
+
+    /**
+     * Sets the number of previous versions kept next to the file.
+     * @param backupCount The number of rotated backups.
+     * @throws IllegalArgumentException if the count is negative.
+     */
+    public void setBackupCount(int backupCount) {
+        if (backupCount < 0) {
+            throw new IllegalArgumentException("Backup count cannot be negative.");
+        }
+        this.backupCount = backupCount;
+    }
+
+    /**
+     * Sets whether loaded word pairs are kept in a {@link CompactCorpus}, which deduplicates words and URL prefixes.
+     * @param compactCorpus True to load into a compact corpus.
+     */
+    public void setCompactCorpus(boolean compactCorpus) {
+        this.gson = createGson(compactCorpus);
+    }
+
+    /**
+     * @return The exception of the last save, or null if it succeeded.
+     */
+    @Override
+    public IOException getLastSaveError() {
+        return this.lastSaveError;
+    }
+
     // Methods
 
+    /**
+     * Creates a Gson instance with the streaming type adapters of the trainer registered.
+     * @return The Gson instance.
+     */
+    public static Gson createGson() {
+        return createGson(false);
+    }
+
+    /**
+     * Creates a Gson instance with the streaming type adapters of the trainer registered.
+     * @param compactCorpus True to load the word pairs into a {@link CompactCorpus}.
+     * @return The Gson instance.
+     */
+    public static Gson createGson(boolean compactCorpus) {
+        return new GsonBuilder()
+                .registerTypeAdapter(SpellingTrainer.class, new SpellingTrainerAdapter(compactCorpus))
+                .registerTypeAdapter(WordPicturePair.class, new WordPicturePairAdapter())
+                .registerTypeAdapter(ConcurrentStatistics.class, new ConcurrentStatisticsAdapter())
+                .registerTypeAdapter(WordStatistics.class, new WordStatisticsAdapter())
+                .create();
+    }
+
     /**
      * Saves the SpellingTrainer object to a JSON file.
      * @param trainer The SpellingTrainer object to be saved.
      */
     @Override
     public void saveData(SpellingTrainer trainer) {
-        try (FileWriter writer = new FileWriter(this.filePath)) {
-            gson.toJson(trainer, writer);
+        TrainerMetrics metrics = TrainerMetrics.getInstance();
+        long start = metrics.startTimer();
+        try {
+            if (this.atomicSave) {
+                AtomicFileWriter.write(Paths.get(this.filePath), this.forceToDisk, this.backupCount,
+                        channel -> this.write(trainer, Channels.newOutputStream(channel)));
+            } else {
+                try (Writer writer = new BufferedWriter(new FileWriter(this.filePath, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                    this.toJson(trainer, writer);
+                }
+            }
+            this.lastSaveError = null;
+            metrics.recordSave(start, Paths.get(this.filePath));
         } catch (IOException e) {
+            this.lastSaveError = e;
+            metrics.recordSaveFailure(start);
             e.printStackTrace();
         }
     }
 
+    /**
+     * Writes the SpellingTrainer object as JSON to a stream.
+     * @param trainer The SpellingTrainer object to be written.
+     * @param out The stream to write to; it is flushed but not closed.
+     * @throws IOException if writing fails.
+     */
+    @Override
+    public void write(SpellingTrainer trainer, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.toJson(trainer, writer);
+        writer.flush();
+    }
+
+    /**
+     * Writes the trainer as JSON. Gson wraps write errors in a JsonIOException, which is unwrapped again here,
+     * so failed saves are reported like any other IOException.
+     */
+    private void toJson(SpellingTrainer trainer, Writer writer) throws IOException {
+        try {
+            gson.toJson(trainer, SpellingTrainer.class, writer);
+        } catch (JsonIOException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Reads a SpellingTrainer object from a JSON stream. The persistence strategy is not set.
+     * @param in The stream to read from; it is not closed.
+     * @return The read SpellingTrainer object, or null if the stream is empty.
+     * @throws IOException if reading fails or the JSON is invalid.
+     */
+    @Override
+    public SpellingTrainer read(InputStream in) throws IOException {
+        try {
+            return gson.fromJson(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE), SpellingTrainer.class);
+        } catch (JsonParseException e) {
+            throw new IOException("Invalid trainer JSON.", e);
+        }
+    }
+
     /**
      * Loads the SpellingTrainer object from a JSON file.
-     * @return The loaded SpellingTrainer object.
+     * Falls back to the newest readable backup if the file is missing or corrupt.
+     * @return The loaded SpellingTrainer object, or null if no file could be read.
      */
     @Override
     public SpellingTrainer loadData() {
-        try (FileReader reader = new FileReader(this.filePath)) {
-            SpellingTrainer trainer = gson.fromJson(reader, SpellingTrainer.class);
-            if (trainer != null) {
-                // Automatically inject the persistence strategy after loading
-                trainer.setPersistenceStrategy(this);
+        TrainerMetrics metrics = TrainerMetrics.getInstance();
+        for (Path candidate : AtomicFileWriter.candidates(Paths.get(this.filePath), this.backupCount)) {
+            if (!Files.exists(candidate)) {
+                continue;
+            }
+            long start = metrics.startTimer();
+            try (Reader reader = new BufferedReader(
+                    Channels.newReader(FileChannel.open(candidate, StandardOpenOption.READ), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                SpellingTrainer trainer = gson.fromJson(reader, SpellingTrainer.class);
+                if (trainer != null) {
+                    // Automatically inject the persistence strategy after loading
+                    trainer.setPersistenceStrategy(this);
+                    metrics.recordLoad(start, candidate);
+                    return trainer;
+                }
+                metrics.recordLoadFailure(start);
+            } catch (IOException | JsonParseException e) {
+                metrics.recordLoadFailure(start);
+                e.printStackTrace();
             }
-            return trainer;
-        } catch (IOException e) {
-            e.printStackTrace();
         }
         return null;
     }
@@ -0,0 +1,80 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Read-only list of word-picture pairs backed by a memory-mapped binary trainer file.
+ * Pairs are only decoded when they are accessed, so creating the list costs the same for any corpus size.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class MappedWordPairList extends AbstractList<WordPicturePair> implements RandomAccess, WordCorpus {
+    private final ByteBuffer buffer;
+    private final int indexOffset;
+    private final int size;
+
+    /**
+     * Constructor for the MappedWordPairList class.
+     * @param buffer The mapped file.
+     * @param indexOffset The position of the offset index in the file.
+     * @param size The number of pairs.
+     */
+    MappedWordPairList(ByteBuffer buffer, int indexOffset, int size) {
+        this.buffer = buffer;
+        this.indexOffset = indexOffset;
+        this.size = size;
+    }
+
+    // Methods
+
+    /**
+     * Decodes the word-picture pair at the given index.
+     * @param index The index of the pair.
+     * @return A new WordPicturePair for the entry.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     * @throws IllegalArgumentException if the entry's offset or lengths point outside the file.
+     */
+    @Override
+    public WordPicturePair get(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+        int position = this.buffer.getInt(this.indexOffset + index * Integer.BYTES);
+        checkRange(this.buffer, position, Integer.BYTES);
+        int wordLength = this.buffer.getInt(position);
+        String word = decode(this.buffer, position + Integer.BYTES, wordLength);
+        position += Integer.BYTES + wordLength;
+        checkRange(this.buffer, position, Integer.BYTES);
+        int urlLength = this.buffer.getInt(position);
+        String imageUrl = decode(this.buffer, position + Integer.BYTES, urlLength);
+        return WordPicturePair.fromTrustedData(word, imageUrl);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Decodes a UTF-8 string at an absolute position without moving the buffer's position.
+     * @throws IllegalArgumentException if the string doesn't lie within the buffer.
+     */
+    static String decode(ByteBuffer buffer, int position, int length) {
+        checkRange(buffer, position, length);
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checks that a range read from the file lies within the buffer, before anything is allocated for it.
+     * @throws IllegalArgumentException if the position or length is negative or the range ends past the buffer.
+     */
+    static void checkRange(ByteBuffer buffer, int position, int length) {
+        if (position < 0 || length < 0 || (long) position + length > buffer.capacity()) {
+            throw new IllegalArgumentException("Corrupt entry: " + length + " bytes at position " + position
+                    + " lie outside the " + buffer.capacity() + " bytes of the file.");
+        }
+    }
+}
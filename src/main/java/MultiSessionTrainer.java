@@ -0,0 +1,348 @@
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Spelling trainer serving many learners (sessions) at once from one shared, read-only list of word pairs.
+ * Every session has its own current word pair, last result and statistics, guarded by its own lock,
+ * so guesses of different sessions never contend with each other. Sessions are only created by
+ * {@link #createSession()}, at most {@link #getMaxSessions()} at a time; sessions idle for longer than the idle timeout
+ * are removed by {@link #expireIdleSessions()} and whenever the limit is reached.
+ * <p>
+ * The locks are ReentrantLocks rather than synchronized blocks so that virtual threads waiting for a
+ * session don't pin their carrier thread. Creating a session takes no lock at all: a slot is reserved by a
+ * compare-and-set on the session count, and idle sessions are expired without holding anything.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class MultiSessionTrainer {
+    /**
+     * Maximum number of sessions used by {@link #MultiSessionTrainer(List)}.
+     */
+    public static final int DEFAULT_MAX_SESSIONS = 100_000;
+    /**
+     * Idle timeout used by {@link #MultiSessionTrainer(List)}: 30 minutes.
+     */
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+    private final List<WordPicturePair> wordPairs;
+    private final int maxSessions;
+    private final long idleTimeoutMillis;
+    private final ConcurrentMap<String, Session> sessions;
+    private final AtomicInteger sessionCount;
+    private final WordSelector wordSelector;
+    private final ConcurrentStatistics aggregateStatistics;
+    private volatile AnswerMatcher answerMatcher;
+
+    /**
+     * State of a single learner.
+     */
+    private static final class Session {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Statistics statistics = new Statistics();
+        private WordPicturePair currentWordPair;
+        private Boolean lastResult;
+        private volatile long lastUsedMillis = System.currentTimeMillis();
+    }
+
+    // Constructors
+
+    /**
+     * Constructor for a MultiSessionTrainer with the default session limit and idle timeout.
+     * @param wordPairs The word-picture pairs shared by all sessions. The list must not be modified afterwards.
+     * @throws IllegalArgumentException if the wordPairs list is null or empty.
+     */
+    public MultiSessionTrainer(List<WordPicturePair> wordPairs) {
+        this(wordPairs, DEFAULT_MAX_SESSIONS, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Constructor for a MultiSessionTrainer.
+     * @param wordPairs The word-picture pairs shared by all sessions. The list must not be modified afterwards.
+     * @param maxSessions The maximum number of sessions at a time.
+     * @param idleTimeoutMillis The time after its last use after which a session may be removed.
+     * @throws IllegalArgumentException if the wordPairs list is null or empty, the maximum is not positive or the
+     * timeout is negative.
+     */
+    public MultiSessionTrainer(List<WordPicturePair> wordPairs, int maxSessions, long idleTimeoutMillis) {
+        if (wordPairs == null || wordPairs.isEmpty()) {
+            throw new IllegalArgumentException("No word pairs available.");
+        }
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("Maximum number of sessions must be positive.");
+        }
+        if (idleTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Idle timeout cannot be negative.");
+        }
+        this.wordPairs = Collections.unmodifiableList(wordPairs);
+        this.maxSessions = maxSessions;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.sessions = new ConcurrentHashMap<>();
+        this.sessionCount = new AtomicInteger();
+        this.wordSelector = new UniformWordSelector();
+        this.aggregateStatistics = new ConcurrentStatistics();
+        this.answerMatcher = AnswerMatcher.EXACT;
+    }
+
+    // Getters
+
+    public List<WordPicturePair> getWordPairs() {
+        return this.wordPairs;
+    }
+
+    public int getSessionCount() {
+        return this.sessions.size();
+    }
+
+    public int getMaxSessions() {
+        return this.maxSessions;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return this.idleTimeoutMillis;
+    }
+
+    /**
+     * @param sessionId The session.
+     * @return true if the session exists.
+     */
+    public boolean hasSession(String sessionId) {
+        return sessionId != null && this.sessions.containsKey(sessionId);
+    }
+
+    /**
+     * Returns the statistics over all guesses of all sessions, including removed ones.
+     * @return The aggregate statistics.
+     */
+    public ConcurrentStatistics getAggregateStatistics() {
+        return this.aggregateStatistics;
+    }
+
+    public AnswerMatcher getAnswerMatcher() {
+        return this.answerMatcher;
+    }
+
+    /**
+     * Sets how guesses of all sessions are compared with the word.
+     * @param answerMatcher The answer matcher.
+     * @throws IllegalArgumentException if the answer matcher is null.
+     */
+    public void setAnswerMatcher(AnswerMatcher answerMatcher) {
+        if (answerMatcher == null) {
+            throw new IllegalArgumentException("Answer matcher cannot be null.");
+        }
+        this.answerMatcher = answerMatcher;
+    }
+
+    /**
+     * Returns the word pair the session currently has to guess.
+     * @param sessionId The session.
+     * @return The current word pair.
+     * @throws NoSuchElementException if the session doesn't exist.
+     */
+    public WordPicturePair getCurrentWordPair(String sessionId) {
+        Session session = this.session(sessionId);
+        session.lock.lock();
+        try {
+            return session.currentWordPair;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the result of the session's last guess.
+     * @param sessionId The session.
+     * @return true, false or null if no guess was made for the current word pair.
+     * @throws NoSuchElementException if the session doesn't exist.
+     */
+    public Boolean getLastResult(String sessionId) {
+        Session session = this.session(sessionId);
+        session.lock.lock();
+        try {
+            return session.lastResult;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a consistent copy of the session's statistics.
+     * @param sessionId The session.
+     * @return The copied statistics.
+     * @throws NoSuchElementException if the session doesn't exist.
+     */
+    public Statistics getStatistics(String sessionId) {
+        Session session = this.session(sessionId);
+        session.lock.lock();
+        try {
+            return new Statistics(session.statistics);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    // Methods
+
+    /**
+     * Creates a session with a random id and a random word pair.
+     * @return The id of the new session.
+     * @throws IllegalStateException if the maximum number of sessions is reached and none of them is idle.
+     */
+    public String createSession() {
+        String sessionId = UUID.randomUUID().toString();
+        this.createSession(sessionId);
+        return sessionId;
+    }
+
+    /**
+     * Creates a session with the given id and a random word pair, if it doesn't exist yet.
+     * @param sessionId The session.
+     * @return true if the session was created, false if it already existed.
+     * @throws IllegalArgumentException if the session id is null or empty.
+     * @throws IllegalStateException if the maximum number of sessions is reached and none of them is idle.
+     */
+    public boolean createSession(String sessionId) {
+        if (sessionId == null || sessionId.isEmpty()) {
+            throw new IllegalArgumentException("Session id cannot be null or empty.");
+        }
+        if (this.sessions.containsKey(sessionId)) {
+            return false;
+        }
+        if (!this.reserveSlot()) {
+            this.expireIdleSessions();
+            if (!this.reserveSlot()) {
+                throw new IllegalStateException("Too many sessions.");
+            }
+        }
+        Session session = new Session();
+        this.select(session);
+        if (this.sessions.putIfAbsent(sessionId, session) != null) {
+            this.sessionCount.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Removes all sessions that weren't used for longer than the idle timeout.
+     * @return The number of removed sessions.
+     */
+    public int expireIdleSessions() {
+        long oldest = System.currentTimeMillis() - this.idleTimeoutMillis;
+        int removed = 0;
+        for (Map.Entry<String, Session> entry : this.sessions.entrySet()) {
+            if (entry.getValue().lastUsedMillis <= oldest && this.sessions.remove(entry.getKey(), entry.getValue())) {
+                this.sessionCount.decrementAndGet();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Selects a new random word pair for the session.
+     * @param sessionId The session.
+     * @return The selected word pair.
+     * @throws NoSuchElementException if the session doesn't exist.
+     */
+    public WordPicturePair selectRandomWordPair(String sessionId) {
+        Session session = this.session(sessionId);
+        session.lock.lock();
+        try {
+            this.select(session);
+            return session.currentWordPair;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Guesses the word of the session's current word pair.
+     * @param sessionId The session.
+     * @param guess The word to guess.
+     * @return true if the guess is correct, false otherwise.
+     * @throws IllegalArgumentException if the guess is null or empty.
+     * @throws NoSuchElementException if the session doesn't exist.
+     */
+    public boolean guessWord(String sessionId, String guess) {
+        if (AnswerMatcher.isBlank(guess)) {
+            throw new IllegalArgumentException("Guess cannot be null or empty.");
+        }
+        Session session = this.session(sessionId);
+        boolean correct;
+        session.lock.lock();
+        try {
+            correct = this.answerMatcher.match(guess, session.currentWordPair) == AnswerMatcher.Result.CORRECT;
+            if (correct) {
+                session.statistics.incrementCorrectGuesses();
+            } else {
+                session.statistics.incrementIncorrectGuesses();
+            }
+            session.lastResult = correct;
+        } finally {
+            session.lock.unlock();
+        }
+        if (correct) {
+            this.aggregateStatistics.incrementCorrectGuesses();
+        } else {
+            this.aggregateStatistics.incrementIncorrectGuesses();
+        }
+        return correct;
+    }
+
+    /**
+     * Removes a session and all of its state.
+     * @param sessionId The session.
+     * @return true if the session existed.
+     */
+    public boolean removeSession(String sessionId) {
+        if (this.sessions.remove(sessionId) == null) {
+            return false;
+        }
+        this.sessionCount.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * Counts a new session against the limit, unless the limit is reached.
+     * @return true if a slot was reserved.
+     */
+    private boolean reserveSlot() {
+        while (true) {
+            int count = this.sessionCount.get();
+            if (count >= this.maxSessions) {
+                return false;
+            }
+            if (this.sessionCount.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns an existing session and marks it as used.
+     */
+    private Session session(String sessionId) {
+        if (sessionId == null) {
+            throw new IllegalArgumentException("Session id cannot be null.");
+        }
+        Session session = this.sessions.get(sessionId);
+        if (session == null) {
+            throw new NoSuchElementException("Session " + sessionId + " doesn't exist.");
+        }
+        session.lastUsedMillis = System.currentTimeMillis();
+        return session;
+    }
+
+    private void select(Session session) {
+        session.currentWordPair = this.wordPairs.get(this.wordSelector.nextIndex(this.wordPairs.size()));
+        session.lastResult = null;
+    }
+}
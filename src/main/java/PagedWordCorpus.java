@@ -0,0 +1,237 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Word corpus read on demand from a binary trainer file (see {@link BinaryPersistence}), for corpora larger than the heap.
+ * The pairs are grouped into pages of consecutive indices. A page is read from the file with positional reads when
+ * one of its pairs is accessed, and its raw bytes are kept in a bounded cache that evicts the least recently used page.
+ * Only the accessed pair is decoded, so selecting a random word pair reads at most one page and creates one pair.
+ * The file is closed by {@link #close()}, or once the corpus is no longer reachable.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class PagedWordCorpus implements WordCorpus, Closeable {
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final FileChannel channel;
+    private final Cleaner.Cleanable cleanable;
+    private final int size;
+    private final int indexOffset;
+    private final int pairsPerPage;
+    private final int maxPages;
+    private final LinkedHashMap<Integer, Page> pages;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * The encoded entries of one page and the start of every entry within them.
+     */
+    private static final class Page {
+        private final ByteBuffer blob;
+        private final int[] positions;
+
+        private Page(ByteBuffer blob, int[] positions) {
+            this.blob = blob;
+            this.positions = positions;
+        }
+
+        private WordPicturePair decode(int entry) {
+            int position = this.positions[entry];
+            MappedWordPairList.checkRange(this.blob, position, Integer.BYTES);
+            int wordLength = this.blob.getInt(position);
+            String word = MappedWordPairList.decode(this.blob, position + Integer.BYTES, wordLength);
+            position += Integer.BYTES + wordLength;
+            MappedWordPairList.checkRange(this.blob, position, Integer.BYTES);
+            String imageUrl = MappedWordPairList.decode(this.blob, position + Integer.BYTES, this.blob.getInt(position));
+            return WordPicturePair.fromTrustedData(word, imageUrl);
+        }
+    }
+
+    /**
+     * Constructor for the PagedWordCorpus class.
+     * @param file The binary trainer file. It is kept open until {@link #close()} or until the corpus is unreachable.
+     * @param pairsPerPage The number of pairs read at once.
+     * @param maxPages The maximum number of pages kept in memory.
+     * @throws IOException if the file can't be opened or isn't a binary trainer file.
+     * @throws IllegalArgumentException if the page size or count is not positive.
+     */
+    public PagedWordCorpus(Path file, int pairsPerPage, int maxPages) throws IOException {
+        if (pairsPerPage <= 0 || maxPages <= 0) {
+            throw new IllegalArgumentException("Page size and page count must be positive.");
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = this.read(0, BinaryPersistence.HEADER_SIZE);
+            if (header.getInt(0) != BinaryPersistence.MAGIC || header.getShort(4) != BinaryPersistence.VERSION) {
+                throw new IOException("Not a spelling trainer file: " + file);
+            }
+            this.size = header.getInt(20);
+            this.indexOffset = header.getInt(24);
+            if (this.size < 0 || this.indexOffset < BinaryPersistence.HEADER_SIZE
+                    || this.indexOffset + (long) this.size * Integer.BYTES > this.channel.size()) {
+                throw new IOException("Corrupt spelling trainer file: " + file);
+            }
+        } catch (IOException e) {
+            this.channel.close();
+            throw e;
+        }
+        this.pairsPerPage = pairsPerPage;
+        this.maxPages = maxPages;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true); // Access order for LRU eviction
+        this.cleanable = CLEANER.register(this, new ChannelCloser(this.channel));
+    }
+
+    // Getters
+
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * @return The share of accesses served from the page cache, between 0 and 1.
+     */
+    public synchronized double getHitRate() {
+        long accesses = this.hits + this.misses;
+        return accesses == 0 ? 0 : (double) this.hits / accesses;
+    }
+
+    /**
+     * @return The number of pages currently in memory.
+     */
+    public synchronized int getCachedPages() {
+        return this.pages.size();
+    }
+
+    // Methods
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the pair at the given index, reading its page if it isn't cached.
+     * @param index The index of the pair.
+     * @return The pair.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     * @throws UncheckedIOException if the page can't be read.
+     */
+    @Override
+    public WordPicturePair get(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+        int page = index / this.pairsPerPage;
+        Page cached;
+        synchronized (this) {
+            cached = this.pages.get(page);
+            if (cached != null) {
+                this.hits++;
+            } else {
+                this.misses++;
+            }
+        }
+        if (cached == null) {
+            try {
+                cached = this.readPage(page);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            synchronized (this) {
+                this.pages.put(page, cached);
+                if (this.pages.size() > this.maxPages) {
+                    Iterator<Map.Entry<Integer, Page>> eldest = this.pages.entrySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                    this.evictions++;
+                }
+            }
+        }
+        return cached.decode(index - page * this.pairsPerPage);
+    }
+
+    /**
+     * Closes the file. Pages that are still cached stay readable.
+     * @throws IOException never; a failure to close is printed, since the cleaner may close the file as well.
+     */
+    @Override
+    public void close() throws IOException {
+        this.cleanable.clean();
+    }
+
+    /**
+     * Closes the file of a corpus that is no longer reachable. Must not refer to the corpus itself.
+     */
+    private static final class ChannelCloser implements Runnable {
+        private final FileChannel channel;
+
+        private ChannelCloser(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void run() {
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Reads the offsets of a page from the index, then its entries from the blob in one read.
+     * @throws IOException if the offsets of the page don't lie in order between the header and the index.
+     */
+    private Page readPage(int page) throws IOException {
+        int first = page * this.pairsPerPage;
+        int count = Math.min(this.pairsPerPage, this.size - first);
+        boolean last = first + count == this.size;
+        // The blob entries are written in order, so the page ends where the next one starts, or at the index
+        ByteBuffer index = this.read(this.indexOffset + (long) first * Integer.BYTES, (last ? count : count + 1) * Integer.BYTES);
+        int start = index.getInt(0);
+        int end = last ? this.indexOffset : index.getInt(count * Integer.BYTES);
+        if (start < BinaryPersistence.HEADER_SIZE || end < start || end > this.indexOffset) {
+            throw new IOException("Corrupt page " + page + ": entries from " + start + " to " + end + ".");
+        }
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = index.getInt(i * Integer.BYTES) - start;
+            if (positions[i] < 0 || positions[i] > end - start) {
+                throw new IOException("Corrupt page " + page + ": entry " + (first + i) + " is outside the page.");
+            }
+        }
+        return new Page(this.read(start, end - start), positions);
+    }
+
+    /**
+     * Reads a range of the file into a new heap buffer.
+     */
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (this.channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file.");
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Class converting saved SpellingTrainer files between persistence formats.
+ * Usage: PersistenceConverter &lt;source&gt; &lt;target&gt;, where files ending in .json are JSON, .json.gz and .jsonz
+ * compressed JSON and all others binary.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public final class PersistenceConverter {
+
+    private PersistenceConverter() {
+    }
+
+    // Methods
+
+    /**
+     * Loads a trainer with one strategy and saves it with another.
+     * @param source The strategy to load from.
+     * @param target The strategy to save to.
+     * @return The converted trainer, or null if the source couldn't be loaded.
+     */
+    public static SpellingTrainer convert(PersistenceStrategy<SpellingTrainer> source, PersistenceStrategy<SpellingTrainer> target) {
+        SpellingTrainer trainer = source.loadData();
+        if (trainer != null) {
+            target.saveData(trainer);
+            target.flush();
+            trainer.setPersistenceStrategy(target);
+        }
+        return trainer;
+    }
+
+    /**
+     * Picks the persistence strategy for a file by its extension.
+     * @param filePath The path of the file.
+     * @return GZIP-compressed JSON for .json.gz files, dictionary-compressed JSON for .jsonz files, JSON persistence
+     * for .json files and binary persistence otherwise.
+     */
+    public static PersistenceStrategy<SpellingTrainer> forFile(String filePath) {
+        String lowerCasePath = filePath.toLowerCase();
+        if (lowerCasePath.endsWith(".json.gz")) {
+            return new CompressedPersistence(filePath, new JSONPersistence(filePath), CompressedPersistence.Codec.GZIP);
+        }
+        if (lowerCasePath.endsWith(".jsonz")) {
+            return new CompressedPersistence(filePath, new JSONPersistence(filePath), CompressedPersistence.Codec.DEFLATE);
+        }
+        if (lowerCasePath.endsWith(".json")) {
+            return new JSONPersistence(filePath);
+        }
+        return new BinaryPersistence(filePath);
+    }
+
+    /**
+     * Main method converting one file.
+     * @param args The source and target file paths.
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: PersistenceConverter <source> <target>");
+            System.exit(2);
+        }
+        if (convert(forFile(args[0]), forFile(args[1])) == null) {
+            System.err.println("Could not load " + args[0]);
+            System.exit(1);
+        }
+        System.out.println("Converted " + args[0] + " to " + args[1]);
+    }
+}
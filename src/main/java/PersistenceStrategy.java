@@ -1,8 +1,10 @@
+import java.io.IOException;
+
 /**
  * Interface defining methods for saving and loading objects to/from a file or storage.
  * @param <T> The type of the object to persist.
  * @author Leonhard Stransky
- * @version 2024-09-29
+ * @version 2026-10-17
  */
 public interface PersistenceStrategy<T> {
 
@@ -18,4 +20,21 @@ public interface PersistenceStrategy<T> {
      */
     T loadData();
 
+    /**
+     * Blocks until all previously saved objects have been written.
+     * Strategies that save synchronously don't need to override this.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Returns why the last save failed. Saves report failures here instead of throwing, so a failed save never
+     * interrupts the trainer; callers that have to know, like {@link ShardedPersistenceManager}, check it after
+     * {@link #flush()}. Strategies that can't fail don't need to override this.
+     * @return The exception of the last save, or null if it succeeded.
+     */
+    default IOException getLastSaveError() {
+        return null;
+    }
+
 }
@@ -0,0 +1,311 @@
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Class managing a directory of trainer files (shards), e.g. one per class of learners.
+ * All shards are loaded and validated in parallel on a fork-join pool, and changed shards are saved in parallel.
+ * Every shard is timed and fails on its own: a corrupt file is reported, but doesn't keep the others from loading.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class ShardedPersistenceManager {
+    /**
+     * Files that are treated as shards: JSON and binary trainer files.
+     */
+    public static final String DEFAULT_GLOB = "*.{json,bin}";
+
+    private final Path directory;
+    private final String glob;
+    private final ForkJoinPool pool;
+    private final Map<String, Shard> shards;
+
+    /**
+     * A single trainer file with its load and save state.
+     */
+    public static final class Shard {
+        private final String name;
+        private final PersistenceStrategy<SpellingTrainer> persistence;
+        private volatile SpellingTrainer trainer;
+        private volatile String error;
+        private volatile boolean dirty;
+        private volatile long loadNanos;
+        private volatile long saveNanos;
+
+        private Shard(String name, PersistenceStrategy<SpellingTrainer> persistence) {
+            this.name = name;
+            this.persistence = persistence;
+        }
+
+        /**
+         * @return The file name of the shard.
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * @return The loaded trainer, or null if the shard failed to load.
+         */
+        public SpellingTrainer getTrainer() {
+            return this.trainer;
+        }
+
+        /**
+         * @return The reason the last load or save failed, or null.
+         */
+        public String getError() {
+            return this.error;
+        }
+
+        public boolean isLoaded() {
+            return this.trainer != null;
+        }
+
+        public boolean isDirty() {
+            return this.dirty;
+        }
+
+        /**
+         * Marks the shard as changed, so the next {@link ShardedPersistenceManager#saveDirty()} saves it.
+         */
+        public void markDirty() {
+            this.dirty = true;
+        }
+
+        public long getLoadNanos() {
+            return this.loadNanos;
+        }
+
+        public long getSaveNanos() {
+            return this.saveNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-30s %10.1f ms %s", this.name, this.loadNanos / 1e6,
+                    this.error != null ? "FAILED: " + this.error
+                            : this.trainer != null ? this.trainer.getWordPairs().size() + " word pairs" : "not loaded");
+        }
+    }
+
+    /**
+     * Constructor for the ShardedPersistenceManager class, using all JSON and binary files of the directory.
+     * @param directory The directory of the trainer files.
+     * @param parallelism The number of threads loading and saving.
+     */
+    public ShardedPersistenceManager(Path directory, int parallelism) {
+        this(directory, DEFAULT_GLOB, parallelism);
+    }
+
+    /**
+     * Constructor for the ShardedPersistenceManager class.
+     * @param directory The directory of the trainer files.
+     * @param glob The pattern of the file names to load, e.g. "*.json".
+     * @param parallelism The number of threads loading and saving.
+     * @throws IllegalArgumentException if the parallelism is not positive.
+     */
+    public ShardedPersistenceManager(Path directory, String glob, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive.");
+        }
+        this.directory = directory;
+        this.glob = glob;
+        this.pool = new ForkJoinPool(parallelism);
+        this.shards = Collections.synchronizedMap(new TreeMap<>());
+    }
+
+    // Getters
+
+    /**
+     * @return All discovered shards, sorted by name.
+     */
+    public List<Shard> getShards() {
+        synchronized (this.shards) {
+            return new ArrayList<>(this.shards.values());
+        }
+    }
+
+    /**
+     * Returns a shard by its file name.
+     * @param name The file name.
+     * @return The shard, or null if there is none.
+     */
+    public Shard getShard(String name) {
+        return this.shards.get(name);
+    }
+
+    /**
+     * Returns the trainer of a shard.
+     * @param name The file name.
+     * @return The trainer, or null if the shard doesn't exist or failed to load.
+     */
+    public SpellingTrainer getTrainer(String name) {
+        Shard shard = this.shards.get(name);
+        return shard != null ? shard.getTrainer() : null;
+    }
+
+    // Methods
+
+    /**
+     * Discovers the trainer files of the directory and loads them in parallel.
+     * @return The shards that failed to load.
+     * @throws IOException if the directory can't be listed.
+     */
+    public List<Shard> loadAll() throws IOException {
+        List<Shard> discovered = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, this.glob)) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file)) {
+                    String name = file.getFileName().toString();
+                    discovered.add(this.shards.computeIfAbsent(name,
+                            key -> new Shard(key, PersistenceConverter.forFile(file.toString()))));
+                }
+            }
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Shard shard : discovered) {
+            tasks.add(() -> {
+                load(shard);
+                return null;
+            });
+        }
+        this.pool.invokeAll(tasks);
+        return failed(discovered);
+    }
+
+    /**
+     * Adds a new shard with the given trainer. It is saved with the next {@link #saveDirty()}.
+     * @param name The file name; .json for JSON, binary otherwise.
+     * @param trainer The trainer.
+     * @return The new shard.
+     * @throws IllegalArgumentException if a shard with that name exists.
+     */
+    public Shard addShard(String name, SpellingTrainer trainer) {
+        PersistenceStrategy<SpellingTrainer> persistence = PersistenceConverter.forFile(this.directory.resolve(name).toString());
+        Shard shard = new Shard(name, persistence);
+        if (this.shards.putIfAbsent(name, shard) != null) {
+            throw new IllegalArgumentException("Shard " + name + " already exists.");
+        }
+        trainer.setPersistenceStrategy(persistence);
+        shard.trainer = trainer;
+        shard.dirty = true;
+        return shard;
+    }
+
+    /**
+     * Saves all shards marked as dirty in parallel.
+     * @return The shards that failed to save; they stay dirty.
+     */
+    public List<Shard> saveDirty() {
+        List<Shard> dirty = new ArrayList<>();
+        for (Shard shard : this.getShards()) {
+            if (shard.dirty && shard.trainer != null) {
+                dirty.add(shard);
+            }
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Shard shard : dirty) {
+            tasks.add(() -> {
+                save(shard);
+                return null;
+            });
+        }
+        this.pool.invokeAll(tasks);
+        return failed(dirty);
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    public void close() {
+        this.pool.shutdown();
+    }
+
+    /**
+     * Loads and validates one shard, recording the time and any failure.
+     */
+    private static void load(Shard shard) {
+        long start = System.nanoTime();
+        try {
+            SpellingTrainer trainer = shard.persistence.loadData();
+            String problem = SpellingTrainerAdapter.validate(trainer);
+            if (problem != null) {
+                shard.error = problem;
+                shard.trainer = null;
+            } else {
+                shard.error = null;
+                shard.trainer = trainer;
+                shard.dirty = false;
+            }
+        } catch (RuntimeException e) {
+            shard.error = e.toString();
+            shard.trainer = null;
+        } finally {
+            shard.loadNanos = System.nanoTime() - start;
+        }
+    }
+
+    private static void save(Shard shard) {
+        long start = System.nanoTime();
+        try {
+            shard.dirty = false; // Cleared first, so a change during the save marks it again
+            shard.persistence.saveData(shard.trainer);
+            shard.persistence.flush();
+            IOException failure = shard.persistence.getLastSaveError();
+            if (failure != null) {
+                shard.error = failure.toString();
+                shard.dirty = true;
+            } else {
+                shard.error = null;
+            }
+        } catch (RuntimeException e) {
+            shard.error = e.toString();
+            shard.dirty = true;
+        } finally {
+            shard.saveNanos = System.nanoTime() - start;
+        }
+    }
+
+    private static List<Shard> failed(List<Shard> shards) {
+        List<Shard> failed = new ArrayList<>();
+        for (Shard shard : shards) {
+            if (shard.error != null) {
+                failed.add(shard);
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Main method loading all trainer files of a directory and printing the time per shard.
+     * @param args The directory and optionally the number of threads.
+     * @throws IOException if the directory can't be listed.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ShardedPersistenceManager <directory> [threads]");
+            System.exit(2);
+        }
+        int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ShardedPersistenceManager manager = new ShardedPersistenceManager(Paths.get(args[0]), parallelism);
+        long start = System.nanoTime();
+        List<Shard> failed = manager.loadAll();
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        for (Shard shard : manager.getShards()) {
+            System.out.println(shard);
+        }
+        System.out.printf("%d shards loaded, %d failed, in %d ms with %d threads%n",
+                manager.getShards().size() - failed.size(), failed.size(), millis, parallelism);
+        manager.close();
+    }
+}
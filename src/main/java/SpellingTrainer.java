@@ -1,23 +1,35 @@
+import java.util.HashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
 
 /**
  * Class representing a spelling trainer that uses word-picture pairs to train spelling.
  * @author Leonhard Stransky
- * @version 2024-09-28
+ * @version 2026-10-17
  */
 public class SpellingTrainer {
-    private List<WordPicturePair> wordPairs;
+    private volatile List<WordPicturePair> wordPairs; // Replaced as a whole by setWordPairs, never changed in place
     private WordPicturePair currentWordPair;
     private Statistics statistics;
     private Boolean lastResult; // Boolean to store true, false or null if no guess was made
+    private WordStatistics wordStatistics;
     private transient PersistenceStrategy<SpellingTrainer> persistenceStrategy; // transient keyword to exclude from serialization
+    private transient WordSelector wordSelector;
+    private transient int currentIndex; // Index of the current word pair, or -1 if unknown (e.g. after loading)
+    private transient int nextIndex; // Index drawn ahead by peekNextWordPair, or -1
+    private transient Map<String, Integer> wordIndex; // Built on first use by selectWordPair
+    private transient AnswerMatcher answerMatcher; // null means AnswerMatcher.EXACT
+    private transient AnswerMatcher.Result lastMatch;
+    private transient GuessHistory guessHistory; // Created on first use
+    private transient long snapshotGuessVersion = -1; // Version of the guess history when this snapshot was taken
+    private transient List<WordPicturePair> indexedWordPairs; // Word pairs the indexes above refer to
+    private transient volatile CorpusChange corpusChange; // Last corpus published by setWordPairs
 
     // Constructors
 
     /**
      * Constructor for a SpellingTrainer.
-     * @param wordPairs The list of word-picture pairs.
+     * @param wordPairs The list of word-picture pairs. It is copied unless it is a read-only word corpus.
      * @param persistenceStrategy The strategy for saving/loading the SpellingTrainer object.
      * @throws IllegalArgumentException if the wordPairs list is null or empty.
      */
@@ -25,15 +37,120 @@ public class SpellingTrainer {
         if (wordPairs == null || wordPairs.isEmpty()) {
             throw new IllegalArgumentException("No word pairs available.");
         }
-        this.wordPairs = wordPairs;
+        this.wordPairs = readOnly(wordPairs);
         this.statistics = new Statistics();
+        this.wordStatistics = new WordStatistics();
+        this.wordSelector = new UniformWordSelector();
+        this.nextIndex = -1;
         this.selectRandomWordPair(); // Select an initial word pair at startup
         this.lastResult = null;  // No guess made initially
         this.persistenceStrategy = persistenceStrategy; // Strategy injected
     }
 
+    /**
+     * Creates a SpellingTrainer over a word corpus, e.g. a {@link PagedWordCorpus} that doesn't fit into the heap.
+     * The corpus is accessed through a List view, so only the pairs that are used are loaded.
+     * @param corpus The word corpus.
+     * @param persistenceStrategy The strategy for saving/loading the SpellingTrainer object.
+     * @return The SpellingTrainer.
+     * @throws IllegalArgumentException if the corpus is null or empty.
+     */
+    public static SpellingTrainer fromCorpus(WordCorpus corpus, PersistenceStrategy<SpellingTrainer> persistenceStrategy) {
+        if (corpus == null) {
+            throw new IllegalArgumentException("No word pairs available.");
+        }
+        return new SpellingTrainer(WordCorpus.asList(corpus), persistenceStrategy);
+    }
+
+    /**
+     * Constructor used by Gson's reflective adapter, so transient fields get their initial values.
+     */
+    private SpellingTrainer() {
+        this.wordStatistics = new WordStatistics();
+        this.wordSelector = new UniformWordSelector();
+        this.currentIndex = -1;
+        this.nextIndex = -1;
+    }
+
+    /**
+     * Constructor restoring a saved SpellingTrainer, used by {@link SpellingTrainerAdapter}.
+     * @param wordPairs The list of word-picture pairs.
+     * @param currentWordPair The word pair to guess.
+     * @param statistics The statistics.
+     * @param lastResult The result of the last guess, or null.
+     */
+    SpellingTrainer(List<WordPicturePair> wordPairs, WordPicturePair currentWordPair, Statistics statistics, Boolean lastResult) {
+        this(wordPairs, currentWordPair, statistics, lastResult, new WordStatistics());
+    }
+
+    /**
+     * Constructor restoring a saved SpellingTrainer with its word statistics.
+     * @param wordPairs The list of word-picture pairs.
+     * @param currentWordPair The word pair to guess.
+     * @param statistics The statistics.
+     * @param lastResult The result of the last guess, or null.
+     * @param wordStatistics The statistics per word and time window.
+     */
+    SpellingTrainer(List<WordPicturePair> wordPairs, WordPicturePair currentWordPair, Statistics statistics,
+                    Boolean lastResult, WordStatistics wordStatistics) {
+        this.wordPairs = wordPairs;
+        this.currentWordPair = currentWordPair;
+        this.statistics = statistics;
+        this.lastResult = lastResult;
+        this.wordStatistics = wordStatistics;
+        this.wordSelector = new UniformWordSelector();
+        this.currentIndex = -1;
+        this.nextIndex = -1;
+    }
+
+    /**
+     * Copy constructor used for snapshots.
+     * The word pairs are shared, the statistics are copied.
+     * @param other The SpellingTrainer to copy.
+     */
+    private SpellingTrainer(SpellingTrainer other) {
+        this.wordPairs = other.wordPairs;
+        this.currentWordPair = other.currentWordPair;
+        this.statistics = new Statistics(other.statistics);
+        this.wordStatistics = new WordStatistics(other.wordStatistics);
+        this.lastResult = other.lastResult;
+        this.persistenceStrategy = other.persistenceStrategy;
+        this.wordSelector = other.wordSelector;
+        this.currentIndex = other.currentIndex;
+        this.nextIndex = other.nextIndex;
+        this.indexedWordPairs = other.indexedWordPairs;
+        this.answerMatcher = other.answerMatcher;
+        this.lastMatch = other.lastMatch;
+        // The history isn't copied, the version tells which of its changes the snapshot contains
+        this.guessHistory = other.getGuessHistory();
+        this.snapshotGuessVersion = this.guessHistory.getVersion();
+    }
+
     // Getters and Setters
 
+    public List<WordPicturePair> getWordPairs() {
+        return this.wordPairs;
+    }
+
+    /**
+     * Replaces the word pairs, e.g. after the corpus file was edited. May be called from any thread.
+     * The new list is copied unless it is a read-only word corpus, and published as a whole. The trainer switches
+     * to it on its next selection; a guess in progress still checks the current pair. The statistics per word carry
+     * over, and so does the history of the word selector for words that remain.
+     * @param wordPairs The new word pairs.
+     * @throws IllegalArgumentException if the list is null or empty.
+     */
+    public void setWordPairs(List<WordPicturePair> wordPairs) {
+        if (wordPairs == null || wordPairs.isEmpty()) {
+            throw new IllegalArgumentException("No word pairs available.");
+        }
+        wordPairs = readOnly(wordPairs);
+        List<WordPicturePair> previous = this.wordPairs;
+        // The change is written first, so the trainer thread sees it once it sees the new list
+        this.corpusChange = new CorpusChange(previous, wordPairs, previousIndexes(previous, wordPairs));
+        this.wordPairs = wordPairs;
+    }
+
     public WordPicturePair getCurrentWordPair() {
         return this.currentWordPair;
     }
@@ -42,49 +159,327 @@ public class SpellingTrainer {
         return this.statistics;
     }
 
+    /**
+     * @return The statistics per word and time window.
+     */
+    public WordStatistics getWordStatistics() {
+        return this.wordStatistics;
+    }
+
     public Boolean getLastResult() {
         return this.lastResult;
     }
 
+    /**
+     * Sets the current word pair, used when replaying saved state.
+     * @param currentWordPair The word pair to guess.
+     */
+    void setCurrentWordPair(WordPicturePair currentWordPair) {
+        this.currentWordPair = currentWordPair;
+        this.currentIndex = -1;
+    }
+
+    /**
+     * Sets the result of the last guess, used when replaying saved state.
+     * @param lastResult The result, or null if no guess was made.
+     */
+    void setLastResult(Boolean lastResult) {
+        this.lastResult = lastResult;
+    }
+
+    /**
+     * Returns the detailed result of the last guess, including almost correct guesses.
+     * @return CORRECT, ALMOST, INCORRECT or null if no guess was made since the word pair was selected.
+     */
+    public AnswerMatcher.Result getLastMatch() {
+        return this.lastMatch;
+    }
+
+    public AnswerMatcher getAnswerMatcher() {
+        return this.answerMatcher != null ? this.answerMatcher : AnswerMatcher.EXACT;
+    }
+
+    /**
+     * Sets how guesses are compared with the word. Almost correct guesses still count as incorrect.
+     * @param answerMatcher The answer matcher.
+     * @throws IllegalArgumentException if the answer matcher is null.
+     */
+    public void setAnswerMatcher(AnswerMatcher answerMatcher) {
+        if (answerMatcher == null) {
+            throw new IllegalArgumentException("Answer matcher cannot be null.");
+        }
+        this.answerMatcher = answerMatcher;
+    }
+
+    /**
+     * Returns the history of the last guesses, which is not saved with the trainer.
+     * @return The guess history, with {@link GuessHistory#DEFAULT_CAPACITY} unless another one was set.
+     */
+    public GuessHistory getGuessHistory() {
+        if (this.guessHistory == null) {
+            this.guessHistory = new GuessHistory(GuessHistory.DEFAULT_CAPACITY);
+        }
+        return this.guessHistory;
+    }
+
+    /**
+     * @return The version of the guess history this trainer's statistics contain, see {@link GuessHistory#getVersion()}.
+     */
+    long getGuessVersion() {
+        return this.snapshotGuessVersion >= 0 ? this.snapshotGuessVersion : this.getGuessHistory().getVersion();
+    }
+
+    /**
+     * Sets the history the following guesses are recorded in, e.g. to keep more of them.
+     * @param guessHistory The guess history.
+     * @throws IllegalArgumentException if the guess history is null.
+     */
+    public void setGuessHistory(GuessHistory guessHistory) {
+        if (guessHistory == null) {
+            throw new IllegalArgumentException("Guess history cannot be null.");
+        }
+        this.guessHistory = guessHistory;
+    }
+
     public void setPersistenceStrategy(PersistenceStrategy<SpellingTrainer> persistenceStrategy) {
         this.persistenceStrategy = persistenceStrategy;
     }
 
+    public WordSelector getWordSelector() {
+        return this.wordSelector;
+    }
+
+    /**
+     * Sets the strategy used to pick the next word pair.
+     * @param wordSelector The word selector.
+     * @throws IllegalArgumentException if the word selector is null.
+     */
+    public void setWordSelector(WordSelector wordSelector) {
+        if (wordSelector == null) {
+            throw new IllegalArgumentException("Word selector cannot be null.");
+        }
+        this.wordSelector = wordSelector;
+        this.nextIndex = -1;
+    }
+
     // Methods
 
     /**
-     * Selects a random word-picture pair from the list of word pairs.
+     * Returns the word pair the next call of {@link #selectRandomWordPair()} will select, e.g. to prefetch its image.
+     * @return The next word pair.
+     */
+    public WordPicturePair peekNextWordPair() {
+        List<WordPicturePair> pairs = this.pairs();
+        if (this.nextIndex < 0) {
+            this.nextIndex = this.getWordSelector().nextIndex(pairs.size());
+        }
+        return pairs.get(this.nextIndex);
+    }
+
+    /**
+     * Selects a random word-picture pair from the list of word pairs using the word selector.
      */
     public void selectRandomWordPair() {
-        Random random = new Random();
-        this.currentWordPair = this.wordPairs.get(random.nextInt(this.wordPairs.size()));
+        List<WordPicturePair> pairs = this.pairs();
+        if (this.nextIndex >= 0) {
+            this.currentIndex = this.nextIndex;
+            this.nextIndex = -1;
+        } else {
+            this.currentIndex = this.getWordSelector().nextIndex(pairs.size());
+        }
+        this.currentWordPair = pairs.get(this.currentIndex);
         this.lastResult = null; // Reset last result since a new pair is selected
+        this.lastMatch = null;
+    }
+
+    /**
+     * Selects the word pair with the given word, e.g. to replay recorded guesses.
+     * The first call builds an index over all word pairs.
+     * @param word The word to select.
+     * @return true if a pair with this word exists and was selected, false otherwise.
+     */
+    public boolean selectWordPair(String word) {
+        Integer index = this.wordIndex().get(word);
+        if (index == null) {
+            return false;
+        }
+        this.selectWordPair(index);
+        return true;
+    }
+
+    /**
+     * Selects the word pair at the given index, used when replaying recorded guesses.
+     * @param index The index in the word pairs.
+     */
+    void selectWordPair(int index) {
+        List<WordPicturePair> pairs = this.pairs();
+        this.currentIndex = index;
+        this.currentWordPair = pairs.get(index);
+        this.lastResult = null;
+        this.lastMatch = null;
+    }
+
+    /**
+     * Returns the index of the first word pair of every word, built on first use.
+     */
+    private Map<String, Integer> wordIndex() {
+        List<WordPicturePair> pairs = this.pairs();
+        if (this.wordIndex == null) {
+            Map<String, Integer> index = new HashMap<>(pairs.size() * 4 / 3 + 1);
+            for (int i = 0; i < pairs.size(); i++) {
+                index.putIfAbsent(pairs.get(i).getWord(), i);
+            }
+            this.wordIndex = index;
+        }
+        return this.wordIndex;
+    }
+
+    /**
+     * Returns the word pairs and switches the indexes to them if {@link #setWordPairs(List)} published new ones.
+     * The mapping computed by setWordPairs is used if it starts at the indexed word pairs; if several corpora were
+     * published since the last switch, the mapping from the indexed ones is computed here.
+     */
+    private List<WordPicturePair> pairs() {
+        List<WordPicturePair> pairs = this.wordPairs;
+        if (pairs != this.indexedWordPairs) {
+            if (this.indexedWordPairs != null) {
+                CorpusChange change = this.corpusChange;
+                int[] previousIndexes = change != null && change.wordPairs == pairs && change.previous == this.indexedWordPairs
+                        ? change.previousIndexes
+                        : previousIndexes(this.indexedWordPairs, pairs);
+                if (this.wordSelector != null) {
+                    this.wordSelector.corpusChanged(previousIndexes);
+                }
+                if (this.guessHistory != null) {
+                    this.guessHistory.corpusChanged(previousIndexes);
+                }
+                // The current pair stays selected, its index is looked up again when needed
+                this.currentIndex = -1;
+                this.nextIndex = -1;
+                this.wordIndex = null;
+            }
+            this.indexedWordPairs = pairs;
+        }
+        return pairs;
+    }
+
+    /**
+     * Returns an unmodifiable copy of the word pairs, so a caller changing its list can't change them behind the
+     * trainer's back (persistence strategies cache by list identity). Word corpora are read-only and possibly larger
+     * than the heap, so they are kept as they are.
+     */
+    private static List<WordPicturePair> readOnly(List<WordPicturePair> wordPairs) {
+        return wordPairs instanceof WordCorpus || wordPairs instanceof WordCorpus.ListView ? wordPairs : List.copyOf(wordPairs);
     }
 
     /**
-     * Guesses the word of the current word-picture pair.
+     * Returns the index every new word pair had in the previous word pairs, or -1 if its word is new.
+     */
+    private static int[] previousIndexes(List<WordPicturePair> previous, List<WordPicturePair> wordPairs) {
+        Map<String, Integer> indexes = new HashMap<>(previous.size() * 4 / 3 + 1);
+        for (int i = 0; i < previous.size(); i++) {
+            indexes.putIfAbsent(previous.get(i).getWord(), i);
+        }
+        int[] previousIndexes = new int[wordPairs.size()];
+        for (int i = 0; i < previousIndexes.length; i++) {
+            previousIndexes[i] = indexes.getOrDefault(wordPairs.get(i).getWord(), -1);
+        }
+        return previousIndexes;
+    }
+
+    /**
+     * Guesses the word of the current word-picture pair using the answer matcher.
      * @param guess The word to guess.
      * @return true if the guess is correct, false otherwise.
      */
     public boolean guessWord(String guess) {
-        if (guess == null || guess.trim().isEmpty()) {
+        return this.guessWord(guess, System.currentTimeMillis());
+    }
+
+    /**
+     * Guesses the word of the current word-picture pair at the given time, used when replaying recorded guesses.
+     * @param guess The word to guess.
+     * @param timeMillis The time of the guess.
+     * @return true if the guess is correct, false otherwise.
+     */
+    boolean guessWord(String guess, long timeMillis) {
+        if (AnswerMatcher.isBlank(guess)) {
             throw new IllegalArgumentException("Guess cannot be null or empty.");
         }
 
-        this.lastResult = guess.equals(this.currentWordPair.getWord());
+        TrainerMetrics metrics = TrainerMetrics.getInstance();
+        long start = metrics.startTimer();
+        this.lastMatch = this.getAnswerMatcher().match(guess, this.currentWordPair);
+        this.lastResult = this.lastMatch == AnswerMatcher.Result.CORRECT;
         if(this.lastResult) {
             this.statistics.incrementCorrectGuesses();
         } else {
             this.statistics.incrementIncorrectGuesses();
         }
+        this.wordStatistics.record(this.currentWordPair.getWord(), this.lastResult, timeMillis);
+        if (this.currentIndex >= 0) {
+            this.getWordSelector().recordGuess(this.currentIndex, this.lastResult);
+        }
+        // The pair is recorded too, so an unknown index (after loading) needs no lookup in the corpus
+        this.getGuessHistory().record(this.currentIndex, this.currentWordPair, guess, timeMillis, this.lastResult);
+        metrics.recordGuess(start, this.lastResult);
         return this.lastResult;
     }
 
+    /**
+     * Undoes the last guess that wasn't undone yet and takes it back from the statistics, the word statistics and
+     * the word selector. The current word pair stays selected.
+     * @return true if a guess was undone, false if the history has none.
+     */
+    public boolean undoGuess() {
+        if (!this.getGuessHistory().undo(this.statistics, this.wordStatistics, this.getWordSelector())) {
+            return false;
+        }
+        this.lastResult = null;
+        this.lastMatch = null;
+        return true;
+    }
+
+    /**
+     * Redoes the guess that was undone last and counts it in the statistics, the word statistics and the word selector
+     * again.
+     * @return true if a guess was redone, false if there is none to redo.
+     */
+    public boolean redoGuess() {
+        GuessHistory history = this.getGuessHistory();
+        if (!history.redo(this.statistics, this.wordStatistics, this.getWordSelector())) {
+            return false;
+        }
+        this.lastResult = history.isCorrect(history.size() - 1);
+        this.lastMatch = null;
+        return true;
+    }
+
     /**
      * Saves the SpellingTrainer object using the current persistence strategy.
      */
     public void persistData() {
+        TrainerMetrics metrics = TrainerMetrics.getInstance();
+        long start = metrics.startTimer();
         this.persistenceStrategy.saveData(this);
+        metrics.recordPersist(start);
+    }
+
+    /**
+     * Blocks until all saves handed to the current persistence strategy have been written.
+     */
+    public void flushData() {
+        this.persistenceStrategy.flush();
+    }
+
+    /**
+     * Creates a snapshot of the SpellingTrainer that can be saved on another thread.
+     * The word pairs are treated as immutable and shared with the snapshot. The guess history is shared too, so no
+     * guesses should be made with the snapshot.
+     * @return The snapshot.
+     */
+    public SpellingTrainer snapshot() {
+        return new SpellingTrainer(this);
     }
 
     /**
@@ -105,4 +500,19 @@ public class SpellingTrainer {
                 "Statistics: " + this.statistics.toString() + "\n" +
                 "Last Result: " + this.lastResult;
     }
+
+    /**
+     * Word pairs published by {@link #setWordPairs(List)} with the indexes their words had in the previous ones.
+     */
+    private static final class CorpusChange {
+        private final List<WordPicturePair> previous;
+        private final List<WordPicturePair> wordPairs;
+        private final int[] previousIndexes;
+
+        CorpusChange(List<WordPicturePair> previous, List<WordPicturePair> wordPairs, int[] previousIndexes) {
+            this.previous = previous;
+            this.wordPairs = wordPairs;
+            this.previousIndexes = previousIndexes;
+        }
+    }
 }
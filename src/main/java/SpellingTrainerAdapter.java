@@ -0,0 +1,253 @@
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written Gson adapter for SpellingTrainer objects.
+ * Streams the word pairs one by one and produces the same JSON as Gson's reflective adapter,
+ * so files written by either can be read by the other.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class SpellingTrainerAdapter extends TypeAdapter<SpellingTrainer> {
+    private final WordPicturePairAdapter pairAdapter;
+    private final WordStatisticsAdapter wordStatisticsAdapter;
+    private final boolean compactCorpus;
+
+    /**
+     * Constructor for the SpellingTrainerAdapter class.
+     */
+    public SpellingTrainerAdapter() {
+        this(false);
+    }
+
+    /**
+     * Constructor for the SpellingTrainerAdapter class.
+     * @param compactCorpus True to read the word pairs into a {@link CompactCorpus} instead of an ArrayList.
+     */
+    public SpellingTrainerAdapter(boolean compactCorpus) {
+        this.pairAdapter = new WordPicturePairAdapter();
+        this.wordStatisticsAdapter = new WordStatisticsAdapter();
+        this.compactCorpus = compactCorpus;
+    }
+
+    /**
+     * Writes a SpellingTrainer. Null values are omitted like Gson does by default.
+     * @param out The JSON writer.
+     * @param trainer The trainer to write, may be null.
+     * @throws IOException if writing fails.
+     */
+    @Override
+    public void write(JsonWriter out, SpellingTrainer trainer) throws IOException {
+        if (trainer == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        List<WordPicturePair> wordPairs = trainer.getWordPairs();
+        if (wordPairs != null) {
+            out.name("wordPairs");
+            out.beginArray();
+            for (WordPicturePair pair : wordPairs) {
+                this.pairAdapter.write(out, pair);
+            }
+            out.endArray();
+        }
+        if (trainer.getCurrentWordPair() != null) {
+            out.name("currentWordPair");
+            this.pairAdapter.write(out, trainer.getCurrentWordPair());
+        }
+        Statistics statistics = trainer.getStatistics();
+        if (statistics != null) {
+            out.name("statistics");
+            out.beginObject();
+            out.name("correctGuesses").value(statistics.getCorrectGuesses());
+            out.name("incorrectGuesses").value(statistics.getIncorrectGuesses());
+            out.name("totalGuesses").value(statistics.getTotalGuesses());
+            out.endObject();
+        }
+        if (trainer.getLastResult() != null) {
+            out.name("lastResult").value(trainer.getLastResult());
+        }
+        if (trainer.getWordStatistics() != null) {
+            out.name("wordStatistics");
+            this.wordStatisticsAdapter.write(out, trainer.getWordStatistics());
+        }
+        out.endObject();
+    }
+
+    /**
+     * Reads a SpellingTrainer. Unknown properties are skipped.
+     * @param in The JSON reader.
+     * @return The trainer, or null if the JSON value is null.
+     * @throws IOException if reading fails.
+     * @throws JsonParseException if the trainer can't be used, e.g. because it has no word pairs.
+     */
+    @Override
+    public SpellingTrainer read(JsonReader in) throws IOException {
+        SpellingTrainer trainer = this.readUnvalidated(in);
+        if (trainer != null) {
+            String problem = validate(trainer);
+            if (problem != null) {
+                throw new JsonParseException("Invalid trainer: " + problem + ".");
+            }
+        }
+        return trainer;
+    }
+
+    /**
+     * Reads a SpellingTrainer without checking it, for records that are completed afterwards, e.g. with a corpus.
+     * @param in The JSON reader.
+     * @return The trainer, or null if the JSON value is null.
+     * @throws IOException if reading fails.
+     */
+    SpellingTrainer readUnvalidated(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<WordPicturePair> wordPairs = null;
+        WordPicturePair currentWordPair = null;
+        Statistics statistics = null;
+        Boolean lastResult = null;
+        WordStatistics wordStatistics = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "wordPairs":
+                    wordPairs = this.readWordPairs(in);
+                    break;
+                case "currentWordPair":
+                    currentWordPair = this.pairAdapter.read(in);
+                    break;
+                case "statistics":
+                    statistics = readStatistics(in);
+                    break;
+                case "lastResult":
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                    } else {
+                        lastResult = in.nextBoolean();
+                    }
+                    break;
+                case "wordStatistics":
+                    wordStatistics = this.wordStatisticsAdapter.read(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new SpellingTrainer(wordPairs, currentWordPair, statistics, lastResult,
+                wordStatistics != null ? wordStatistics : new WordStatistics());
+    }
+
+    /**
+     * Checks that a loaded trainer can be used.
+     * The current word pair has to be one of the word pairs, compared by word and image URL. Corpora that are decoded
+     * from a mapped or paged file on access aren't scanned for it, since that would read the whole file.
+     * @param trainer The trainer.
+     * @return The problem, or null if the trainer is valid.
+     */
+    public static String validate(SpellingTrainer trainer) {
+        if (trainer == null) {
+            return "file could not be read";
+        }
+        if (trainer.getWordPairs() == null || trainer.getWordPairs().isEmpty()) {
+            return "no word pairs";
+        }
+        Statistics statistics = trainer.getStatistics();
+        if (statistics == null) {
+            return "no statistics";
+        }
+        if (statistics.getCorrectGuesses() < 0 || statistics.getIncorrectGuesses() < 0
+                || statistics.getTotalGuesses() != statistics.getCorrectGuesses() + statistics.getIncorrectGuesses()) {
+            return "inconsistent statistics";
+        }
+        WordPicturePair currentWordPair = trainer.getCurrentWordPair();
+        if (currentWordPair == null) {
+            return "no current word pair";
+        }
+        if (!containsPair(trainer.getWordPairs(), currentWordPair)) {
+            return "current word pair " + currentWordPair.getWord() + " is not one of the word pairs";
+        }
+        return null;
+    }
+
+    private static boolean containsPair(List<WordPicturePair> wordPairs, WordPicturePair pair) {
+        if (wordPairs instanceof MappedWordPairList || wordPairs instanceof WordCorpus.ListView) {
+            return true;
+        }
+        for (WordPicturePair candidate : wordPairs) {
+            if (candidate == pair || (candidate.getWord().equals(pair.getWord())
+                    && candidate.getImageUrl().equals(pair.getImageUrl()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the array of word pairs.
+     */
+    private List<WordPicturePair> readWordPairs(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (this.compactCorpus) {
+            CompactCorpus.Builder builder = new CompactCorpus.Builder();
+            in.beginArray();
+            while (in.hasNext()) {
+                WordPicturePair pair = this.pairAdapter.read(in);
+                builder.add(pair.getWord(), pair.getImageUrl());
+            }
+            in.endArray();
+            return builder.build();
+        }
+        List<WordPicturePair> wordPairs = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            wordPairs.add(this.pairAdapter.read(in));
+        }
+        in.endArray();
+        return wordPairs;
+    }
+
+    /**
+     * Reads the statistics object.
+     */
+    private static Statistics readStatistics(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        int correctGuesses = 0;
+        int incorrectGuesses = 0;
+        int totalGuesses = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "correctGuesses":
+                    correctGuesses = in.nextInt();
+                    break;
+                case "incorrectGuesses":
+                    incorrectGuesses = in.nextInt();
+                    break;
+                case "totalGuesses":
+                    totalGuesses = in.nextInt();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Statistics(correctGuesses, incorrectGuesses, totalGuesses);
+    }
+}
@@ -1,106 +1,204 @@
 import javax.swing.*;
-import java.awt.Image;
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.GraphicsEnvironment;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
- * Class responsible for the graphical interface of the SpellingTrainer using JOptionPane.
+ * Class responsible for the graphical interface of the SpellingTrainer.
+ * A single window shows the picture, an input field for the guess, the result and the statistics, which are updated
+ * in place. The trainer is only used on the event dispatch thread (EDT); images are loaded by the {@link ImageLoader}
+ * and saves run on a background thread with a snapshot of the trainer, so the window never waits for the network or
+ * the disk. The UI must be created and used on the EDT.
  * @author Leonhard Stransky
- * @version 2024-09-29
+ * @version 2026-10-17
  */
 public class SpellingTrainerUI {
-    private SpellingTrainer trainer;
-    private boolean running;
+    private static final Path IMAGE_CACHE_DIRECTORY = Paths.get("image_cache");
+    private static final long IMAGE_MEMORY_CACHE_BYTES = 32 * 1024 * 1024;
+    private static final int HARDEST_WORDS = 3;
+
+    private final SpellingTrainer trainer;
+    private final ImageLoader imageLoader;
+    private final ExecutorService saveExecutor;
+    private final JPanel content;
+    private final JLabel imageLabel;
+    private final JTextField guessField;
+    private final JButton guessButton;
+    private final JLabel resultLabel;
+    private final JLabel statisticsLabel;
+    private final JLabel hardestWordsLabel;
+    private JFrame frame;
+    private WordPicturePair shownPair; // Pair whose image is requested, to drop images of pairs that were left
 
     /**
      * Constructor for the SpellingTrainerUI class.
      * @param trainer The spelling trainer to be used in the UI.
      */
     public SpellingTrainerUI(SpellingTrainer trainer) {
+        this(trainer, new ImageLoader(IMAGE_CACHE_DIRECTORY, IMAGE_MEMORY_CACHE_BYTES));
+    }
+
+    /**
+     * Constructor for the SpellingTrainerUI class with a given image loader.
+     * @param trainer The spelling trainer to be used in the UI.
+     * @param imageLoader The loader of the pictures; it is closed when the trainer exits.
+     */
+    SpellingTrainerUI(SpellingTrainer trainer, ImageLoader imageLoader) {
         this.trainer = trainer;
-        this.running = true;
+        this.imageLoader = imageLoader;
+        this.saveExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spelling-trainer-save");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.imageLabel = new JLabel("", SwingConstants.CENTER);
+        this.imageLabel.setPreferredSize(new Dimension(ImageLoader.TARGET_WIDTH + 20, ImageLoader.TARGET_WIDTH));
+        this.guessField = new JTextField(20);
+        this.guessButton = new JButton("Check");
+        this.resultLabel = new JLabel(" ");
+        this.statisticsLabel = new JLabel();
+        this.hardestWordsLabel = new JLabel(" ");
+
+        // Enter in the field and the button both submit the guess
+        this.guessField.addActionListener(event -> this.submitGuess());
+        this.guessButton.addActionListener(event -> this.submitGuess());
+
+        JPanel input = new JPanel();
+        input.add(new JLabel("Your guess:"));
+        input.add(this.guessField);
+        input.add(this.guessButton);
+
+        JPanel feedback = new JPanel();
+        feedback.setLayout(new BoxLayout(feedback, BoxLayout.Y_AXIS));
+        feedback.add(input);
+        feedback.add(this.resultLabel);
+        feedback.add(this.statisticsLabel);
+        feedback.add(this.hardestWordsLabel);
+
+        this.content = new JPanel(new BorderLayout(10, 10));
+        this.content.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        this.content.add(new JLabel("Can you guess the word for the following picture?", SwingConstants.CENTER), BorderLayout.NORTH);
+        this.content.add(this.imageLabel, BorderLayout.CENTER);
+        this.content.add(feedback, BorderLayout.SOUTH);
+
+        this.showCurrentWordPair();
+        this.showStatistics();
+    }
+
+    // Getters
+
+    JPanel getContent() {
+        return this.content;
+    }
+
+    JLabel getImageLabel() {
+        return this.imageLabel;
+    }
+
+    JTextField getGuessField() {
+        return this.guessField;
+    }
+
+    JButton getGuessButton() {
+        return this.guessButton;
+    }
+
+    JLabel getResultLabel() {
+        return this.resultLabel;
+    }
+
+    JLabel getStatisticsLabel() {
+        return this.statisticsLabel;
     }
 
+    JLabel getHardestWordsLabel() {
+        return this.hardestWordsLabel;
+    }
+
+    // Methods
+
     /**
-     * Starts the UI and allows interaction with the spelling trainer.
+     * Shows the UI in a window. Closing the window saves the trainer and exits.
      */
     public void start() {
-        while (running) {
-            showCurrentWordPair();
-            String guess = getUserGuess();
-
-            if (guess == null || guess.trim().isEmpty()) {
-                int confirm = JOptionPane.showConfirmDialog(null, "Do you want to exit the trainer?",
-                        "Exit Confirmation", JOptionPane.YES_NO_OPTION);
-                if (confirm == JOptionPane.YES_OPTION) {
-                    exitTrainer();
-                    break;
-                }
-            } else {
-                boolean correct = trainer.guessWord(guess.trim());
-                showResult(correct);
-
-                // If the guess is correct, select a new word-pair for the next round
-                if (correct) {
-                    trainer.selectRandomWordPair();
-                }
+        this.frame = new JFrame("Spelling Trainer");
+        this.frame.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        this.frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent event) {
+                exitTrainer();
             }
-
-            showStatistics();
-            trainer.persistData();  // Save progress after each interaction
-        }
+        });
+        this.frame.setContentPane(this.content);
+        this.frame.pack();
+        this.frame.setLocationRelativeTo(null);
+        this.frame.setVisible(true);
+        this.guessField.requestFocusInWindow();
     }
 
     /**
-     * Shows the current word-picture pair with an image (if available).
+     * Checks the guess in the input field, shows the result and saves the trainer in the background.
+     * If the guess is correct, a new word pair is selected.
      */
-    private void showCurrentWordPair() {
-        WordPicturePair pair = trainer.getCurrentWordPair();
-        String message = "Can you guess the word for the following picture?";
-        String imageUrl = pair.getImageUrl();
+    private void submitGuess() {
+        String guess = this.guessField.getText();
+        if (guess == null || guess.trim().isEmpty()) {
+            this.resultLabel.setText("Please enter a word.");
+            return;
+        }
+        boolean correct = this.trainer.guessWord(guess.trim());
+        this.guessField.setText("");
+        this.showResult(correct);
 
-        try {
-            URL url = new URL(imageUrl);
-            ImageIcon imageIcon = new ImageIcon(url);
-
-            // Check if the image was loaded successfully
-            if (imageIcon.getIconWidth() == -1 || imageIcon.getIconHeight() == -1) {
-                // The image failed to load
-                JOptionPane.showMessageDialog(null, "Failed to load image. URL might be invalid.", "Error", JOptionPane.ERROR_MESSAGE);
-            } else {
-                // Get original dimensions
-                int originalWidth = imageIcon.getIconWidth();
-                int originalHeight = imageIcon.getIconHeight();
-
-                // Desired size while keeping aspect ratio
-                int targetWidth = 300;
-                int targetHeight = (int) (originalHeight * ((double) targetWidth / originalWidth)); // Maintain aspect ratio
-
-                // Resize the image
-                Image scaledImage = imageIcon.getImage().getScaledInstance(targetWidth, targetHeight, Image.SCALE_SMOOTH);
-                imageIcon = new ImageIcon(scaledImage); // Back to ImageIcon
-
-                // Set the message and icon in a JLabel
-                JLabel label = new JLabel(message, imageIcon, JLabel.CENTER);
-                label.setVerticalTextPosition(JLabel.TOP); // Place text above the image
-                label.setHorizontalTextPosition(JLabel.CENTER); // Center the image and text
-                label.setIconTextGap(10); // Set some gap between the text and the image
-
-                // Display in a message dialog
-                JOptionPane.showMessageDialog(null, label, "Guess the Word", JOptionPane.INFORMATION_MESSAGE);
-            }
-        } catch (MalformedURLException e) {
-            JOptionPane.showMessageDialog(null, "Error: Invalid image URL!", "Error", JOptionPane.ERROR_MESSAGE);
+        // If the guess is correct, select a new word-pair for the next round
+        if (correct) {
+            this.trainer.selectRandomWordPair();
+            this.showCurrentWordPair();
         }
+        this.showStatistics();
+        this.saveInBackground();
     }
 
     /**
-     * Prompts the user to enter their guess for the word.
-     * @return The user's input.
+     * Requests the image of the current word-picture pair and shows it when it arrives.
+     * The image of the next candidate pair is prefetched while the user looks at this one.
      */
-    private String getUserGuess() {
-        return JOptionPane.showInputDialog(null, "Enter your guess:");
+    private void showCurrentWordPair() {
+        WordPicturePair pair = this.trainer.getCurrentWordPair();
+        this.shownPair = pair;
+        BufferedImage cached = this.imageLoader.getIfCached(pair.getImageUrl());
+        if (cached != null) {
+            this.imageLabel.setIcon(new ImageIcon(cached));
+            this.imageLabel.setText("");
+        } else {
+            this.imageLabel.setIcon(null);
+            this.imageLabel.setText("Loading image...");
+            // Scaled to 300 pixels wide by the loader, repeated words come from its caches
+            this.imageLoader.load(pair.getImageUrl()).whenComplete((image, error) -> SwingUtilities.invokeLater(() -> {
+                if (this.shownPair != pair) {
+                    return;
+                }
+                if (error != null) {
+                    this.imageLabel.setText("Failed to load image. URL might be invalid.");
+                } else {
+                    this.imageLabel.setIcon(new ImageIcon(image));
+                    this.imageLabel.setText("");
+                }
+            }));
+        }
+        this.imageLoader.prefetch(this.trainer.peekNextWordPair().getImageUrl());
     }
 
     /**
@@ -108,67 +206,154 @@ public class SpellingTrainerUI {
      * @param correct True if the guess was correct, false otherwise.
      */
     private void showResult(boolean correct) {
-        if (correct) {
-            JOptionPane.showMessageDialog(null, "Correct! Well done!", "Result", JOptionPane.INFORMATION_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(null, "Incorrect. Try again!", "Result", JOptionPane.ERROR_MESSAGE);
-        }
+        this.resultLabel.setText(correct ? "Correct! Well done!" : "Incorrect. Try again!");
     }
 
     /**
-     * Displays the current statistics (total guesses, correct guesses, incorrect guesses, accuracy).
+     * Displays the current statistics (total guesses, correct guesses, incorrect guesses, accuracy)
+     * and the words that were missed most often.
      */
     private void showStatistics() {
-        Statistics stats = trainer.getStatistics();
-        Boolean lastResult = trainer.getLastResult();
-        String resultMessage = (lastResult == null) ? "No guess made yet" :
-                (lastResult ? "Last guess was correct" : "Last guess was incorrect");
+        Statistics stats = this.trainer.getStatistics();
+        WordStatistics wordStatistics = this.trainer.getWordStatistics();
+        List<String> hardest = wordStatistics.getHardestWords(HARDEST_WORDS);
+        hardest.removeIf(word -> wordStatistics.getIncorrectGuesses(word) == 0);
+        // Plain text, an HTML label loads the whole HTML renderer the first time it is shown
+        this.statisticsLabel.setText("Correct: " + stats.getCorrectGuesses()
+                + "   Incorrect: " + stats.getIncorrectGuesses()
+                + "   Total: " + stats.getTotalGuesses()
+                + "   Accuracy: " + String.format("%.2f", stats.getAccuracy()) + "%");
+        this.hardestWordsLabel.setText(hardest.isEmpty() ? " " : "Hardest words: " + String.join(", ", hardest));
+    }
 
-        String statisticsMessage = "Statistics:\n" +
-                "Correct Guesses: " + stats.getCorrectGuesses() + "\n" +
-                "Incorrect Guesses: " + stats.getIncorrectGuesses() + "\n" +
-                "Total Guesses: " + stats.getTotalGuesses() + "\n" +
-                "Accuracy: " + String.format("%.2f", stats.getAccuracy()) + "%\n" +
-                resultMessage;
+    /**
+     * Saves a snapshot of the trainer on the save thread, so the EDT doesn't wait for the disk.
+     * Saves run one after another in the order they were requested. The persistence strategy should write directly;
+     * a {@link WriteBehindPersistence} would only snapshot and queue the trainer a second time.
+     */
+    private void saveInBackground() {
+        SpellingTrainer snapshot = this.trainer.snapshot();
+        this.saveExecutor.execute(snapshot::persistData);
+    }
 
-        JOptionPane.showMessageDialog(null, statisticsMessage, "Your Statistics", JOptionPane.INFORMATION_MESSAGE);
+    /**
+     * Saves the final state, waits for all saves in the background and closes the window.
+     * @return A future completing when everything has been written.
+     */
+    CompletableFuture<Void> exitTrainer() {
+        if (this.saveExecutor.isShutdown()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        this.guessField.setEnabled(false);
+        this.guessButton.setEnabled(false);
+        this.resultLabel.setText("Saving...");
+        SpellingTrainer snapshot = this.trainer.snapshot();
+        CompletableFuture<Void> saved = CompletableFuture.runAsync(() -> {
+            snapshot.persistData();  // Save final state before exit
+            snapshot.flushData();  // Wait for a strategy that buffers its writes
+        }, this.saveExecutor);
+        this.saveExecutor.shutdown();
+        this.imageLoader.close();
+        return saved.whenComplete((ignored, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                error.printStackTrace();
+            }
+            if (this.frame != null) {
+                this.frame.dispose();
+            }
+        }));
     }
 
     /**
-     * Closes the trainer and stops the UI loop.
+     * Loads the look and feel, fonts and component classes of the window, so creating the UI later is fast.
+     * Must run on the EDT.
      */
-    private void exitTrainer() {
-        trainer.persistData();  // Save final state before exit
-        JOptionPane.showMessageDialog(null, "Trainer exited. Goodbye!", "Exit", JOptionPane.INFORMATION_MESSAGE);
-        running = false;
+    static void warmUpSwing() {
+        UIManager.getLookAndFeel();
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(new JLabel("Spelling Trainer"), BorderLayout.NORTH);
+        panel.add(new JTextField(20), BorderLayout.CENTER);
+        panel.add(new JButton("Check"), BorderLayout.SOUTH);
+        panel.getPreferredSize();
     }
 
     /**
-     * Main method to start the spelling trainer UI.
-     * @param args Command-line arguments (unused).
+     * Loads the trainer data, or creates a new trainer with the example pairs if there is none.
+     * @param persistenceStrategy The strategy to load with and to save new trainers with.
+     * @return The trainer.
      */
-    public static void main(String[] args) {
+    static SpellingTrainer loadTrainer(PersistenceStrategy<SpellingTrainer> persistenceStrategy) {
+        SpellingTrainer loaded = persistenceStrategy.loadData();
+        if (loaded != null) {
+            System.out.println("Loaded existing trainer data.");
+            return loaded;
+        }
         // Example word-picture pairs
         List<WordPicturePair> wordPairs = List.of(
                 new WordPicturePair("Bird", "https://example.com/bird.jpg"),
                 new WordPicturePair("Cat", "https://example.com/cat.jpg"),
                 new WordPicturePair("Car", "https://example.com/car.jpg")
         );
+        return new SpellingTrainer(wordPairs, persistenceStrategy);
+    }
+
+    /**
+     * Uses the word pairs of a corpus file and reloads them whenever the file is edited.
+     * @param corpusFile The CSV or TSV corpus file.
+     * @param trainer The trainer to update.
+     */
+    static void watchCorpus(Path corpusFile, SpellingTrainer trainer) {
+        CorpusWatcher watcher = new CorpusWatcher(corpusFile, trainer);
+        watcher.setListener(result -> System.out.println("Reloaded corpus: " + result));
+        try {
+            if (Files.exists(corpusFile)) {
+                watcher.reload();
+            }
+            watcher.start();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Main method to start the spelling trainer UI.
+     * Swing initializes on the EDT while this thread loads the trainer and starts downloading the first picture.
+     * With {@code -Dspellingtrainer.exitAfterFirstPrompt=true} the trainer exits once the first prompt is shown, which
+     * is used to create the AppCDS archive and to measure the startup time. With
+     * {@code -Dspellingtrainer.corpusFile=words.csv} the word pairs are taken from that file and reloaded when it changes.
+     * @param args Command-line arguments (unused).
+     */
+    public static void main(String[] args) {
+        TrainerMetrics.configureFromSystemProperties();
+        SwingUtilities.invokeLater(SpellingTrainerUI::warmUpSwing);
 
-        // Use JSON persistence strategy
+        // Use JSON persistence strategy; the UI already saves on its own thread, so no WriteBehindPersistence on top
         String filePath = "spelling_trainer_data.json"; // Change manually or dynamically by user input or config
         JSONPersistence persistenceStrategy = new JSONPersistence(filePath);
-
-        // Load existing trainer data or create a new one
-        SpellingTrainer trainer = persistenceStrategy.loadData();
-        if (trainer == null) {
-            trainer = new SpellingTrainer(wordPairs, persistenceStrategy);
-        } else {
-            System.out.println("Loaded existing trainer data.");
+        SpellingTrainer trainer = loadTrainer(persistenceStrategy);
+        String corpusFile = System.getProperty("spellingtrainer.corpusFile");
+        if (corpusFile != null) {
+            watchCorpus(Paths.get(corpusFile), trainer);
         }
+        ImageLoader imageLoader = new ImageLoader(IMAGE_CACHE_DIRECTORY, IMAGE_MEMORY_CACHE_BYTES);
+        imageLoader.prefetch(trainer.getCurrentWordPair().getImageUrl());
 
-        // Start the UI
-        SpellingTrainerUI ui = new SpellingTrainerUI(trainer);
-        ui.start();
+        // Start the UI on the event dispatch thread
+        if (Boolean.getBoolean("spellingtrainer.edtWatchdog")) {
+            EdtWatchdog watchdog = new EdtWatchdog(50, 200);
+            watchdog.setStallLogging(true);
+            watchdog.start();
+        }
+        boolean exitAfterFirstPrompt = Boolean.getBoolean("spellingtrainer.exitAfterFirstPrompt");
+        SwingUtilities.invokeLater(() -> {
+            SpellingTrainerUI ui = new SpellingTrainerUI(trainer, imageLoader);
+            if (!exitAfterFirstPrompt || !GraphicsEnvironment.isHeadless()) {
+                ui.start();
+            }
+            if (exitAfterFirstPrompt) {
+                System.out.println("First prompt shown.");
+                System.exit(0);
+            }
+        });
     }
 }
@@ -1,7 +1,7 @@
 /**
  * Class representing the statistics for a spelling trainer.
  * @author Leonhard Stransky
- * @version 2024-09-28
+ * @version 2026-10-17
  */
 public class Statistics {
     private int correctGuesses;
@@ -19,6 +19,28 @@ public class Statistics {
         this.totalGuesses = 0;
     }
 
+    /**
+     * Constructor for a Statistics object with restored counters.
+     * @param correctGuesses The number of correct guesses.
+     * @param incorrectGuesses The number of incorrect guesses.
+     * @param totalGuesses The total number of guesses.
+     */
+    Statistics(int correctGuesses, int incorrectGuesses, int totalGuesses) {
+        this.correctGuesses = correctGuesses;
+        this.incorrectGuesses = incorrectGuesses;
+        this.totalGuesses = totalGuesses;
+    }
+
+    /**
+     * Copy constructor for a Statistics object.
+     * @param other The statistics to copy the counters from.
+     */
+    public Statistics(Statistics other) {
+        this.correctGuesses = other.getCorrectGuesses();
+        this.incorrectGuesses = other.getIncorrectGuesses();
+        this.totalGuesses = other.getTotalGuesses();
+    }
+
     // Getters and Setters
 
     public int getCorrectGuesses() {
@@ -51,6 +73,22 @@ public class Statistics {
         this.totalGuesses++;
     }
 
+    /**
+     * Takes back a correct guess, used to undo it.
+     */
+    void decrementCorrectGuesses() {
+        this.correctGuesses--;
+        this.totalGuesses--;
+    }
+
+    /**
+     * Takes back an incorrect guess, used to undo it.
+     */
+    void decrementIncorrectGuesses() {
+        this.incorrectGuesses--;
+        this.totalGuesses--;
+    }
+
     /**
      * Resets all the statistics (correct, incorrect, and total guesses).
      */
@@ -0,0 +1,30 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Persistence strategy whose format can also be written to and read from a stream.
+ * Stream formats can be wrapped by other layers, e.g. {@link CompressedPersistence}.
+ * @param <T> The type of the object to persist.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public interface StreamPersistenceStrategy<T> extends PersistenceStrategy<T> {
+
+    /**
+     * Writes the object to a stream. The stream is flushed but not closed.
+     * @param object The object to be written.
+     * @param out The stream to write to.
+     * @throws IOException if writing fails.
+     */
+    void write(T object, OutputStream out) throws IOException;
+
+    /**
+     * Reads an object from a stream. The stream is not closed.
+     * @param in The stream to read from.
+     * @return The read object, or null if the stream holds none.
+     * @throws IOException if reading fails or the content is invalid.
+     */
+    T read(InputStream in) throws IOException;
+
+}
@@ -0,0 +1,395 @@
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded HTTP server serving the spelling trainer to browsers and tablets.
+ * Every learner is a session of a {@link MultiSessionTrainer} over the word pairs of a loaded SpellingTrainer; the
+ * session id is returned by {@code /api/session} and passed as the {@code session} query parameter; unknown ids are
+ * answered with 404, and sessions idle for longer than the timeout of the MultiSessionTrainer are removed once a minute.
+ * Requests run on virtual threads if the JDK supports them, on a bounded thread pool otherwise. The guesses of all sessions are added to the trainer's statistics and
+ * saved with its persistence strategy periodically and on {@link #stop()}.
+ * <pre>
+ * GET  /                        minimal web page for the trainer
+ * POST /api/session             creates a session and returns its id (503 if there are too many)
+ * GET  /api/word?session=ID     image URL of the current word pair
+ * POST /api/next?session=ID     selects a new word pair and returns its image URL
+ * POST /api/guess?session=ID    guess as plain-text body (or guess parameter); selects a new pair if correct
+ * GET  /api/stats[?session=ID]  statistics of the session, or of all sessions
+ * </pre>
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class TrainerHttpServer {
+    /**
+     * Port used by {@link #main(String[])} if none is given.
+     */
+    public static final int DEFAULT_PORT = 8080;
+
+    private static final int BACKLOG = 4096;
+    private static final int MAX_GUESS_BYTES = 1024;
+    private static final long SAVE_INTERVAL_SECONDS = 10;
+    private static final long EXPIRY_INTERVAL_SECONDS = 60;
+    private static final String PAGE = "<!DOCTYPE html><html><head><meta charset=\"utf-8\">"
+            + "<meta name=\"viewport\" content=\"width=device-width\"><title>Spelling Trainer</title></head>"
+            + "<body style=\"font-family:sans-serif;text-align:center\">"
+            + "<h1>Spelling Trainer</h1><p>Can you guess the word for the following picture?</p>"
+            + "<img id=\"image\" width=\"300\" alt=\"\"><form id=\"form\"><input id=\"guess\" autocomplete=\"off\" autofocus>"
+            + "<button>Check</button></form><p id=\"result\"></p><p id=\"stats\"></p><script>"
+            + "const start = () => fetch('/api/session', {method: 'POST'}).then(r => r.json())"
+            + ".then(data => localStorage.session = data.session);"
+            + "const api = (path, options) => fetch('/api/' + path + '?session=' + localStorage.session, options)"
+            + ".then(r => r.status === 404 ? start().then(() => api(path, options)) : r.json());"
+            + "const show = data => document.getElementById('image').src = data.imageUrl;"
+            + "const stats = () => api('stats').then(s => document.getElementById('stats').textContent ="
+            + " 'Correct: ' + s.correctGuesses + '  Incorrect: ' + s.incorrectGuesses + '  Accuracy: ' + s.accuracy.toFixed(2) + '%');"
+            + "document.getElementById('form').onsubmit = event => { event.preventDefault();"
+            + " const guess = document.getElementById('guess'); if (!guess.value.trim()) return;"
+            + " api('guess', {method: 'POST', body: guess.value}).then(data => {"
+            + " document.getElementById('result').textContent = data.correct ? 'Correct! Well done!' : 'Incorrect. Try again!';"
+            + " guess.value = ''; show(data); stats(); }); };"
+            + "(localStorage.session ? Promise.resolve() : start()).then(() => api('word').then(show).then(stats));"
+            + "</script></body></html>";
+
+    static {
+        // The JDK server writes the headers and the body of a response separately; without TCP_NODELAY the body waits
+        // for the delayed ACK of the client (about 40 ms) on every keep-alive request. Read once by the JDK.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final SpellingTrainer trainer;
+    private final PersistenceStrategy<SpellingTrainer> persistenceStrategy;
+    private final MultiSessionTrainer sessions;
+    private final Statistics savedStatistics; // Statistics of the trainer when it was loaded
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService saver;
+    private long lastSavedGuesses;
+
+    /**
+     * Constructor for the TrainerHttpServer class. The server is started with {@link #start()}.
+     * @param trainer The trainer whose word pairs are served and whose statistics are continued.
+     * @param persistenceStrategy The strategy saving the trainer, or null to not save it.
+     * @param address The address to listen on; port 0 picks a free port.
+     * @throws IOException if the address can't be bound.
+     */
+    public TrainerHttpServer(SpellingTrainer trainer, PersistenceStrategy<SpellingTrainer> persistenceStrategy,
+                             InetSocketAddress address) throws IOException {
+        this.trainer = trainer;
+        this.persistenceStrategy = persistenceStrategy;
+        this.sessions = new MultiSessionTrainer(trainer.getWordPairs());
+        this.sessions.setAnswerMatcher(trainer.getAnswerMatcher());
+        this.savedStatistics = new Statistics(trainer.getStatistics());
+        this.executor = newExecutor();
+        this.saver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spelling-trainer-http-save");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(address, BACKLOG);
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/", this::handlePage);
+        this.server.createContext("/api/session", exchange -> this.handle(exchange, "POST", this::session));
+        this.server.createContext("/api/word", exchange -> this.handle(exchange, "GET", this::word));
+        this.server.createContext("/api/next", exchange -> this.handle(exchange, "POST", this::next));
+        this.server.createContext("/api/guess", exchange -> this.handle(exchange, "POST", this::guess));
+        this.server.createContext("/api/stats", exchange -> this.handle(exchange, "GET", this::stats));
+    }
+
+    /**
+     * Handler of one API endpoint writing its response as JSON.
+     */
+    private interface Endpoint {
+        void respond(HttpExchange exchange, JsonWriter json) throws IOException;
+    }
+
+    // Getters
+
+    /**
+     * @return The address the server listens on, with the actual port.
+     */
+    public InetSocketAddress getAddress() {
+        return this.server.getAddress();
+    }
+
+    public MultiSessionTrainer getSessions() {
+        return this.sessions;
+    }
+
+    // Methods
+
+    /**
+     * Starts accepting requests, saving periodically and removing idle sessions.
+     */
+    public void start() {
+        this.server.start();
+        this.saver.scheduleWithFixedDelay(this.sessions::expireIdleSessions, EXPIRY_INTERVAL_SECONDS, EXPIRY_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+        if (this.persistenceStrategy != null) {
+            this.saver.scheduleWithFixedDelay(this::saveIfChanged, SAVE_INTERVAL_SECONDS, SAVE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stops the server, waiting up to a second for running requests, and saves the trainer.
+     */
+    public void stop() {
+        this.server.stop(1);
+        this.executor.shutdown();
+        this.saver.shutdown();
+        try {
+            this.saver.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.save();
+    }
+
+    /**
+     * Saves the trainer with the guesses of all sessions added to its statistics.
+     */
+    public synchronized void save() {
+        if (this.persistenceStrategy == null) {
+            return;
+        }
+        ConcurrentStatistics.Snapshot guesses = this.sessions.getAggregateStatistics().snapshot();
+        Statistics statistics = saturatedStatistics(this.savedStatistics.getCorrectGuesses() + guesses.getCorrectGuesses(),
+                this.savedStatistics.getIncorrectGuesses() + guesses.getIncorrectGuesses());
+        SpellingTrainer snapshot = new SpellingTrainer(this.trainer.getWordPairs(), this.trainer.getCurrentWordPair(),
+                statistics, this.trainer.getLastResult(), this.trainer.getWordStatistics());
+        this.persistenceStrategy.saveData(snapshot);
+        this.persistenceStrategy.flush();
+        this.lastSavedGuesses = guesses.getTotalGuesses();
+    }
+
+    private synchronized void saveIfChanged() {
+        if (this.sessions.getAggregateStatistics().snapshot().getTotalGuesses() != this.lastSavedGuesses) {
+            this.save();
+        }
+    }
+
+    private void session(HttpExchange exchange, JsonWriter json) throws IOException {
+        json.beginObject();
+        json.name("session").value(this.sessions.createSession());
+        json.endObject();
+    }
+
+    private void word(HttpExchange exchange, JsonWriter json) throws IOException {
+        writePair(json, this.sessions.getCurrentWordPair(sessionId(exchange)));
+    }
+
+    private void next(HttpExchange exchange, JsonWriter json) throws IOException {
+        writePair(json, this.sessions.selectRandomWordPair(sessionId(exchange)));
+    }
+
+    private void guess(HttpExchange exchange, JsonWriter json) throws IOException {
+        String sessionId = sessionId(exchange);
+        String guess = parameter(exchange, "guess");
+        if (guess == null) {
+            guess = readBody(exchange);
+        }
+        boolean correct = this.sessions.guessWord(sessionId, guess.trim());
+        WordPicturePair pair = correct
+                ? this.sessions.selectRandomWordPair(sessionId)
+                : this.sessions.getCurrentWordPair(sessionId);
+        json.beginObject();
+        json.name("correct").value(correct);
+        json.name("imageUrl").value(pair.getImageUrl());
+        json.endObject();
+    }
+
+    private void stats(HttpExchange exchange, JsonWriter json) throws IOException {
+        String sessionId = parameter(exchange, "session");
+        long correct;
+        long incorrect;
+        if (sessionId != null) {
+            Statistics statistics = this.sessions.getStatistics(sessionId);
+            correct = statistics.getCorrectGuesses();
+            incorrect = statistics.getIncorrectGuesses();
+        } else {
+            ConcurrentStatistics.Snapshot snapshot = this.sessions.getAggregateStatistics().snapshot();
+            correct = snapshot.getCorrectGuesses();
+            incorrect = snapshot.getIncorrectGuesses();
+        }
+        json.beginObject();
+        json.name("correctGuesses").value(correct);
+        json.name("incorrectGuesses").value(incorrect);
+        json.name("totalGuesses").value(correct + incorrect);
+        json.name("accuracy").value(correct + incorrect == 0 ? 0 : correct * 100.0 / (correct + incorrect));
+        if (sessionId == null) {
+            json.name("sessions").value(this.sessions.getSessionCount());
+        }
+        json.endObject();
+    }
+
+    /**
+     * Serves the web page; every other path outside of the API is unknown.
+     */
+    private void handlePage(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            if (!path.equals("/") && !path.equals("/index.html")) {
+                send(exchange, 404, "application/json", "{\"error\":\"Not found.\"}");
+            } else {
+                send(exchange, 200, "text/html; charset=utf-8", PAGE);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Runs an endpoint and sends its JSON. Invalid input is answered with 400, an unknown session with 404 and too many
+     * sessions with 503, each with the message of the exception.
+     */
+    private void handle(HttpExchange exchange, String method, Endpoint endpoint) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals(method)) {
+                exchange.getResponseHeaders().add("Allow", method);
+                send(exchange, 405, "application/json", "{\"error\":\"Use " + method + ".\"}");
+                return;
+            }
+            StringWriter body = new StringWriter(128);
+            int status = 200;
+            try {
+                endpoint.respond(exchange, new JsonWriter(body));
+            } catch (IllegalArgumentException | NoSuchElementException | IllegalStateException e) {
+                status = e instanceof NoSuchElementException ? 404 : e instanceof IllegalStateException ? 503 : 400;
+                body.getBuffer().setLength(0);
+                new JsonWriter(body).beginObject().name("error").value(e.getMessage()).endObject();
+            }
+            send(exchange, status, "application/json", body.toString());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            send(exchange, 500, "application/json", "{\"error\":\"Internal error.\"}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Creates the int statistics of the saved file from long counters.
+     * Counters whose total doesn't fit in an int are scaled down to a total of Integer.MAX_VALUE, which keeps the
+     * accuracy and a total that matches the counters, so the file can still be loaded.
+     */
+    static Statistics saturatedStatistics(long correct, long incorrect) {
+        try {
+            int correctGuesses = Math.toIntExact(correct);
+            int incorrectGuesses = Math.toIntExact(incorrect);
+            return new Statistics(correctGuesses, incorrectGuesses, Math.addExact(correctGuesses, incorrectGuesses));
+        } catch (ArithmeticException e) {
+            int correctGuesses = (int) Math.round((double) correct / ((double) correct + incorrect) * Integer.MAX_VALUE);
+            return new Statistics(correctGuesses, Integer.MAX_VALUE - correctGuesses, Integer.MAX_VALUE);
+        }
+    }
+
+    private static void writePair(JsonWriter json, WordPicturePair pair) throws IOException {
+        json.beginObject();
+        json.name("imageUrl").value(pair.getImageUrl());
+        json.endObject();
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String sessionId(HttpExchange exchange) {
+        String sessionId = parameter(exchange, "session");
+        if (sessionId == null || sessionId.isEmpty()) {
+            throw new IllegalArgumentException("Session id cannot be null or empty.");
+        }
+        return sessionId;
+    }
+
+    /**
+     * Returns a decoded query parameter, or null if it isn't set.
+     */
+    private static String parameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            String key = equals < 0 ? parameter : parameter.substring(0, equals);
+            if (key.equals(name)) {
+                return equals < 0 ? "" : URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads a small UTF-8 request body.
+     * @throws IllegalArgumentException if the body is too large.
+     */
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_GUESS_BYTES + 1);
+            if (bytes.length > MAX_GUESS_BYTES) {
+                throw new IllegalArgumentException("Guess is too long.");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Creates a virtual thread per request on JDKs that have them (21+), a bounded pool otherwise.
+     */
+    static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Math.max(8, 4 * Runtime.getRuntime().availableProcessors()), runnable -> {
+                Thread thread = new Thread(runnable, "spelling-trainer-http");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Main method starting the server.
+     * @param args The trainer file (.json or binary) and optionally the port (default 8080).
+     * @throws IOException if the port can't be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: TrainerHttpServer <trainer file> [port]");
+            System.exit(2);
+        }
+        TrainerMetrics.configureFromSystemProperties();
+        PersistenceStrategy<SpellingTrainer> persistenceStrategy = PersistenceConverter.forFile(args[0]);
+        SpellingTrainer trainer = persistenceStrategy.loadData();
+        if (trainer == null) {
+            System.err.println("Could not load " + args[0]);
+            System.exit(1);
+        }
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+        TrainerHttpServer server = new TrainerHttpServer(trainer, persistenceStrategy, new InetSocketAddress(port));
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "spelling-trainer-http-shutdown"));
+        server.start();
+        System.out.println("Serving " + trainer.getWordPairs().size() + " word pairs on http://localhost:"
+                + server.getAddress().getPort() + "/");
+    }
+}
@@ -0,0 +1,447 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide counters and latency histograms of the spelling trainer: guesses, saves, loads and image loads.
+ * Metrics are disabled by default. Instrumented code calls {@link #startTimer()}, which returns {@link #DISABLED}
+ * without reading the clock while they are off, and every record method returns immediately for it, so disabled
+ * instrumentation costs one field read per call.
+ * The values can be read over JMX ({@link #registerMBean()}) or written to a file in the Prometheus text format
+ * ({@link #startFileExport(Path, long)}).
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class TrainerMetrics implements TrainerMetricsMBean {
+    /**
+     * Start time returned by {@link #startTimer()} while metrics are disabled.
+     */
+    public static final long DISABLED = Long.MIN_VALUE;
+
+    /**
+     * Name under which the metrics are registered with the platform MBean server.
+     */
+    public static final String OBJECT_NAME = "spellingtrainer:type=TrainerMetrics";
+
+    private static final TrainerMetrics INSTANCE = new TrainerMetrics();
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private volatile boolean enabled;
+    private ScheduledExecutorService exporter;
+
+    private final LongAdder correctGuesses = new LongAdder();
+    private final LongAdder incorrectGuesses = new LongAdder();
+    private final LongAdder saveFailures = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadedBytes = new LongAdder();
+    private final LongAdder imageLoadFailures = new LongAdder();
+    private final LatencyHistogram guessLatency = new LatencyHistogram();
+    private final LatencyHistogram persistLatency = new LatencyHistogram();
+    private final LatencyHistogram saveLatency = new LatencyHistogram();
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+    private final LatencyHistogram imageLoadLatency = new LatencyHistogram();
+
+    /**
+     * Constructor for the TrainerMetrics class. Use {@link #getInstance()} outside of tests.
+     */
+    TrainerMetrics() {
+    }
+
+    /**
+     * @return The metrics of this process.
+     */
+    public static TrainerMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    // Getters and Setters
+
+    @Override
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public long getCorrectGuesses() {
+        return this.correctGuesses.sum();
+    }
+
+    @Override
+    public long getIncorrectGuesses() {
+        return this.incorrectGuesses.sum();
+    }
+
+    @Override
+    public long getGuessP50Micros() {
+        return micros(this.guessLatency.getValueAtQuantile(0.5));
+    }
+
+    @Override
+    public long getGuessP99Micros() {
+        return micros(this.guessLatency.getValueAtQuantile(0.99));
+    }
+
+    @Override
+    public long getPersistCount() {
+        return this.persistLatency.getCount();
+    }
+
+    @Override
+    public long getPersistP99Micros() {
+        return micros(this.persistLatency.getValueAtQuantile(0.99));
+    }
+
+    @Override
+    public long getSaveCount() {
+        return this.saveLatency.getCount();
+    }
+
+    @Override
+    public long getSaveFailures() {
+        return this.saveFailures.sum();
+    }
+
+    @Override
+    public long getSavedBytes() {
+        return this.savedBytes.sum();
+    }
+
+    @Override
+    public long getSaveP50Micros() {
+        return micros(this.saveLatency.getValueAtQuantile(0.5));
+    }
+
+    @Override
+    public long getSaveP99Micros() {
+        return micros(this.saveLatency.getValueAtQuantile(0.99));
+    }
+
+    @Override
+    public long getSaveMaxMicros() {
+        return micros(this.saveLatency.getMax());
+    }
+
+    @Override
+    public long getLoadCount() {
+        return this.loadLatency.getCount();
+    }
+
+    @Override
+    public long getLoadFailures() {
+        return this.loadFailures.sum();
+    }
+
+    @Override
+    public long getLoadedBytes() {
+        return this.loadedBytes.sum();
+    }
+
+    @Override
+    public long getLoadP99Micros() {
+        return micros(this.loadLatency.getValueAtQuantile(0.99));
+    }
+
+    @Override
+    public long getImageLoadCount() {
+        return this.imageLoadLatency.getCount();
+    }
+
+    @Override
+    public long getImageLoadFailures() {
+        return this.imageLoadFailures.sum();
+    }
+
+    @Override
+    public long getImageLoadP50Micros() {
+        return micros(this.imageLoadLatency.getValueAtQuantile(0.5));
+    }
+
+    @Override
+    public long getImageLoadP99Micros() {
+        return micros(this.imageLoadLatency.getValueAtQuantile(0.99));
+    }
+
+    public LatencyHistogram getGuessLatency() {
+        return this.guessLatency;
+    }
+
+    public LatencyHistogram getSaveLatency() {
+        return this.saveLatency;
+    }
+
+    public LatencyHistogram getLoadLatency() {
+        return this.loadLatency;
+    }
+
+    public LatencyHistogram getImageLoadLatency() {
+        return this.imageLoadLatency;
+    }
+
+    // Methods
+
+    /**
+     * Starts timing an operation.
+     * @return The current time in nanoseconds, or {@link #DISABLED} if metrics are disabled.
+     */
+    public long startTimer() {
+        return this.enabled ? System.nanoTime() : DISABLED;
+    }
+
+    /**
+     * Records a guess.
+     * @param start The value of {@link #startTimer()} before the guess.
+     * @param correct Whether the guess was correct.
+     */
+    public void recordGuess(long start, boolean correct) {
+        if (start == DISABLED) {
+            return;
+        }
+        this.guessLatency.record(System.nanoTime() - start);
+        (correct ? this.correctGuesses : this.incorrectGuesses).increment();
+    }
+
+    /**
+     * Records a call of {@link SpellingTrainer#persistData()}, which may only hand the save to a background writer.
+     * @param start The value of {@link #startTimer()} before the call.
+     */
+    public void recordPersist(long start) {
+        if (start != DISABLED) {
+            this.persistLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records a successful save and the size of the written file.
+     * @param start The value of {@link #startTimer()} before the save.
+     * @param file The written file.
+     */
+    public void recordSave(long start, Path file) {
+        if (start == DISABLED) {
+            return;
+        }
+        this.saveLatency.record(System.nanoTime() - start);
+        this.savedBytes.add(sizeOf(file));
+    }
+
+    /**
+     * Records a failed save.
+     * @param start The value of {@link #startTimer()} before the save.
+     */
+    public void recordSaveFailure(long start) {
+        if (start == DISABLED) {
+            return;
+        }
+        this.saveLatency.record(System.nanoTime() - start);
+        this.saveFailures.increment();
+    }
+
+    /**
+     * Records a successful load and the size of the read file.
+     * @param start The value of {@link #startTimer()} before the load.
+     * @param file The read file.
+     */
+    public void recordLoad(long start, Path file) {
+        if (start == DISABLED) {
+            return;
+        }
+        this.loadLatency.record(System.nanoTime() - start);
+        this.loadedBytes.add(sizeOf(file));
+    }
+
+    /**
+     * Records a file that could not be loaded.
+     * @param start The value of {@link #startTimer()} before the load.
+     */
+    public void recordLoadFailure(long start) {
+        if (start == DISABLED) {
+            return;
+        }
+        this.loadLatency.record(System.nanoTime() - start);
+        this.loadFailures.increment();
+    }
+
+    /**
+     * Records an image load that missed the memory cache.
+     * @param start The value of {@link #startTimer()} before the load.
+     * @param success Whether the image could be loaded.
+     */
+    public void recordImageLoad(long start, boolean success) {
+        if (start == DISABLED) {
+            return;
+        }
+        this.imageLoadLatency.record(System.nanoTime() - start);
+        if (!success) {
+            this.imageLoadFailures.increment();
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder counter : new LongAdder[] {this.correctGuesses, this.incorrectGuesses, this.saveFailures,
+                this.savedBytes, this.loadFailures, this.loadedBytes, this.imageLoadFailures}) {
+            counter.reset();
+        }
+        for (LatencyHistogram histogram : new LatencyHistogram[] {this.guessLatency, this.persistLatency,
+                this.saveLatency, this.loadLatency, this.imageLoadLatency}) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, unless they are registered already.
+     * @throws IllegalStateException if the registration fails.
+     */
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Metrics could not be registered.", e);
+        }
+    }
+
+    /**
+     * Returns all metrics in the Prometheus text exposition format. Durations are in seconds.
+     * @return The metrics.
+     */
+    public String toPrometheus() {
+        StringBuilder text = new StringBuilder(4096);
+        text.append("# TYPE spelling_trainer_guesses_total counter\n");
+        sample(text, "spelling_trainer_guesses_total{result=\"correct\"}", this.getCorrectGuesses());
+        sample(text, "spelling_trainer_guesses_total{result=\"incorrect\"}", this.getIncorrectGuesses());
+        summary(text, "spelling_trainer_guess_duration_seconds", this.guessLatency);
+        summary(text, "spelling_trainer_persist_duration_seconds", this.persistLatency);
+        summary(text, "spelling_trainer_save_duration_seconds", this.saveLatency);
+        counter(text, "spelling_trainer_save_failures_total", this.getSaveFailures());
+        counter(text, "spelling_trainer_saved_bytes_total", this.getSavedBytes());
+        summary(text, "spelling_trainer_load_duration_seconds", this.loadLatency);
+        counter(text, "spelling_trainer_load_failures_total", this.getLoadFailures());
+        counter(text, "spelling_trainer_loaded_bytes_total", this.getLoadedBytes());
+        summary(text, "spelling_trainer_image_load_duration_seconds", this.imageLoadLatency);
+        counter(text, "spelling_trainer_image_load_failures_total", this.getImageLoadFailures());
+        return text.toString();
+    }
+
+    /**
+     * Writes the metrics to a file, replacing it atomically so readers never see a partial dump.
+     * @param file The file.
+     * @throws IOException if the file can't be written.
+     */
+    public void writeTo(Path file) throws IOException {
+        ByteBuffer content = ByteBuffer.wrap(this.toPrometheus().getBytes(StandardCharsets.UTF_8));
+        AtomicFileWriter.write(file, false, 0, channel -> {
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+        });
+    }
+
+    /**
+     * Writes the metrics to a file periodically on a daemon thread, e.g. for the node exporter's textfile collector.
+     * A running export is replaced.
+     * @param file The file.
+     * @param periodMillis The time between two dumps.
+     * @throws IllegalArgumentException if the period is not positive.
+     */
+    public synchronized void startFileExport(Path file, long periodMillis) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Export period must be positive.");
+        }
+        this.stopFileExport();
+        this.exporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spelling-trainer-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.exporter.scheduleAtFixedRate(() -> {
+            try {
+                this.writeTo(file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic export, if one is running.
+     */
+    public synchronized void stopFileExport() {
+        if (this.exporter != null) {
+            this.exporter.shutdown();
+            this.exporter = null;
+        }
+    }
+
+    /**
+     * Configures the metrics from system properties: -Dspellingtrainer.metrics=true enables them and registers the
+     * MBean, -Dspellingtrainer.metrics.file=path also dumps them every -Dspellingtrainer.metrics.period milliseconds
+     * (default 10000).
+     */
+    public static void configureFromSystemProperties() {
+        if (!Boolean.getBoolean("spellingtrainer.metrics")) {
+            return;
+        }
+        INSTANCE.setEnabled(true);
+        INSTANCE.registerMBean();
+        String file = System.getProperty("spellingtrainer.metrics.file");
+        if (file != null) {
+            INSTANCE.startFileExport(Paths.get(file), Long.getLong("spellingtrainer.metrics.period", 10_000));
+        }
+    }
+
+    private static long micros(long nanos) {
+        return nanos / 1_000;
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void counter(StringBuilder text, String name, long value) {
+        text.append("# TYPE ").append(name).append(" counter\n");
+        sample(text, name, value);
+    }
+
+    private static void summary(StringBuilder text, String name, LatencyHistogram histogram) {
+        text.append("# TYPE ").append(name).append(" summary\n");
+        for (double quantile : QUANTILES) {
+            text.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                    .append(seconds(histogram.getValueAtQuantile(quantile))).append('\n');
+        }
+        text.append(name).append("_sum ").append(seconds(histogram.getSum())).append('\n');
+        sample(text, name + "_count", histogram.getCount());
+    }
+
+    private static void sample(StringBuilder text, String name, long value) {
+        text.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Management interface of {@link TrainerMetrics}, shown by JMX clients such as JConsole or VisualVM.
+ * Durations are reported in microseconds.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public interface TrainerMetricsMBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getCorrectGuesses();
+
+    long getIncorrectGuesses();
+
+    long getGuessP50Micros();
+
+    long getGuessP99Micros();
+
+    long getPersistCount();
+
+    long getPersistP99Micros();
+
+    long getSaveCount();
+
+    long getSaveFailures();
+
+    long getSavedBytes();
+
+    long getSaveP50Micros();
+
+    long getSaveP99Micros();
+
+    long getSaveMaxMicros();
+
+    long getLoadCount();
+
+    long getLoadFailures();
+
+    long getLoadedBytes();
+
+    long getLoadP99Micros();
+
+    long getImageLoadCount();
+
+    long getImageLoadFailures();
+
+    long getImageLoadP50Micros();
+
+    long getImageLoadP99Micros();
+
+    /**
+     * Clears all counters and histograms.
+     */
+    void reset();
+}
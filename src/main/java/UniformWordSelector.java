@@ -0,0 +1,26 @@
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Word selector that picks every word pair with the same probability, regardless of earlier guesses.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class UniformWordSelector implements WordSelector {
+
+    /**
+     * Picks a uniformly distributed index.
+     * @param size The number of word pairs.
+     * @return The index.
+     */
+    @Override
+    public int nextIndex(int size) {
+        return ThreadLocalRandom.current().nextInt(size);
+    }
+
+    /**
+     * Ignores the result, uniform selection doesn't adapt.
+     */
+    @Override
+    public void recordGuess(int index, boolean correct) {
+    }
+}
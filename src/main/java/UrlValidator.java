@@ -0,0 +1,87 @@
+/**
+ * Hand-written validator for image URLs, accepting exactly what the regular expression
+ * {@code ^(https?://)([\w.-]+)(:[0-9]{1,5})?(/[\w./-]*)?$} accepts, in a single pass without allocating.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public final class UrlValidator {
+
+    private UrlValidator() {
+    }
+
+    // Methods
+
+    /**
+     * Checks if a URL is valid: http or https, a host of word characters, dots and hyphens,
+     * an optional port of up to five digits and an optional path of word characters, dots, slashes and hyphens.
+     * @param url The URL to check.
+     * @return True if the URL is valid, false otherwise.
+     */
+    public static boolean isValid(String url) {
+        return url != null && hostEnd(url) >= 0;
+    }
+
+    /**
+     * Validates a URL and returns where its path begins.
+     * @param url The URL to check.
+     * @return The index of the path (the URL's length if it has none), or -1 if the URL is invalid.
+     */
+    public static int hostEnd(String url) {
+        int length = url.length();
+        int i;
+        if (url.startsWith("http://")) {
+            i = 7;
+        } else if (url.startsWith("https://")) {
+            i = 8;
+        } else {
+            return -1;
+        }
+
+        int hostStart = i;
+        while (i < length && isHostChar(url.charAt(i))) {
+            i++;
+        }
+        if (i == hostStart) {
+            return -1;
+        }
+
+        if (i < length && url.charAt(i) == ':') {
+            int portStart = ++i;
+            while (i < length && i - portStart < 5 && isDigit(url.charAt(i))) {
+                i++;
+            }
+            if (i == portStart) {
+                return -1;
+            }
+        }
+
+        int pathStart = i;
+        if (i < length) {
+            if (url.charAt(i) != '/') {
+                return -1;
+            }
+            for (i++; i < length; i++) {
+                if (!isPathChar(url.charAt(i))) {
+                    return -1;
+                }
+            }
+        }
+        return pathStart;
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isHostChar(char c) {
+        return isWordChar(c) || c == '.' || c == '-';
+    }
+
+    private static boolean isPathChar(char c) {
+        return isHostChar(c) || c == '/';
+    }
+}
@@ -0,0 +1,233 @@
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Word selector that prefers words the user struggles with.
+ * Every word has a weight derived from its guess history. Weights are kept in a Fenwick tree,
+ * so both picking a word and updating its weight take O(log n), even for millions of words.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class WeightedWordSelector implements WordSelector {
+
+    /**
+     * How the guess history of a word is turned into a selection weight.
+     */
+    public enum Weighting {
+        /**
+         * Weight grows with the ratio of incorrect to correct guesses.
+         */
+        DIFFICULTY,
+        /**
+         * Leitner boxes: a correct guess moves the word up one box and halves its weight,
+         * an incorrect guess moves it back to the first box. A sampling-friendly form of spaced repetition.
+         */
+        LEITNER
+    }
+
+    private static final int MAX_BOX = 6;
+
+    private final Weighting weighting;
+    private int size;
+    private int[] correctGuesses;
+    private int[] incorrectGuesses;
+    private byte[] boxes;
+    private double[] weights;
+    private double[] tree; // Fenwick tree over the weights, 1-based
+    private double totalWeight;
+    private long updatesSinceRebuild;
+
+    /**
+     * Constructor for the WeightedWordSelector class.
+     * @param weighting How guess histories are weighted.
+     */
+    public WeightedWordSelector(Weighting weighting) {
+        if (weighting == null) {
+            throw new IllegalArgumentException("Weighting cannot be null.");
+        }
+        this.weighting = weighting;
+        this.resize(0);
+    }
+
+    // Getters
+
+    /**
+     * @param index The index of a word pair.
+     * @return The current selection weight of the word pair.
+     */
+    public double getWeight(int index) {
+        return this.weights[index];
+    }
+
+    /**
+     * @return The sum of all weights.
+     */
+    public double getTotalWeight() {
+        return this.totalWeight;
+    }
+
+    // Methods
+
+    /**
+     * Picks an index with a probability proportional to its weight.
+     * @param size The number of word pairs. If it changed, all histories are reset.
+     * @return The index.
+     */
+    @Override
+    public int nextIndex(int size) {
+        if (size != this.size) {
+            this.resize(size);
+        }
+        double target = ThreadLocalRandom.current().nextDouble() * this.totalWeight;
+        // Walk down the Fenwick tree to the first index whose prefix sum exceeds the target
+        int position = 0;
+        for (int step = Integer.highestOneBit(this.size); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= this.size && this.tree[next] <= target) {
+                position = next;
+                target -= this.tree[next];
+            }
+        }
+        return Math.min(position, this.size - 1);
+    }
+
+    /**
+     * Updates the history and weight of a word pair.
+     * @param index The index of the guessed word pair.
+     * @param correct Whether the guess was correct.
+     */
+    @Override
+    public void recordGuess(int index, boolean correct) {
+        if (index < 0 || index >= this.size) {
+            return;
+        }
+        if (correct) {
+            this.correctGuesses[index]++;
+            this.boxes[index] = (byte) Math.min(this.boxes[index] + 1, MAX_BOX);
+        } else {
+            this.incorrectGuesses[index]++;
+            this.boxes[index] = 0;
+        }
+        this.updateWeight(index);
+    }
+
+    /**
+     * Takes back a guess. The counts are restored exactly; with {@link Weighting#LEITNER} an undone correct guess moves
+     * the word down one box, while an undone incorrect guess leaves it in the first box, as the box it came from isn't
+     * kept.
+     * @param index The index of the guessed word pair.
+     * @param correct Whether the guess was correct.
+     */
+    @Override
+    public void undoGuess(int index, boolean correct) {
+        if (index < 0 || index >= this.size) {
+            return;
+        }
+        if (correct) {
+            if (this.correctGuesses[index] == 0) {
+                return;
+            }
+            this.correctGuesses[index]--;
+            this.boxes[index] = (byte) Math.max(this.boxes[index] - 1, 0);
+        } else {
+            if (this.incorrectGuesses[index] == 0) {
+                return;
+            }
+            this.incorrectGuesses[index]--;
+        }
+        this.updateWeight(index);
+    }
+
+    /**
+     * Moves the history of every remaining word to its new index; new words start without history.
+     * @param previousIndexes For every new index, the index of the same word before, or -1 for a new word.
+     */
+    @Override
+    public void corpusChanged(int[] previousIndexes) {
+        int[] correctGuesses = new int[previousIndexes.length];
+        int[] incorrectGuesses = new int[previousIndexes.length];
+        byte[] boxes = new byte[previousIndexes.length];
+        for (int i = 0; i < previousIndexes.length; i++) {
+            int previous = previousIndexes[i];
+            if (previous >= 0 && previous < this.size) {
+                correctGuesses[i] = this.correctGuesses[previous];
+                incorrectGuesses[i] = this.incorrectGuesses[previous];
+                boxes[i] = this.boxes[previous];
+            }
+        }
+        this.size = previousIndexes.length;
+        this.correctGuesses = correctGuesses;
+        this.incorrectGuesses = incorrectGuesses;
+        this.boxes = boxes;
+        this.weights = new double[this.size];
+        for (int i = 0; i < this.size; i++) {
+            this.weights[i] = this.weightOf(i);
+        }
+        this.rebuild();
+    }
+
+    private void updateWeight(int index) {
+        double weight = this.weightOf(index);
+        this.add(index, weight - this.weights[index]);
+        this.totalWeight += weight - this.weights[index];
+        this.weights[index] = weight;
+
+        // Rebuild now and then so floating-point errors from many updates can't accumulate
+        if (++this.updatesSinceRebuild > this.size) {
+            this.rebuild();
+        }
+    }
+
+    private double weightOf(int index) {
+        if (this.weighting == Weighting.LEITNER) {
+            return 1.0 / (1 << this.boxes[index]);
+        }
+        return (this.incorrectGuesses[index] + 1.0) / (this.correctGuesses[index] + 1.0);
+    }
+
+    private void resize(int size) {
+        this.size = size;
+        this.correctGuesses = new int[size];
+        this.incorrectGuesses = new int[size];
+        this.boxes = new byte[size];
+        this.weights = new double[size];
+        for (int i = 0; i < size; i++) {
+            this.weights[i] = this.weightOf(i);
+        }
+        this.rebuild();
+    }
+
+    /**
+     * Builds the Fenwick tree from the weights in O(n).
+     */
+    private void rebuild() {
+        if (this.tree == null || this.tree.length != this.size + 1) {
+            this.tree = new double[this.size + 1];
+        } else {
+            Arrays.fill(this.tree, 0);
+        }
+        for (int i = 1; i <= this.size; i++) {
+            this.tree[i] += this.weights[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= this.size) {
+                this.tree[parent] += this.tree[i];
+            }
+        }
+        this.totalWeight = this.prefixSum(this.size);
+        this.updatesSinceRebuild = 0;
+    }
+
+    private void add(int index, double delta) {
+        for (int i = index + 1; i <= this.size; i += i & -i) {
+            this.tree[i] += delta;
+        }
+    }
+
+    private double prefixSum(int count) {
+        double sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += this.tree[i];
+        }
+        return sum;
+    }
+}
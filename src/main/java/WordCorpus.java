@@ -0,0 +1,67 @@
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Interface for the word-picture pairs a trainer draws from, accessed by index.
+ * Unlike a List it only requires the size and random access, so a corpus can live on disk and load its pairs on
+ * demand (see {@link PagedWordCorpus}). Lists of pairs such as {@link CompactCorpus} implement it as well.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public interface WordCorpus {
+
+    /**
+     * @return The number of word-picture pairs.
+     */
+    int size();
+
+    /**
+     * Returns the word-picture pair at the given index.
+     * @param index The index of the pair.
+     * @return The pair.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    WordPicturePair get(int index);
+
+    /**
+     * Returns a read-only List view of a corpus, or the corpus itself if it already is a List.
+     * @param corpus The corpus.
+     * @return The list.
+     */
+    @SuppressWarnings("unchecked")
+    static List<WordPicturePair> asList(WordCorpus corpus) {
+        if (corpus instanceof List) {
+            return (List<WordPicturePair>) corpus;
+        }
+        return new ListView(corpus);
+    }
+
+    /**
+     * Read-only List view of a corpus. Every access is passed on to the corpus.
+     */
+    final class ListView extends AbstractList<WordPicturePair> implements RandomAccess {
+        private final WordCorpus corpus;
+
+        private ListView(WordCorpus corpus) {
+            this.corpus = corpus;
+        }
+
+        /**
+         * @return The corpus behind this view.
+         */
+        public WordCorpus getCorpus() {
+            return this.corpus;
+        }
+
+        @Override
+        public WordPicturePair get(int index) {
+            return this.corpus.get(index);
+        }
+
+        @Override
+        public int size() {
+            return this.corpus.size();
+        }
+    }
+}
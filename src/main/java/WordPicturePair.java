@@ -1,17 +1,12 @@
-import java.util.regex.Pattern;
-
 /**
  * Class representing a pair consisting of a word and an image URL.
  * @author Leonhard Stransky
- * @version 2024-09-28
+ * @version 2026-10-17
  */
 public class WordPicturePair {
     private String word;
     private String imageUrl;
-
-    // Regex pattern for URL validation
-    private static final String URL_REGEX = "^(https?://)([\\w.-]+)(:[0-9]{1,5})?(/[\\w./-]*)?$";
-    private static final Pattern URL_PATTERN = Pattern.compile(URL_REGEX);
+    private transient String normalizedWord; // Computed on first use by getNormalizedWord
 
     // Constructors
 
@@ -27,6 +22,25 @@ public class WordPicturePair {
         this.setImageUrl(imageUrl);
     }
 
+    /**
+     * Constructor without validation, used by {@link #fromTrustedData(String, String)}.
+     */
+    private WordPicturePair() {
+    }
+
+    /**
+     * Creates a WordPicturePair from data that was written by this application, skipping validation.
+     * @param word The word.
+     * @param imageUrl The URL of the image.
+     * @return The WordPicturePair.
+     */
+    static WordPicturePair fromTrustedData(String word, String imageUrl) {
+        WordPicturePair pair = new WordPicturePair();
+        pair.word = word;
+        pair.imageUrl = imageUrl;
+        return pair;
+    }
+
     // Getters and Setters
 
     public String getWord() {
@@ -37,6 +51,20 @@ public class WordPicturePair {
         return this.imageUrl;
     }
 
+    /**
+     * Returns the word as {@link AnswerMatcher.Mode#NORMALIZED} compares it.
+     * It is computed once and kept, so matching a guess doesn't allocate.
+     * @return The normalized word.
+     */
+    public String getNormalizedWord() {
+        String normalized = this.normalizedWord;
+        if (normalized == null) {
+            normalized = AnswerMatcher.normalize(this.word);
+            this.normalizedWord = normalized;
+        }
+        return normalized;
+    }
+
     /**
      * Sets the word.
      * Validates that the word is not null or empty.
@@ -44,10 +72,12 @@ public class WordPicturePair {
      * @throws IllegalArgumentException if the word is null or empty.
      */
     public void setWord(String word) {
-        if (word == null || word.trim().isEmpty()) {
+        String trimmed = word == null ? "" : word.trim(); // trim() returns the word itself if there is nothing to trim
+        if (trimmed.isEmpty()) {
             throw new IllegalArgumentException("Word cannot be null or empty.");
         }
-        this.word = word.trim();
+        this.word = trimmed;
+        this.normalizedWord = null;
     }
 
     /**
@@ -67,12 +97,12 @@ public class WordPicturePair {
 
     /**
      * Checks if a URL is valid.
-     * Validates the URL format by matching it against a regex pattern.
+     * Validates the URL format with a single-pass scanner, see {@link UrlValidator}.
      * @param url The URL to check.
      * @return True if the URL is valid, false otherwise.
      */
     private boolean isValidUrl(String url) {
-        return URL_PATTERN.matcher(url).matches();
+        return UrlValidator.isValid(url);
     }
 
     /**
@@ -0,0 +1,81 @@
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+
+/**
+ * Hand-written Gson adapter for WordPicturePair objects.
+ * Produces the same JSON as Gson's reflective adapter, without reflection.
+ * Unlike the reflective adapter it validates the pairs it reads, so a hand-edited file can't smuggle in invalid URLs.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class WordPicturePairAdapter extends TypeAdapter<WordPicturePair> {
+
+    /**
+     * Writes a WordPicturePair as {"word": ..., "imageUrl": ...}.
+     * @param out The JSON writer.
+     * @param pair The pair to write, may be null.
+     * @throws IOException if writing fails.
+     */
+    @Override
+    public void write(JsonWriter out, WordPicturePair pair) throws IOException {
+        if (pair == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("word").value(pair.getWord());
+        out.name("imageUrl").value(pair.getImageUrl());
+        out.endObject();
+    }
+
+    /**
+     * Reads a WordPicturePair. Unknown properties are skipped.
+     * @param in The JSON reader.
+     * @return The pair, or null if the JSON value is null.
+     * @throws IOException if reading fails.
+     * @throws JsonParseException if the word is empty or the URL is invalid.
+     */
+    @Override
+    public WordPicturePair read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String word = null;
+        String imageUrl = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "word":
+                    word = readString(in);
+                    break;
+                case "imageUrl":
+                    imageUrl = readString(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        try {
+            return new WordPicturePair(word, imageUrl);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException("Invalid word pair at " + in.getPath() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads a string value that may be null.
+     */
+    private static String readString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+}
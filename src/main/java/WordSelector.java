@@ -0,0 +1,39 @@
+/**
+ * Interface defining how the SpellingTrainer picks the next word pair.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public interface WordSelector {
+
+    /**
+     * Picks the index of the next word pair.
+     * @param size The number of word pairs, always greater than 0.
+     * @return An index between 0 (inclusive) and size (exclusive).
+     */
+    int nextIndex(int size);
+
+    /**
+     * Records the result of a guess, so the selector can adapt to it.
+     * @param index The index of the guessed word pair.
+     * @param correct Whether the guess was correct.
+     */
+    void recordGuess(int index, boolean correct);
+
+    /**
+     * Takes back a guess recorded by {@link #recordGuess(int, boolean)}, e.g. when it is undone.
+     * Selectors without history don't need to override this.
+     * @param index The index of the guessed word pair.
+     * @param correct Whether the guess was correct.
+     */
+    default void undoGuess(int index, boolean correct) {
+    }
+
+    /**
+     * Called when the word pairs of the trainer were replaced, so the selector can keep the history of the words that
+     * remain. Selectors without history don't need to override this.
+     * @param previousIndexes For every new index, the index of the same word before, or -1 for a new word.
+     */
+    default void corpusChanged(int[] previousIndexes) {
+    }
+
+}
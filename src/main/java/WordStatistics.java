@@ -0,0 +1,554 @@
+import com.google.gson.annotations.JsonAdapter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Class keeping statistics per word and per time window.
+ * Every word gets a slot in parallel int arrays with its correct and incorrect guesses. The slots are ordered in an
+ * indexed max-heap by difficulty, which is updated with every guess. The hardest {@value #TOP_WORDS} words are also
+ * kept in a sorted list that every guess updates, so reading them doesn't search the heap; only a correct guess of
+ * one of them makes the next read search the top of the heap again.
+ * Guesses are also counted in ring buffers of minute, hour and day buckets; a bucket is cleared when its slot is
+ * reused for a newer period. Recording a guess is a hash lookup, a few array increments and an O(log n) heap sift.
+ * Like {@link Statistics}, the class is not thread-safe.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+@JsonAdapter(WordStatisticsAdapter.class)
+public class WordStatistics {
+    /**
+     * Number of hardest words kept up to date with every guess.
+     */
+    public static final int TOP_WORDS = 32;
+
+    private final Map<String, Integer> slots;
+    private String[] words;
+    private int[] correct;
+    private int[] incorrect;
+    private int[] heap; // Slots ordered by difficulty, the hardest first
+    private int[] heapPositions; // Position of every slot in the heap
+    private final int[] top; // Slots of the hardest words, the hardest first
+    private int topSize;
+    private boolean topValid; // False if the top has to be searched in the heap again
+    private final int[] topCandidates; // Heap positions searched by rebuildTop
+    private final TimeBuckets[] buckets;
+
+    /**
+     * Time windows whose guesses are counted in buckets.
+     */
+    public enum Window {
+        MINUTES(60_000L, 60),
+        HOURS(3_600_000L, 24),
+        DAYS(86_400_000L, 30);
+
+        private final long bucketMillis;
+        private final int bucketCount;
+
+        Window(long bucketMillis, int bucketCount) {
+            this.bucketMillis = bucketMillis;
+            this.bucketCount = bucketCount;
+        }
+
+        /**
+         * @return The length of one bucket in milliseconds.
+         */
+        public long getBucketMillis() {
+            return this.bucketMillis;
+        }
+
+        /**
+         * @return The number of buckets kept, e.g. 60 minutes.
+         */
+        public int getBucketCount() {
+            return this.bucketCount;
+        }
+    }
+
+    /**
+     * Ring buffer of guess counts per period of one window.
+     */
+    private static final class TimeBuckets {
+        private final Window window;
+        private final long[] periods;
+        private final int[] correct;
+        private final int[] incorrect;
+        // Time range and slot of the last recorded period, so guesses within it need no division
+        private long currentStart;
+        private long currentEnd;
+        private int currentSlot;
+
+        private TimeBuckets(Window window) {
+            this.window = window;
+            this.periods = new long[window.bucketCount];
+            this.correct = new int[window.bucketCount];
+            this.incorrect = new int[window.bucketCount];
+            Arrays.fill(this.periods, Long.MIN_VALUE);
+        }
+
+        private TimeBuckets(TimeBuckets other) {
+            this.window = other.window;
+            this.periods = other.periods.clone();
+            this.correct = other.correct.clone();
+            this.incorrect = other.incorrect.clone();
+        }
+
+        /**
+         * Returns the slot of a period, clearing it if it still holds an older period.
+         */
+        private int slot(long period) {
+            int slot = (int) Math.floorMod(period, (long) this.periods.length);
+            if (this.periods[slot] != period) {
+                this.periods[slot] = period;
+                this.correct[slot] = 0;
+                this.incorrect[slot] = 0;
+            }
+            return slot;
+        }
+
+        private void record(long timeMillis, boolean correct) {
+            if (timeMillis < this.currentStart || timeMillis >= this.currentEnd) {
+                long period = Math.floorDiv(timeMillis, this.window.bucketMillis);
+                this.currentSlot = this.slot(period);
+                this.currentStart = period * this.window.bucketMillis;
+                this.currentEnd = this.currentStart + this.window.bucketMillis;
+            }
+            if (correct) {
+                this.correct[this.currentSlot]++;
+            } else {
+                this.incorrect[this.currentSlot]++;
+            }
+        }
+
+        private void unrecord(long timeMillis, boolean correct) {
+            long period = Math.floorDiv(timeMillis, this.window.bucketMillis);
+            int slot = (int) Math.floorMod(period, (long) this.periods.length);
+            if (this.periods[slot] != period) {
+                return; // The bucket has already been reused for a newer period
+            }
+            int[] counts = correct ? this.correct : this.incorrect;
+            if (counts[slot] > 0) {
+                counts[slot]--;
+            }
+        }
+
+        private void add(long period, int correct, int incorrect) {
+            int slot = this.slot(period);
+            this.correct[slot] += correct;
+            this.incorrect[slot] += incorrect;
+            this.currentEnd = Long.MIN_VALUE; // The slot may have been reused for another period
+        }
+
+        private int[] history(long timeMillis, int[] counts) {
+            long last = Math.floorDiv(timeMillis, this.window.bucketMillis);
+            int[] history = new int[this.periods.length];
+            for (int i = 0; i < history.length; i++) {
+                long period = last - history.length + 1 + i;
+                int slot = (int) Math.floorMod(period, (long) this.periods.length);
+                history[i] = this.periods[slot] == period ? counts[slot] : 0;
+            }
+            return history;
+        }
+    }
+
+    /**
+     * Constructor for a WordStatistics object.
+     */
+    public WordStatistics() {
+        this.slots = new HashMap<>();
+        this.words = new String[16];
+        this.correct = new int[16];
+        this.incorrect = new int[16];
+        this.heap = new int[16];
+        this.heapPositions = new int[16];
+        this.top = new int[TOP_WORDS];
+        this.topValid = true;
+        this.topCandidates = new int[2 * TOP_WORDS + 1];
+        this.buckets = new TimeBuckets[Window.values().length];
+        for (Window window : Window.values()) {
+            this.buckets[window.ordinal()] = new TimeBuckets(window);
+        }
+    }
+
+    /**
+     * Copy constructor for a WordStatistics object.
+     * @param other The statistics to copy.
+     */
+    public WordStatistics(WordStatistics other) {
+        this.slots = new HashMap<>(other.slots);
+        this.words = other.words.clone();
+        this.correct = other.correct.clone();
+        this.incorrect = other.incorrect.clone();
+        this.heap = other.heap.clone();
+        this.heapPositions = other.heapPositions.clone();
+        this.top = other.top.clone();
+        this.topSize = other.topSize;
+        this.topValid = other.topValid;
+        this.topCandidates = new int[2 * TOP_WORDS + 1];
+        this.buckets = new TimeBuckets[other.buckets.length];
+        for (int i = 0; i < this.buckets.length; i++) {
+            this.buckets[i] = new TimeBuckets(other.buckets[i]);
+        }
+    }
+
+    // Getters
+
+    /**
+     * @return The number of words that have been guessed.
+     */
+    public int getWordCount() {
+        return this.slots.size();
+    }
+
+    public int getCorrectGuesses(String word) {
+        Integer slot = this.slots.get(word);
+        return slot == null ? 0 : this.correct[slot];
+    }
+
+    public int getIncorrectGuesses(String word) {
+        Integer slot = this.slots.get(word);
+        return slot == null ? 0 : this.incorrect[slot];
+    }
+
+    /**
+     * Returns the correct guesses per bucket of a window, e.g. per minute of the last hour.
+     * @param window The window.
+     * @param timeMillis The current time; its bucket is the last one.
+     * @return The counts, oldest bucket first.
+     */
+    public int[] getCorrectHistory(Window window, long timeMillis) {
+        TimeBuckets buckets = this.buckets[window.ordinal()];
+        return buckets.history(timeMillis, buckets.correct);
+    }
+
+    /**
+     * Returns the incorrect guesses per bucket of a window, e.g. per minute of the last hour.
+     * @param window The window.
+     * @param timeMillis The current time; its bucket is the last one.
+     * @return The counts, oldest bucket first.
+     */
+    public int[] getIncorrectHistory(Window window, long timeMillis) {
+        TimeBuckets buckets = this.buckets[window.ordinal()];
+        return buckets.history(timeMillis, buckets.incorrect);
+    }
+
+    // Methods
+
+    /**
+     * Records a guess of a word.
+     * @param word The word that was asked.
+     * @param correct Whether the guess was correct.
+     * @param timeMillis The time of the guess.
+     */
+    public void record(String word, boolean correct, long timeMillis) {
+        int slot = this.slotOf(word);
+        if (correct) {
+            this.correct[slot]++;
+        } else {
+            this.incorrect[slot]++;
+        }
+        this.siftUp(this.heapPositions[slot]);
+        this.siftDown(this.heapPositions[slot]);
+        this.updateTop(slot, !correct);
+        for (TimeBuckets buckets : this.buckets) {
+            buckets.record(timeMillis, correct);
+        }
+    }
+
+    /**
+     * Takes back a guess recorded by {@link #record(String, boolean, long)}, e.g. when it is undone.
+     * A word without guesses left is removed. Buckets that have been reused for newer periods stay unchanged.
+     * @param word The word that was asked.
+     * @param correct Whether the guess was correct.
+     * @param timeMillis The time of the guess.
+     */
+    public void unrecord(String word, boolean correct, long timeMillis) {
+        Integer slot = this.slots.get(word);
+        if (slot == null) {
+            return;
+        }
+        int[] counts = correct ? this.correct : this.incorrect;
+        if (counts[slot] == 0) {
+            return;
+        }
+        counts[slot]--;
+        if (this.correct[slot] + this.incorrect[slot] == 0) {
+            this.removeWord(slot);
+        } else {
+            this.siftUp(this.heapPositions[slot]);
+            this.siftDown(this.heapPositions[slot]);
+            this.updateTop(slot, correct);
+        }
+        for (TimeBuckets buckets : this.buckets) {
+            buckets.unrecord(timeMillis, correct);
+        }
+    }
+
+    /**
+     * Returns the words with the highest error rate, smoothed so a single wrong guess doesn't outrank a word that
+     * was missed many times. Up to {@link #TOP_WORDS} words are read from the maintained list in O(count); more
+     * words are searched best-first in the heap, so the cost depends on count, not on the word count.
+     * @param count The maximum number of words.
+     * @return The words, the hardest first.
+     */
+    public List<String> getHardestWords(int count) {
+        List<String> hardest = new ArrayList<>(Math.max(0, Math.min(count, this.slots.size())));
+        if (count <= 0 || this.slots.isEmpty()) {
+            return hardest;
+        }
+        if (count <= TOP_WORDS) {
+            if (!this.topValid) {
+                this.rebuildTop();
+            }
+            for (int i = 0; i < Math.min(count, this.topSize); i++) {
+                hardest.add(this.words[this.top[i]]);
+            }
+            return hardest;
+        }
+        PriorityQueue<Integer> candidates = new PriorityQueue<>((a, b) -> this.compare(this.heap[a], this.heap[b]));
+        candidates.add(0);
+        while (hardest.size() < count && !candidates.isEmpty()) {
+            int position = candidates.poll();
+            hardest.add(this.words[this.heap[position]]);
+            for (int child = 2 * position + 1; child <= 2 * position + 2 && child < this.slots.size(); child++) {
+                candidates.add(child);
+            }
+        }
+        return hardest;
+    }
+
+    /**
+     * Resets the statistics of all words and windows.
+     */
+    public void reset() {
+        this.slots.clear();
+        Arrays.fill(this.words, null);
+        Arrays.fill(this.correct, 0);
+        Arrays.fill(this.incorrect, 0);
+        for (int i = 0; i < this.buckets.length; i++) {
+            this.buckets[i] = new TimeBuckets(this.buckets[i].window);
+        }
+        this.topSize = 0;
+        this.topValid = true;
+    }
+
+    /**
+     * Adds saved counts of a word, used when loading.
+     */
+    void restoreWord(String word, int correct, int incorrect) {
+        int slot = this.slotOf(word);
+        this.correct[slot] += correct;
+        this.incorrect[slot] += incorrect;
+        this.siftUp(this.heapPositions[slot]);
+        this.siftDown(this.heapPositions[slot]);
+        this.topValid = false;
+    }
+
+    /**
+     * Adds saved counts of a bucket, used when loading.
+     */
+    void restoreBucket(Window window, long period, int correct, int incorrect) {
+        this.buckets[window.ordinal()].add(period, correct, incorrect);
+    }
+
+    /**
+     * @return The guessed words in slot order, used when saving.
+     */
+    String[] words() {
+        return Arrays.copyOf(this.words, this.slots.size());
+    }
+
+    int correctAt(int slot) {
+        return this.correct[slot];
+    }
+
+    int incorrectAt(int slot) {
+        return this.incorrect[slot];
+    }
+
+    /**
+     * Returns the used buckets of a window as {period, correct, incorrect} triples, oldest first, used when saving.
+     */
+    List<long[]> buckets(Window window) {
+        TimeBuckets buckets = this.buckets[window.ordinal()];
+        List<long[]> used = new ArrayList<>();
+        for (int slot = 0; slot < buckets.periods.length; slot++) {
+            if (buckets.periods[slot] != Long.MIN_VALUE) {
+                used.add(new long[] {buckets.periods[slot], buckets.correct[slot], buckets.incorrect[slot]});
+            }
+        }
+        used.sort((a, b) -> Long.compare(a[0], b[0]));
+        return used;
+    }
+
+    /**
+     * Returns the slot of a word, adding the word at the bottom of the heap if it is new.
+     */
+    private int slotOf(String word) {
+        Integer existing = this.slots.get(word);
+        if (existing != null) {
+            return existing;
+        }
+        int slot = this.slots.size();
+        if (slot == this.words.length) {
+            int capacity = slot * 2;
+            this.words = Arrays.copyOf(this.words, capacity);
+            this.correct = Arrays.copyOf(this.correct, capacity);
+            this.incorrect = Arrays.copyOf(this.incorrect, capacity);
+            this.heap = Arrays.copyOf(this.heap, capacity);
+            this.heapPositions = Arrays.copyOf(this.heapPositions, capacity);
+        }
+        this.slots.put(word, slot);
+        this.words[slot] = word;
+        this.heap[slot] = slot;
+        this.heapPositions[slot] = slot;
+        return slot;
+    }
+
+    /**
+     * Removes a word from the heap and moves the last slot into its slot, so the slots stay dense.
+     */
+    private void removeWord(int slot) {
+        int last = this.slots.size() - 1;
+        int position = this.heapPositions[slot];
+        this.swap(position, last);
+        this.slots.remove(this.words[slot]);
+        if (position < last) {
+            int moved = this.heap[position];
+            this.siftUp(position);
+            this.siftDown(this.heapPositions[moved]);
+        }
+        if (slot != last) {
+            this.words[slot] = this.words[last];
+            this.correct[slot] = this.correct[last];
+            this.incorrect[slot] = this.incorrect[last];
+            this.heapPositions[slot] = this.heapPositions[last];
+            this.heap[this.heapPositions[slot]] = slot;
+            this.slots.put(this.words[slot], slot);
+        }
+        this.words[last] = null;
+        this.correct[last] = 0;
+        this.incorrect[last] = 0;
+        this.topValid = false; // Slots have moved
+    }
+
+    /**
+     * Updates the list of the hardest words after the counts of a slot changed.
+     * @param harder True if the word got harder, false if it got easier.
+     */
+    private void updateTop(int slot, boolean harder) {
+        if (!this.topValid) {
+            return;
+        }
+        int position = 0;
+        while (position < this.topSize && this.top[position] != slot) {
+            position++;
+        }
+        if (position < this.topSize) {
+            System.arraycopy(this.top, position + 1, this.top, position, this.topSize - position - 1);
+            this.topSize--;
+            if (harder || this.topSize + 1 == this.slots.size()) {
+                this.insertTop(slot);
+            } else {
+                this.topValid = false; // A word outside the list may be harder now
+            }
+        } else if (this.topSize < Math.min(TOP_WORDS, this.slots.size())) {
+            this.insertTop(slot); // A new word
+        } else if (this.compare(slot, this.top[this.topSize - 1]) < 0) {
+            this.topSize--;
+            this.insertTop(slot);
+        }
+    }
+
+    private void insertTop(int slot) {
+        int position = this.topSize;
+        while (position > 0 && this.compare(slot, this.top[position - 1]) < 0) {
+            this.top[position] = this.top[position - 1];
+            position--;
+        }
+        this.top[position] = slot;
+        this.topSize++;
+    }
+
+    /**
+     * Searches the hardest words in the heap best-first; the candidates are the children of the words taken so far.
+     */
+    private void rebuildTop() {
+        int size = this.slots.size();
+        int candidates = 0;
+        this.topSize = 0;
+        if (size > 0) {
+            this.topCandidates[candidates++] = 0;
+        }
+        while (this.topSize < TOP_WORDS && candidates > 0) {
+            int best = 0;
+            for (int i = 1; i < candidates; i++) {
+                if (this.compare(this.heap[this.topCandidates[i]], this.heap[this.topCandidates[best]]) < 0) {
+                    best = i;
+                }
+            }
+            int position = this.topCandidates[best];
+            this.topCandidates[best] = this.topCandidates[--candidates];
+            this.top[this.topSize++] = this.heap[position];
+            for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+                this.topCandidates[candidates++] = child;
+            }
+        }
+        this.topValid = true;
+    }
+
+    /**
+     * Compares two slots by their smoothed error rate (incorrect + 1) / (guesses + 2), then by incorrect guesses.
+     * @return A negative number if the first slot is harder.
+     */
+    private int compare(int a, int b) {
+        long rateA = (this.incorrect[a] + 1L) * (this.correct[b] + this.incorrect[b] + 2L);
+        long rateB = (this.incorrect[b] + 1L) * (this.correct[a] + this.incorrect[a] + 2L);
+        if (rateA != rateB) {
+            return rateA > rateB ? -1 : 1;
+        }
+        if (this.incorrect[a] != this.incorrect[b]) {
+            return this.incorrect[a] > this.incorrect[b] ? -1 : 1;
+        }
+        return Integer.compare(a, b);
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (this.compare(this.heap[position], this.heap[parent]) >= 0) {
+                return;
+            }
+            this.swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        int size = this.slots.size();
+        while (true) {
+            int hardest = position;
+            for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+                if (this.compare(this.heap[child], this.heap[hardest]) < 0) {
+                    hardest = child;
+                }
+            }
+            if (hardest == position) {
+                return;
+            }
+            this.swap(position, hardest);
+            position = hardest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int slot = this.heap[i];
+        this.heap[i] = this.heap[j];
+        this.heap[j] = slot;
+        this.heapPositions[this.heap[i]] = i;
+        this.heapPositions[this.heap[j]] = j;
+    }
+}
@@ -0,0 +1,127 @@
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Gson adapter for WordStatistics objects.
+ * Words are written as {"word", "correct", "incorrect"} objects, the used buckets of every window as
+ * [period, correct, incorrect] arrays, where the period is the time divided by the bucket length.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class WordStatisticsAdapter extends TypeAdapter<WordStatistics> {
+
+    /**
+     * Writes the word counts and the used buckets.
+     * @param out The JSON writer.
+     * @param statistics The statistics to write, may be null.
+     * @throws IOException if writing fails.
+     */
+    @Override
+    public void write(JsonWriter out, WordStatistics statistics) throws IOException {
+        if (statistics == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("words");
+        out.beginArray();
+        String[] words = statistics.words();
+        for (int slot = 0; slot < words.length; slot++) {
+            out.beginObject();
+            out.name("word").value(words[slot]);
+            out.name("correct").value(statistics.correctAt(slot));
+            out.name("incorrect").value(statistics.incorrectAt(slot));
+            out.endObject();
+        }
+        out.endArray();
+        for (WordStatistics.Window window : WordStatistics.Window.values()) {
+            out.name(window.name().toLowerCase(Locale.ROOT));
+            out.beginArray();
+            for (long[] bucket : statistics.buckets(window)) {
+                out.beginArray();
+                out.value(bucket[0]).value(bucket[1]).value(bucket[2]);
+                out.endArray();
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    /**
+     * Reads the word counts and buckets. Unknown properties are skipped.
+     * @param in The JSON reader.
+     * @return The statistics, or null if the JSON value is null.
+     * @throws IOException if reading fails.
+     */
+    @Override
+    public WordStatistics read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        WordStatistics statistics = new WordStatistics();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            WordStatistics.Window window = windowOf(name);
+            if (name.equals("words")) {
+                readWords(in, statistics);
+            } else if (window != null) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    in.beginArray();
+                    statistics.restoreBucket(window, in.nextLong(), in.nextInt(), in.nextInt());
+                    in.endArray();
+                }
+                in.endArray();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return statistics;
+    }
+
+    private static void readWords(JsonReader in, WordStatistics statistics) throws IOException {
+        in.beginArray();
+        while (in.hasNext()) {
+            String word = null;
+            int correct = 0;
+            int incorrect = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "word":
+                        word = in.nextString();
+                        break;
+                    case "correct":
+                        correct = in.nextInt();
+                        break;
+                    case "incorrect":
+                        incorrect = in.nextInt();
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            if (word != null) {
+                statistics.restoreWord(word, correct, incorrect);
+            }
+        }
+        in.endArray();
+    }
+
+    private static WordStatistics.Window windowOf(String name) {
+        for (WordStatistics.Window window : WordStatistics.Window.values()) {
+            if (window.name().toLowerCase(Locale.ROOT).equals(name)) {
+                return window;
+            }
+        }
+        return null;
+    }
+}
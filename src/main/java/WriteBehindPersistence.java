@@ -0,0 +1,224 @@
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Persistence strategy that writes SpellingTrainer snapshots on a background thread.
+ * Saves that arrive while a write is still pending are merged, so only the newest snapshot is written.
+ * Pending saves are flushed on {@link #flush()}, {@link #close()} and JVM shutdown.
+ * @author Leonhard Stransky
+ * @version 2026-10-17
+ */
+public class WriteBehindPersistence implements PersistenceStrategy<SpellingTrainer> {
+    private final PersistenceStrategy<SpellingTrainer> delegate;
+    private final ExecutorService writer;
+    private final Thread shutdownHook;
+    private final AtomicReference<SpellingTrainer> pending;
+    private final AtomicInteger queueDepth;
+    private final AtomicInteger maxQueueDepth;
+    private final AtomicLong requestedSaves;
+    private final AtomicLong coalescedSaves;
+    private final AtomicLong completedWrites;
+    private final AtomicLong failedWrites;
+    private final AtomicLong saveCallNanos;
+    private final AtomicLong writeNanos;
+    private volatile IOException lastWriteError; // A runtime exception of the last write, the delegate doesn't know it
+    private volatile boolean closed;
+
+    /**
+     * Constructor for the WriteBehindPersistence class.
+     * @param delegate The strategy that performs the actual writes.
+     */
+    public WriteBehindPersistence(PersistenceStrategy<SpellingTrainer> delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate cannot be null.");
+        }
+        this.delegate = delegate;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spelling-trainer-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pending = new AtomicReference<>();
+        this.queueDepth = new AtomicInteger();
+        this.maxQueueDepth = new AtomicInteger();
+        this.requestedSaves = new AtomicLong();
+        this.coalescedSaves = new AtomicLong();
+        this.completedWrites = new AtomicLong();
+        this.failedWrites = new AtomicLong();
+        this.saveCallNanos = new AtomicLong();
+        this.writeNanos = new AtomicLong();
+        this.shutdownHook = new Thread(this::flush, "spelling-trainer-writer-shutdown");
+        Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+    }
+
+    // Getters
+
+    /**
+     * @return The number of saves requested through {@link #saveData(SpellingTrainer)}.
+     */
+    public long getRequestedSaves() {
+        return this.requestedSaves.get();
+    }
+
+    /**
+     * @return The number of saves that were merged into a newer snapshot and never written on their own.
+     */
+    public long getCoalescedSaves() {
+        return this.coalescedSaves.get();
+    }
+
+    /**
+     * @return The number of snapshots written by the delegate.
+     */
+    public long getCompletedWrites() {
+        return this.completedWrites.get();
+    }
+
+    /**
+     * @return The number of writes that failed with an exception.
+     */
+    public long getFailedWrites() {
+        return this.failedWrites.get();
+    }
+
+    /**
+     * @return The highest number of saves that were waiting for a single write.
+     */
+    public int getMaxQueueDepth() {
+        return this.maxQueueDepth.get();
+    }
+
+    /**
+     * @return The average time a caller spent in {@link #saveData(SpellingTrainer)}, in nanoseconds.
+     */
+    public double getAverageSaveCallNanos() {
+        long saves = this.requestedSaves.get();
+        return saves == 0 ? 0 : (double) this.saveCallNanos.get() / saves;
+    }
+
+    /**
+     * @return The average time the background writer spent in the delegate, in nanoseconds.
+     */
+    public double getAverageWriteNanos() {
+        long writes = this.completedWrites.get() + this.failedWrites.get();
+        return writes == 0 ? 0 : (double) this.writeNanos.get() / writes;
+    }
+
+    // Methods
+
+    /**
+     * Takes a snapshot of the trainer and hands it to the background writer.
+     * Falls back to a synchronous write once the strategy has been closed.
+     * @param trainer The SpellingTrainer object to be saved.
+     */
+    @Override
+    public void saveData(SpellingTrainer trainer) {
+        long start = System.nanoTime();
+        if (this.closed) {
+            this.delegate.saveData(trainer);
+            return;
+        }
+        this.requestedSaves.incrementAndGet();
+        int depth = this.queueDepth.incrementAndGet();
+        this.maxQueueDepth.accumulateAndGet(depth, Math::max);
+
+        SpellingTrainer previous = this.pending.getAndSet(trainer.snapshot());
+        if (previous != null) {
+            // A write is already scheduled and will pick up the newer snapshot
+            this.coalescedSaves.incrementAndGet();
+        } else {
+            this.writer.execute(this::writePending);
+        }
+        this.saveCallNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    /**
+     * Flushes pending saves and loads the SpellingTrainer object from the delegate.
+     * @return The loaded SpellingTrainer object, or null if none could be loaded.
+     */
+    @Override
+    public SpellingTrainer loadData() {
+        this.flush();
+        SpellingTrainer trainer = this.delegate.loadData();
+        if (trainer != null) {
+            trainer.setPersistenceStrategy(this);
+        }
+        return trainer;
+    }
+
+    /**
+     * Blocks until every snapshot handed over before this call has been written.
+     */
+    @Override
+    public void flush() {
+        if (this.writer.isShutdown()) {
+            return;
+        }
+        try {
+            this.writer.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+        this.delegate.flush();
+    }
+
+    /**
+     * @return The exception of the last write, or null if it succeeded. A runtime exception thrown by the delegate
+     *         is returned wrapped in an IOException.
+     */
+    @Override
+    public IOException getLastSaveError() {
+        IOException error = this.lastWriteError;
+        return error != null ? error : this.delegate.getLastSaveError();
+    }
+
+    /**
+     * Flushes pending saves and stops the background writer.
+     * Later saves are written synchronously.
+     */
+    public void close() {
+        this.flush();
+        this.closed = true;
+        this.writer.shutdown();
+        try {
+            Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+        } catch (IllegalStateException e) {
+            // The JVM is already shutting down and running the hook
+        }
+    }
+
+    /**
+     * Writes the newest pending snapshot, if any. Runs on the writer thread.
+     */
+    private void writePending() {
+        // Take the snapshot first: a save arriving in between counts towards the next write, not this one
+        SpellingTrainer snapshot = this.pending.getAndSet(null);
+        this.queueDepth.set(0);
+        if (snapshot == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            this.lastWriteError = null;
+            this.delegate.saveData(snapshot);
+            if (this.delegate.getLastSaveError() != null) {
+                this.failedWrites.incrementAndGet();
+            } else {
+                this.completedWrites.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            this.lastWriteError = new IOException("Writing the snapshot failed.", e);
+            this.failedWrites.incrementAndGet();
+            e.printStackTrace();
+        } finally {
+            this.writeNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+}
@@ -1,10 +1,53 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpServer;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.swing.SwingUtilities;
 
 /**
  * This is a test class for the project.
@@ -22,7 +65,11 @@ public class tests {
     private Statistics stats;
     private JSONPersistence jsonPersistence;
 
-    private static final String TEST_FILE_PATH = "test_spelling_trainer_data.json";  // File path for testing
+    private static final String TEST_FILE_NAME = "test_spelling_trainer_data.json";  // File name for testing
+
+    @TempDir
+    Path testDirectory;
+    private String testFilePath; // The test file in a fresh temporary directory
 
     // Test setup before each test method
     @BeforeEach
@@ -31,7 +78,8 @@ public class tests {
         validPair2 = new WordPicturePair("Dog", "http://example.com/dog.jpg");
         wordPairs = Arrays.asList(validPair1, validPair2);
 
-        jsonPersistence = new JSONPersistence(TEST_FILE_PATH);
+        testFilePath = testDirectory.resolve(TEST_FILE_NAME).toString();
+        jsonPersistence = new JSONPersistence(testFilePath);
         trainer = new SpellingTrainer(wordPairs, jsonPersistence);
         stats = new Statistics();
     }
@@ -176,21 +224,21 @@ public class tests {
 
     @Test
     public void testJSONPersistenceSaveData() {
-        JSONPersistence jsonPersistence = new JSONPersistence(TEST_FILE_PATH);
+        JSONPersistence jsonPersistence = new JSONPersistence(testFilePath);
         trainer = new SpellingTrainer(wordPairs, jsonPersistence);
 
         jsonPersistence.saveData(trainer);
 
         // Check that the file exists and is not empty
         // File operations are environment dependent, so this test should be more thorough with integration tests
-        File file = new File("spelling_trainer_data.json");
+        File file = new File(testFilePath);
         assertTrue(file.exists());
         assertTrue(file.length() > 0);
     }
 
     @Test
     public void testJSONPersistenceLoadData() {
-        JSONPersistence jsonPersistence = new JSONPersistence(TEST_FILE_PATH);
+        JSONPersistence jsonPersistence = new JSONPersistence(testFilePath);
         trainer = new SpellingTrainer(wordPairs, jsonPersistence);
 
         // Save the trainer
@@ -201,4 +249,1970 @@ public class tests {
         assertNotNull(loadedTrainer);
         assertEquals(trainer.getCurrentWordPair().getWord(), loadedTrainer.getCurrentWordPair().getWord());
     }
+
+    // WriteBehindPersistence Tests
+
+    @Test
+    public void testWriteBehindPersistence_CoalescesPendingSaves() throws InterruptedException {
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch releaseWrite = new CountDownLatch(1);
+        List<SpellingTrainer> written = new ArrayList<>();
+        PersistenceStrategy<SpellingTrainer> slowStrategy = new PersistenceStrategy<>() {
+            @Override
+            public void saveData(SpellingTrainer object) {
+                writeStarted.countDown();
+                try {
+                    releaseWrite.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.add(object);
+            }
+
+            @Override
+            public SpellingTrainer loadData() {
+                return null;
+            }
+        };
+        WriteBehindPersistence writeBehind = new WriteBehindPersistence(slowStrategy);
+        trainer.setPersistenceStrategy(writeBehind);
+
+        trainer.guessWord("IncorrectGuess");
+        trainer.persistData(); // Blocks the writer thread
+        writeStarted.await();
+        trainer.guessWord("IncorrectGuess");
+        trainer.persistData();
+        trainer.guessWord("IncorrectGuess");
+        trainer.persistData();
+        trainer.guessWord("IncorrectGuess");
+        trainer.persistData();
+        releaseWrite.countDown();
+        trainer.flushData();
+        writeBehind.close();
+
+        assertEquals(4, writeBehind.getRequestedSaves());
+        assertEquals(2, writeBehind.getCoalescedSaves());
+        assertEquals(2, writeBehind.getCompletedWrites());
+        assertEquals(3, writeBehind.getMaxQueueDepth());
+        assertEquals(2, written.size());
+        assertEquals(1, written.get(0).getStatistics().getTotalGuesses());
+        assertEquals(4, written.get(1).getStatistics().getTotalGuesses());
+    }
+
+    @Test
+    public void testWriteBehindPersistence_SnapshotIsIndependent() {
+        SpellingTrainer snapshot = trainer.snapshot();
+        trainer.guessWord("IncorrectGuess");
+        assertEquals(0, snapshot.getStatistics().getTotalGuesses());
+        assertEquals(1, trainer.getStatistics().getTotalGuesses());
+        assertSame(trainer.getCurrentWordPair(), snapshot.getCurrentWordPair());
+    }
+
+    @Test
+    public void testWriteBehindPersistence_LoadData() {
+        WriteBehindPersistence writeBehind = new WriteBehindPersistence(new JSONPersistence(testFilePath));
+        trainer.setPersistenceStrategy(writeBehind);
+        trainer.guessWord(trainer.getCurrentWordPair().getWord());
+        trainer.persistData();
+
+        SpellingTrainer loadedTrainer = writeBehind.loadData(); // Flushes the pending save first
+        writeBehind.close();
+        assertNotNull(loadedTrainer);
+        assertEquals(1, loadedTrainer.getStatistics().getCorrectGuesses());
+        assertEquals(trainer.getCurrentWordPair().getWord(), loadedTrainer.getCurrentWordPair().getWord());
+    }
+
+    @Test
+    public void testWriteBehindPersistence_RecordsRuntimeFailures() {
+        PersistenceStrategy<SpellingTrainer> failingStrategy = new PersistenceStrategy<>() {
+            @Override
+            public void saveData(SpellingTrainer object) {
+                throw new IllegalStateException("Broken delegate");
+            }
+
+            @Override
+            public SpellingTrainer loadData() {
+                return null;
+            }
+        };
+        WriteBehindPersistence writeBehind = new WriteBehindPersistence(failingStrategy);
+        try {
+            writeBehind.saveData(trainer);
+            writeBehind.flush();
+            assertEquals(1, writeBehind.getFailedWrites());
+            assertNotNull(writeBehind.getLastSaveError());
+            assertEquals("Broken delegate", writeBehind.getLastSaveError().getCause().getMessage());
+        } finally {
+            writeBehind.close();
+        }
+    }
+
+    // Atomic JSONPersistence Tests
+
+    @Test
+    public void testJSONPersistenceAtomicSave_NoTempFilesLeft(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("trainer.json");
+        JSONPersistence persistence = new JSONPersistence(file.toString());
+        persistence.saveData(trainer);
+        persistence.saveData(trainer);
+
+        assertTrue(Files.size(file) > 0);
+        assertTrue(Files.exists(AtomicFileWriter.backupPath(file, 1)));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count()); // The file and one backup
+        }
+    }
+
+    @Test
+    public void testJSONPersistenceAtomicSave_FallsBackToBackup(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("trainer.json");
+        JSONPersistence persistence = new JSONPersistence(file.toString());
+        persistence.setForceToDisk(false);
+        persistence.saveData(trainer);
+        trainer.guessWord("IncorrectGuess");
+        persistence.saveData(trainer);
+
+        // Simulate a save that was killed halfway through
+        Files.writeString(file, "{\"wordPairs\":[{\"word\":\"Cat\",");
+        SpellingTrainer loadedTrainer = persistence.loadData();
+        assertNotNull(loadedTrainer);
+        assertEquals(0, loadedTrainer.getStatistics().getTotalGuesses());
+    }
+
+    @Test
+    public void testJSONPersistenceAtomicSave_FallsBackOnInvalidTrainer(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("trainer.json");
+        JSONPersistence persistence = new JSONPersistence(file.toString());
+        persistence.setForceToDisk(false);
+        trainer.guessWord("IncorrectGuess");
+        persistence.saveData(trainer);
+        persistence.saveData(trainer);
+
+        for (String json : new String[] {"{}", "{\"wordPairs\":[]}",
+                "{\"wordPairs\":[{\"word\":\"Cat\",\"imageUrl\":\"https://example.com/cat.jpg\"}],"
+                        + "\"statistics\":{\"correctGuesses\":1,\"incorrectGuesses\":0,\"totalGuesses\":5}}",
+                "{\"wordPairs\":[{\"word\":\"Cat\",\"imageUrl\":\"https://example.com/cat.jpg\"}],"
+                        + "\"statistics\":{\"correctGuesses\":0,\"incorrectGuesses\":0,\"totalGuesses\":0}}",
+                "{\"wordPairs\":[{\"word\":\"Cat\",\"imageUrl\":\"https://example.com/cat.jpg\"}],"
+                        + "\"currentWordPair\":{\"word\":\"Dog\",\"imageUrl\":\"https://example.com/dog.jpg\"},"
+                        + "\"statistics\":{\"correctGuesses\":0,\"incorrectGuesses\":0,\"totalGuesses\":0}}"}) {
+            Files.writeString(file, json);
+            assertThrows(JsonParseException.class, () -> JSONPersistence.createGson().fromJson(json, SpellingTrainer.class));
+            SpellingTrainer loadedTrainer = persistence.loadData();
+            assertNotNull(loadedTrainer);
+            assertEquals(2, loadedTrainer.getWordPairs().size()); // Loaded from the backup
+            assertEquals(1, loadedTrainer.getStatistics().getIncorrectGuesses());
+        }
+    }
+
+    @Test
+    public void testJSONPersistenceAtomicSave_RotatesBackups(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("trainer.json");
+        JSONPersistence persistence = new JSONPersistence(file.toString());
+        persistence.setBackupCount(2);
+        for (int i = 0; i < 4; i++) {
+            persistence.saveData(trainer);
+            trainer.guessWord("IncorrectGuess");
+        }
+
+        assertTrue(Files.exists(AtomicFileWriter.backupPath(file, 2)));
+        assertFalse(Files.exists(AtomicFileWriter.backupPath(file, 3)));
+        Files.delete(file);
+        Files.delete(AtomicFileWriter.backupPath(file, 1));
+        assertEquals(1, persistence.loadData().getStatistics().getTotalGuesses());
+    }
+
+    @Test
+    public void testAtomicFileWriter_LinksTargetToNewestBackup(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("trainer.txt");
+        for (int i = 1; i <= 4; i++) {
+            byte[] content = Integer.toString(i).getBytes(StandardCharsets.UTF_8);
+            AtomicFileWriter.write(file, false, 2, channel -> channel.write(ByteBuffer.wrap(content)));
+        }
+
+        assertEquals("4", Files.readString(file));
+        assertEquals("3", Files.readString(AtomicFileWriter.backupPath(file, 1)));
+        assertEquals("2", Files.readString(AtomicFileWriter.backupPath(file, 2)));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(3, files.count()); // No temp files or links left
+        }
+    }
+
+    // Streaming Type Adapter Tests
+
+    @Test
+    public void testSpellingTrainerAdapter_MatchesReflectiveJson() {
+        trainer.guessWord("IncorrectGuess");
+        String reflectiveJson = new Gson().toJson(trainer);
+        String streamingJson = JSONPersistence.createGson().toJson(trainer, SpellingTrainer.class);
+        assertEquals(reflectiveJson, streamingJson);
+    }
+
+    @Test
+    public void testSpellingTrainerAdapter_ReadsReflectiveJson() {
+        trainer.guessWord(trainer.getCurrentWordPair().getWord());
+        String reflectiveJson = new Gson().toJson(trainer);
+        SpellingTrainer loadedTrainer = JSONPersistence.createGson().fromJson(reflectiveJson, SpellingTrainer.class);
+
+        assertEquals(2, loadedTrainer.getWordPairs().size());
+        assertEquals("Dog", loadedTrainer.getWordPairs().get(1).getWord());
+        assertEquals(trainer.getCurrentWordPair().getImageUrl(), loadedTrainer.getCurrentWordPair().getImageUrl());
+        assertEquals(1, loadedTrainer.getStatistics().getCorrectGuesses());
+        assertEquals(Boolean.TRUE, loadedTrainer.getLastResult());
+    }
+
+    @Test
+    public void testSpellingTrainerAdapter_SkipsUnknownProperties() {
+        String json = "{\"version\":2,\"wordPairs\":[{\"word\":\"Cat\",\"imageUrl\":\"http://example.com/cat.jpg\",\"tags\":[]}],"
+                + "\"currentWordPair\":{\"word\":\"Cat\",\"imageUrl\":\"http://example.com/cat.jpg\"},"
+                + "\"statistics\":{\"correctGuesses\":3,\"incorrectGuesses\":1,\"totalGuesses\":4}}";
+        SpellingTrainer loadedTrainer = JSONPersistence.createGson().fromJson(json, SpellingTrainer.class);
+        assertEquals("Cat", loadedTrainer.getWordPairs().get(0).getWord());
+        assertEquals(75.0, loadedTrainer.getStatistics().getAccuracy());
+        assertNull(loadedTrainer.getLastResult());
+    }
+
+    // BinaryPersistence Tests
+
+    @Test
+    public void testBinaryPersistence_RoundTrip(@TempDir Path directory) {
+        BinaryPersistence persistence = new BinaryPersistence(directory.resolve("trainer.wtb").toString());
+        trainer.guessWord("IncorrectGuess");
+        persistence.saveData(trainer);
+
+        SpellingTrainer loadedTrainer = persistence.loadData();
+        assertNotNull(loadedTrainer);
+        assertTrue(loadedTrainer.getWordPairs() instanceof MappedWordPairList);
+        assertEquals(2, loadedTrainer.getWordPairs().size());
+        assertEquals("Dog", loadedTrainer.getWordPairs().get(1).getWord());
+        assertEquals("http://example.com/dog.jpg", loadedTrainer.getWordPairs().get(1).getImageUrl());
+        assertEquals(trainer.getCurrentWordPair().getWord(), loadedTrainer.getCurrentWordPair().getWord());
+        assertEquals(1, loadedTrainer.getStatistics().getIncorrectGuesses());
+        assertEquals(Boolean.FALSE, loadedTrainer.getLastResult());
+    }
+
+    @Test
+    public void testBinaryPersistence_Utf8Words(@TempDir Path directory) {
+        List<WordPicturePair> pairs = List.of(new WordPicturePair("Straße", "https://example.com/strasse.jpg"),
+                new WordPicturePair("Käfer", "https://example.com/kaefer.jpg"));
+        BinaryPersistence persistence = new BinaryPersistence(directory.resolve("trainer.wtb").toString());
+        persistence.saveData(new SpellingTrainer(pairs, persistence));
+
+        SpellingTrainer loadedTrainer = persistence.loadData();
+        assertEquals("Straße", loadedTrainer.getWordPairs().get(0).getWord());
+        assertEquals("Käfer", loadedTrainer.getWordPairs().get(1).getWord());
+    }
+
+    @Test
+    public void testBinaryPersistence_RejectsJsonFile(@TempDir Path directory) {
+        String filePath = directory.resolve("trainer.json").toString();
+        new JSONPersistence(filePath).saveData(trainer);
+        assertNull(new BinaryPersistence(filePath).loadData());
+    }
+
+    @Test
+    public void testBinaryPersistence_RejectsCorruptLengths(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("trainer.wtb");
+        BinaryPersistence persistence = new BinaryPersistence(file.toString());
+        persistence.saveData(trainer);
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(BinaryPersistence.HEADER_SIZE, Integer.MAX_VALUE); // Length of the current word
+        Files.write(file, bytes);
+        assertNull(persistence.loadData());
+
+        ByteBuffer.wrap(bytes).putInt(BinaryPersistence.HEADER_SIZE, -1);
+        Files.write(file, bytes);
+        assertNull(persistence.loadData());
+
+        persistence.saveData(new SpellingTrainer(wordPairs, null));
+        bytes = Files.readAllBytes(file);
+        ByteBuffer header = ByteBuffer.wrap(bytes);
+        header.putInt(header.getInt(24), bytes.length); // First offset of the index points past the end
+        Files.write(file, bytes);
+        List<WordPicturePair> pairs = persistence.loadData().getWordPairs();
+        assertThrows(IllegalArgumentException.class, () -> pairs.get(0));
+        assertEquals("Dog", pairs.get(1).getWord());
+    }
+
+    @Test
+    public void testPersistenceConverter_JsonToBinaryAndBack(@TempDir Path directory) {
+        String jsonPath = directory.resolve("trainer.json").toString();
+        String binaryPath = directory.resolve("trainer.wtb").toString();
+        String convertedPath = directory.resolve("converted.json").toString();
+        trainer.guessWord(trainer.getCurrentWordPair().getWord());
+        new JSONPersistence(jsonPath).saveData(trainer);
+
+        assertNotNull(PersistenceConverter.convert(PersistenceConverter.forFile(jsonPath), PersistenceConverter.forFile(binaryPath)));
+        assertNotNull(PersistenceConverter.convert(PersistenceConverter.forFile(binaryPath), PersistenceConverter.forFile(convertedPath)));
+        SpellingTrainer loadedTrainer = new JSONPersistence(convertedPath).loadData();
+        assertEquals(2, loadedTrainer.getWordPairs().size());
+        assertEquals(1, loadedTrainer.getStatistics().getCorrectGuesses());
+        assertEquals(Boolean.TRUE, loadedTrainer.getLastResult());
+    }
+
+    // EventLogPersistence Tests
+
+    @Test
+    public void testEventLogPersistence_ReplaysGuessesAndSelections(@TempDir Path directory) {
+        String filePath = directory.resolve("trainer.json").toString();
+        EventLogPersistence persistence = new EventLogPersistence(filePath);
+        trainer.setPersistenceStrategy(persistence);
+        trainer.persistData(); // Full snapshot
+
+        trainer.guessWord("IncorrectGuess");
+        trainer.persistData();
+        trainer.guessWord(trainer.getCurrentWordPair().getWord());
+        trainer.selectRandomWordPair();
+        trainer.persistData();
+        trainer.guessWord("IncorrectGuess");
+        trainer.persistData();
+        assertEquals(4, persistence.getAppendedEvents()); // 2 incorrect, 1 correct, 1 selection
+
+        SpellingTrainer loadedTrainer = new EventLogPersistence(filePath).loadData();
+        assertNotNull(loadedTrainer);
+        assertEquals(1, loadedTrainer.getStatistics().getCorrectGuesses());
+        assertEquals(2, loadedTrainer.getStatistics().getIncorrectGuesses());
+        assertEquals(Boolean.FALSE, loadedTrainer.getLastResult());
+        assertEquals(trainer.getCurrentWordPair().getWord(), loadedTrainer.getCurrentWordPair().getWord());
+    }
+
+    @Test
+    public void testEventLogPersistence_StatisticsReset(@TempDir Path directory) {
+        String filePath = directory.resolve("trainer.json").toString();
+        EventLogPersistence persistence = new EventLogPersistence(filePath);
+        trainer.setPersistenceStrategy(persistence);
+        trainer.persistData();
+        trainer.guessWord("IncorrectGuess");
+        trainer.guessWord("IncorrectGuess");
+        trainer.persistData();
+        trainer.getStatistics().reset();
+        trainer.guessWord(trainer.getCurrentWordPair().getWord());
+        trainer.persistData();
+
+        SpellingTrainer loadedTrainer = new EventLogPersistence(filePath).loadData();
+        assertEquals(1, loadedTrainer.getStatistics().getTotalGuesses());
+        assertEquals(1, loadedTrainer.getStatistics().getCorrectGuesses());
+    }
+
+    @Test
+    public void testEventLogPersistence_CompactsLog(@TempDir Path directory) throws IOException {
+        String filePath = directory.resolve("trainer.json").toString();
+        EventLogPersistence persistence = new EventLogPersistence(filePath);
+        persistence.setCompactionThreshold(100);
+        trainer.setPersistenceStrategy(persistence);
+        trainer.persistData();
+        for (int i = 0; i < 50; i++) {
+            trainer.guessWord("IncorrectGuess");
+            trainer.persistData();
+        }
+        trainer.flushData();
+
+        assertTrue(persistence.getCompactions() > 0);
+        assertTrue(Files.size(directory.resolve("trainer.json.log")) < 50 * 25); // Smaller than all 25-byte guess events
+        assertFalse(Files.exists(directory.resolve("trainer.json.log.old")));
+        SpellingTrainer loadedTrainer = new EventLogPersistence(filePath).loadData();
+        assertEquals(50, loadedTrainer.getStatistics().getIncorrectGuesses());
+    }
+
+    @Test
+    public void testEventLogPersistence_ReplaysWordStatistics(@TempDir Path directory) {
+        String filePath = directory.resolve("trainer.json").toString();
+        EventLogPersistence persistence = new EventLogPersistence(filePath);
+        trainer.setPersistenceStrategy(persistence);
+        trainer.selectWordPair("Cat");
+        trainer.persistData();
+        trainer.selectWordPair("Dog");
+        trainer.guessWord("Dgo", 5_000);
+        trainer.guessWord("Dog", 6_000);
+        trainer.selectWordPair("Cat");
+        trainer.persistData();
+        trainer.guessWord("Cat", 7_000);
+        trainer.persistData();
+        assertEquals(5, persistence.getAppendedEvents()); // 3 guesses, 2 selections
+
+        SpellingTrainer loadedTrainer = new EventLogPersistence(filePath).loadData();
+        WordStatistics loaded = loadedTrainer.getWordStatistics();
+        assertEquals(1, loaded.getIncorrectGuesses("Dog"));
+        assertEquals(1, loaded.getCorrectGuesses("Dog"));
+        assertEquals(1, loaded.getCorrectGuesses("Cat"));
+        assertArrayEquals(trainer.getWordStatistics().getCorrectHistory(WordStatistics.Window.MINUTES, 7_000),
+                loaded.getCorrectHistory(WordStatistics.Window.MINUTES, 7_000));
+        assertEquals(2, loadedTrainer.getStatistics().getCorrectGuesses());
+        assertEquals(Boolean.TRUE, loadedTrainer.getLastResult());
+        assertEquals("Cat", loadedTrainer.getCurrentWordPair().getWord());
+    }
+
+    @Test
+    public void testEventLogPersistence_AppendsUndoneGuesses(@TempDir Path directory) throws IOException {
+        String filePath = directory.resolve("trainer.json").toString();
+        EventLogPersistence persistence = new EventLogPersistence(filePath);
+        trainer.setPersistenceStrategy(persistence);
+        trainer.selectWordPair("Dog");
+        trainer.persistData();
+        for (int i = 0; i < 100; i++) {
+            trainer.guessWord(i % 4 == 0 ? "Dog" : "Dgo");
+        }
+        trainer.persistData();
+        long logSize = Files.size(directory.resolve("trainer.json.log"));
+        assertTrue(trainer.undoGuess());
+        trainer.persistData();
+        assertTrue(trainer.undoGuess());
+        assertTrue(trainer.redoGuess());
+        assertTrue(trainer.undoGuess());
+        trainer.persistData();
+        assertEquals(104, persistence.getAppendedEvents()); // 100 guesses, 3 undos, 1 redo
+        assertEquals(logSize + 4 * 25, Files.size(directory.resolve("trainer.json.log"))); // One 25-byte event each
+
+        SpellingTrainer loadedTrainer = new EventLogPersistence(filePath).loadData();
+        assertEquals(25, loadedTrainer.getStatistics().getCorrectGuesses());
+        assertEquals(73, loadedTrainer.getStatistics().getIncorrectGuesses());
+        assertEquals(73, loadedTrainer.getWordStatistics().getIncorrectGuesses("Dog"));
+        assertNull(loadedTrainer.getLastResult());
+    }
+
+    @Test
+    public void testEventLogPersistence_IgnoresTornRecord(@TempDir Path directory) throws IOException {
+        String filePath = directory.resolve("trainer.json").toString();
+        EventLogPersistence persistence = new EventLogPersistence(filePath);
+        trainer.setPersistenceStrategy(persistence);
+        trainer.persistData();
+        trainer.guessWord("IncorrectGuess");
+        trainer.persistData();
+        trainer.flushData();
+        Files.write(directory.resolve("trainer.json.log"), new byte[] {4, 0, 0}, StandardOpenOption.APPEND); // Start of a guess event
+
+        EventLogPersistence reloaded = new EventLogPersistence(filePath);
+        SpellingTrainer loadedTrainer = reloaded.loadData();
+        assertEquals(1, loadedTrainer.getStatistics().getIncorrectGuesses());
+        loadedTrainer.guessWord("IncorrectGuess");
+        loadedTrainer.persistData();
+        assertEquals(2, new EventLogPersistence(filePath).loadData().getStatistics().getIncorrectGuesses());
+    }
+
+    @Test
+    public void testEventLogPersistence_IgnoresZeroFilledTail(@TempDir Path directory) throws IOException {
+        String filePath = directory.resolve("trainer.json").toString();
+        Path logPath = directory.resolve("trainer.json.log");
+        EventLogPersistence persistence = new EventLogPersistence(filePath);
+        trainer.setPersistenceStrategy(persistence);
+        trainer.persistData();
+        trainer.guessWord("IncorrectGuess");
+        trainer.persistData();
+        trainer.flushData();
+        long logSize = Files.size(logPath);
+        Files.write(logPath, new byte[4096], StandardOpenOption.APPEND);
+
+        SpellingTrainer loadedTrainer = new EventLogPersistence(filePath).loadData();
+        assertNotNull(loadedTrainer);
+        assertEquals(1, loadedTrainer.getStatistics().getIncorrectGuesses());
+        assertEquals(logSize, Files.size(logPath));
+    }
+
+    // WordSelector Tests
+
+    @Test
+    public void testWeightedWordSelector_PrefersDifficultWords() {
+        WeightedWordSelector selector = new WeightedWordSelector(WeightedWordSelector.Weighting.DIFFICULTY);
+        selector.nextIndex(4);
+        for (int i = 0; i < 9; i++) {
+            selector.recordGuess(2, false);
+        }
+        assertEquals(10.0, selector.getWeight(2));
+        assertEquals(13.0, selector.getTotalWeight(), 1e-9);
+
+        int[] counts = new int[4];
+        for (int i = 0; i < 13_000; i++) {
+            counts[selector.nextIndex(4)]++;
+        }
+        assertTrue(counts[2] > 8_000 && counts[2] < 12_000);
+        assertTrue(counts[0] > 0 && counts[1] > 0 && counts[3] > 0);
+    }
+
+    @Test
+    public void testWeightedWordSelector_LeitnerBoxes() {
+        WeightedWordSelector selector = new WeightedWordSelector(WeightedWordSelector.Weighting.LEITNER);
+        selector.nextIndex(3);
+        selector.recordGuess(0, true);
+        selector.recordGuess(0, true);
+        assertEquals(0.25, selector.getWeight(0));
+        selector.recordGuess(0, false);
+        assertEquals(1.0, selector.getWeight(0));
+        assertEquals(3.0, selector.getTotalWeight(), 1e-9);
+    }
+
+    @Test
+    public void testWeightedWordSelector_NeverPicksOutOfRange() {
+        WeightedWordSelector selector = new WeightedWordSelector(WeightedWordSelector.Weighting.LEITNER);
+        for (int i = 0; i < 10_000; i++) {
+            int index = selector.nextIndex(7);
+            assertTrue(index >= 0 && index < 7);
+            selector.recordGuess(index, i % 3 != 0);
+        }
+    }
+
+    @Test
+    public void testSpellingTrainer_RecordsGuessesWithSelector() {
+        WeightedWordSelector selector = new WeightedWordSelector(WeightedWordSelector.Weighting.DIFFICULTY);
+        trainer.setWordSelector(selector);
+        trainer.selectRandomWordPair();
+        int index = wordPairs.indexOf(trainer.getCurrentWordPair());
+        trainer.guessWord("IncorrectGuess");
+        assertEquals(2.0, selector.getWeight(index));
+        assertEquals(1.0, selector.getWeight(1 - index));
+    }
+
+    // MultiSessionTrainer Tests
+
+    @Test
+    public void testMultiSessionTrainer_SessionsAreIndependent() {
+        MultiSessionTrainer multiTrainer = new MultiSessionTrainer(wordPairs);
+        assertTrue(multiTrainer.createSession("anna"));
+        assertTrue(multiTrainer.createSession("ben"));
+        assertFalse(multiTrainer.createSession("ben"));
+        String word = multiTrainer.getCurrentWordPair("anna").getWord();
+        assertTrue(multiTrainer.guessWord("anna", word));
+        assertFalse(multiTrainer.guessWord("ben", "IncorrectGuess"));
+
+        assertEquals(2, multiTrainer.getSessionCount());
+        assertEquals(1, multiTrainer.getStatistics("anna").getCorrectGuesses());
+        assertEquals(0, multiTrainer.getStatistics("anna").getIncorrectGuesses());
+        assertEquals(1, multiTrainer.getStatistics("ben").getIncorrectGuesses());
+        assertEquals(Boolean.TRUE, multiTrainer.getLastResult("anna"));
+        assertTrue(multiTrainer.removeSession("ben"));
+        assertEquals(1, multiTrainer.getSessionCount());
+    }
+
+    @Test
+    public void testMultiSessionTrainer_ConcurrentGuessesAreNotLost() throws InterruptedException {
+        MultiSessionTrainer multiTrainer = new MultiSessionTrainer(wordPairs);
+        for (int session = 0; session < 4; session++) {
+            multiTrainer.createSession("session-" + session);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    String sessionId = "session-" + (i % 4);
+                    multiTrainer.guessWord(sessionId, "IncorrectGuess");
+                    multiTrainer.selectRandomWordPair(sessionId);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        int total = 0;
+        for (int session = 0; session < 4; session++) {
+            Statistics sessionStatistics = multiTrainer.getStatistics("session-" + session);
+            assertEquals(sessionStatistics.getTotalGuesses(), sessionStatistics.getIncorrectGuesses());
+            total += sessionStatistics.getTotalGuesses();
+        }
+        assertEquals(8_000, total);
+    }
+
+    // ConcurrentStatistics Tests
+
+    @Test
+    public void testConcurrentStatistics_NoLostUpdates() throws InterruptedException {
+        ConcurrentStatistics concurrentStats = new ConcurrentStatistics();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (i % 4 == 0) {
+                        concurrentStats.incrementIncorrectGuesses();
+                    } else {
+                        concurrentStats.incrementCorrectGuesses();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        ConcurrentStatistics.Snapshot snapshot = concurrentStats.snapshot();
+        assertEquals(60_000, snapshot.getCorrectGuesses());
+        assertEquals(20_000, snapshot.getIncorrectGuesses());
+        assertEquals(80_000, snapshot.getTotalGuesses());
+        assertEquals(75.0, concurrentStats.getAccuracy());
+    }
+
+    @Test
+    public void testConcurrentStatistics_UndoGuess() {
+        ConcurrentStatistics concurrentStats = new ConcurrentStatistics(2, 3);
+        GuessHistory history = new GuessHistory(4);
+        history.record(0, validPair1, "Cat", 1000, true);
+        history.record(1, validPair2, "Dgo", 2000, false);
+        WordStatistics wordStatistics = new WordStatistics();
+        assertTrue(history.undo(concurrentStats, wordStatistics, new UniformWordSelector()));
+        assertTrue(history.undo(concurrentStats, wordStatistics, new UniformWordSelector()));
+        assertEquals(1, concurrentStats.getCorrectGuesses());
+        assertEquals(2, concurrentStats.getIncorrectGuesses());
+        assertEquals(3, concurrentStats.snapshot().getTotalGuesses());
+    }
+
+    @Test
+    public void testConcurrentStatistics_SnapshotIsConsistent() {
+        ConcurrentStatistics concurrentStats = new ConcurrentStatistics(3_000_000_000L, 1);
+        ConcurrentStatistics.Snapshot snapshot = concurrentStats.snapshot();
+        assertEquals(snapshot.getCorrectGuesses() + snapshot.getIncorrectGuesses(), snapshot.getTotalGuesses());
+        assertEquals(Integer.MAX_VALUE, concurrentStats.getCorrectGuesses());
+        assertEquals(1, new Statistics(new ConcurrentStatistics(0, 1)).getIncorrectGuesses());
+    }
+
+    @Test
+    public void testConcurrentStatistics_ReadsSavedStatistics() {
+        Gson gson = JSONPersistence.createGson();
+        stats.incrementCorrectGuesses();
+        stats.incrementIncorrectGuesses();
+        String savedJson = new Gson().toJson(stats);
+
+        ConcurrentStatistics concurrentStats = gson.fromJson(savedJson, ConcurrentStatistics.class);
+        assertEquals(1, concurrentStats.snapshot().getCorrectGuesses());
+        assertEquals(2, concurrentStats.snapshot().getTotalGuesses());
+        assertEquals(savedJson, gson.toJson(concurrentStats));
+    }
+
+    @Test
+    public void testMultiSessionTrainer_AggregateStatistics() {
+        MultiSessionTrainer multiTrainer = new MultiSessionTrainer(wordPairs);
+        multiTrainer.createSession("anna");
+        multiTrainer.createSession("ben");
+        multiTrainer.guessWord("anna", multiTrainer.getCurrentWordPair("anna").getWord());
+        multiTrainer.guessWord("ben", "IncorrectGuess");
+        multiTrainer.removeSession("ben");
+        assertEquals(2, multiTrainer.getAggregateStatistics().snapshot().getTotalGuesses());
+    }
+
+    @Test
+    public void testMultiSessionTrainer_SessionsAreBounded() {
+        MultiSessionTrainer multiTrainer = new MultiSessionTrainer(wordPairs, 2, 60_000);
+        assertThrows(NoSuchElementException.class, () -> multiTrainer.guessWord("unknown", "Cat"));
+        assertEquals(0, multiTrainer.getSessionCount());
+        multiTrainer.createSession();
+        multiTrainer.createSession();
+        assertThrows(IllegalStateException.class, multiTrainer::createSession);
+        assertEquals(2, multiTrainer.getSessionCount());
+
+        MultiSessionTrainer expiring = new MultiSessionTrainer(wordPairs, 2, 0);
+        expiring.createSession("anna");
+        expiring.createSession("ben");
+        expiring.createSession("carl"); // Replaces the idle sessions instead of failing
+        assertTrue(expiring.hasSession("carl"));
+        assertEquals(1, expiring.getSessionCount());
+    }
+
+    @Test
+    public void testMultiSessionTrainer_ConcurrentCreationRespectsLimit() throws InterruptedException {
+        MultiSessionTrainer multiTrainer = new MultiSessionTrainer(wordPairs, 50, 60_000);
+        multiTrainer.createSession("first");
+        AtomicInteger created = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 100; i++) {
+                    try {
+                        multiTrainer.createSession();
+                        created.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        // Limit reached
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(49, created.get());
+        assertEquals(50, multiTrainer.getSessionCount());
+
+        assertTrue(multiTrainer.removeSession("first"));
+        assertTrue(multiTrainer.createSession("again")); // The removed session freed its slot
+        assertFalse(multiTrainer.createSession("again"));
+        assertEquals(50, multiTrainer.getSessionCount());
+    }
+
+    // ImageLoader Tests
+
+    /**
+     * Starts a local HTTP server serving a 600x400 PNG under /images/ and 404 for everything else.
+     */
+    private static HttpServer startImageServer(AtomicInteger requests) throws IOException {
+        BufferedImage image = new BufferedImage(600, 400, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            if (exchange.getRequestURI().getPath().startsWith("/images/")) {
+                exchange.sendResponseHeaders(200, png.size());
+                exchange.getResponseBody().write(png.toByteArray());
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+
+    @Test
+    public void testImageLoader_ScalesAndCachesInMemory(@TempDir Path directory) throws IOException {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = startImageServer(requests);
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/images/cat.png";
+        ImageLoader loader = new ImageLoader(directory, 10 * 1024 * 1024);
+        try {
+            BufferedImage first = loader.load(url).join();
+            BufferedImage second = loader.load(url).join();
+            assertEquals(300, first.getWidth());
+            assertEquals(200, first.getHeight());
+            assertSame(first, second);
+            assertEquals(1, requests.get());
+            assertEquals(1, loader.getMisses());
+            assertEquals(1, loader.getMemoryHits());
+        } finally {
+            loader.close();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testImageLoader_UsesDiskCache(@TempDir Path directory) throws IOException {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = startImageServer(requests);
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/images/dog.png";
+        ImageLoader firstLoader = new ImageLoader(directory, 10 * 1024 * 1024);
+        ImageLoader secondLoader = new ImageLoader(directory, 10 * 1024 * 1024);
+        try {
+            firstLoader.load(url).join();
+            assertNotNull(secondLoader.load(url).join());
+            assertEquals(1, requests.get());
+            assertEquals(1, secondLoader.getDiskHits());
+            assertEquals(0, secondLoader.getMisses());
+        } finally {
+            firstLoader.close();
+            secondLoader.close();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testImageLoader_EvictsLeastRecentlyUsed() throws IOException {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = startImageServer(requests);
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/images/";
+        ImageLoader loader = new ImageLoader(null, 2 * 300 * 200 * 4); // Room for two scaled images
+        try {
+            loader.load(baseUrl + "a.png").join();
+            loader.load(baseUrl + "b.png").join();
+            loader.load(baseUrl + "a.png").join(); // a is now the most recently used
+            loader.load(baseUrl + "c.png").join();
+            assertNotNull(loader.getIfCached(baseUrl + "a.png"));
+            assertNull(loader.getIfCached(baseUrl + "b.png"));
+            assertEquals(2 * 300 * 200 * 4, loader.getMemoryBytes());
+        } finally {
+            loader.close();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testImageLoader_CountsFailures() throws IOException {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = startImageServer(requests);
+        ImageLoader loader = new ImageLoader(null, 1024);
+        try {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/missing.png";
+            assertThrows(CompletionException.class, () -> loader.load(url).join());
+            assertEquals(1, loader.getFailures());
+        } finally {
+            loader.close();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testImageLoader_RejectsOversizedDownloads() throws IOException {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = startImageServer(requests);
+        // Same image without a Content-Length
+        server.createContext("/chunked/", exchange -> {
+            BufferedImage image = new BufferedImage(600, 400, BufferedImage.TYPE_INT_RGB);
+            exchange.sendResponseHeaders(200, 0);
+            ImageIO.write(image, "png", exchange.getResponseBody());
+            exchange.close();
+        });
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        ImageLoader loader = new ImageLoader(null, 10 * 1024 * 1024);
+        try {
+            loader.setMaxDownloadBytes(100);
+            assertThrows(CompletionException.class, () -> loader.load(base + "/images/cat.png").join());
+            assertThrows(CompletionException.class, () -> loader.load(base + "/chunked/cat.png").join());
+            assertEquals(2, loader.getFailures());
+            loader.setMaxDownloadBytes(ImageLoader.DEFAULT_MAX_DOWNLOAD_BYTES);
+            assertEquals(300, loader.load(base + "/chunked/dog.png").join().getWidth());
+            assertThrows(IllegalArgumentException.class, () -> loader.setMaxDownloadBytes(0));
+        } finally {
+            loader.close();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testImageLoader_ScaleAveragesLargeDownscales() {
+        // One-pixel checkerboard, seven times the target width: every scaled pixel should be mid gray
+        BufferedImage checkerboard = new BufferedImage(2100, 1400, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 1400; y++) {
+            for (int x = 0; x < 2100; x++) {
+                checkerboard.setRGB(x, y, (x + y) % 2 == 0 ? 0xFFFFFF : 0x000000);
+            }
+        }
+        BufferedImage scaled = ImageLoader.scale(checkerboard);
+        assertEquals(300, scaled.getWidth());
+        assertEquals(200, scaled.getHeight());
+        for (int y = 0; y < 200; y += 7) {
+            for (int x = 0; x < 300; x += 7) {
+                int gray = scaled.getRGB(x, y) & 0xFF;
+                assertTrue(Math.abs(gray - 128) < 16, "Aliased pixel " + gray + " at " + x + "," + y);
+            }
+        }
+    }
+
+    @Test
+    public void testSpellingTrainer_PeekNextWordPair() {
+        WordPicturePair next = trainer.peekNextWordPair();
+        assertSame(next, trainer.peekNextWordPair());
+        trainer.selectRandomWordPair();
+        assertSame(next, trainer.getCurrentWordPair());
+    }
+
+    // BatchEvaluator Tests
+
+    @Test
+    public void testBatchEvaluator_NdjsonAndSessionStatistics(@TempDir Path directory) throws IOException {
+        JSONPersistence persistence = new JSONPersistence(directory.resolve("batch.json").toString());
+        trainer.setPersistenceStrategy(persistence);
+        BatchEvaluator evaluator = new BatchEvaluator(trainer, 2, BatchEvaluator.OutputFormat.NDJSON);
+        StringWriter out = new StringWriter();
+        evaluator.evaluate(new StringReader("session,word,guess\na,Cat,Cat\na,Dog,Dgo\nb,Dog,Dog\nb,Bird,Bird\nb,Cat,\n"), out);
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(5, lines.length);
+        assertEquals("{\"session\":\"a\",\"word\":\"Cat\",\"guess\":\"Cat\",\"result\":\"correct\"}", lines[0]);
+        assertEquals("{\"session\":\"b\",\"word\":\"Bird\",\"guess\":\"Bird\",\"result\":\"unknown-word\"}", lines[3]);
+        assertTrue(lines[4].endsWith("\"result\":\"invalid\"}"));
+        assertEquals(1, evaluator.getUnknownWords());
+        assertEquals(1, evaluator.getInvalidRecords());
+        assertEquals(3, evaluator.getSaves()); // Two full batches and the rest
+        assertEquals(1, evaluator.getSessionStatistics().get("a").getIncorrectGuesses());
+        assertEquals(1, evaluator.getSessionStatistics().get("b").getCorrectGuesses());
+        assertEquals(3, persistence.loadData().getStatistics().getTotalGuesses());
+    }
+
+    @Test
+    public void testBatchEvaluator_CsvQuotesFields() throws IOException {
+        trainer.setPersistenceStrategy(new JSONPersistence(testFilePath) {
+            @Override
+            public void saveData(SpellingTrainer trainer) {
+            }
+        });
+        BatchEvaluator evaluator = new BatchEvaluator(trainer, 100, BatchEvaluator.OutputFormat.CSV);
+        StringWriter out = new StringWriter();
+        evaluator.evaluate(new StringReader("s1\tCat\tC,a\"t\n"), out);
+        assertEquals("session,word,guess,result\ns1,Cat,\"C,a\"\"t\",incorrect\n", out.toString());
+    }
+
+    @Test
+    public void testBatchEvaluator_ReadsQuotedCsvWithoutHeader() throws IOException {
+        trainer.setPersistenceStrategy(new JSONPersistence(testFilePath) {
+            @Override
+            public void saveData(SpellingTrainer trainer) {
+            }
+        });
+        BatchEvaluator evaluator = new BatchEvaluator(trainer, 100, BatchEvaluator.OutputFormat.CSV);
+        StringWriter out = new StringWriter();
+        evaluator.evaluate(new StringReader("session1,Cat,Cat\n\"s,2\",Dog,\"D\"\"og\",incorrect\ns3,\"Cat\",\"C\na\"\n"), out);
+
+        assertEquals(3, evaluator.getRecords());
+        assertEquals("session,word,guess,result\nsession1,Cat,Cat,correct\n\"s,2\",Dog,\"D\"\"og\",incorrect\n"
+                + "s3,Cat,\"C\na\",incorrect\n", out.toString());
+        assertEquals(1, evaluator.getSessionStatistics().get("s,2").getIncorrectGuesses());
+    }
+
+    // AnswerMatcher Tests
+
+    @Test
+    public void testAnswerMatcher_Modes() {
+        WordPicturePair street = new WordPicturePair("Straße", "http://example.com/street.jpg");
+        assertEquals(AnswerMatcher.Result.INCORRECT, AnswerMatcher.EXACT.match("straße", street));
+        AnswerMatcher ignoreCase = new AnswerMatcher(AnswerMatcher.Mode.IGNORE_CASE, 0);
+        assertEquals(AnswerMatcher.Result.CORRECT, ignoreCase.match(" STRAßE ", street));
+        assertEquals(AnswerMatcher.Result.INCORRECT, ignoreCase.match("strasse", street));
+        AnswerMatcher normalized = new AnswerMatcher(AnswerMatcher.Mode.NORMALIZED, 0);
+        assertEquals(AnswerMatcher.Result.CORRECT, normalized.match("Strasse", street));
+        assertEquals(AnswerMatcher.Result.CORRECT, normalized.match("baer", new WordPicturePair("Bär", "http://example.com/bear.jpg")));
+        assertEquals(AnswerMatcher.Result.CORRECT, normalized.match("Cafe", new WordPicturePair("Café", "http://example.com/cafe.jpg")));
+    }
+
+    @Test
+    public void testAnswerMatcher_AlmostCorrect() {
+        AnswerMatcher matcher = new AnswerMatcher(AnswerMatcher.Mode.NORMALIZED, 1);
+        WordPicturePair elephant = new WordPicturePair("Elefant", "http://example.com/elephant.jpg");
+        assertEquals(AnswerMatcher.Result.CORRECT, matcher.match("elefant", elephant));
+        assertEquals(AnswerMatcher.Result.ALMOST, matcher.match("Elfant", elephant));
+        assertEquals(AnswerMatcher.Result.ALMOST, matcher.match("Elefannt", elephant));
+        assertEquals(AnswerMatcher.Result.ALMOST, matcher.match("Elevant", elephant));
+        assertEquals(AnswerMatcher.Result.INCORRECT, matcher.match("Elephant", elephant)); // Two edits
+        assertEquals(AnswerMatcher.Result.INCORRECT, matcher.match("Dog", elephant));
+    }
+
+    @Test
+    public void testAnswerMatcher_DoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        AnswerMatcher matcher = new AnswerMatcher(AnswerMatcher.Mode.NORMALIZED, 2);
+        WordPicturePair street = new WordPicturePair("Straße", "http://example.com/street.jpg");
+        String[] guesses = {"Strasse", " straße ", "Strase", "Bahnhof"};
+        int almost = 0;
+        for (int i = 0; i < 10_000; i++) { // Initializes the thread's buffers and the normalized word
+            almost += matcher.match(guesses[i & 3], street) == AnswerMatcher.Result.ALMOST ? 1 : 0;
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            almost += matcher.match(guesses[i & 3], street) == AnswerMatcher.Result.ALMOST ? 1 : 0;
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertEquals(5_000, almost);
+        assertEquals(0, allocated);
+    }
+
+    @Test
+    public void testSpellingTrainer_LastMatch() {
+        trainer.setAnswerMatcher(new AnswerMatcher(AnswerMatcher.Mode.IGNORE_CASE, 1));
+        String word = trainer.getCurrentWordPair().getWord();
+        assertFalse(trainer.guessWord(word.substring(1)));
+        assertEquals(AnswerMatcher.Result.ALMOST, trainer.getLastMatch());
+        assertTrue(trainer.guessWord(word.toUpperCase()));
+        assertEquals(AnswerMatcher.Result.CORRECT, trainer.getLastMatch());
+        trainer.selectRandomWordPair();
+        assertNull(trainer.getLastMatch());
+        assertThrows(IllegalArgumentException.class, () -> trainer.guessWord(" \t"));
+    }
+
+    // UrlValidator and CorpusImporter Tests
+
+    @Test
+    public void testUrlValidator_MatchesRegex() {
+        Pattern regex = Pattern.compile("^(https?://)([\\w.-]+)(:[0-9]{1,5})?(/[\\w./-]*)?$");
+        String[] urls = {
+                "http://example.com", "https://example.com/", "http://example.com/cat.jpg", "https://a-b.c_d.e/x/y-z_1.png",
+                "http://host:8080/image.png", "http://host:12345", "http://host:123456/x", "http://host:/x", "http://:80/x",
+                "ftp://example.com/x", "http//example.com", "https://", "http://exa mple.com", "http://example.com/a?b=c",
+                "http://example.com/ä.jpg", "HTTP://example.com", "http://example.com:80:90", "http://example.com\n", ""
+        };
+        for (String url : urls) {
+            assertEquals(regex.matcher(url).matches(), UrlValidator.isValid(url), url);
+        }
+    }
+
+    @Test
+    public void testCorpusImporter_ImportsAndReportsRows() throws IOException {
+        String csv = "word,imageUrl\n"
+                + "Cat,http://example.com/cat.jpg\n"
+                + "\n"
+                + "# comment\n"
+                + "\"Dog, big\",http://example.com/dog.jpg,extra\n"
+                + "Cat,http://example.com/other.jpg\n"
+                + "Bird,invalid-url\n"
+                + "Fish\n"
+                + "Kitten,http://example.com/cat.jpg\n";
+        CorpusImporter importer = new CorpusImporter();
+        CorpusImporter.ImportResult result = importer.importFrom(new StringReader(csv));
+
+        assertEquals(6, result.getRows());
+        assertEquals(3, result.getWordPairs().size());
+        assertEquals("Dog, big", result.getWordPairs().get(1).getWord());
+        assertSame(result.getWordPairs().get(0).getImageUrl(), result.getWordPairs().get(2).getImageUrl());
+        assertEquals(1, result.getDuplicateRows());
+        assertEquals(2, result.getInvalidRows());
+        assertEquals("Line 7: invalid URL invalid-url", result.getErrors().get(0));
+        assertEquals("Line 8: expected word and image URL", result.getErrors().get(1));
+        assertTrue(result.getRowsPerSecond() > 0);
+    }
+
+    @Test
+    public void testCorpusImporter_TabSeparatedSequential() throws IOException {
+        CorpusImporter importer = new CorpusImporter();
+        importer.setParallel(false);
+        importer.setSkipDuplicates(false);
+        CorpusImporter.ImportResult result = importer.importFrom(new StringReader(
+                "Cat\thttp://example.com/cat.jpg\nCat\thttps://cdn.example.org/cat.jpg\n"));
+        assertEquals(2, result.getWordPairs().size());
+    }
+
+    @Test
+    public void testWordPicturePairAdapter_RejectsInvalidPairs() {
+        Gson gson = JSONPersistence.createGson();
+        assertThrows(JsonParseException.class,
+                () -> gson.fromJson("{\"word\":\"Cat\",\"imageUrl\":\"invalid-url\"}", WordPicturePair.class));
+        assertThrows(JsonParseException.class,
+                () -> gson.fromJson("{\"word\":\" \",\"imageUrl\":\"http://example.com/cat.jpg\"}", WordPicturePair.class));
+        assertEquals("Cat", gson.fromJson("{\"word\":\" Cat\",\"imageUrl\":\"http://example.com/cat.jpg\"}", WordPicturePair.class).getWord());
+    }
+
+    // CompactCorpus Tests
+
+    @Test
+    public void testCompactCorpus_SharesWordsAndPrefixes() {
+        CompactCorpus corpus = new CompactCorpus.Builder()
+                .add("Cat", "http://example.com/animals/cat.jpg")
+                .add("Dog", "http://example.com/animals/dog.jpg")
+                .add("Cat", "https://cdn.example.org/toys/cat.png")
+                .add("Mouse", "http://example.com:8080")
+                .build();
+        assertEquals(4, corpus.size());
+        assertEquals(3, corpus.getDistinctWords());
+        assertEquals(3, corpus.getDistinctPrefixes());
+        assertEquals("http://example.com/animals/dog.jpg", corpus.get(1).getImageUrl());
+        assertEquals("https://cdn.example.org/toys/cat.png", corpus.get(2).getImageUrl());
+        assertEquals("http://example.com:8080", corpus.get(3).getImageUrl());
+        assertSame(corpus.get(0).getWord(), corpus.get(2).getWord());
+        assertThrows(IllegalArgumentException.class, () -> new CompactCorpus.Builder().add("Bird", "invalid-url"));
+        assertThrows(UnsupportedOperationException.class, () -> corpus.add(validPair1));
+    }
+
+    @Test
+    public void testJSONPersistence_LoadsCompactCorpus(@TempDir Path directory) {
+        JSONPersistence persistence = new JSONPersistence(directory.resolve("compact.json").toString());
+        persistence.saveData(trainer);
+        persistence.setCompactCorpus(true);
+        SpellingTrainer loaded = persistence.loadData();
+        assertTrue(loaded.getWordPairs() instanceof CompactCorpus);
+        assertEquals(2, loaded.getWordPairs().size());
+        assertEquals("Dog", loaded.getWordPairs().get(1).getWord());
+        assertEquals("http://example.com/dog.jpg", loaded.getWordPairs().get(1).getImageUrl());
+        loaded.selectRandomWordPair();
+        assertTrue(loaded.guessWord(loaded.getCurrentWordPair().getWord()));
+    }
+
+    @Test
+    public void testJSONPersistence_WriteReportsStreamFailure() {
+        List<WordPicturePair> pairs = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            pairs.add(new WordPicturePair("Word" + i, "http://example.com/word" + i + ".jpg"));
+        }
+        SpellingTrainer largeTrainer = new SpellingTrainer(pairs, null);
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Disk full");
+            }
+        };
+        IOException e = assertThrows(IOException.class, () -> new JSONPersistence(testFilePath).write(largeTrainer, failing));
+        assertEquals("Disk full", e.getMessage());
+    }
+
+    // ShardedPersistenceManager Tests
+
+    @Test
+    public void testShardedPersistenceManager_IsolatesCorruptShards(@TempDir Path directory) throws IOException {
+        new JSONPersistence(directory.resolve("class-a.json").toString()).saveData(trainer);
+        new BinaryPersistence(directory.resolve("class-b.bin").toString()).saveData(trainer);
+        Files.write(directory.resolve("class-c.json"), "{\"wordPairs\": [".getBytes());
+        Files.write(directory.resolve("notes.txt"), "not a shard".getBytes());
+
+        ShardedPersistenceManager manager = new ShardedPersistenceManager(directory, 4);
+        try {
+            List<ShardedPersistenceManager.Shard> failed = manager.loadAll();
+            assertEquals(3, manager.getShards().size());
+            assertEquals(1, failed.size());
+            assertEquals("class-c.json", failed.get(0).getName());
+            assertNotNull(failed.get(0).getError());
+            assertEquals(2, manager.getTrainer("class-a.json").getWordPairs().size());
+            assertEquals(2, manager.getTrainer("class-b.bin").getWordPairs().size());
+            assertTrue(manager.getShard("class-b.bin").getLoadNanos() > 0);
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Test
+    public void testShardedPersistenceManager_SavesDirtyShards(@TempDir Path directory) throws IOException {
+        ShardedPersistenceManager manager = new ShardedPersistenceManager(directory, "*.json", 2);
+        try {
+            manager.addShard("class-a.json", trainer);
+            manager.addShard("class-b.json", new SpellingTrainer(wordPairs, null));
+            assertTrue(manager.saveDirty().isEmpty());
+            assertFalse(manager.getShard("class-a.json").isDirty());
+
+            trainer.guessWord(trainer.getCurrentWordPair().getWord());
+            manager.getShard("class-a.json").markDirty();
+            assertTrue(manager.saveDirty().isEmpty());
+            assertThrows(IllegalArgumentException.class, () -> manager.addShard("class-a.json", trainer));
+        } finally {
+            manager.close();
+        }
+
+        ShardedPersistenceManager reloaded = new ShardedPersistenceManager(directory, 2);
+        try {
+            assertTrue(reloaded.loadAll().isEmpty());
+            assertEquals(1, reloaded.getTrainer("class-a.json").getStatistics().getCorrectGuesses());
+            assertEquals(0, reloaded.getTrainer("class-b.json").getStatistics().getTotalGuesses());
+        } finally {
+            reloaded.close();
+        }
+    }
+
+    @Test
+    public void testShardedPersistenceManager_ReportsFailedSaves(@TempDir Path directory) throws IOException {
+        // The directory of the second shard is a regular file, so it can't be written
+        Files.writeString(directory.resolve("locked"), "not a directory");
+        ShardedPersistenceManager manager = new ShardedPersistenceManager(directory, 2);
+        try {
+            manager.addShard("class-a.json", trainer);
+            manager.addShard("locked/class-b.json", new SpellingTrainer(wordPairs, null));
+            List<ShardedPersistenceManager.Shard> failed = manager.saveDirty();
+            assertEquals(1, failed.size());
+            ShardedPersistenceManager.Shard shard = failed.get(0);
+            assertEquals("locked/class-b.json", shard.getName());
+            assertNotNull(shard.getError());
+            assertTrue(shard.isDirty());
+            assertFalse(manager.getShard("class-a.json").isDirty());
+            assertTrue(Files.exists(directory.resolve("class-a.json")));
+
+            // The next save retries the shard once its directory can be written
+            Files.delete(directory.resolve("locked"));
+            Files.createDirectory(directory.resolve("locked"));
+            assertTrue(manager.saveDirty().isEmpty());
+            assertNull(shard.getError());
+        } finally {
+            manager.close();
+        }
+    }
+
+    // PagedWordCorpus Tests
+
+    @Test
+    public void testPagedWordCorpus_ReadsPagesOnDemand(@TempDir Path directory) throws IOException {
+        List<WordPicturePair> pairs = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            pairs.add(new WordPicturePair("Word" + i, "http://example.com/word" + i + ".jpg"));
+        }
+        Path file = directory.resolve("paged.bin");
+        new BinaryPersistence(file.toString()).saveData(new SpellingTrainer(pairs, null));
+
+        try (PagedWordCorpus corpus = new PagedWordCorpus(file, 100, 2)) {
+            assertEquals(1000, corpus.size());
+            assertEquals("Word0", corpus.get(0).getWord());
+            assertEquals("http://example.com/word99.jpg", corpus.get(99).getImageUrl());
+            assertEquals("Word999", corpus.get(999).getWord());
+            assertEquals("Word150", corpus.get(150).getWord()); // Evicts the page of index 0
+            assertEquals(3, corpus.getMisses());
+            assertEquals(1, corpus.getHits());
+            assertEquals(1, corpus.getEvictions());
+            assertEquals(2, corpus.getCachedPages());
+            assertEquals(0.25, corpus.getHitRate());
+            assertThrows(IndexOutOfBoundsException.class, () -> corpus.get(1000));
+
+            SpellingTrainer paged = SpellingTrainer.fromCorpus(corpus, null);
+            long misses = corpus.getMisses();
+            paged.selectRandomWordPair();
+            assertTrue(corpus.getMisses() - misses <= 1); // Only one page is touched
+            assertTrue(paged.guessWord(paged.getCurrentWordPair().getWord()));
+        }
+    }
+
+    @Test
+    public void testBinaryPersistence_SavesOverLoadedFile(@TempDir Path directory) throws IOException {
+        BinaryPersistence persistence = new BinaryPersistence(directory.resolve("trainer.bin").toString());
+        persistence.setMapCopy(true);
+        persistence.saveData(trainer);
+        SpellingTrainer loaded = persistence.loadData();
+        WordPicturePair bird = new WordPicturePair("Bird", "http://example.com/bird.jpg");
+        for (int i = 0; i < 3; i++) {
+            persistence.saveData(new SpellingTrainer(List.of(bird), null));
+            assertNull(persistence.getLastSaveError());
+        }
+
+        // The loaded pairs are mapped from a copy, so replacing and deleting the files doesn't affect them
+        assertEquals("Dog", loaded.getWordPairs().get(1).getWord());
+        assertEquals("Bird", persistence.loadData().getWordPairs().get(0).getWord());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count()); // The file and one backup, no copies left
+        }
+    }
+
+    @Test
+    public void testBinaryPersistence_PageCache(@TempDir Path directory) {
+        BinaryPersistence persistence = new BinaryPersistence(directory.resolve("paged.bin").toString());
+        persistence.saveData(trainer);
+        persistence.setPageCache(1, 1);
+        SpellingTrainer loaded = persistence.loadData();
+        assertTrue(loaded.getWordPairs() instanceof WordCorpus.ListView);
+        assertEquals("Dog", loaded.getWordPairs().get(1).getWord());
+        assertThrows(IllegalArgumentException.class, () -> persistence.setPageCache(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> SpellingTrainer.fromCorpus(null, null));
+    }
+
+
+    // Metrics Tests
+
+    @Test
+    public void testLatencyHistogram_Quantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1_000);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000L, histogram.getMax());
+        // Every bucket is at most 1/16 wide, so quantiles are within about 6%
+        assertEquals(50_000_000, histogram.getValueAtQuantile(0.5), 50_000_000 / 16.0);
+        assertEquals(99_000_000, histogram.getValueAtQuantile(0.99), 99_000_000 / 16.0);
+        assertEquals(100_000_000L, histogram.getValueAtQuantile(1.0));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtQuantile(0.99));
+    }
+
+    @Test
+    public void testTrainerMetrics_DisabledRecordsNothing() {
+        TrainerMetrics metrics = new TrainerMetrics();
+        long start = metrics.startTimer();
+        assertEquals(TrainerMetrics.DISABLED, start);
+        metrics.recordGuess(start, true);
+        metrics.recordSaveFailure(start);
+        assertEquals(0, metrics.getCorrectGuesses());
+        assertEquals(0, metrics.getSaveLatency().getCount());
+    }
+
+    @Test
+    public void testTrainerMetrics_RecordsGuessesAndPersistence(@TempDir Path directory) throws Exception {
+        TrainerMetrics metrics = TrainerMetrics.getInstance();
+        metrics.reset();
+        metrics.setEnabled(true);
+        try {
+            Path file = directory.resolve("metrics.json");
+            JSONPersistence persistence = new JSONPersistence(file.toString());
+            SpellingTrainer trainer = new SpellingTrainer(wordPairs, persistence);
+            trainer.selectWordPair("Cat");
+            trainer.guessWord("Cat");
+            trainer.guessWord("Dog");
+            trainer.persistData();
+            persistence.loadData();
+
+            assertEquals(1, metrics.getCorrectGuesses());
+            assertEquals(1, metrics.getIncorrectGuesses());
+            assertEquals(2, metrics.getGuessLatency().getCount());
+            assertEquals(1, metrics.getPersistCount());
+            assertEquals(1, metrics.getSaveCount());
+            assertEquals(Files.size(file), metrics.getSavedBytes());
+            assertEquals(1, metrics.getLoadCount());
+            assertEquals(Files.size(file), metrics.getLoadedBytes());
+
+            String text = metrics.toPrometheus();
+            assertTrue(text.contains("spelling_trainer_guesses_total{result=\"correct\"} 1\n"));
+            assertTrue(text.contains("spelling_trainer_save_duration_seconds_count 1\n"));
+            assertTrue(text.contains("# TYPE spelling_trainer_load_duration_seconds summary\n"));
+
+            Path dump = directory.resolve("trainer.prom");
+            metrics.writeTo(dump);
+            assertEquals(text, Files.readString(dump));
+        } finally {
+            metrics.setEnabled(false);
+            metrics.reset();
+        }
+    }
+
+    @Test
+    public void testTrainerMetrics_MBean() throws Exception {
+        TrainerMetrics metrics = TrainerMetrics.getInstance();
+        metrics.registerMBean();
+        metrics.registerMBean(); // Registering twice is harmless
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(TrainerMetrics.OBJECT_NAME);
+        assertEquals(false, server.getAttribute(name, "Enabled"));
+        assertEquals(0L, server.getAttribute(name, "SaveFailures"));
+    }
+
+
+    // Word Statistics Tests
+
+    @Test
+    public void testWordStatistics_CountsAndHardestWords() {
+        WordStatistics statistics = new WordStatistics();
+        statistics.record("Cat", true, 0);
+        statistics.record("Dog", false, 0);
+        statistics.record("Dog", false, 0);
+        statistics.record("Bird", false, 0);
+        statistics.record("Bird", true, 0);
+
+        assertEquals(1, statistics.getCorrectGuesses("Cat"));
+        assertEquals(2, statistics.getIncorrectGuesses("Dog"));
+        assertEquals(0, statistics.getIncorrectGuesses("Fish"));
+        assertEquals(List.of("Dog", "Bird", "Cat"), statistics.getHardestWords(5));
+        assertEquals(List.of("Dog"), statistics.getHardestWords(1));
+    }
+
+    @Test
+    public void testWordStatistics_HeapMatchesSorting() {
+        WordStatistics statistics = new WordStatistics();
+        Random random = new Random(42);
+        Map<String, int[]> counts = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            String word = "Word" + random.nextInt(500);
+            boolean correct = random.nextInt(100) < 20 + word.length() * 7 + (word.hashCode() & 31);
+            statistics.record(word, correct, i);
+            counts.computeIfAbsent(word, key -> new int[2])[correct ? 0 : 1]++;
+        }
+        List<String> expected = new ArrayList<>(counts.keySet());
+        // Same order as the heap: smoothed error rate, then incorrect guesses; ties are broken by first guess
+        expected.sort((a, b) -> {
+            int[] x = counts.get(a);
+            int[] y = counts.get(b);
+            int byRate = Long.compare((y[1] + 1L) * (x[0] + x[1] + 2L), (x[1] + 1L) * (y[0] + y[1] + 2L));
+            return byRate != 0 ? byRate : Integer.compare(y[1], x[1]);
+        });
+        List<String> hardest = statistics.getHardestWords(20);
+        for (int i = 0; i < hardest.size(); i++) {
+            int[] actual = counts.get(hardest.get(i));
+            int[] wanted = counts.get(expected.get(i));
+            assertEquals(wanted[1] + "/" + wanted[0], actual[1] + "/" + actual[0], "Rank " + i);
+        }
+    }
+
+    @Test
+    public void testWordStatistics_TopWordsMatchHeapSearch() {
+        WordStatistics statistics = new WordStatistics();
+        Random random = new Random(11);
+        for (int i = 0; i < 20_000; i++) {
+            String word = "Word" + random.nextInt(i < 2_000 ? 20 : 300);
+            boolean correct = random.nextInt(100) < 30 + (word.hashCode() & 63);
+            if (i % 7 == 0) {
+                statistics.unrecord(word, correct, i);
+            } else {
+                statistics.record(word, correct, i);
+            }
+            if (i % 50 == 0) {
+                List<String> searched = statistics.getHardestWords(WordStatistics.TOP_WORDS + 1);
+                int count = Math.min(WordStatistics.TOP_WORDS, searched.size());
+                assertEquals(searched.subList(0, count), statistics.getHardestWords(WordStatistics.TOP_WORDS), "Guess " + i);
+            }
+        }
+        assertEquals(5, statistics.getHardestWords(5).size());
+    }
+
+    @Test
+    public void testWordStatistics_TimeBuckets() {
+        WordStatistics statistics = new WordStatistics();
+        long minute = WordStatistics.Window.MINUTES.getBucketMillis();
+        statistics.record("Cat", true, 10 * minute);
+        statistics.record("Cat", false, 10 * minute + 5);
+        statistics.record("Dog", true, 12 * minute);
+        statistics.record("Dog", true, 70 * minute); // Reuses the slot of minute 10
+
+        int[] correct = statistics.getCorrectHistory(WordStatistics.Window.MINUTES, 12 * minute);
+        int[] incorrect = statistics.getIncorrectHistory(WordStatistics.Window.MINUTES, 12 * minute);
+        assertEquals(60, correct.length);
+        assertEquals(0, correct[57]); // Minute 10 was overwritten by minute 70
+        assertEquals(0, incorrect[57]);
+        assertEquals(1, correct[59]);
+
+        correct = statistics.getCorrectHistory(WordStatistics.Window.MINUTES, 70 * minute);
+        assertEquals(1, correct[59]);
+        assertEquals(1, correct[1]); // Minute 12 is still within the last hour
+        assertEquals(2, Arrays.stream(correct).sum());
+
+        int[] hoursCorrect = statistics.getCorrectHistory(WordStatistics.Window.HOURS, 70 * minute);
+        int[] hoursIncorrect = statistics.getIncorrectHistory(WordStatistics.Window.HOURS, 70 * minute);
+        assertEquals(1, hoursCorrect[23]);
+        assertEquals(2, hoursCorrect[22]);
+        assertEquals(1, hoursIncorrect[22]);
+    }
+
+    @Test
+    public void testWordStatistics_ArePersisted(@TempDir Path directory) {
+        trainer.selectWordPair("Dog");
+        trainer.guessWord("Dgo");
+        trainer.guessWord("Dog");
+        trainer.selectWordPair("Cat");
+        trainer.guessWord("Cat");
+
+        for (PersistenceStrategy<SpellingTrainer> persistence : List.<PersistenceStrategy<SpellingTrainer>>of(
+                new JSONPersistence(directory.resolve("trainer.json").toString()),
+                new BinaryPersistence(directory.resolve("trainer.bin").toString()))) {
+            persistence.saveData(trainer);
+            WordStatistics loaded = persistence.loadData().getWordStatistics();
+            assertEquals(1, loaded.getIncorrectGuesses("Dog"));
+            assertEquals(1, loaded.getCorrectGuesses("Dog"));
+            assertEquals(1, loaded.getCorrectGuesses("Cat"));
+            assertEquals(List.of("Dog", "Cat"), loaded.getHardestWords(2));
+            long now = System.currentTimeMillis();
+            assertArrayEquals(trainer.getWordStatistics().getCorrectHistory(WordStatistics.Window.DAYS, now),
+                    loaded.getCorrectHistory(WordStatistics.Window.DAYS, now));
+        }
+    }
+
+
+    // UI Responsiveness Tests
+
+    @Test
+    public void testEdtWatchdog_DetectsBlockedEdt() throws Exception {
+        EdtWatchdog watchdog = new EdtWatchdog(5, 100);
+        watchdog.start();
+        try {
+            while (watchdog.getLatency().getCount() == 0) {
+                Thread.sleep(5);
+            }
+            SwingUtilities.invokeAndWait(() -> {
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            Thread.sleep(50); // Let the blocked probe be answered
+        } finally {
+            watchdog.stop();
+        }
+        assertTrue(watchdog.getStalls() >= 1);
+        assertTrue(watchdog.getMaxLatencyMillis() >= 200);
+        assertTrue(Arrays.stream(watchdog.getLastStallTrace())
+                .anyMatch(element -> element.getMethodName().contains("testEdtWatchdog_DetectsBlockedEdt")));
+    }
+
+    @Test
+    public void testSpellingTrainerUI_DoesNotBlockEdt(@TempDir Path directory) throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = startImageServer(requests);
+        // Slow downloads: answered after 500 ms with a redirect to the image
+        server.createContext("/slow/", exchange -> {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Location", exchange.getRequestURI().getPath().replace("/slow/", "/images/"));
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+        });
+        String base = "http://127.0.0.1:" + server.getAddress().getPort() + "/slow/";
+        AtomicInteger saves = new AtomicInteger();
+        // Slow disk: every save takes 500 ms
+        PersistenceStrategy<SpellingTrainer> slowPersistence = new PersistenceStrategy<>() {
+            @Override
+            public void saveData(SpellingTrainer object) {
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                saves.incrementAndGet();
+            }
+
+            @Override
+            public SpellingTrainer loadData() {
+                return null;
+            }
+        };
+        SpellingTrainer slowTrainer = new SpellingTrainer(List.of(
+                new WordPicturePair("Cat", base + "cat.png"), new WordPicturePair("Dog", base + "dog.png")), slowPersistence);
+
+        EdtWatchdog watchdog = new EdtWatchdog(5, 250);
+        watchdog.start();
+        SpellingTrainerUI[] ui = new SpellingTrainerUI[1];
+        try {
+            while (watchdog.getLatency().getCount() == 0) {
+                Thread.sleep(5); // The first probe starts the EDT
+            }
+            SwingUtilities.invokeAndWait(() -> ui[0] = new SpellingTrainerUI(slowTrainer, new ImageLoader(directory, 10 * 1024 * 1024)));
+            SwingUtilities.invokeAndWait(() -> {
+                assertEquals("Loading image...", ui[0].getImageLabel().getText());
+                ui[0].getGuessField().setText("Wrong");
+                ui[0].getGuessField().postActionEvent();
+                assertEquals("Incorrect. Try again!", ui[0].getResultLabel().getText());
+                ui[0].getGuessField().setText(slowTrainer.getCurrentWordPair().getWord());
+                ui[0].getGuessButton().doClick(0);
+                assertEquals("Correct! Well done!", ui[0].getResultLabel().getText());
+                assertTrue(ui[0].getStatisticsLabel().getText().contains("Correct: 1"));
+                assertTrue(ui[0].getStatisticsLabel().getText().contains("Incorrect: 1"));
+            });
+            long deadline = System.currentTimeMillis() + 10_000;
+            while ((saves.get() < 2 || ui[0].getImageLabel().getIcon() == null) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(2, saves.get());
+            assertNotNull(ui[0].getImageLabel().getIcon());
+
+            CompletableFuture<Void> exited = new CompletableFuture<>();
+            SwingUtilities.invokeAndWait(() -> ui[0].exitTrainer().whenComplete((ignored, error) -> exited.complete(null)));
+            exited.get(10, TimeUnit.SECONDS);
+            assertEquals(3, saves.get());
+        } finally {
+            watchdog.stop();
+            server.stop(0);
+        }
+        assertEquals(0, watchdog.getStalls(), "EDT was blocked");
+        assertTrue(watchdog.getMaxLatencyMillis() < 250);
+    }
+
+    // TrainerHttpServer Tests
+
+    @Test
+    public void testTrainerHttpServer_Endpoints(@TempDir Path directory) throws Exception {
+        JSONPersistence persistence = new JSONPersistence(directory.resolve("trainer.json").toString());
+        TrainerHttpServer server = new TrainerHttpServer(trainer, persistence, new InetSocketAddress("127.0.0.1", 0));
+        server.start();
+        HttpClient client = HttpClient.newHttpClient();
+        String base = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/";
+        try {
+            HttpResponse<String> created = client.send(HttpRequest.newBuilder(URI.create(base + "session"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, created.statusCode());
+            String session = JsonParser.parseString(created.body()).getAsJsonObject().get("session").getAsString();
+            assertEquals(404, client.send(HttpRequest.newBuilder(URI.create(base + "word?session=unknown")).build(),
+                    HttpResponse.BodyHandlers.ofString()).statusCode());
+            HttpResponse<String> word = client.send(HttpRequest.newBuilder(URI.create(base + "word?session=" + session)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, word.statusCode());
+            String imageUrl = JsonParser.parseString(word.body()).getAsJsonObject().get("imageUrl").getAsString();
+            String answer = imageUrl.equals(validPair1.getImageUrl()) ? validPair1.getWord() : validPair2.getWord();
+
+            JsonObject correct = JsonParser.parseString(client.send(HttpRequest.newBuilder(URI.create(base + "guess?session=" + session))
+                    .POST(HttpRequest.BodyPublishers.ofString(answer)).build(), HttpResponse.BodyHandlers.ofString()).body()).getAsJsonObject();
+            assertTrue(correct.get("correct").getAsBoolean());
+            JsonObject incorrect = JsonParser.parseString(client.send(HttpRequest.newBuilder(URI.create(base + "guess?session=" + session + "&guess=Wrong"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString()).body()).getAsJsonObject();
+            assertFalse(incorrect.get("correct").getAsBoolean());
+
+            JsonObject sessionStats = JsonParser.parseString(client.send(HttpRequest.newBuilder(URI.create(base + "stats?session=" + session)).build(),
+                    HttpResponse.BodyHandlers.ofString()).body()).getAsJsonObject();
+            assertEquals(1, sessionStats.get("correctGuesses").getAsInt());
+            assertEquals(1, sessionStats.get("incorrectGuesses").getAsInt());
+            JsonObject aggregate = JsonParser.parseString(client.send(HttpRequest.newBuilder(URI.create(base + "stats")).build(),
+                    HttpResponse.BodyHandlers.ofString()).body()).getAsJsonObject();
+            assertEquals(2, aggregate.get("totalGuesses").getAsInt());
+            assertEquals(1, aggregate.get("sessions").getAsInt());
+
+            assertEquals(400, client.send(HttpRequest.newBuilder(URI.create(base + "word")).build(),
+                    HttpResponse.BodyHandlers.ofString()).statusCode());
+            assertEquals(405, client.send(HttpRequest.newBuilder(URI.create(base + "guess?session=" + session)).build(),
+                    HttpResponse.BodyHandlers.ofString()).statusCode());
+            assertEquals(404, client.send(HttpRequest.newBuilder(URI.create(base + "unknown")).build(),
+                    HttpResponse.BodyHandlers.ofString()).statusCode());
+        } finally {
+            server.stop();
+        }
+
+        SpellingTrainer saved = persistence.loadData();
+        assertEquals(1, saved.getStatistics().getCorrectGuesses());
+        assertEquals(1, saved.getStatistics().getIncorrectGuesses());
+        assertEquals(2, saved.getWordPairs().size());
+    }
+
+    @Test
+    public void testTrainerHttpServer_SaturatedStatistics() {
+        Statistics small = TrainerHttpServer.saturatedStatistics(3, 1);
+        assertEquals(3, small.getCorrectGuesses());
+        assertEquals(4, small.getTotalGuesses());
+
+        Statistics large = TrainerHttpServer.saturatedStatistics(3_000_000_000L, 1_000_000_000L);
+        assertEquals(Integer.MAX_VALUE, large.getTotalGuesses());
+        assertEquals(large.getTotalGuesses(), large.getCorrectGuesses() + large.getIncorrectGuesses());
+        assertEquals(75.0, large.getAccuracy(), 0.001);
+        assertNull(SpellingTrainerAdapter.validate(new SpellingTrainer(wordPairs, validPair1, large, null, new WordStatistics())));
+    }
+
+    // CompressedPersistence Tests
+
+    @Test
+    public void testCompressedPersistence_RoundTripsEveryCodec(@TempDir Path directory) {
+        trainer.guessWord("Wrong");
+        for (CompressedPersistence.Codec codec : CompressedPersistence.Codec.values()) {
+            String file = directory.resolve("trainer-" + codec).toString();
+            CompressedPersistence persistence = new CompressedPersistence(file, new JSONPersistence(file), codec);
+            persistence.saveData(trainer);
+            SpellingTrainer loaded = persistence.loadData();
+            assertNotNull(loaded, codec.toString());
+            assertEquals(trainer.getWordPairs().size(), loaded.getWordPairs().size());
+            assertEquals(validPair2.getImageUrl(), loaded.getWordPairs().get(1).getImageUrl());
+            assertEquals(1, loaded.getStatistics().getIncorrectGuesses());
+        }
+    }
+
+    @Test
+    public void testCompressedPersistence_DetectsCodecOnLoad(@TempDir Path directory) throws IOException {
+        String file = directory.resolve("trainer").toString();
+        new CompressedPersistence(file, new JSONPersistence(file), CompressedPersistence.Codec.GZIP).saveData(trainer);
+        byte[] header = Files.readAllBytes(Path.of(file));
+        assertEquals((byte) 0x1f, header[0]);
+        assertEquals((byte) 0x8b, header[1]);
+        // A strategy configured for another codec still reads the GZIP file, and a plain JSON file
+        CompressedPersistence deflate = new CompressedPersistence(file, new JSONPersistence(file), CompressedPersistence.Codec.DEFLATE);
+        assertEquals(2, deflate.loadData().getWordPairs().size());
+        new JSONPersistence(file).saveData(trainer);
+        assertEquals(2, deflate.loadData().getWordPairs().size());
+    }
+
+    @Test
+    public void testCompressedPersistence_DictionaryShrinksRepeatedUrls(@TempDir Path directory) throws IOException {
+        List<WordPicturePair> pairs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            pairs.add(new WordPicturePair("Word" + i, "https://images.example.com/pictures/animals/word" + i + ".jpg"));
+        }
+        SpellingTrainer large = new SpellingTrainer(pairs, null);
+        long[] sizes = new long[3];
+        for (CompressedPersistence.Codec codec : CompressedPersistence.Codec.values()) {
+            String file = directory.resolve("trainer-" + codec).toString();
+            new CompressedPersistence(file, new JSONPersistence(file), codec).saveData(large);
+            sizes[codec.ordinal()] = Files.size(Path.of(file));
+        }
+        assertTrue(sizes[1] < sizes[0]);
+        assertTrue(sizes[2] < sizes[1], Arrays.toString(sizes));
+        byte[] dictionary = CompressedPersistence.buildDictionary(pairs);
+        assertTrue(dictionary.length <= CompressedPersistence.MAX_DICTIONARY_SIZE);
+        assertTrue(new String(dictionary, StandardCharsets.UTF_8).endsWith("https://images.example.com/pictures/animals/"));
+    }
+
+    // DeltaSnapshotPersistence Tests
+
+    @Test
+    public void testDeltaSnapshot_WritesCorpusOnce(@TempDir Path directory) throws IOException {
+        DeltaSnapshotPersistence persistence = new DeltaSnapshotPersistence(directory.resolve("trainer.json").toString());
+        persistence.setBackupCount(0);
+        persistence.saveData(trainer);
+        Path corpora = directory.resolve(DeltaSnapshotPersistence.CORPUS_DIRECTORY);
+        List<Path> blobs;
+        try (Stream<Path> files = Files.list(corpora)) {
+            blobs = files.toList();
+        }
+        assertEquals(1, blobs.size());
+        Files.setLastModifiedTime(blobs.get(0), FileTime.fromMillis(0));
+
+        trainer.guessWord("Wrong");
+        persistence.saveData(trainer);
+        assertEquals(0, Files.getLastModifiedTime(blobs.get(0)).toMillis()); // Not rewritten
+        String session = Files.readString(directory.resolve("trainer.json"));
+        assertFalse(session.contains("wordPairs"));
+
+        SpellingTrainer loaded = new DeltaSnapshotPersistence(directory.resolve("trainer.json").toString()).loadData();
+        assertNotNull(loaded);
+        assertEquals(2, loaded.getWordPairs().size());
+        assertEquals(validPair2.getImageUrl(), loaded.getWordPairs().get(1).getImageUrl());
+        assertEquals(trainer.getCurrentWordPair().getWord(), loaded.getCurrentWordPair().getWord());
+        assertEquals(1, loaded.getStatistics().getIncorrectGuesses());
+        assertEquals(Boolean.FALSE, loaded.getLastResult());
+    }
+
+    @Test
+    public void testDeltaSnapshot_SharesCorpusBetweenTrainers(@TempDir Path directory) throws IOException {
+        new DeltaSnapshotPersistence(directory.resolve("alice.json").toString()).saveData(trainer);
+        new DeltaSnapshotPersistence(directory.resolve("bob.json").toString()).saveData(new SpellingTrainer(new ArrayList<>(wordPairs), null));
+        try (Stream<Path> files = Files.list(directory.resolve(DeltaSnapshotPersistence.CORPUS_DIRECTORY))) {
+            assertEquals(1, files.count());
+        }
+        SpellingTrainer alice = new DeltaSnapshotPersistence(directory.resolve("alice.json").toString()).loadData();
+        SpellingTrainer bob = new DeltaSnapshotPersistence(directory.resolve("bob.json").toString()).loadData();
+        assertSame(alice.getWordPairs(), bob.getWordPairs());
+        assertThrows(UnsupportedOperationException.class, () -> alice.getWordPairs().add(validPair1));
+    }
+
+    @Test
+    public void testDeltaSnapshot_ChangedCallerListIsSavedAgain(@TempDir Path directory) {
+        DeltaSnapshotPersistence persistence = new DeltaSnapshotPersistence(directory.resolve("trainer.json").toString());
+        List<WordPicturePair> pairs = new ArrayList<>(wordPairs);
+        SpellingTrainer deltaTrainer = new SpellingTrainer(pairs, persistence);
+        persistence.saveData(deltaTrainer);
+
+        pairs.add(new WordPicturePair("Bird", "http://example.com/bird.jpg"));
+        assertEquals(2, deltaTrainer.getWordPairs().size()); // The trainer copied the list
+        deltaTrainer.setWordPairs(pairs);
+        persistence.saveData(deltaTrainer);
+        pairs.clear();
+        assertEquals(3, deltaTrainer.getWordPairs().size());
+        assertEquals(3, persistence.loadData().getWordPairs().size());
+    }
+
+    @Test
+    public void testDeltaSnapshot_RejectsCorruptCorpus(@TempDir Path directory) throws IOException {
+        String file = directory.resolve("trainer.json").toString();
+        new DeltaSnapshotPersistence(file).saveData(new SpellingTrainer(
+                List.of(new WordPicturePair("Unique", "http://example.com/unique-corrupt.jpg")), null));
+        System.gc(); // Let the shared cache drop the corpus, so it is read from disk
+        try (Stream<Path> files = Files.list(directory.resolve(DeltaSnapshotPersistence.CORPUS_DIRECTORY))) {
+            Path blob = files.findFirst().orElseThrow();
+            Files.writeString(blob, Files.readString(blob).replace("Unique", "Uniqve"));
+        }
+        assertNull(new DeltaSnapshotPersistence(file).loadData());
+    }
+
+    // Startup Tests
+
+    @Test
+    public void testSpellingTrainerUI_LoadTrainerFallsBackToExamplePairs(@TempDir Path directory) {
+        JSONPersistence persistence = new JSONPersistence(directory.resolve("missing.json").toString());
+        SpellingTrainer created = SpellingTrainerUI.loadTrainer(persistence);
+        assertEquals(3, created.getWordPairs().size());
+        assertNotNull(created.getCurrentWordPair());
+
+        persistence.saveData(trainer);
+        SpellingTrainer loaded = SpellingTrainerUI.loadTrainer(persistence);
+        assertEquals(2, loaded.getWordPairs().size());
+    }
+
+    // GuessHistory Tests
+
+    @Test
+    public void testSpellingTrainer_UndoAndRedoGuesses() {
+        trainer.selectWordPair("Cat");
+        trainer.guessWord("Cat");
+        trainer.guessWord("Kat");
+        assertEquals(2, trainer.getStatistics().getTotalGuesses());
+
+        assertTrue(trainer.undoGuess());
+        assertEquals(1, trainer.getStatistics().getCorrectGuesses());
+        assertEquals(0, trainer.getStatistics().getIncorrectGuesses());
+        assertNull(trainer.getLastResult());
+        assertTrue(trainer.undoGuess());
+        assertFalse(trainer.undoGuess());
+        assertEquals(0, trainer.getStatistics().getTotalGuesses());
+
+        assertTrue(trainer.redoGuess());
+        assertEquals(Boolean.TRUE, trainer.getLastResult());
+        assertEquals(1, trainer.getStatistics().getCorrectGuesses());
+        // A new guess drops the guess that could still be redone
+        trainer.guessWord("Dog");
+        assertFalse(trainer.redoGuess());
+        assertEquals(2, trainer.getGuessHistory().size());
+        assertEquals("Dog", trainer.getGuessHistory().getGuess(1));
+        assertEquals(0, trainer.getGuessHistory().getWordIndex(1));
+    }
+
+    @Test
+    public void testGuessHistory_KeepsNewestGuessesWhenFull() {
+        GuessHistory history = new GuessHistory(3);
+        for (int i = 0; i < 5; i++) {
+            history.record(i, validPair1, "Guess" + i, 1000 + i, i % 2 == 0);
+        }
+        assertEquals(3, history.size());
+        assertEquals(2, history.getWordIndex(0));
+        assertSame(validPair1, history.getWordPair(0));
+        assertEquals("Guess4", history.getGuess(2));
+        assertEquals(1003, history.getTimestamp(1));
+        assertTrue(history.isCorrect(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> history.getGuess(3));
+        assertThrows(IllegalArgumentException.class, () -> new GuessHistory(0));
+    }
+
+    @Test
+    public void testGuessHistory_ReplaysIntoFreshTrainer() {
+        Random random = new Random(7);
+        for (int i = 0; i < 20; i++) {
+            trainer.selectWordPair(random.nextBoolean() ? "Cat" : "Dog");
+            trainer.guessWord(random.nextBoolean() ? "Cat" : "Dog");
+        }
+        trainer.undoGuess();
+        SpellingTrainer replayed = new SpellingTrainer(wordPairs, null);
+        trainer.getGuessHistory().replay(replayed);
+        assertEquals(trainer.getStatistics().getCorrectGuesses(), replayed.getStatistics().getCorrectGuesses());
+        assertEquals(trainer.getStatistics().getIncorrectGuesses(), replayed.getStatistics().getIncorrectGuesses());
+        assertEquals(19, replayed.getGuessHistory().size());
+        assertEquals(trainer.getGuessHistory().getTimestamp(18), replayed.getGuessHistory().getTimestamp(18));
+    }
+
+    @Test
+    public void testGuessHistory_ClearEndsJournal() {
+        GuessHistory history = new GuessHistory(8);
+        history.record(0, validPair1, "Cat", 1000, true);
+        history.record(1, validPair2, "Dgo", 2000, false);
+        long version = history.getVersion();
+        history.clear();
+        assertEquals(0, history.size());
+        assertEquals(0, history.getRedoCount());
+        assertEquals(version + 1, history.getVersion());
+        assertNull(history.changesSince(0, history.getVersion())); // A save from before has to write a snapshot
+
+        history.record(1, validPair2, "Dog", 3000, true);
+        assertEquals(1, history.changesSince(version + 1, history.getVersion()).size());
+        assertEquals(1, history.getWordIndex(0));
+    }
+
+
+    // CorpusWatcher Tests
+
+    @Test
+    public void testSpellingTrainer_SetWordPairsKeepsCurrentPairAndStatistics() {
+        trainer.selectWordPair("Cat");
+        trainer.guessWord("Cat");
+        WordPicturePair bird = new WordPicturePair("Bird", "http://example.com/bird.jpg");
+        trainer.setWordPairs(Arrays.asList(bird, validPair1));
+        // The current pair stays until the next selection, which uses the new pairs
+        assertEquals("Cat", trainer.getCurrentWordPair().getWord());
+        assertTrue(trainer.guessWord("Cat"));
+        assertEquals(2, trainer.getWordStatistics().getCorrectGuesses("Cat"));
+        assertFalse(trainer.selectWordPair("Dog"));
+        for (int i = 0; i < 20; i++) {
+            trainer.selectRandomWordPair();
+            assertNotEquals("Dog", trainer.getCurrentWordPair().getWord());
+        }
+        assertThrows(IllegalArgumentException.class, () -> trainer.setWordPairs(new ArrayList<>()));
+    }
+
+    @Test
+    public void testWeightedWordSelector_KeepsHistoryOfRemainingWords() {
+        WeightedWordSelector selector = new WeightedWordSelector(WeightedWordSelector.Weighting.LEITNER);
+        trainer.setWordSelector(selector);
+        trainer.selectRandomWordPair();
+        trainer.selectWordPair("Dog");
+        trainer.guessWord("Dog");
+        double dogWeight = selector.getWeight(1);
+        WordPicturePair bird = new WordPicturePair("Bird", "http://example.com/bird.jpg");
+        trainer.setWordPairs(Arrays.asList(bird, validPair2, validPair1));
+        trainer.selectRandomWordPair();
+        assertEquals(dogWeight, selector.getWeight(1));
+        assertEquals(selector.getWeight(0), selector.getWeight(2));
+        assertTrue(dogWeight < selector.getWeight(0));
+    }
+
+    @Test
+    public void testSpellingTrainer_RemapsIndexesAcrossSeveralReloads() {
+        WeightedWordSelector selector = new WeightedWordSelector(WeightedWordSelector.Weighting.LEITNER);
+        trainer.setWordSelector(selector);
+        trainer.selectRandomWordPair();
+        trainer.selectWordPair("Dog");
+        trainer.guessWord("Dog");
+        double dogWeight = selector.getWeight(1);
+        WordPicturePair bird = new WordPicturePair("Bird", "http://example.com/bird.jpg");
+        // Two reloads before the next selection: Dog is missing in the first and moves in the second
+        trainer.setWordPairs(Arrays.asList(bird, validPair1));
+        trainer.setWordPairs(Arrays.asList(bird, validPair1, validPair2));
+        trainer.selectRandomWordPair();
+        assertEquals(dogWeight, selector.getWeight(2));
+        assertEquals(selector.getWeight(0), selector.getWeight(1));
+
+        // The guess history points at Dog's new index, so undoing it doesn't touch Cat
+        assertEquals(2, trainer.getGuessHistory().getWordIndex(0));
+        assertTrue(trainer.undoGuess());
+        assertEquals(selector.getWeight(0), selector.getWeight(2));
+        assertEquals(selector.getWeight(0), selector.getWeight(1));
+    }
+
+    @Test
+    public void testCorpusWatcher_ReloadsEditedFile(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("words.csv");
+        Files.writeString(file, "Cat,http://example.com/cat.jpg\n");
+        trainer.selectWordPair("Cat");
+        trainer.guessWord("Cat");
+        CorpusWatcher watcher = new CorpusWatcher(file, trainer);
+        assertTrue(watcher.reload());
+        assertEquals(1, trainer.getWordPairs().size());
+
+        CountDownLatch reloaded = new CountDownLatch(1);
+        watcher.setListener(result -> reloaded.countDown());
+        watcher.start();
+        try {
+            Files.writeString(file, "Cat,http://example.com/cat.jpg\nBird,http://example.com/bird.jpg\n");
+            // Some watch services poll the file system, which can take several seconds
+            assertTrue(reloaded.await(30, TimeUnit.SECONDS));
+        } finally {
+            watcher.stop();
+        }
+        assertEquals(2, trainer.getWordPairs().size());
+        assertEquals("Bird", trainer.getWordPairs().get(1).getWord());
+        assertEquals(2, watcher.getReloads());
+        assertEquals(1, trainer.getWordStatistics().getCorrectGuesses("Cat"));
+
+        // A file without valid rows keeps the word pairs
+        Files.writeString(file, "Fish\n");
+        assertFalse(watcher.reload());
+        assertEquals(2, trainer.getWordPairs().size());
+    }
+
+
+    @Test
+    public void testGuessHistory_GuessAfterLoadDoesNotReadCorpus() {
+        AtomicInteger reads = new AtomicInteger();
+        List<WordPicturePair> corpus = new AbstractList<WordPicturePair>() {
+            @Override
+            public WordPicturePair get(int index) {
+                reads.incrementAndGet();
+                return wordPairs.get(index);
+            }
+
+            @Override
+            public int size() {
+                return wordPairs.size();
+            }
+        };
+        SpellingTrainer loaded = new SpellingTrainer(corpus, validPair2, new Statistics(), null);
+        assertTrue(loaded.guessWord("Dog"));
+        assertEquals(0, reads.get());
+        assertEquals(-1, loaded.getGuessHistory().getWordIndex(0));
+        assertSame(validPair2, loaded.getGuessHistory().getWordPair(0));
+
+        SpellingTrainer replayed = new SpellingTrainer(wordPairs, null);
+        loaded.getGuessHistory().replay(replayed);
+        assertEquals(1, replayed.getStatistics().getCorrectGuesses());
+        assertEquals(1, replayed.getWordStatistics().getCorrectGuesses("Dog"));
+    }
+
+
+    @Test
+    public void testGuessHistory_UndoRestoresWordStatisticsAndSelector() {
+        WeightedWordSelector selector = new WeightedWordSelector(WeightedWordSelector.Weighting.DIFFICULTY);
+        trainer.setWordSelector(selector);
+        trainer.selectRandomWordPair();
+        trainer.selectWordPair("Cat");
+        trainer.guessWord("Cat");
+        double dogWeight = selector.getWeight(1);
+        trainer.selectWordPair("Dog");
+        trainer.guessWord("Dgo");
+        assertEquals(List.of("Dog", "Cat"), trainer.getWordStatistics().getHardestWords(3));
+
+        assertTrue(trainer.undoGuess());
+        assertEquals(0, trainer.getWordStatistics().getIncorrectGuesses("Dog"));
+        assertEquals(List.of("Cat"), trainer.getWordStatistics().getHardestWords(3));
+        assertEquals(dogWeight, selector.getWeight(1), 1e-9);
+        int[] incorrect = trainer.getWordStatistics().getIncorrectHistory(WordStatistics.Window.DAYS, System.currentTimeMillis());
+        assertEquals(0, Arrays.stream(incorrect).sum());
+
+        assertTrue(trainer.redoGuess());
+        assertEquals(1, trainer.getWordStatistics().getIncorrectGuesses("Dog"));
+        assertEquals(List.of("Dog", "Cat"), trainer.getWordStatistics().getHardestWords(3));
+        assertTrue(selector.getWeight(1) > dogWeight);
+    }
+
+    @Test
+    public void testWordStatistics_UnrecordMatchesCounts() {
+        WordStatistics statistics = new WordStatistics();
+        Random random = new Random(3);
+        List<Object[]> guesses = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            String word = "Word" + random.nextInt(200);
+            boolean correct = random.nextBoolean();
+            statistics.record(word, correct, i);
+            guesses.add(new Object[] {word, correct});
+        }
+        Map<String, int[]> counts = new HashMap<>();
+        for (int i = 0; i < guesses.size(); i++) {
+            String word = (String) guesses.get(i)[0];
+            boolean correct = (Boolean) guesses.get(i)[1];
+            if (i % 3 == 0 || word.endsWith("7")) {
+                statistics.unrecord(word, correct, i);
+            } else {
+                counts.computeIfAbsent(word, key -> new int[2])[correct ? 0 : 1]++;
+            }
+        }
+        assertEquals(counts.size(), statistics.getWordCount());
+        assertEquals(0, statistics.getCorrectGuesses("Word7"));
+        for (Map.Entry<String, int[]> entry : counts.entrySet()) {
+            assertEquals(entry.getValue()[0], statistics.getCorrectGuesses(entry.getKey()));
+            assertEquals(entry.getValue()[1], statistics.getIncorrectGuesses(entry.getKey()));
+        }
+        List<String> hardest = statistics.getHardestWords(counts.size());
+        assertEquals(counts.size(), hardest.size());
+        for (int i = 1; i < hardest.size(); i++) {
+            int[] x = counts.get(hardest.get(i - 1));
+            int[] y = counts.get(hardest.get(i));
+            assertTrue((x[1] + 1L) * (y[0] + y[1] + 2L) >= (y[1] + 1L) * (x[0] + x[1] + 2L), "Rank " + i);
+        }
+    }
 }